@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2015 IBM Corporation and others.
+ * Copyright (c) 2000, 2022 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -29,6 +29,7 @@ import com.sun.jdi.InvalidTypeException;
 import com.sun.jdi.InvocationException;
 import com.sun.jdi.Method;
 import com.sun.jdi.ObjectReference;
+import com.sun.jdi.ReferenceType;
 import com.sun.jdi.StringReference;
 import com.sun.jdi.ThreadReference;
 import com.sun.jdi.Value;
@@ -366,6 +367,25 @@ public class ClassTypeTest extends AbstractJDITest {
 			assertEquals("2 " + sub.name(), fType, sub.superclass());
 		}
 	}
+	/**
+	 * Test JDI subclasses() of a class with many subclasses, asked twice.
+	 */
+	public void testJDISubclassesOfObject() {
+		ClassType object = getClass("java.lang.Object");
+		List<ClassType> expected = new ArrayList<>();
+		Iterator<ReferenceType> iterator = fVM.allClasses().iterator();
+		while (iterator.hasNext()) {
+			ReferenceType type = iterator.next();
+			if (type instanceof ClassType && object.equals(((ClassType) type).superclass())) {
+				expected.add((ClassType) type);
+			}
+		}
+		for (int i = 0; i < 2; i++) {
+			List<ClassType> subclasses = object.subclasses();
+			assertEquals("1." + i, expected.size(), subclasses.size());
+			assertTrue("2." + i, subclasses.containsAll(expected));
+		}
+	}
 	/**
 	 * Test JDI superclass() and JDWP 'Class - Get superclass'.
 	 */
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2011 IBM Corporation and others.
+ * Copyright (c) 2000, 2022 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -13,6 +13,12 @@
  *******************************************************************************/
 package org.eclipse.debug.jdi.tests;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import org.eclipse.jdi.internal.StringReferenceImpl;
+
 import com.sun.jdi.StringReference;
 
 /**
@@ -58,4 +64,17 @@ public class StringReferenceTest extends AbstractJDITest {
 		String value = fString.value();
 		assertEquals("1", "Hello World", value);
 	}
+	/**
+	 * Test JDWP 'String - Get value' with many requests pending at the same time.
+	 */
+	public void testJDIValueAsync() {
+		StringReferenceImpl string = (StringReferenceImpl) fString;
+		List<CompletableFuture<String>> values = new ArrayList<>();
+		for (int i = 0; i < 20; i++) {
+			values.add(string.valueAsync());
+		}
+		for (CompletableFuture<String> value : values) {
+			assertEquals("1", "Hello World", value.join());
+		}
+	}
 }
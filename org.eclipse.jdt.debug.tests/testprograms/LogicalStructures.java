@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2008 IBM Corporation and others.
+ * Copyright (c) 2008, 2022 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -32,6 +32,12 @@ public class LogicalStructures {
 		Set<Entry<String, Integer>> set = map.entrySet();
 		Map.Entry<String, Integer> entry = set.iterator().next();
 		entry.getKey();
+		List<Integer> largeList = new ArrayList<>();
+		for (int i = 0; i < 1000; i++) {
+			largeList.add(i);
+		}
+		Set<Integer> largeSet = new LinkedHashSet<>(largeList);
+		largeSet.size();
 	}
 	
 	private static void generateGarbage() {
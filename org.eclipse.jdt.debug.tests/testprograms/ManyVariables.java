@@ -0,0 +1,95 @@
+/*******************************************************************************
+ * Copyright (c) 2022 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+
+/**
+ * A method with many local variables and an object with many fields, called in a loop
+ */
+public class ManyVariables {
+
+	private int field_1 = 1;
+	private int field_2 = 2;
+	private int field_3 = 3;
+	private int field_4 = 4;
+	private int field_5 = 5;
+	private int field_6 = 6;
+	private int field_7 = 7;
+	private int field_8 = 8;
+	private int field_9 = 9;
+	private int field_10 = 10;
+	private int field_11 = 11;
+	private int field_12 = 12;
+	private int field_13 = 13;
+	private int field_14 = 14;
+	private int field_15 = 15;
+	private int field_16 = 16;
+	private int field_17 = 17;
+	private int field_18 = 18;
+	private int field_19 = 19;
+	private int field_20 = 20;
+	private int field_21 = 21;
+	private int field_22 = 22;
+	private int field_23 = 23;
+	private int field_24 = 24;
+	private int field_25 = 25;
+	private int field_26 = 26;
+	private int field_27 = 27;
+	private int field_28 = 28;
+	private int field_29 = 29;
+	private int field_30 = 30;
+	private int field_31 = 31;
+	private int field_32 = 32;
+	private int field_33 = 33;
+	private int field_34 = 34;
+	private int field_35 = 35;
+	private int field_36 = 36;
+	private int field_37 = 37;
+	private int field_38 = 38;
+	private int field_39 = 39;
+	private int field_40 = 40;
+
+	public static void main(String[] args) {
+		for (int i = 0; i < 1000; i++) {
+			variables(i);
+		}
+	}
+
+	public static void variables(int count) {
+		int local_1 = count + 1;
+		int local_2 = count + 2;
+		int local_3 = count + 3;
+		int local_4 = count + 4;
+		int local_5 = count + 5;
+		int local_6 = count + 6;
+		int local_7 = count + 7;
+		int local_8 = count + 8;
+		int local_9 = count + 9;
+		int local_10 = count + 10;
+		int local_11 = count + 11;
+		int local_12 = count + 12;
+		int local_13 = count + 13;
+		int local_14 = count + 14;
+		int local_15 = count + 15;
+		int local_16 = count + 16;
+		int local_17 = count + 17;
+		int local_18 = count + 18;
+		int local_19 = count + 19;
+		int local_20 = count + 20;
+		int local_21 = count + 21;
+		int local_22 = count + 22;
+		int local_23 = count + 23;
+		int local_24 = count + 24;
+		ManyVariables object = new ManyVariables();
+		object.field_1 = local_1 + local_24;
+	}
+}
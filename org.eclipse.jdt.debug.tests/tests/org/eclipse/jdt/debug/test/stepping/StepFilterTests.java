@@ -1,5 +1,5 @@
 /*******************************************************************************
- *  Copyright (c) 2000, 2014 IBM Corporation and others.
+ *  Copyright (c) 2000, 2022 IBM Corporation and others.
  *
  *  This program and the accompanying materials
  *  are made available under the terms of the Eclipse Public License 2.0
@@ -14,11 +14,14 @@
  *******************************************************************************/
 package org.eclipse.jdt.debug.test.stepping;
 
+import java.util.Arrays;
+
 import org.eclipse.debug.core.model.ILineBreakpoint;
 import org.eclipse.jdt.debug.core.IJavaStackFrame;
 import org.eclipse.jdt.debug.core.IJavaThread;
 import org.eclipse.jdt.debug.tests.AbstractDebugTest;
 import org.eclipse.jdt.debug.tests.TestAgainException;
+import org.eclipse.jdt.internal.debug.core.model.StepFilterMatcher;
 import org.eclipse.jdt.internal.debug.ui.IJDIPreferencesConstants;
 import org.eclipse.jdt.internal.debug.ui.JDIDebugUIPlugin;
 import org.eclipse.jface.preference.IPreferenceStore;
@@ -72,6 +75,54 @@ public class StepFilterTests extends AbstractDebugTest {
 		}
 	}
 
+	/**
+	 * Tests a step filter with a wildcard inside the pattern, which is matched by the step handler instead of the VM
+	 * @throws Exception
+	 */
+	public void testInnerWildcardStepFilter() throws Exception {
+		getPrefStore().setValue(IJDIPreferencesConstants.PREF_ACTIVE_FILTERS_LIST, fOriginalActiveFilters + ",Step*Two," + fOriginalInactiveFilters);
+		String typeName = "StepFilterOne";
+		ILineBreakpoint bp = createLineBreakpoint(26, typeName);
+		bp.setEnabled(true);
+
+		IJavaThread thread = null;
+		try {
+			thread= launchToLineBreakpoint(typeName, bp, true);
+			IJavaStackFrame stackFrame = (IJavaStackFrame) thread.getTopStackFrame();
+			thread = stepIntoWithFilters(stackFrame);
+			stackFrame = (IJavaStackFrame) thread.getTopStackFrame();
+			String recTypeName = stackFrame.getReceivingTypeName();
+			if (!"StepFilterOne".equals(recTypeName)) {
+				throw new TestAgainException("Retest - "+recTypeName+" is does not match StepFilterOne"); // @see bug 297071
+			}
+			assertEquals("Wrong receiving type", "StepFilterOne", recTypeName);
+			int lineNumber = stackFrame.getLineNumber();
+			assertEquals("Wrong line number", 27, lineNumber);
+		} finally {
+			terminateAndRemove(thread);
+			removeAllBreakpoints();
+			resetStepFilters();
+		}
+	}
+
+	/**
+	 * Tests matching of type names against compiled step filters
+	 * @throws Exception
+	 */
+	public void testStepFilterMatcher() throws Exception {
+		StepFilterMatcher matcher = new StepFilterMatcher(new String[] { "java.lang.*", "java.lang.reflect.*", "StepFilterTwo", "*$Proxy", "org.*.cglib.*" });
+		assertEquals("Wrong class exclusion filters", Arrays.asList("java.lang.*", "java.lang.reflect.*", "StepFilterTwo", "*$Proxy"), Arrays.asList(matcher.getExclusionFilters()));
+		assertTrue("Prefix should match", matcher.matches("java.lang.String"));
+		assertTrue("Prefix should match sub package", matcher.matches("java.lang.reflect.Method"));
+		assertFalse("Prefix should not match", matcher.matches("java.util.List"));
+		assertTrue("Name should match", matcher.matches("StepFilterTwo"));
+		assertFalse("Name should only match exactly", matcher.matches("StepFilterTwoA"));
+		assertTrue("Suffix should match", matcher.matches("com.example.Service$Proxy"));
+		assertTrue("Pattern should match", matcher.matches("org.springframework.cglib.proxy.Enhancer"));
+		assertFalse("Pattern should not match", matcher.matches("org.springframework.beans.Bean"));
+		assertFalse("Empty filters should not match", new StepFilterMatcher(null).matches("java.lang.String"));
+	}
+
 	/**
 	 * Tests a simple step filter
 	 * @throws Exception
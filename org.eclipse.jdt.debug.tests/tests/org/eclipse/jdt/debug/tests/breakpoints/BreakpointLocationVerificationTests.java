@@ -1,5 +1,5 @@
 /*******************************************************************************
- *  Copyright (c) 2000, 2019 IBM Corporation and others.
+ *  Copyright (c) 2000, 2022 IBM Corporation and others.
  *
  *  This program and the accompanying materials
  *  are made available under the terms of the Eclipse Public License 2.0
@@ -21,6 +21,7 @@ import org.eclipse.jdt.core.dom.AST;
 import org.eclipse.jdt.core.dom.ASTParser;
 import org.eclipse.jdt.core.dom.CompilationUnit;
 import org.eclipse.jdt.debug.tests.AbstractDebugTest;
+import org.eclipse.jdt.internal.debug.core.breakpoints.CompilationUnitCache;
 import org.eclipse.jdt.internal.debug.core.breakpoints.ValidBreakpointLocationLocator;
 import org.eclipse.jface.text.Document;
 
@@ -434,4 +435,47 @@ public class BreakpointLocationVerificationTests extends AbstractDebugTest {
 	public void testMethodOnMethodSignatureNotAvailable() throws Exception {
 		testMethod(35, 4, "test2", "BreakpointsLocation", null);
 	}
-}
\ No newline at end of file
+
+	/**
+	 * Tests that compilation units and their locations are shared until the
+	 * compilation unit is modified
+	 * @throws Exception
+	 */
+	public void testCachedLocations() throws Exception {
+		IType type = get14Project().findType("FinalBreakpointLocations");
+		assertNotNull("Cannot find type", type);
+		ICompilationUnit unit = type.getCompilationUnit();
+		CompilationUnitCache cache = CompilationUnitCache.getDefault();
+		CompilationUnit compilationUnit = cache.runWithAST(unit, null, ast -> ast);
+		assertNotNull("Missing compilation unit", compilationUnit);
+		assertSame("Compilation unit should be cached", compilationUnit, cache.runWithAST(unit, null, ast -> ast));
+
+		ValidBreakpointLocationLocator locator = cache.getLocation(unit, 17, true, true);
+		assertEquals("Wrong line number", 17, locator.getLineLocation());
+		assertEquals("Wrong type name", "FinalBreakpointLocations", locator.getFullyQualifiedTypeName());
+		assertSame("Location should be cached", locator, cache.getLocation(unit, 17, true, true));
+		assertNotSame("Location without best match should be computed separately", locator, cache.getLocation(unit, 17, true, false));
+
+		unit.getResource().touch(null);
+		assertNotSame("Compilation unit should be parsed again after a modification", compilationUnit, cache.runWithAST(unit, null, ast -> ast));
+	}
+
+	/**
+	 * Tests that compilation units are parsed again when another type changes,
+	 * as their bindings may refer to it
+	 * @throws Exception
+	 */
+	public void testCachedLocationsClearedOnJavaModelChange() throws Exception {
+		IType type = get14Project().findType("FinalBreakpointLocations");
+		assertNotNull("Cannot find type", type);
+		ICompilationUnit unit = type.getCompilationUnit();
+		CompilationUnitCache cache = CompilationUnitCache.getDefault();
+		CompilationUnit compilationUnit = cache.runWithAST(unit, null, ast -> ast);
+		assertNotNull("Missing compilation unit", compilationUnit);
+
+		IType other = get14Project().findType("Breakpoints");
+		assertNotNull("Cannot find type", other);
+		other.getResource().touch(null);
+		assertNotSame("Compilation unit should be parsed again after another type changed", compilationUnit, cache.runWithAST(unit, null, ast -> ast));
+	}
+}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- *  Copyright (c) 2000, 2015 IBM Corporation and others.
+ *  Copyright (c) 2000, 2022 IBM Corporation and others.
  *
  *  This program and the accompanying materials
  *  are made available under the terms of the Eclipse Public License 2.0
@@ -13,6 +13,9 @@
  *******************************************************************************/
 package org.eclipse.jdt.debug.tests.breakpoints;
 
+import org.eclipse.core.resources.IMarker;
+import org.eclipse.core.resources.IResource;
+import org.eclipse.core.resources.ResourcesPlugin;
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.debug.core.DebugEvent;
 import org.eclipse.debug.core.model.IStackFrame;
@@ -24,6 +27,8 @@ import org.eclipse.jdt.debug.core.IJavaLineBreakpoint;
 import org.eclipse.jdt.debug.core.IJavaThread;
 import org.eclipse.jdt.debug.testplugin.DebugElementEventWaiter;
 import org.eclipse.jdt.debug.tests.AbstractDebugTest;
+import org.eclipse.jdt.internal.debug.core.model.JDIDebugTarget;
+import org.eclipse.jdt.internal.debug.core.model.RunToLineRequest;
 import org.eclipse.jface.text.BadLocationException;
 import org.eclipse.jface.text.IDocument;
 import org.eclipse.swt.widgets.Display;
@@ -112,6 +117,37 @@ public class RunToLineTests extends AbstractDebugTest {
 		runToLine(58, 56, false);
 	}
 
+	/**
+	 * Tests that a run to line request finds the line in the loaded classes and
+	 * runs to it without creating a marker.
+	 *
+	 * @throws Exception
+	 */
+	public void testRunToLineRequest() throws Exception {
+		String typeName = "Breakpoints";
+		IJavaLineBreakpoint breakpoint = createLineBreakpoint(55, typeName);
+		IJavaThread thread = null;
+		try {
+			thread = launchToLineBreakpoint(typeName, breakpoint);
+			JDIDebugTarget target = (JDIDebugTarget) thread.getDebugTarget();
+			assertFalse("line 58 should have locations", RunToLineRequest.findLocations(target, typeName, 58).isEmpty());
+			assertTrue("a comment line should have no locations", RunToLineRequest.findLocations(target, typeName, 1).isEmpty());
+			IMarker[] markers = ResourcesPlugin.getWorkspace().getRoot().findMarkers(null, true, IResource.DEPTH_ZERO);
+
+			RunToLineRequest request = new RunToLineRequest(target, typeName, 58);
+			DebugElementEventWaiter waiter = new DebugElementEventWaiter(DebugEvent.SUSPEND, thread);
+			request.run(thread, true);
+			assertEquals("a marker was created", markers.length, ResourcesPlugin.getWorkspace().getRoot().findMarkers(null, true, IResource.DEPTH_ZERO).length);
+			assertNotNull("suspend event not received", waiter.waitForEvent());
+			assertEquals("wrong line", 58, thread.getTopStackFrame().getLineNumber());
+			assertTrue("request should be done", request.isDone());
+			assertTrue("breakpoints should be enabled again", getBreakpointManager().isEnabled());
+		} finally {
+			terminateAndRemove(thread);
+			removeAllBreakpoints();
+		}
+	}
+
 	/**
 	 * Runs to the given line number in the 'Breakpoints' source file, after stopping at the
 	 * first line in the main method.
@@ -1,5 +1,5 @@
 /*******************************************************************************
- *  Copyright (c) 2000, 2012 IBM Corporation and others.
+ *  Copyright (c) 2000, 2022 IBM Corporation and others.
  *
  *  This program and the accompanying materials
  *  are made available under the terms of the Eclipse Public License 2.0
@@ -14,6 +14,7 @@
 package org.eclipse.jdt.debug.tests.core;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 import org.eclipse.core.resources.IFolder;
@@ -28,6 +29,8 @@ import org.eclipse.jdt.core.IJavaProject;
 import org.eclipse.jdt.core.JavaCore;
 import org.eclipse.jdt.debug.testplugin.JavaProjectHelper;
 import org.eclipse.jdt.debug.tests.AbstractDebugTest;
+import org.eclipse.jdt.internal.launching.LaunchingPlugin;
+import org.eclipse.jdt.internal.launching.RuntimeClasspathCache;
 import org.eclipse.jdt.launching.IJavaLaunchConfigurationConstants;
 import org.eclipse.jdt.launching.IRuntimeClasspathEntry;
 import org.eclipse.jdt.launching.IRuntimeClasspathProvider;
@@ -566,4 +569,54 @@ public class ClasspathProviderTests extends AbstractDebugTest {
 
         assertTrue("Classpath is missing " + jarPath, list.contains(jarPath));
 	}
+
+	/**
+	 * Tests that resolved runtime classpaths are reused until the classpath of a project changes.
+	 */
+	public void testResolvedClasspathCache() throws Exception {
+		ILaunchConfiguration config = getLaunchConfiguration("Breakpoints");
+		RuntimeClasspathCache cache = LaunchingPlugin.getDefault().getRuntimeClasspathCache();
+		IRuntimeClasspathEntry[] unresolved = JavaRuntime.computeUnresolvedRuntimeClasspath(config);
+		IRuntimeClasspathEntry[] resolved = JavaRuntime.resolveRuntimeClasspath(unresolved, config);
+		IRuntimeClasspathEntry[] cached = cache.get(unresolved, config);
+		assertNotNull("Resolved classpath should be cached", cached);
+		assertTrue("Cached classpath should equal the resolved classpath", Arrays.equals(resolved, cached));
+		assertTrue("Resolving again should return the same classpath", Arrays.equals(resolved, JavaRuntime.resolveRuntimeClasspath(unresolved, config)));
+		assertNull("Working copies should not be cached", cache.get(unresolved, config.getWorkingCopy()));
+
+		IJavaProject project = get14Project();
+		IResource archive = project.getProject().getFolder("src").getFile("A.jar");
+		JavaProjectHelper.addLibrary(project, archive.getFullPath());
+		try {
+			assertNull("Changing the classpath should invalidate the cache", cache.get(unresolved, config));
+		} finally {
+			JavaProjectHelper.removeFromClasspath(project, archive.getFullPath());
+		}
+	}
+
+	/**
+	 * Tests that changing resolved runtime classpath entries does not change the cached ones.
+	 */
+	public void testResolvedClasspathCacheCopiesEntries() throws Exception {
+		ILaunchConfiguration config = getLaunchConfiguration("Breakpoints");
+		IRuntimeClasspathEntry[] unresolved = JavaRuntime.computeUnresolvedRuntimeClasspath(config);
+		IRuntimeClasspathEntry[] resolved = JavaRuntime.resolveRuntimeClasspath(unresolved, config);
+		int property = resolved[0].getClasspathProperty();
+		resolved[0].setClasspathProperty(property == IRuntimeClasspathEntry.BOOTSTRAP_CLASSES ? IRuntimeClasspathEntry.USER_CLASSES : IRuntimeClasspathEntry.BOOTSTRAP_CLASSES);
+		IRuntimeClasspathEntry[] cached = LaunchingPlugin.getDefault().getRuntimeClasspathCache().get(unresolved, config);
+		assertNotNull("Resolved classpath should be cached", cached);
+		assertEquals("Cached entry should not be changed", property, cached[0].getClasspathProperty());
+		assertNotSame("Cached entries should be copied", cached[0], LaunchingPlugin.getDefault().getRuntimeClasspathCache().get(unresolved, config)[0]);
+	}
+
+	/**
+	 * Tests that classpaths with entries resolved by string substitution are not cached.
+	 */
+	public void testResolvedClasspathCacheSkipsStringVariables() throws Exception {
+		ILaunchConfiguration config = getLaunchConfiguration("Breakpoints");
+		IRuntimeClasspathEntry[] unresolved = new IRuntimeClasspathEntry[] {
+				JavaRuntime.newStringVariableClasspathEntry("${workspace_loc:/" + get14Project().getElementName() + "}") };
+		JavaRuntime.resolveRuntimeClasspath(unresolved, config);
+		assertNull("Classpath resolved by string substitution should not be cached", LaunchingPlugin.getDefault().getRuntimeClasspathCache().get(unresolved, config));
+	}
 }
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2019 IBM Corporation and others.
+ * Copyright (c) 2000, 2022 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -15,6 +15,8 @@ package org.eclipse.jdt.debug.tests.core;
 
 import static org.junit.Assert.assertNotEquals;
 
+import org.eclipse.core.resources.IFile;
+import org.eclipse.core.resources.ResourcesPlugin;
 import org.eclipse.debug.core.DebugEvent;
 import org.eclipse.debug.core.DebugException;
 import org.eclipse.jdt.core.IBuffer;
@@ -32,6 +34,8 @@ import org.eclipse.jdt.debug.testplugin.DebugElementEventWaiter;
 import org.eclipse.jdt.debug.testplugin.DebugEventWaiter;
 import org.eclipse.jdt.debug.tests.AbstractDebugTest;
 import org.eclipse.jdt.debug.tests.TestAgainException;
+import org.eclipse.jdt.internal.debug.core.hcr.JavaHotCodeReplaceManager;
+import org.eclipse.jdt.internal.debug.core.hcr.TypeDigestIndex;
 
 /**
  * Tests hot code replace
@@ -1292,4 +1296,108 @@ public class HcrTests extends AbstractDebugTest {
 			JDIDebugModel.removeHotCodeReplaceListener(listener);
 		}
 	}
+
+	/**
+	 * Tests that a class file rewritten with unchanged bytes is not redefined again
+	 *
+	 * @throws Exception
+	 */
+	public void testUnchangedBytesSkipped() throws Exception {
+		String typeName = "org.eclipse.debug.tests.targets.HcrClass";
+		createLineBreakpoint(42, typeName);
+
+		HCRListener listener = new HCRListener();
+		IJavaThread thread = null;
+		try {
+			thread = launchToBreakpoint(typeName);
+			assertNotNull("Breakpoint not hit within timeout period", thread);
+
+			IJavaDebugTarget target = (IJavaDebugTarget) thread.getDebugTarget();
+			if (target.supportsHotCodeReplace()) {
+				removeAllBreakpoints();
+				TypeDigestIndex index = JavaHotCodeReplaceManager.getDefault().getDigestIndex(target);
+				IFile classFile = ResourcesPlugin.getWorkspace().getRoot().getFolder(get14Project().getOutputLocation()).getFile("org/eclipse/debug/tests/targets/HcrClass.class");
+				assertTrue("HcrClass.class does not exist", classFile.exists());
+
+				// the bytes loaded at launch are not known, the first change is redefined
+				target.addHotCodeReplaceListener(listener);
+				classFile.touch(null);
+				waitForBuild();
+				assertTrue("Listener should have been notified", listener.waitNotification());
+				assertEquals("Wrong number of redefined types", 1, index.getRedefinedCount());
+				assertEquals("Wrong number of skipped types", 0, index.getSkippedCount());
+
+				target.removeHotCodeReplaceListener(listener);
+				listener = new HCRListener();
+				target.addHotCodeReplaceListener(listener);
+				classFile.touch(null);
+				waitForBuild();
+				assertFalse("Listener should not have been notified", listener.waitNotification());
+				assertEquals("Wrong number of redefined types", 1, index.getRedefinedCount());
+				assertEquals("Wrong number of skipped types", 1, index.getSkippedCount());
+			} else {
+				System.err.println("Warning: HCR test skipped since target VM does not support HCR.");
+			}
+		} finally {
+			terminateAndRemove(thread);
+			removeAllBreakpoints();
+		}
+	}
+
+	/**
+	 * Tests hot code replace in two targets launched from the same project
+	 *
+	 * @throws Exception
+	 */
+	public void testMultipleTargets() throws Exception {
+		String typeName = "org.eclipse.debug.tests.targets.HcrClass";
+		createLineBreakpoint(42, typeName);
+
+		HCRListener listener1 = new HCRListener();
+		HCRListener listener2 = new HCRListener();
+		IJavaThread thread1 = null;
+		IJavaThread thread2 = null;
+		try {
+			thread1 = launchToBreakpoint(typeName);
+			assertNotNull("Breakpoint not hit within timeout period", thread1);
+			thread2 = launchToBreakpoint(typeName);
+			assertNotNull("Breakpoint not hit within timeout period", thread2);
+
+			IJavaDebugTarget target1 = (IJavaDebugTarget) thread1.getDebugTarget();
+			IJavaDebugTarget target2 = (IJavaDebugTarget) thread2.getDebugTarget();
+			assertNotSame("Expected two targets", target1, target2);
+			if (target1.supportsHotCodeReplace() && target2.supportsHotCodeReplace()) {
+				removeAllBreakpoints();
+				target1.addHotCodeReplaceListener(listener1);
+				target2.addHotCodeReplaceListener(listener2);
+
+				ICompilationUnit cu = getCompilationUnit(get14Project(), "src", "org.eclipse.debug.tests.targets", "HcrClass.java");
+				cu = cu.getPrimary();
+				if (!cu.isWorkingCopy()) {
+					cu = cu.getWorkingCopy(null);
+				}
+				assertTrue("HcrClass.java does not exist", cu.exists());
+				IBuffer buffer = cu.getBuffer();
+				String contents = buffer.getContents();
+				int index = contents.indexOf("\"One\"");
+				assertTrue("Could not find code to replace", index > 0);
+				buffer.setContents(contents.substring(0, index) + "\"Two\"" + contents.substring(index + 5));
+				cu.commitWorkingCopy(true, null);
+				waitForBuild();
+
+				assertTrue("Listener of first target should have been notified", listener1.waitNotification());
+				assertTrue("Listener of second target should have been notified", listener2.waitNotification());
+				assertSame("Hot code replace should have succeeded in first target", target1, listener1.target);
+				assertSame("Hot code replace should have succeeded in second target", target2, listener2.target);
+				assertEquals("Wrong number of redefined types in first target", 1, JavaHotCodeReplaceManager.getDefault().getDigestIndex(target1).getRedefinedCount());
+				assertEquals("Wrong number of redefined types in second target", 1, JavaHotCodeReplaceManager.getDefault().getDigestIndex(target2).getRedefinedCount());
+			} else {
+				System.err.println("Warning: HCR test skipped since target VM does not support HCR.");
+			}
+		} finally {
+			terminateAndRemove(thread1);
+			terminateAndRemove(thread2);
+			removeAllBreakpoints();
+		}
+	}
 }
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2007, 2009 IBM Corporation and others.
+ * Copyright (c) 2007, 2022 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -13,12 +13,17 @@
  *******************************************************************************/
 package org.eclipse.jdt.debug.tests.core;
 
+import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.DataInputStream;
 import java.io.DataOutputStream;
+import java.io.IOException;
 
 import org.eclipse.debug.core.model.IDebugTarget;
 import org.eclipse.debug.core.model.ILineBreakpoint;
+import org.eclipse.jdi.internal.connect.PacketRecorder;
+import org.eclipse.jdi.internal.connect.ReplayConnection;
+import org.eclipse.jdi.internal.jdwp.JdwpCommandPacket;
 import org.eclipse.jdi.internal.jdwp.JdwpPacket;
 import org.eclipse.jdi.internal.jdwp.JdwpReplyPacket;
 import org.eclipse.jdi.internal.jdwp.JdwpString;
@@ -105,4 +110,53 @@ public class JDWPTests extends AbstractDebugTest {
 		}
 	}
 
+	/**
+	 * Records packets and plays them back, with the ids of replies changed to
+	 * the ids of the commands written during the replay.
+	 * @throws Exception
+	 */
+	public void testReplayConnection() throws Exception {
+		ByteArrayOutputStream recording = new ByteArrayOutputStream();
+		PacketRecorder recorder = new PacketRecorder(recording);
+		byte[] version = packet(7, 0, new byte[] { 1, 1 });
+		byte[] capabilities = packet(8, 0, new byte[] { 1, 12 });
+		recorder.record(PacketRecorder.TO_VM, version);
+		recorder.record(PacketRecorder.TO_VM, capabilities);
+		recorder.record(PacketRecorder.FROM_VM, packet(8, 0x80, new byte[] { 0, 0, 1 }));
+		recorder.record(PacketRecorder.FROM_VM, packet(7, 0x80, new byte[] { 0, 0, 2 }));
+		recorder.record(PacketRecorder.FROM_VM, packet(1, 0, new byte[] { 64, 100 }));
+		recorder.close();
+
+		ReplayConnection connection = new ReplayConnection(new ByteArrayInputStream(recording.toByteArray()), false);
+		try {
+			// commands written in a different order than recorded
+			connection.writePacket(packet(43, 0, new byte[] { 1, 12 }));
+			connection.writePacket(packet(42, 0, new byte[] { 1, 1 }));
+			JdwpReplyPacket reply = (JdwpReplyPacket) JdwpPacket.build(connection.readPacket());
+			assertEquals("Wrong reply id", 43, reply.getId());
+			assertEquals("Wrong reply data", 1, reply.dataInStream().readByte());
+			reply = (JdwpReplyPacket) JdwpPacket.build(connection.readPacket());
+			assertEquals("Wrong reply id", 42, reply.getId());
+			assertEquals("Wrong reply data", 2, reply.dataInStream().readByte());
+			JdwpCommandPacket event = (JdwpCommandPacket) JdwpPacket.build(connection.readPacket());
+			assertEquals("Wrong event id", 1, event.getId());
+			try {
+				connection.writePacket(packet(44, 0, new byte[] { 1, 9 }));
+				fail("Command not in the recording was accepted");
+			} catch (IOException e) {
+				assertFalse("Connection still open after diverging", connection.isOpen());
+			}
+		} finally {
+			connection.close();
+		}
+	}
+
+	private byte[] packet(int id, int flags, byte[] rest) {
+		byte[] packet = new byte[9 + rest.length];
+		packet[3] = (byte) packet.length;
+		packet[7] = (byte) id;
+		packet[8] = (byte) flags;
+		System.arraycopy(rest, 0, packet, 9, rest.length);
+		return packet;
+	}
 }
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2007 IBM Corporation and others.
+ * Copyright (c) 2007, 2022 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -16,16 +16,27 @@ package org.eclipse.jdt.debug.tests.core;
 import static org.junit.Assert.assertNotEquals;
 
 import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
 import java.util.List;
 
 import org.eclipse.debug.core.model.IBreakpoint;
+import org.eclipse.debug.core.model.IThread;
 import org.eclipse.jdt.core.IJavaProject;
 import org.eclipse.jdt.core.IType;
 import org.eclipse.jdt.debug.core.IJavaDebugTarget;
 import org.eclipse.jdt.debug.core.IJavaLineBreakpoint;
+import org.eclipse.jdt.debug.core.IJavaStackFrame;
 import org.eclipse.jdt.debug.core.IJavaThread;
 import org.eclipse.jdt.debug.tests.AbstractDebugTest;
 import org.eclipse.jdt.internal.debug.core.model.JDIDebugTarget;
+import org.eclipse.jdt.internal.debug.core.model.JDIStackFrame;
+import org.eclipse.jdt.internal.debug.core.model.JDIThread;
+import org.eclipse.jdt.internal.debug.core.model.LoadedClassIndex;
+import org.eclipse.jdt.internal.debug.core.model.SourceLocationCache;
+
+import com.sun.jdi.Location;
+import com.sun.jdi.ReferenceType;
 
 /**
  * Tests IJavaDebugTarget API
@@ -121,6 +132,85 @@ public class JavaDebugTargetTests extends AbstractDebugTest {
 		}
 	}
 
+	/**
+	 * Tests that names and frame counts of threads requested in bulk match the
+	 * values of the underlying threads, and follow the thread when it runs.
+	 */
+	public void testThreadSnapshots() throws Exception {
+		String typeName = "Breakpoints";
+		createLineBreakpoint(55, typeName);
+
+		IJavaThread thread = null;
+		try {
+			thread = launchToBreakpoint(typeName, false);
+			assertNotNull("Breakpoint not hit within timeout period", thread);
+			IThread[] threads = thread.getDebugTarget().getThreads();
+			JDIThread.prefetchSnapshots(threads);
+			for (IThread t : threads) {
+				JDIThread jdiThread = (JDIThread) t;
+				assertEquals("Wrong thread name", jdiThread.getUnderlyingThread().name(), jdiThread.getName());
+				if (jdiThread.isSuspended()) {
+					assertEquals("Wrong frame count", jdiThread.getUnderlyingThread().frameCount(), jdiThread.getFrameCount());
+				}
+			}
+			int frameCount = thread.getFrameCount();
+			assertEquals("Wrong frame count", thread.getStackFrames().length, frameCount);
+
+			thread = stepInto((IJavaStackFrame) thread.getTopStackFrame());
+			JDIThread.prefetchSnapshots(new Object[] { thread });
+			assertEquals("Wrong frame count after step into", frameCount + 1, thread.getFrameCount());
+			assertEquals("Wrong frame count", thread.getStackFrames().length, thread.getFrameCount());
+		} finally {
+			terminateAndRemove(thread);
+			removeAllBreakpoints();
+		}
+	}
+
+	/**
+	 * Tests that the source information of frames is the one of their
+	 * locations, and is shared by frames at the same location.
+	 */
+	public void testSourceLocationCache() throws Exception {
+		String typeName = "Breakpoints";
+		createLineBreakpoint(55, typeName);
+
+		IJavaThread thread = null;
+		try {
+			thread = launchToBreakpoint(typeName, false);
+			assertNotNull("Breakpoint not hit within timeout period", thread);
+			JDIDebugTarget target = (JDIDebugTarget) thread.getDebugTarget();
+			SourceLocationCache cache = target.getSourceLocationCache();
+			JDIStackFrame frame = (JDIStackFrame) thread.getTopStackFrame();
+			Location location = ((JDIThread) thread).getUnderlyingThread().frame(0).location();
+			assertEquals("Wrong line number", 55, frame.getLineNumber());
+			assertEquals("Wrong source name", location.sourceName(), frame.getSourceName());
+			assertEquals("Wrong source path", location.sourcePath(), frame.getSourcePath());
+			assertEquals("Wrong stratum line number", location.lineNumber("Java"), frame.getLineNumber("Java"));
+
+			// an equal location is answered from the entry of the frame
+			// location, without asking the location
+			Location other = location.method().locationOfCodeIndex(location.codeIndex());
+			assertNotSame(location, other);
+			int[] calls = new int[1];
+			Location counting = (Location) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[] { Location.class }, (proxy, method, args) -> {
+				if (method.getName().startsWith("source") || method.getName().equals("lineNumber")) {
+					calls[0]++;
+				}
+				return method.invoke(other, args);
+			});
+			assertEquals("Wrong cached line number", 55, cache.getLineNumber(counting, target.getDefaultStratum()));
+			assertEquals("Wrong cached source name", location.sourceName(), cache.getSourceName(counting, target.getDefaultStratum()));
+			assertEquals("Entry should be shared by equal locations", 0, calls[0]);
+
+			cache.clear();
+			assertEquals("Wrong line number after clear", 55, cache.getLineNumber(counting, target.getDefaultStratum()));
+			assertEquals("Cleared entry should be computed again", 1, calls[0]);
+		} finally {
+			terminateAndRemove(thread);
+			removeAllBreakpoints();
+		}
+	}
+
 	/**
 	 * Tests that debug target ignores breakpoints from unrelated projects, see bugs 5188 and 508524
 	 */
@@ -224,4 +314,74 @@ public class JavaDebugTargetTests extends AbstractDebugTest {
 		}
 	}
 
+
+	/**
+	 * Tests that the index of loaded classes contains loaded classes, and classes loaded after it was seeded
+	 */
+	public void testGetLoadedClasses() throws Exception {
+		String typeName = "OneToTen";
+		createLineBreakpoint(21, typeName);
+
+		IJavaThread thread = null;
+		try {
+			thread = launchToBreakpoint(typeName);
+			assertNotNull("Breakpoint not hit within timeout period", thread);
+			JDIDebugTarget target = (JDIDebugTarget) thread.getDebugTarget();
+
+			assertEquals("Wrong classes of OneToTen", target.jdiClassesByName(typeName), target.getLoadedClasses(typeName));
+			assertEquals("Expected one class of java.lang.String", 1, target.getLoadedClasses("java.lang.String").size());
+			// a test program that OneToTen does not refer to is only loaded
+			// by the evaluation
+			String loadedLater = "OneToTenPrint";
+			assertTrue("OneToTenPrint should not be loaded", target.getLoadedClasses(loadedLater).isEmpty());
+
+			doEval(thread, "new OneToTenPrint()");
+			long timeout = System.currentTimeMillis() + DEFAULT_TIMEOUT;
+			while (target.getLoadedClasses(loadedLater).isEmpty() && System.currentTimeMillis() < timeout) {
+				Thread.sleep(50);
+			}
+			assertEquals("Wrong classes of OneToTenPrint", target.jdiClassesByName(loadedLater), target.getLoadedClasses(loadedLater));
+		} finally {
+			terminateAndRemove(thread);
+			removeAllBreakpoints();
+		}
+	}
+
+	/**
+	 * Tests that loaded classes are found by name prefix after the index of
+	 * loaded classes has been refreshed.
+	 */
+	public void testGetLoadedClassesWithPrefix() throws Exception {
+		String typeName = "OneToTen";
+		createLineBreakpoint(21, typeName);
+
+		IJavaThread thread = null;
+		try {
+			thread = launchToBreakpoint(typeName);
+			assertNotNull("Breakpoint not hit within timeout period", thread);
+			JDIDebugTarget target = (JDIDebugTarget) thread.getDebugTarget();
+			LoadedClassIndex index = target.getLoadedClassIndex();
+
+			List<ReferenceType> expected = new ArrayList<>();
+			for (ReferenceType type : target.getVM().allClasses()) {
+				if (type.name().startsWith("java.util.zip.")) {
+					expected.add(type);
+				}
+			}
+			List<ReferenceType> classes = index.getClassesWithPrefix("java.util.zip.");
+			assertEquals("Wrong number of java.util.zip classes", expected.size(), classes.size());
+			assertTrue("Wrong java.util.zip classes", classes.containsAll(expected));
+
+			doEval(thread, "new java.util.zip.Adler32()");
+			index.refresh();
+			boolean found = false;
+			for (ReferenceType type : index.getClassesWithPrefix("java.util.zip.Adl")) {
+				found |= type.name().equals("java.util.zip.Adler32");
+			}
+			assertTrue("Adler32 should be found after refresh", found);
+		} finally {
+			terminateAndRemove(thread);
+			removeAllBreakpoints();
+		}
+	}
 }
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2015 IBM Corporation and others.
+ * Copyright (c) 2000, 2022 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -24,9 +24,15 @@ import org.eclipse.jdt.debug.core.IJavaDebugTarget;
 import org.eclipse.jdt.debug.core.IJavaStackFrame;
 import org.eclipse.jdt.debug.core.IJavaThread;
 import org.eclipse.jdt.debug.core.IJavaValue;
+import org.eclipse.jdt.debug.eval.IAstEvaluationEngine;
+import org.eclipse.jdt.debug.eval.IEvaluationListener;
+import org.eclipse.jdt.debug.eval.IEvaluationResult;
 import org.eclipse.jdt.debug.testplugin.DebugElementEventWaiter;
 import org.eclipse.jdt.debug.testplugin.ExpressionWaiter;
 import org.eclipse.jdt.debug.tests.AbstractDebugTest;
+import org.eclipse.jdt.internal.debug.core.JDIDebugPlugin;
+import org.eclipse.jdt.internal.debug.core.model.JDIDebugTarget;
+import org.eclipse.jdt.internal.debug.core.model.WatchExpressionEvaluator;
 import org.eclipse.swt.widgets.Display;
 import org.eclipse.ui.IWorkbench;
 import org.eclipse.ui.IWorkbenchPage;
@@ -165,6 +171,77 @@ public class WatchExpressionTests extends AbstractDebugTest {
 		}
 	}
 
+	/**
+	 * Tests that all enabled watch expressions are evaluated together, and that
+	 * their results are cached until the program suspends again, or they are
+	 * evaluated again in the same frame.
+	 */
+	public void testBatchEvaluation() throws Exception {
+		String size = "fVector.size()";
+		String third = "((Integer)fVector.get(3)).intValue()";
+		getExpressionManager().addExpression(getExpressionManager().newWatchExpression(size));
+		getExpressionManager().addExpression(getExpressionManager().newWatchExpression(third));
+		String typeName = "WatchItemTests";
+		createLineBreakpoint(42, typeName);
+		IJavaThread thread= null;
+		try {
+			thread= launchToBreakpoint(typeName);
+			assertNotNull("Breakpoint not hit within timeout period", thread);
+			IJavaStackFrame frame = (IJavaStackFrame) thread.getTopStackFrame();
+			JDIDebugTarget target = (JDIDebugTarget) thread.getDebugTarget();
+			IAstEvaluationEngine engine = JDIDebugPlugin.getDefault().getEvaluationEngine(get14Project(), target);
+			WatchExpressionEvaluator evaluator = target.getWatchExpressionEvaluator();
+
+			IEvaluationResult sizeResult = evaluate(evaluator, size, frame, engine);
+			assertFalse("Should not have errors in expression", sizeResult.hasErrors());
+			assertEquals("Watch expression should be 100", target.newValue(100), sizeResult.getValue());
+			IEvaluationResult thirdResult = evaluate(evaluator, third, frame, engine);
+			assertFalse("Should not have errors in expression", thirdResult.hasErrors());
+			assertEquals("Watch expression should be 3", target.newValue(3), thirdResult.getValue());
+
+			// the results are kept when another frame is selected, and back
+			IJavaStackFrame other = (IJavaStackFrame) thread.getStackFrames()[1];
+			evaluate(evaluator, size, other, engine);
+			evaluate(evaluator, third, other, engine);
+			assertSame("Result should be cached while suspended", sizeResult, evaluate(evaluator, size, frame, engine));
+			assertSame("Result should be cached while suspended", thirdResult, evaluate(evaluator, third, frame, engine));
+
+			// evaluating again in the same frame is an explicit re-evaluation
+			IEvaluationResult again = evaluate(evaluator, size, frame, engine);
+			assertNotSame("Result should be evaluated again", sizeResult, again);
+			assertEquals("Watch expression should be 100", target.newValue(100), again.getValue());
+
+			thread = stepOver(frame);
+			frame = (IJavaStackFrame) thread.getTopStackFrame();
+			assertNotSame("Result should be discarded after a step", sizeResult, evaluate(evaluator, size, frame, engine));
+		} finally {
+			terminateAndRemove(thread);
+			removeAllBreakpoints();
+			removeAllExpressions();
+		}
+	}
+
+	/**
+	 * Evaluates the given watch expression and waits for the result.
+	 */
+	private IEvaluationResult evaluate(WatchExpressionEvaluator evaluator, String expression, IJavaStackFrame frame, IAstEvaluationEngine engine) throws Exception {
+		IEvaluationResult[] result = new IEvaluationResult[1];
+		IEvaluationListener listener = r -> {
+			synchronized (result) {
+				result[0] = r;
+				result.notifyAll();
+			}
+		};
+		evaluator.evaluate(expression, frame, engine, listener);
+		synchronized (result) {
+			if (result[0] == null) {
+				result.wait(DEFAULT_TIMEOUT);
+			}
+		}
+		assertNotNull("Evaluation did not complete", result[0]);
+		return result[0];
+	}
+
 	/**
 	 * Dumps any error messages to the console.
 	 *
@@ -14,8 +14,12 @@
 package org.eclipse.jdt.debug.tests.eval;
 
 import org.eclipse.debug.core.model.IValue;
+import org.eclipse.jdt.debug.core.IJavaDebugTarget;
+import org.eclipse.jdt.debug.core.IJavaStackFrame;
 import org.eclipse.jdt.debug.core.IJavaThread;
+import org.eclipse.jdt.debug.eval.ICompiledExpression;
 import org.eclipse.jdt.debug.tests.AbstractDebugTest;
+import org.eclipse.jdt.internal.debug.eval.ast.engine.ASTEvaluationEngine;
 
 /**
  * Tests that evaluations in non-generified source
@@ -535,4 +539,44 @@ public class GeneralEvalTests extends AbstractDebugTest {
 			terminateAndRemove(thread);
 		}
 	}
+
+	/**
+	 * Tests compiling several snippets in the context of the same frame, and
+	 * evaluating a snippet in a context whose source has already been generated
+	 *
+	 * @throws Exception
+	 */
+	public void testCompileSnippetsInSameFrame() throws Exception {
+		IJavaThread thread = null;
+		try {
+			String typename = "bug401270";
+			createLineBreakpoint(17, typename);
+			thread = launchToBreakpoint(typename);
+			assertNotNull("the program did not suspend", thread);
+
+			IJavaStackFrame frame = (IJavaStackFrame) thread.getTopStackFrame();
+			ASTEvaluationEngine engine = new ASTEvaluationEngine(getProjectContext(), (IJavaDebugTarget) thread.getDebugTarget());
+			try {
+				String[] snippets = new String[] { "b", "args.length", "undefinedVariable" };
+				ICompiledExpression[] expressions = engine.getCompiledExpressions(snippets, frame);
+				assertEquals("Wrong number of compiled expressions", snippets.length, expressions.length);
+				for (int i = 0; i < snippets.length; i++) {
+					assertEquals("Wrong snippet", snippets[i], expressions[i].getSnippet());
+				}
+				assertFalse("'b' should compile", expressions[0].hasErrors());
+				assertFalse("'args.length' should compile", expressions[1].hasErrors());
+				assertTrue("'undefinedVariable' should not compile", expressions[2].hasErrors());
+			}
+			finally {
+				engine.dispose();
+			}
+
+			IValue value = doEval(thread, "!b");
+			assertFalse("The result of '!b' should be false", Boolean.parseBoolean(value.getValueString()));
+		}
+		finally {
+			removeAllBreakpoints();
+			terminateAndRemove(thread);
+		}
+	}
 }
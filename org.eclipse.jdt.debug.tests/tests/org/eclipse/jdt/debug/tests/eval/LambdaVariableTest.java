@@ -13,12 +13,17 @@
  *******************************************************************************/
 package org.eclipse.jdt.debug.tests.eval;
 
+import java.util.Arrays;
+import java.util.List;
+
 import org.eclipse.debug.core.model.IValue;
+import org.eclipse.jdt.core.ICompilationUnit;
 import org.eclipse.jdt.core.IJavaProject;
 import org.eclipse.jdt.core.Signature;
 import org.eclipse.jdt.debug.core.IJavaStackFrame;
 import org.eclipse.jdt.debug.core.IJavaThread;
 import org.eclipse.jdt.debug.tests.AbstractDebugTest;
+import org.eclipse.jdt.internal.debug.core.model.LambdaVariableNames;
 
 public class LambdaVariableTest extends AbstractDebugTest {
 	private IJavaThread javaThread;
@@ -262,6 +267,20 @@ public class LambdaVariableTest extends AbstractDebugTest {
 		assertEquals("wrong result : ", "1", value.getValueString());
 	}
 
+	public void testLambdaVariableNames_CachedUntilModified() throws Exception {
+		ICompilationUnit unit = (ICompilationUnit) get18Project().findType("Bug560392").getTypeRoot();
+		LambdaVariableNames names = LambdaVariableNames.get(unit);
+		assertSame("Names should be cached", names, LambdaVariableNames.get(unit));
+
+		List<String[]> captured = names.getCapturedVariableNames(8);
+		assertEquals("wrong number of lambdas : ", 1, captured.size());
+		assertEquals("wrong names : ", "[key]", Arrays.toString(captured.get(0)));
+		assertTrue("No lambda expected in main", names.getCapturedVariableNames(14).isEmpty());
+
+		unit.getResource().touch(null);
+		assertNotSame("Names should be computed again after a modification", names, LambdaVariableNames.get(unit));
+	}
+
 	private void debugWithBreakpoint(String testClass, int lineNumber) throws Exception {
 		createLineBreakpoint(lineNumber, testClass);
 		javaThread = launchToBreakpoint(testClass);
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2018, 2020 Cedric Chabanois and others.
+ * Copyright (c) 2018, 2022 Cedric Chabanois and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -280,6 +280,60 @@ public class ClasspathShortenerTests extends AbstractDebugTest {
 		assertArrayEquals(new String[] { JAVA_8_PATH, ENCODING_ARG, MAIN_CLASS, "-arg1", "arg2" }, classpathShortener.getCmdLine());
 	}
 
+	public void testArgFileReusedForSameClasspath() throws Exception {
+		// Given
+		String classpath = getClasspathOrModulePath(userHomePath("/workspace/myProject/bin"), userHomePath("/workspace/myProject/lib/lib 1.jar"));
+		String[] cmdLine = new String[] { JAVA_10_PATH, ENCODING_ARG, "-cp", classpath, MAIN_CLASS, "-arg1", "arg2" };
+		classpathShortener = new ClasspathShortenerForTest(Platform.OS_LINUX, "10.0.1", cmdLine, 4, null);
+		classpathShortener.setMaxCommandLineLength(100);
+		assertTrue(classpathShortener.shortenCommandLineIfNecessary());
+		File argFile = classpathShortener.getProcessTempFiles().get(0);
+
+		// When
+		ClasspathShortenerForTest sameClasspathShortener = new ClasspathShortenerForTest(Platform.OS_LINUX, "10.0.1", cmdLine, 4, null);
+		sameClasspathShortener.setMaxCommandLineLength(100);
+		assertTrue(sameClasspathShortener.shortenCommandLineIfNecessary());
+		String otherClasspath = getClasspathOrModulePath(userHomePath("/workspace/myProject/bin"), userHomePath("/workspace/myProject/lib/lib 2.jar"));
+		ClasspathShortenerForTest otherClasspathShortener = new ClasspathShortenerForTest(Platform.OS_LINUX, "10.0.1", new String[] {
+				JAVA_10_PATH, ENCODING_ARG, "-cp", otherClasspath, MAIN_CLASS, "-arg1", "arg2" }, 4, null);
+		otherClasspathShortener.setMaxCommandLineLength(100);
+		assertTrue(otherClasspathShortener.shortenCommandLineIfNecessary());
+
+		// Then
+		try {
+			assertEquals(argFile, sameClasspathShortener.getProcessTempFiles().get(0));
+			assertArrayEquals(classpathShortener.getCmdLine(), sameClasspathShortener.getCmdLine());
+			File otherArgFile = otherClasspathShortener.getProcessTempFiles().get(0);
+			assertNotEquals(argFile, otherArgFile);
+			assertEquals("-classpath " + otherClasspath, getFileContents(otherArgFile));
+		} finally {
+			otherClasspathShortener.getProcessTempFiles().forEach(file -> file.delete());
+		}
+	}
+
+	public void testClasspathOnlyJarWithLongNonAsciiClasspath() throws Exception {
+		// Given
+		String[] classpathElements = new String[50];
+		for (int i = 0; i < classpathElements.length; i++) {
+			classpathElements[i] = userHomePath("/workspace/pr\u00F6ject\u4E2D" + i + "/lib/lib \uD83D\uDE00 " + i + ".jar");
+		}
+		String classpath = getClasspathOrModulePath(classpathElements);
+		String[] cmdLine = new String[] { JAVA_8_PATH, ENCODING_ARG, "-cp", classpath, MAIN_CLASS, "-arg1", "arg2" };
+		classpathShortener = new ClasspathShortenerForTest(Platform.OS_LINUX, "1.8.0_171", cmdLine, 4, null);
+		classpathShortener.setForceUseClasspathOnlyJar(true);
+
+		// When
+		boolean result = classpathShortener.shortenCommandLineIfNecessary();
+
+		// Then
+		assertTrue(result);
+		List<File> classpathJars = getClasspathJarsFromJarManifest(classpathShortener.getProcessTempFiles().get(0));
+		assertEquals(classpathElements.length, classpathJars.size());
+		for (int i = 0; i < classpathElements.length; i++) {
+			assertEquals(new File(classpathElements[i]).getCanonicalFile(), classpathJars.get(i).getCanonicalFile());
+		}
+	}
+
 	private String getFileContents(File file) throws UnsupportedEncodingException, IOException {
 		return new String(Files.readAllBytes(file.toPath()), "UTF-8");
 	}
@@ -330,16 +384,6 @@ public class ClasspathShortenerTests extends AbstractDebugTest {
 			this.forceUseClasspathOnlyJar = forceUseClasspathOnlyJar;
 		}
 
-		@Override
-		protected String getLaunchConfigurationName() {
-			return "launch";
-		}
-
-		@Override
-		protected String getLaunchTimeStamp() {
-			return Long.toString(System.currentTimeMillis());
-		}
-
 		@Override
 		protected boolean handleClasspathTooLongStatus() throws CoreException {
 			return allowToUseClasspathOnlyJar;
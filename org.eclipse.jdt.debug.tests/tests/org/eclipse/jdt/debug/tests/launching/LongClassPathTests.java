@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2018 Cedric Chabanois and others.
+ * Copyright (c) 2018, 2022 Cedric Chabanois and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -120,12 +120,11 @@ public class LongClassPathTests extends AbstractDebugTest {
 
 		// When
 		resumeAndExit(thread);
+		getLaunchManager().removeLaunch(thread.getLaunch());
 
-		// Then
-		if (!Platform.getOS().equals(Platform.OS_WIN32)) {
-			// On windows, temp file deletion may fail
-			assertFalse(tempFile.exists());
-		}
+		// Then no file is left in the working directory, the shared one is kept for the next launch
+		assertFalse(new File(javaProject.getProject().getLocation().toFile(), tempFile.getName()).exists());
+		assertTrue(tempFile.exists());
 	}
 
 	/*
@@ -152,12 +151,11 @@ public class LongClassPathTests extends AbstractDebugTest {
 
 		// When
 		resumeAndExit(thread);
+		getLaunchManager().removeLaunch(thread.getLaunch());
 
-		// Then
-		if (!Platform.getOS().equals(Platform.OS_WIN32)) {
-			// On windows, temp file deletion may fail
-			assertFalse(tempFile.exists());
-		}
+		// Then no file is left in the working directory, the shared one is kept for the next launch
+		assertFalse(new File(javaProject.getProject().getLocation().toFile(), tempFile.getName()).exists());
+		assertTrue(tempFile.exists());
 	}
 
 	/*
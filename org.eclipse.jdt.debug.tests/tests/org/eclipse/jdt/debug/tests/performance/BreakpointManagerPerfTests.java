@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2011, 2012 IBM Corporation and others.
+ * Copyright (c) 2011, 2022 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -14,14 +14,28 @@
 package org.eclipse.jdt.debug.tests.performance;
 
 import java.util.ArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.eclipse.core.resources.IFile;
+import org.eclipse.core.resources.IMarkerDelta;
 import org.eclipse.core.resources.IResource;
+import org.eclipse.core.resources.IResourceChangeEvent;
+import org.eclipse.core.resources.IResourceChangeListener;
+import org.eclipse.core.resources.IResourceDelta;
+import org.eclipse.core.resources.ResourcesPlugin;
+import org.eclipse.core.runtime.jobs.Job;
+import org.eclipse.debug.core.DebugEvent;
 import org.eclipse.debug.core.model.IBreakpoint;
 import org.eclipse.debug.internal.core.BreakpointManager;
 import org.eclipse.jdt.core.IType;
 import org.eclipse.jdt.core.Signature;
+import org.eclipse.jdt.debug.core.IJavaBreakpoint;
+import org.eclipse.jdt.debug.core.IJavaDebugTarget;
+import org.eclipse.jdt.debug.core.IJavaThread;
+import org.eclipse.jdt.debug.testplugin.DebugElementEventWaiter;
+import org.eclipse.jdt.debug.testplugin.DebugEventWaiter;
 import org.eclipse.jdt.debug.tests.AbstractDebugPerformanceTest;
+import org.eclipse.jdt.internal.debug.core.breakpoints.BreakpointInstallStateWriter;
 import org.eclipse.test.performance.Dimension;
 import org.eclipse.ui.IEditorPart;
 
@@ -165,4 +179,64 @@ public class BreakpointManagerPerfTests extends AbstractDebugPerformanceTest {
 			removeAllBreakpoints();
 		}
 	}
+
+	/**
+	 * Tests the time required to install 200 line breakpoints in a debug target
+	 * and to remove them again when the target terminates, including the
+	 * update of the breakpoint markers. Marker updates are expected to be
+	 * coalesced rather than to notify resource change listeners once per
+	 * breakpoint.
+	 *
+	 * @throws Exception
+	 */
+	public void testInstallState200Breakpoints() throws Exception {
+		tagAsSummary("Install and Remove Breakpoints - 200 BPs", Dimension.ELAPSED_PROCESS);
+		removeAllBreakpoints();
+		IType type = getType(fgTypeName);
+		IResource resource = type.getResource();
+		ArrayList<IJavaBreakpoint> bps = new ArrayList<>(200);
+		for (int i = 16; i < 216; i++) {
+			bps.add(createLineBreakpoint(i, fgTypeName));
+		}
+		AtomicInteger changes = new AtomicInteger();
+		IResourceChangeListener listener = new IResourceChangeListener() {
+			@Override
+			public void resourceChanged(IResourceChangeEvent event) {
+				IMarkerDelta[] deltas = event.findMarkerDeltas(IBreakpoint.BREAKPOINT_MARKER, true);
+				for (IMarkerDelta delta : deltas) {
+					if (delta.getKind() == IResourceDelta.CHANGED && resource.equals(delta.getResource())) {
+						changes.incrementAndGet();
+						return;
+					}
+				}
+			}
+		};
+		ResourcesPlugin.getWorkspace().addResourceChangeListener(listener, IResourceChangeEvent.POST_CHANGE);
+		try {
+			for (int i = 0; i < 12; i++) {
+				changes.set(0);
+				startMeasuring();
+				IJavaThread thread = launchToBreakpoint(fgTypeName);
+				assertNotNull("Breakpoint not hit", thread);
+				IJavaDebugTarget target = (IJavaDebugTarget) thread.getDebugTarget();
+				DebugEventWaiter waiter = new DebugElementEventWaiter(DebugEvent.TERMINATE, target);
+				target.terminate();
+				waiter.waitForEvent();
+				Job.getJobManager().join(BreakpointInstallStateWriter.class, null);
+				stopMeasuring();
+				for (IJavaBreakpoint bp : bps) {
+					assertFalse("Breakpoint should not be installed after termination", bp.isInstalled());
+					assertEquals("Wrong install count on marker", 0, bp.getMarker().getAttribute("org.eclipse.jdt.debug.core.installCount", 0));
+				}
+				assertTrue("Marker updates should be coalesced, but there were " + changes.get() + " changes", changes.get() < bps.size());
+				getLaunchManager().removeLaunch(target.getLaunch());
+			}
+			commitMeasurements();
+			assertPerformance();
+		}
+		finally {
+			ResourcesPlugin.getWorkspace().removeResourceChangeListener(listener);
+			removeAllBreakpoints();
+		}
+	}
 }
@@ -0,0 +1,140 @@
+/*******************************************************************************
+ * Copyright (c) 2022 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.debug.tests.performance;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.eclipse.core.runtime.Platform;
+import org.eclipse.jdt.debug.tests.AbstractDebugPerformanceTest;
+import org.eclipse.jdt.internal.launching.LaunchingPlugin;
+import org.eclipse.jdt.internal.launching.StandardVMType;
+import org.eclipse.jdt.internal.launching.VMDefinitionsContainer;
+import org.eclipse.test.performance.Dimension;
+
+/**
+ * Tests the performance of restoring installed JREs on workspace startup
+ */
+public class PerfJREDetectionTests extends AbstractDebugPerformanceTest {
+
+	private static final int JRE_COUNT = 100;
+
+	private Path fRoot;
+	private List<File> fInstalls = new ArrayList<>();
+
+	/**
+	 * Constructor
+	 * @param name
+	 */
+	public PerfJREDetectionTests(String name) {
+		super(name);
+	}
+
+	@Override
+	protected void setUp() throws Exception {
+		super.setUp();
+		fRoot = Files.createTempDirectory("PerfJREDetectionTests");
+	}
+
+	@Override
+	protected void tearDown() throws Exception {
+		for (File install : fInstalls) {
+			LaunchingPlugin.setLibraryInfo(install.getAbsolutePath(), null);
+		}
+		try (Stream<Path> files = Files.walk(fRoot)) {
+			files.sorted(Comparator.reverseOrder()).map(Path::toFile).forEach(File::delete);
+		}
+		super.tearDown();
+	}
+
+	/**
+	 * Creates a JRE 1.8 layout without a <code>release</code> file, so that its
+	 * library information has to be detected by running its launcher. The
+	 * launcher is a shell script that prints the output of the library detector
+	 * for the layout.
+	 *
+	 * @param name the name of the install folder
+	 * @return the install location
+	 * @throws Exception
+	 */
+	File createFakeJRE(String name) throws Exception {
+		Path home = Files.createDirectories(fRoot.resolve(name));
+		Path lib = Files.createDirectories(home.resolve("jre").resolve("lib"));
+		Files.createFile(lib.resolve("rt.jar"));
+		Path ext = Files.createDirectories(lib.resolve("ext"));
+		Path endorsed = Files.createDirectories(lib.resolve("endorsed"));
+		String output = "1.8.0|" + lib.resolve("rt.jar") + "|" + ext + "|" + endorsed;
+		Path java = Files.createDirectories(home.resolve("bin")).resolve("java");
+		Files.write(java, ("#!/bin/sh\nprintf '%s' '" + output + "'\n").getBytes(StandardCharsets.UTF_8));
+		assertTrue("Launcher should be executable", java.toFile().setExecutable(true));
+		File install = home.toFile();
+		fInstalls.add(install);
+		return install;
+	}
+
+	/**
+	 * Returns VM settings XML describing the given number of freshly created fake installs
+	 *
+	 * @param prefix the prefix of the install folder names
+	 * @param count the number of installs
+	 * @return the VM settings XML
+	 * @throws Exception
+	 */
+	byte[] createVMSettings(String prefix, int count) throws Exception {
+		StringBuilder xml = new StringBuilder();
+		xml.append("<?xml version=\"1.0\" encoding=\"UTF-8\"?><vmSettings><vmType id=\"");
+		xml.append(StandardVMType.ID_STANDARD_VM_TYPE);
+		xml.append("\">");
+		for (int i = 0; i < count; i++) {
+			File install = createFakeJRE(prefix + i);
+			xml.append("<vm id=\"").append(prefix).append(i);
+			xml.append("\" name=\"").append(install.getName());
+			xml.append("\" path=\"").append(install.getAbsolutePath()).append("\"/>");
+		}
+		xml.append("</vmType></vmSettings>");
+		return xml.toString().getBytes(StandardCharsets.UTF_8);
+	}
+
+	/**
+	 * Tests the time required to restore and validate 100 installed JREs
+	 * @throws Exception
+	 */
+	public void testRestore100JREs() throws Exception {
+		if (Platform.OS_WIN32.equals(Platform.getOS())) {
+			// the fake launchers are shell scripts
+			return;
+		}
+		tagAsSummary("Restore installed JREs - 100 JREs", Dimension.ELAPSED_PROCESS);
+		// warm up
+		VMDefinitionsContainer container = VMDefinitionsContainer.parseXMLIntoContainer(new ByteArrayInputStream(createVMSettings("warmup", 10)));
+		assertEquals("All warm up JREs should be valid", 10, container.getValidVMList().size());
+
+		for (int i = 0; i < 10; i++) {
+			byte[] settings = createVMSettings("jre" + i + "_", JRE_COUNT);
+			startMeasuring();
+			container = VMDefinitionsContainer.parseXMLIntoContainer(new ByteArrayInputStream(settings));
+			stopMeasuring();
+			assertEquals("All JREs should be valid", JRE_COUNT, container.getValidVMList().size());
+		}
+		commitMeasurements();
+		assertPerformance();
+	}
+}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- *  Copyright (c) 2000, 2015 IBM Corporation and others.
+ *  Copyright (c) 2000, 2022 IBM Corporation and others.
  *
  *  This program and the accompanying materials
  *  are made available under the terms of the Eclipse Public License 2.0
@@ -15,9 +15,11 @@ package org.eclipse.jdt.debug.tests.performance;
 
 import org.eclipse.debug.core.ILaunchConfiguration;
 import org.eclipse.debug.core.model.IValue;
+import org.eclipse.debug.core.model.IVariable;
 import org.eclipse.debug.ui.DebugUITools;
 import org.eclipse.debug.ui.IDebugModelPresentation;
 import org.eclipse.debug.ui.IValueDetailListener;
+import org.eclipse.jdt.debug.core.IJavaLineBreakpoint;
 import org.eclipse.jdt.debug.core.IJavaStackFrame;
 import org.eclipse.jdt.debug.core.IJavaThread;
 import org.eclipse.jdt.debug.core.IJavaVariable;
@@ -98,4 +100,69 @@ public class PerfVariableDetailTests extends AbstractDebugPerformanceTest implem
         	terminateAndRemove(thread);
         }
     }
+
+    /**
+     * Tests the performance of retrieving the variables of a stack frame with
+     * many locals and of an object with many fields, along with their values,
+     * like the variables view does after each suspend
+     * @throws Exception
+     */
+    public void testVariablesViewLatency() throws Exception {
+    	tagAsSummary("Retrieving variables and values of a stack frame and an object", Dimension.ELAPSED_PROCESS);
+        removeAllBreakpoints();
+        String typeName = "ManyVariables";
+        IJavaLineBreakpoint bp = createLineBreakpoint(93, typeName);
+        IJavaThread thread = null;
+        try {
+        	thread = launchToLineBreakpoint(typeName, bp, false);
+
+        	// warm up
+        	for (int i = 0; i < 50; i++) {
+        		retrieveVariables(thread);
+        		thread = resumeToLineBreakpoint(thread, bp);
+        	}
+
+        	// test
+        	for (int i = 0; i < 300; i++) {
+        		startMeasuring();
+        		retrieveVariables(thread);
+        		stopMeasuring();
+        		thread = resumeToLineBreakpoint(thread, bp);
+        	}
+
+        	commitMeasurements();
+        	assertPerformance();
+
+        } finally {
+        	removeAllBreakpoints();
+        	terminateAndRemove(thread);
+        }
+    }
+
+    /**
+     * Retrieves the variables of the top stack frame and their values, and
+     * expands the variable 'object'
+     * @param thread the suspended thread
+     * @throws Exception
+     */
+    private void retrieveVariables(IJavaThread thread) throws Exception {
+    	IJavaStackFrame frame = (IJavaStackFrame) thread.getTopStackFrame();
+    	assertNotNull("Missing top stack frame", frame);
+    	IVariable[] variables = frame.getVariables();
+    	assertEquals("Wrong number of variables", 26, variables.length);
+    	IValue object = null;
+    	for (IVariable variable : variables) {
+    		IValue value = variable.getValue();
+    		value.getValueString();
+    		if ("object".equals(variable.getName())) {
+    			object = value;
+    		}
+    	}
+    	assertNotNull("Missing variable 'object'", object);
+    	IVariable[] fields = object.getVariables();
+    	assertEquals("Wrong number of fields", 40, fields.length);
+    	for (IVariable field : fields) {
+    		field.getValue().getValueString();
+    	}
+    }
 }
@@ -0,0 +1,123 @@
+/*******************************************************************************
+ * Copyright (c) 2022 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.debug.tests.sourcelookup;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.stream.Stream;
+
+import org.eclipse.jdt.debug.tests.AbstractDebugTest;
+import org.eclipse.jdt.internal.launching.sourcelookup.advanced.FileHashing;
+import org.eclipse.jdt.internal.launching.sourcelookup.advanced.FileHashing.Hasher;
+
+/**
+ * Tests the file hashing used by advanced source lookup
+ */
+public class FileHashingTests extends AbstractDebugTest {
+
+	private Path fRoot;
+
+	public FileHashingTests(String name) {
+		super(name);
+	}
+
+	@Override
+	protected void setUp() throws Exception {
+		super.setUp();
+		fRoot = Files.createTempDirectory("FileHashingTests");
+	}
+
+	@Override
+	protected void tearDown() throws Exception {
+		try (Stream<Path> files = Files.walk(fRoot)) {
+			files.sorted(Comparator.reverseOrder()).map(Path::toFile).forEach(File::delete);
+		}
+		super.tearDown();
+	}
+
+	private File createFile(String name, int size, long seed) throws Exception {
+		byte[] content = new byte[size];
+		new Random(seed).nextBytes(content);
+		return Files.write(fRoot.resolve(name), content).toFile();
+	}
+
+	private String sha1(File file) throws Exception {
+		byte[] digest = MessageDigest.getInstance("SHA-1").digest(Files.readAllBytes(file.toPath()));
+		StringBuilder hex = new StringBuilder();
+		for (byte b : digest) {
+			hex.append(String.format("%02x", b));
+		}
+		return hex.toString();
+	}
+
+	/**
+	 * Tests that small files and files that are large enough to be memory-mapped are hashed correctly
+	 *
+	 * @throws Exception
+	 */
+	public void testHash() throws Exception {
+		Hasher hasher = FileHashing.hasher();
+		File small = createFile("small.jar", 1000, 1);
+		File large = createFile("large.jar", 3 * 1024 * 1024 + 17, 2);
+		assertEquals("Wrong hash of small file", sha1(small), String.valueOf(hasher.hash(small)));
+		assertEquals("Wrong hash of large file", sha1(large), String.valueOf(hasher.hash(large)));
+		assertNull("Missing file should not have a hash", hasher.hash(new File(fRoot.toFile(), "missing.jar")));
+	}
+
+	/**
+	 * Tests that hashing many files at once returns the same hashes as hashing them one by one
+	 *
+	 * @throws Exception
+	 */
+	public void testHashAll() throws Exception {
+		Hasher hasher = FileHashing.hasher();
+		List<File> files = new ArrayList<>();
+		for (int i = 0; i < 50; i++) {
+			files.add(createFile("lib" + i + ".jar", 1000 + i * 10000, i));
+		}
+		File missing = new File(fRoot.toFile(), "missing.jar");
+		files.add(missing);
+		Map<File, Object> hashes = hasher.hash(files);
+		assertEquals("Wrong number of hashes", files.size(), hashes.size());
+		assertNull("Missing file should not have a hash", hashes.get(missing));
+		for (File file : files.subList(0, 50)) {
+			assertEquals("Wrong hash of " + file.getName(), sha1(file), String.valueOf(hashes.get(file)));
+			assertEquals("Indexed hash of " + file.getName() + " differs", hashes.get(file), hasher.hash(file));
+		}
+	}
+
+	/**
+	 * Tests that a file is hashed again once it changed
+	 *
+	 * @throws Exception
+	 */
+	public void testHashOfChangedFile() throws Exception {
+		Hasher hasher = FileHashing.hasher();
+		File file = createFile("changed.jar", 1000, 1);
+		Object hash = hasher.hash(file);
+		createFile("changed.jar", 2000, 2);
+		file.setLastModified(file.lastModified() + 2000);
+		Object newHash = hasher.hash(Arrays.asList(file)).get(file);
+		assertFalse("Changed file should have a new hash", hash.equals(newHash));
+		assertEquals("Wrong hash of changed file", sha1(file), String.valueOf(newHash));
+	}
+}
@@ -0,0 +1,114 @@
+/*******************************************************************************
+ * Copyright (c) 2022 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.debug.tests.sourcelookup;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.eclipse.core.resources.IFile;
+import org.eclipse.core.runtime.jobs.Job;
+import org.eclipse.debug.core.sourcelookup.ISourceContainer;
+import org.eclipse.debug.core.sourcelookup.ISourceLookupDirector;
+import org.eclipse.jdt.core.IClassFile;
+import org.eclipse.jdt.core.ICompilationUnit;
+import org.eclipse.jdt.core.IJavaProject;
+import org.eclipse.jdt.core.IPackageFragment;
+import org.eclipse.jdt.core.IPackageFragmentRoot;
+import org.eclipse.jdt.debug.tests.AbstractDebugTest;
+import org.eclipse.jdt.internal.launching.JavaSourceLookupDirector;
+import org.eclipse.jdt.internal.launching.JavaSourceLookupIndex;
+import org.eclipse.jdt.launching.sourcelookup.containers.JavaProjectSourceContainer;
+import org.eclipse.jdt.launching.sourcelookup.containers.PackageFragmentRootSourceContainer;
+
+/**
+ * Tests source lookup through the index of a Java source lookup director
+ */
+public class JavaSourceLookupIndexTests extends AbstractDebugTest {
+
+	private ISourceLookupDirector fDirector;
+
+	public JavaSourceLookupIndexTests(String name) {
+		super(name);
+	}
+
+	@Override
+	protected void setUp() throws Exception {
+		super.setUp();
+		IJavaProject project = get14Project();
+		List<ISourceContainer> containers = new ArrayList<>();
+		containers.add(new JavaProjectSourceContainer(project));
+		for (IPackageFragmentRoot root : project.getPackageFragmentRoots()) {
+			if (root.getKind() == IPackageFragmentRoot.K_BINARY) {
+				containers.add(new PackageFragmentRootSourceContainer(root));
+			}
+		}
+		fDirector = new JavaSourceLookupDirector();
+		fDirector.initializeParticipants();
+		fDirector.setSourceContainers(containers.toArray(new ISourceContainer[containers.size()]));
+		Job.getJobManager().join(JavaSourceLookupIndex.FAMILY, null);
+	}
+
+	@Override
+	protected void tearDown() throws Exception {
+		fDirector.dispose();
+		super.tearDown();
+	}
+
+	/**
+	 * Tests lookup of sources in a source folder, a library and the project
+	 *
+	 * @throws Exception
+	 */
+	public void testIndexedLookup() throws Exception {
+		Object[] objects = fDirector.findSourceElements("org/eclipse/debug/tests/targets/CallLoop.java");
+		assertEquals("Expected 1 result", 1, objects.length);
+		assertEquals("Wrong file", "CallLoop.java", ((IFile) objects[0]).getName());
+
+		objects = fDirector.findSourceElements("java/lang/String.java");
+		assertEquals("Expected 1 result", 1, objects.length);
+		assertEquals("Wrong class file", "String.class", ((IClassFile) objects[0]).getElementName());
+
+		objects = fDirector.findSourceElements("debug/non-java.txt");
+		assertEquals("Expected 1 result", 1, objects.length);
+		assertEquals("Wrong file", "non-java.txt", ((IFile) objects[0]).getName());
+
+		assertEquals("Expected no result", 0, fDirector.findSourceElements("does/not/Exist.java").length);
+	}
+
+	/**
+	 * Tests that sources added and removed after the index was built are found respectively not found any more
+	 *
+	 * @throws Exception
+	 */
+	public void testLookupAfterChange() throws Exception {
+		String name = "org/eclipse/debug/tests/index/Added.java";
+		assertEquals("Expected no result before adding the source", 0, fDirector.findSourceElements(name).length);
+
+		IPackageFragmentRoot root = getPackageFragmentRoot(get14Project(), "src");
+		IPackageFragment fragment = root.createPackageFragment("org.eclipse.debug.tests.index", true, null);
+		try {
+			ICompilationUnit unit = fragment.createCompilationUnit("Added.java", "package org.eclipse.debug.tests.index;\npublic class Added {}\n", true, null);
+			Object[] objects = fDirector.findSourceElements(name);
+			assertEquals("Expected 1 result after adding the source", 1, objects.length);
+			assertEquals("Wrong file", unit.getResource(), objects[0]);
+
+			// the package remains, so this is served from the rebuilt index
+			Job.getJobManager().join(JavaSourceLookupIndex.FAMILY, null);
+			unit.delete(true, null);
+			assertEquals("Expected no result after removing the source", 0, fDirector.findSourceElements(name).length);
+		} finally {
+			fragment.delete(true, null);
+		}
+	}
+}
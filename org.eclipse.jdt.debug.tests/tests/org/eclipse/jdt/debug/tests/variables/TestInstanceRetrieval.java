@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2010 IBM Corporation and others.
+ * Copyright (c) 2010, 2022 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -14,14 +14,22 @@
 package org.eclipse.jdt.debug.tests.variables;
 
 import org.eclipse.debug.core.model.IBreakpoint;
+import org.eclipse.debug.core.model.IVariable;
 import org.eclipse.jdt.debug.core.IJavaDebugTarget;
+import org.eclipse.jdt.debug.core.IJavaHeapHistogram;
 import org.eclipse.jdt.debug.core.IJavaLineBreakpoint;
 import org.eclipse.jdt.debug.core.IJavaObject;
 import org.eclipse.jdt.debug.core.IJavaReferenceType;
 import org.eclipse.jdt.debug.core.IJavaStackFrame;
 import org.eclipse.jdt.debug.core.IJavaThread;
+import org.eclipse.jdt.debug.core.IJavaValue;
 import org.eclipse.jdt.debug.core.IJavaVariable;
 import org.eclipse.jdt.debug.tests.AbstractDebugTest;
+import org.eclipse.jdt.internal.debug.core.HeapWalkingManager;
+import org.eclipse.jdt.internal.debug.core.logicalstructures.JDIAllInstancesValue;
+import org.eclipse.jdt.internal.debug.core.model.JDIDebugTarget;
+import org.eclipse.jdt.internal.debug.core.model.JDIPlaceholderValue;
+import org.eclipse.jdt.internal.debug.core.model.JDIReferenceType;
 
 /**
  * Tests for instance retrieval
@@ -97,4 +105,94 @@ public class TestInstanceRetrieval extends AbstractDebugTest {
 		}
 	}
 
+	/**
+	 * Tests that an all instances value beyond the display limit answers its
+	 * elements by index.
+	 *
+	 * @throws Exception
+	 */
+	public void testAllInstancesValue() throws Exception {
+		String typeName = "java6.AllInstancesTests";
+		IJavaLineBreakpoint bp = createLineBreakpoint(66, typeName);
+		IJavaThread thread= null;
+		try {
+			thread= launchToLineBreakpoint(typeName, bp);
+			IJavaDebugTarget target = (IJavaDebugTarget) thread.getDebugTarget();
+			if (target.supportsInstanceRetrieval()) {
+				IJavaStackFrame frame = (IJavaStackFrame) thread.getTopStackFrame();
+				IJavaObject object = (IJavaObject) frame.findVariable("rc").getValue();
+				JDIReferenceType refType = (JDIReferenceType) object.getJavaType();
+				int max = HeapWalkingManager.getDefault().getAllInstancesMaxCount();
+				assertTrue("Display limit not exceeded", max > 0 && max < 1002);
+
+				JDIAllInstancesValue value = new JDIAllInstancesValue((JDIDebugTarget) target, refType);
+				assertEquals("Wrong size", max + 1, value.getSize());
+				IJavaValue last = (IJavaValue) value.getVariable(max - 1).getValue();
+				assertEquals("Instance is of unexpected type", refType, last.getJavaType());
+				assertEquals("Wrong instance", last, value.getValue(max - 1));
+				assertTrue("Missing placeholder", value.getValue(max) instanceof JDIPlaceholderValue);
+				IVariable[] variables = value.getVariables(max - 2, 3);
+				assertEquals("Wrong number of variables", 3, variables.length);
+				assertEquals("Wrong instance", last, variables[1].getValue());
+				assertEquals("Wrong number of values", max + 1, value.getValues().length);
+			}
+		} finally {
+			terminateAndRemove(thread);
+			removeAllBreakpoints();
+		}
+	}
+
+	/**
+	 * Tests a heap histogram and its changes between two breakpoints.
+	 *
+	 * @throws Exception
+	 */
+	public void testHeapHistogram() throws Exception {
+		String typeName = "java6.AllInstancesTests";
+		createLineBreakpoint(64, typeName);
+		IJavaLineBreakpoint bp2 = createLineBreakpoint(66, typeName);
+		IJavaThread thread= null;
+		try {
+			thread= launchToBreakpoint(typeName);
+			assertNotNull("Breakpoint not hit within timeout period", thread);
+			IJavaDebugTarget target = (IJavaDebugTarget) thread.getDebugTarget();
+			if (target.supportsInstanceRetrieval()) {
+				IJavaHeapHistogram baseline = target.getHeapHistogram(null);
+				assertEquals("Wrong instance count", 13, getInstanceCount(baseline, "java6.AllInstancesTests$RefObject"));
+				for (int i = 1; i < baseline.getTypeCount(); i++) {
+					assertTrue("Histogram not sorted by count", baseline.getInstanceCount(i - 1) >= baseline.getInstanceCount(i));
+				}
+
+				thread = resumeToLineBreakpoint(thread, bp2);
+				IJavaHeapHistogram changes = target.getHeapHistogram(null).compareTo(baseline);
+				int index = indexOf(changes, "java6.AllInstancesTests$RefClass");
+				assertTrue("Missing change of RefClass", index >= 0);
+				assertEquals("Wrong instance count", 1002, changes.getInstanceCount(index));
+				assertEquals("Wrong instance count change", 1002, changes.getInstanceCountChange(index));
+				for (int i = 0; i < changes.getTypeCount(); i++) {
+					assertTrue("Unchanged type in comparison", changes.getInstanceCountChange(i) != 0);
+					if (i > 0) {
+						assertTrue("Comparison not sorted by change", changes.getInstanceCountChange(i - 1) >= changes.getInstanceCountChange(i));
+					}
+				}
+			}
+		} finally {
+			terminateAndRemove(thread);
+			removeAllBreakpoints();
+		}
+	}
+
+	private int indexOf(IJavaHeapHistogram histogram, String typeName) {
+		for (int i = 0; i < histogram.getTypeCount(); i++) {
+			if (histogram.getTypeName(i).equals(typeName)) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	private long getInstanceCount(IJavaHeapHistogram histogram, String typeName) {
+		int index = indexOf(histogram, typeName);
+		return index < 0 ? 0 : histogram.getInstanceCount(index);
+	}
 }
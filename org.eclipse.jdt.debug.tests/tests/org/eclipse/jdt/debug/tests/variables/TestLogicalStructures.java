@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2008 IBM Corporation and others.
+ * Copyright (c) 2008, 2022 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -13,6 +13,7 @@
  *******************************************************************************/
 package org.eclipse.jdt.debug.tests.variables;
 
+import org.eclipse.debug.core.DebugException;
 import org.eclipse.debug.core.DebugPlugin;
 import org.eclipse.debug.core.ILogicalStructureType;
 import org.eclipse.debug.core.model.IBreakpoint;
@@ -24,6 +25,7 @@ import org.eclipse.jdt.debug.core.IJavaStackFrame;
 import org.eclipse.jdt.debug.core.IJavaThread;
 import org.eclipse.jdt.debug.core.IJavaVariable;
 import org.eclipse.jdt.debug.tests.AbstractDebugTest;
+import org.eclipse.jdt.internal.debug.core.model.JDIPagedArrayValue;
 
 /**
  * Tests for logical structures
@@ -155,4 +157,54 @@ public class TestLogicalStructures extends AbstractDebugTest {
 			removeAllBreakpoints();
 		}
 	}
+
+	/**
+	 * Tests that the logical structures of large collections are evaluated a
+	 * page at a time, both by index range and by iterator.
+	 *
+	 * @throws Exception
+	 */
+	public void testPagedCollectionLogicalStructure() throws Exception {
+		String typeName = "LogicalStructures";
+		createLineBreakpoint(40, typeName);
+		IJavaThread thread= null;
+		try {
+			thread= launchToBreakpoint(typeName);
+			assertNotNull("Breakpoint not hit within timeout period", thread);
+
+			IJavaStackFrame frame = (IJavaStackFrame) thread.getTopStackFrame();
+			assertNotNull("missing top frame", frame);
+
+			for (String name : new String[] { "largeList", "largeSet" }) {
+				IJavaVariable variable = frame.findVariable(name);
+				assertNotNull("Missing variable " + name, variable);
+
+				IValue value = variable.getValue();
+				ILogicalStructureType[] types = DebugPlugin.getLogicalStructureTypes(value);
+				assertEquals("Should be one logical structure type", 1, types.length);
+
+				IJavaObject logicalValue = (IJavaObject) types[0].getLogicalStructure(value);
+				assertTrue("Logical value should be paged", logicalValue instanceof JDIPagedArrayValue);
+				Thread.sleep(500); // run a few GC cycles
+
+				IJavaArray array = (IJavaArray) logicalValue;
+				assertEquals("Should be 1000 elements in the structure", 1000, array.getLength());
+				IVariable[] children = array.getVariables(550, 10);
+				assertEquals("Wrong element name", "[555]", children[5].getName());
+				IJavaObject element = (IJavaObject) children[5].getValue();
+				assertEquals("Wrong element", "555", element.getField("value", false).getValue().getValueString());
+				assertEquals("Wrong last element", "999", ((IJavaObject) array.getValue(999)).getField("value", false).getValue().getValueString());
+				assertEquals("Wrong value string", "size=1000", array.getValueString());
+				try {
+					array.setValue(0, element);
+					fail("Elements of a paged structure should not be modifiable");
+				} catch (DebugException e) {
+					assertEquals("Wrong status code", DebugException.NOT_SUPPORTED, e.getStatus().getCode());
+				}
+			}
+		} finally {
+			terminateAndRemove(thread);
+			removeAllBreakpoints();
+		}
+	}
 }
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2015 IBM Corporation and others.
+ * Copyright (c) 2000, 2022 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -17,6 +17,7 @@ import org.eclipse.core.runtime.IAdaptable;
 import org.eclipse.debug.core.DebugEvent;
 import org.eclipse.debug.core.DebugException;
 import org.eclipse.debug.core.model.IDebugElement;
+import org.eclipse.debug.core.model.IDebugTarget;
 import org.eclipse.debug.core.model.IStackFrame;
 import org.eclipse.debug.core.model.IThread;
 import org.eclipse.debug.core.model.IValue;
@@ -32,6 +33,7 @@ import org.eclipse.jdt.debug.eval.IEvaluationListener;
 import org.eclipse.jdt.debug.eval.IEvaluationResult;
 import org.eclipse.jdt.internal.debug.core.JDIDebugPlugin;
 import org.eclipse.jdt.internal.debug.core.JavaDebugUtils;
+import org.eclipse.jdt.internal.debug.core.model.JDIDebugTarget;
 import org.eclipse.jdt.internal.debug.core.model.JDIThread;
 import org.eclipse.jdt.internal.debug.ui.display.JavaInspectExpression;
 
@@ -150,7 +152,15 @@ public class JavaWatchExpressionDelegate implements IWatchExpressionDelegate {
 				}
 			};
 			try {
-				evaluationEngine.evaluate(fExpressionText, fStackFrame, listener, DebugEvent.EVALUATION_IMPLICIT, false);
+				IDebugTarget target = fStackFrame.getDebugTarget();
+				if (target instanceof JDIDebugTarget) {
+					// compiles and evaluates all watch expressions of the frame at once,
+					// results are cached until the target suspends again, or the
+					// expression is re-evaluated in the same frame
+					((JDIDebugTarget) target).getWatchExpressionEvaluator().evaluate(fExpressionText, fStackFrame, evaluationEngine, listener);
+				} else {
+					evaluationEngine.evaluate(fExpressionText, fStackFrame, listener, DebugEvent.EVALUATION_IMPLICIT, false);
+				}
 			} catch (DebugException e) {
 				JDIDebugPlugin.log(e);
 				fListener.watchEvaluationFinished(null);
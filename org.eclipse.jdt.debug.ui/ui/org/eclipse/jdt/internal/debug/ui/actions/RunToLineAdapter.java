@@ -1,5 +1,5 @@
 /*******************************************************************************
- *  Copyright (c) 2000, 2020 IBM Corporation and others.
+ *  Copyright (c) 2000, 2022 IBM Corporation and others.
  *
  *  This program and the accompanying materials
  *  are made available under the terms of the Eclipse Public License 2.0
@@ -26,8 +26,12 @@ import org.eclipse.debug.core.model.IBreakpoint;
 import org.eclipse.debug.core.model.IDebugElement;
 import org.eclipse.debug.core.model.IDebugTarget;
 import org.eclipse.debug.core.model.ISuspendResume;
+import org.eclipse.debug.ui.DebugUITools;
+import org.eclipse.debug.ui.IDebugUIConstants;
 import org.eclipse.debug.ui.actions.IRunToLineTarget;
 import org.eclipse.debug.ui.actions.RunToLineHandler;
+import org.eclipse.jdt.core.IType;
+import org.eclipse.jdt.core.ITypeRoot;
 import org.eclipse.jdt.core.JavaCore;
 import org.eclipse.jdt.core.dom.AST;
 import org.eclipse.jdt.core.dom.ASTParser;
@@ -35,7 +39,10 @@ import org.eclipse.jdt.core.dom.CompilationUnit;
 import org.eclipse.jdt.debug.core.IJavaDebugTarget;
 import org.eclipse.jdt.debug.core.JDIDebugModel;
 import org.eclipse.jdt.debug.ui.IJavaDebugUIConstants;
+import org.eclipse.jdt.internal.debug.core.breakpoints.CompilationUnitCache;
 import org.eclipse.jdt.internal.debug.core.breakpoints.ValidBreakpointLocationLocator;
+import org.eclipse.jdt.internal.debug.core.model.JDIDebugTarget;
+import org.eclipse.jdt.internal.debug.core.model.RunToLineRequest;
 import org.eclipse.jdt.internal.debug.ui.BreakpointUtils;
 import org.eclipse.jdt.internal.debug.ui.JDIDebugUIPlugin;
 import org.eclipse.jface.text.IDocument;
@@ -70,10 +77,33 @@ public class RunToLineAdapter implements IRunToLineTarget {
 					final String[] typeName = new String[1];
 					final int[] lineNumber = new int[1];
 					final ITextSelection textSelection = (ITextSelection) selection;
+					final IDebugTarget debugTarget = target instanceof IAdaptable ? ((IAdaptable) target).getAdapter(IDebugTarget.class) : null;
+					final JDIDebugTarget javaTarget = getJDIDebugTarget(debugTarget);
 					Runnable r = new Runnable() {
 						@Override
 						public void run() {
 							lineNumber[0] = textSelection.getStartLine() + 1;
+							ITypeRoot root = ToggleBreakpointAdapter.getTypeRoot(input);
+							if (root != null) {
+								IType type = root.findPrimaryType();
+								if (javaTarget != null && type != null) {
+									// a line with locations in the loaded classes is valid,
+									// the line tables have been read by the VM already
+									String name = type.getFullyQualifiedName();
+									if (!RunToLineRequest.findLocations(javaTarget, name, lineNumber[0]).isEmpty()) {
+										validLine[0] = lineNumber[0];
+										typeName[0] = name;
+										return;
+									}
+								}
+								// shares the compilation unit and its locations with breakpoint verification
+								ValidBreakpointLocationLocator locator = CompilationUnitCache.getDefault().getLocation(root, lineNumber[0], false, false);
+								if (locator != null) {
+									validLine[0] = locator.getLineLocation();
+									typeName[0] = locator.getFullyQualifiedTypeName();
+									return;
+								}
+							}
 							ASTParser parser = ASTParser.newParser(AST.JLS15);
 							parser.setSource(document.get().toCharArray());
 							Map<String, String> options = JavaCore.getOptions();
@@ -94,18 +124,21 @@ public class RunToLineAdapter implements IRunToLineTarget {
 						if (typeName[0] == null) {
 							throw new CoreException(new Status(IStatus.ERROR, JDIDebugUIPlugin.getUniqueIdentifier(), IJavaDebugUIConstants.INTERNAL_ERROR, "Invalid Type Name", null)); //$NON-NLS-1$
 						}
+						if (javaTarget != null) {
+							// an in-memory request, without a breakpoint marker
+							boolean skipBreakpoints = DebugUITools.getPreferenceStore().getBoolean(IDebugUIConstants.PREF_SKIP_BREAKPOINTS_DURING_RUN_TO_LINE);
+							new RunToLineRequest(javaTarget, typeName[0], lineNumber[0]).run(target, skipBreakpoints);
+							return;
+						}
 						IBreakpoint breakpoint= null;
 						Map<String, Object> attributes = new HashMap<>(4);
 						BreakpointUtils.addRunToLineAttributes(attributes);
 						breakpoint= JDIDebugModel.createLineBreakpoint(ResourcesPlugin.getWorkspace().getRoot(), typeName[0], lineNumber[0], -1, -1, 1, false, attributes);
 						errorMessage = "Unable to locate debug target";  //$NON-NLS-1$
-						if (target instanceof IAdaptable) {
-							IDebugTarget debugTarget = ((IAdaptable) target).getAdapter(IDebugTarget.class);
-							if (debugTarget != null) {
-	                            RunToLineHandler handler = new RunToLineHandler(debugTarget, target, breakpoint);
-	                            handler.run(new NullProgressMonitor());
-								return;
-							}
+						if (debugTarget != null) {
+                            RunToLineHandler handler = new RunToLineHandler(debugTarget, target, breakpoint);
+                            handler.run(new NullProgressMonitor());
+							return;
 						}
 					} else {
 						// invalid line
@@ -133,6 +166,22 @@ public class RunToLineAdapter implements IRunToLineTarget {
 		return false;
 	}
 
+	/**
+	 * Returns the JDI debug target of the given debug target or
+	 * <code>null</code> if none.
+	 *
+	 * @param debugTarget
+	 *            debug target or <code>null</code>
+	 * @return JDI debug target or <code>null</code>
+	 */
+	private static JDIDebugTarget getJDIDebugTarget(IDebugTarget debugTarget) {
+		if (debugTarget == null) {
+			return null;
+		}
+		IJavaDebugTarget javaTarget = debugTarget.getAdapter(IJavaDebugTarget.class);
+		return javaTarget instanceof JDIDebugTarget ? (JDIDebugTarget) javaTarget : null;
+	}
+
     /**
      * Returns the text editor associated with the given part or <code>null</code>
      * if none. In case of a multi-page editor, this method should be used to retrieve
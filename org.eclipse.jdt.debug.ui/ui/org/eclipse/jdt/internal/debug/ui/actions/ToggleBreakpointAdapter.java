@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2021 IBM Corporation and others.
+ * Copyright (c) 2000, 2022 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -1433,7 +1433,7 @@ public class ToggleBreakpointAdapter implements IToggleBreakpointsTargetExtensio
      * @return the type root or <code>null</code> if one cannot be derived
 	 * @since 3.4
      */
-	private static ITypeRoot getTypeRoot(IEditorInput input) {
+	static ITypeRoot getTypeRoot(IEditorInput input) {
 		ITypeRoot root = input.getAdapter(IClassFile.class);
     	if(root == null) {
     		 IWorkingCopyManager manager = JavaUI.getWorkingCopyManager();
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2006, 2011 IBM Corporation and others.
+ * Copyright (c) 2006, 2022 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -19,6 +19,7 @@ import org.eclipse.debug.internal.ui.viewers.model.provisional.IPresentationCont
 import org.eclipse.debug.internal.ui.viewers.model.provisional.IViewerUpdate;
 import org.eclipse.debug.ui.IDebugUIConstants;
 import org.eclipse.jdt.debug.core.IJavaDebugTarget;
+import org.eclipse.jdt.internal.debug.core.model.JDIThread;
 import org.eclipse.jdt.internal.debug.ui.monitors.JavaElementContentProvider;
 
 /**
@@ -52,6 +53,9 @@ public class JavaDebugTargetContentProvider extends DebugTargetContentProvider {
 			if (JavaElementContentProvider.isDisplayThreadGroups()) {
 				return getElements(((IJavaDebugTarget)parent).getRootThreadGroups(), index, length);
 			}
+			Object[] threads = super.getChildren(parent, index, length, context, monitor);
+			JDIThread.prefetchSnapshots(threads);
+			return threads;
 		}
 		return super.getChildren(parent, index, length, context, monitor);
 	}
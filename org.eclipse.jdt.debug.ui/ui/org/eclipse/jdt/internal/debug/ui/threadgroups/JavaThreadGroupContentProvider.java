@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2006, 2011 IBM Corporation and others.
+ * Copyright (c) 2006, 2022 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -19,6 +19,7 @@ import org.eclipse.debug.internal.ui.viewers.model.provisional.IPresentationCont
 import org.eclipse.debug.internal.ui.viewers.model.provisional.IViewerUpdate;
 import org.eclipse.jdt.debug.core.IJavaThread;
 import org.eclipse.jdt.debug.core.IJavaThreadGroup;
+import org.eclipse.jdt.internal.debug.core.model.JDIThread;
 import org.eclipse.jdt.internal.debug.ui.monitors.JavaElementContentProvider;
 
 /**
@@ -48,7 +49,9 @@ public class JavaThreadGroupContentProvider extends JavaElementContentProvider {
 	@Override
 	protected Object[] getChildren(Object parent, int index, int length, IPresentationContext context, IViewerUpdate monitor) throws CoreException {
 		if (parent instanceof IJavaThreadGroup) {
-			return getElements(getChildren((IJavaThreadGroup) parent), index, length);
+			Object[] children = getElements(getChildren((IJavaThreadGroup) parent), index, length);
+			JDIThread.prefetchSnapshots(children);
+			return children;
 		}
 		return EMPTY;
 	}
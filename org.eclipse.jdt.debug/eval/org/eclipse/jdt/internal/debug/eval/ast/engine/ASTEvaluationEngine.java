@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2020 IBM Corporation and others.
+ * Copyright (c) 2000, 2022 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -294,11 +294,33 @@ public class ASTEvaluationEngine implements IAstEvaluationEngine {
 	@Override
 	public ICompiledExpression getCompiledExpression(String snippet,
 			IJavaStackFrame frame) {
+		return getCompiledExpressions(new String[] { snippet }, frame)[0];
+	}
+
+	/**
+	 * Compiles the given code snippets in the context of the given stack frame.
+	 * The variables visible in the frame are determined once, and the source of
+	 * the frame's declaring type is parsed at most once for all snippets.
+	 *
+	 * @param snippets
+	 *            the code snippets to compile
+	 * @param frame
+	 *            the stack frame providing the context of the snippets
+	 * @return a compiled expression for each snippet, in the same order, which
+	 *         may contain compilation errors
+	 * @since 3.19.200
+	 */
+	public ICompiledExpression[] getCompiledExpressions(String[] snippets,
+			IJavaStackFrame frame) {
+		ICompiledExpression[] expressions = new ICompiledExpression[snippets.length];
 		IJavaProject javaProject = getJavaProject();
 		RuntimeContext context = new RuntimeContext(javaProject, frame);
-
-		EvaluationSourceGenerator mapper = null;
-		CompilationUnit unit = null;
+		String[] localTypesNames;
+		String[] localVariables;
+		IJavaReferenceType receivingType;
+		int lineNumber;
+		boolean isStatic;
+		Map<String, String> extraOptions = Collections.emptyMap();
 		try {
 			List<IJavaVariable> localsVar = new ArrayList<>();
 			localsVar.addAll(Arrays.asList(context.getLocals()));
@@ -361,22 +383,20 @@ public class ASTEvaluationEngine implements IAstEvaluationEngine {
 			}
 			// to solve and remove
 			// ******
-			String[] localTypesNames = new String[numLocals];
+			localTypesNames = new String[numLocals];
 			for (int i = 0; i < numLocals; i++) {
 				localTypesNames[i] = getFixedUnresolvableGenericTypes(locals[i]);
 			}
 			// Copying local variables removing the nulls in the last
 			// String[] localVariables = Arrays.clonesub(localVariablesWithNull, names.size());
-			String[] localVariables = new String[names.size()];
+			localVariables = new String[names.size()];
 			System.arraycopy(localVariablesWithNull, 0, localVariables, 0, localVariables.length);
-			mapper = new EvaluationSourceGenerator(localTypesNames,
-					localVariables, snippet, getJavaProject());
 			// Compile in context of declaring type to get proper visibility of
 			// locals and members.
 			// Compiling in context of receiving type potentially provides
 			// access to more members,
 			// but does not allow access to privates members in declaring type
-			IJavaReferenceType receivingType = frame.getReferenceType();
+			receivingType = frame.getReferenceType();
 
 			// currently disabled - see bugs 99416 and 106492
 			// if (frame.isStatic()) {
@@ -386,23 +406,39 @@ public class ASTEvaluationEngine implements IAstEvaluationEngine {
 			// frame.getThis().getJavaType();
 			// }
 
-			Map<String, String> extraOptions = Collections.emptyMap();
 			// if target runtime is above java 1.8 then switch the compiler to debug mode to ignore java 9 module system
 			if (JavaCore.compareJavaVersions(((IJavaDebugTarget) frame.getDebugTarget()).getVersion(), JavaCore.VERSION_1_8) > 0) {
 				extraOptions = Collections.singletonMap(CompilerOptions.OPTION_JdtDebugCompileMode, JavaCore.ENABLED);
 			}
-
-			unit = parseCompilationUnit(
-					mapper.getSource(receivingType, frame.getLineNumber(), javaProject,
-							frame.isStatic()).toCharArray(),
-					mapper.getCompilationUnitName(), javaProject, extraOptions);
+			lineNumber = frame.getLineNumber();
+			isStatic = frame.isStatic();
 		} catch (CoreException e) {
-			InstructionSequence expression = new InstructionSequence(snippet);
-			expression.addError(e.getStatus().getMessage());
-			return expression;
+			for (int i = 0; i < snippets.length; i++) {
+				InstructionSequence expression = new InstructionSequence(snippets[i]);
+				expression.addError(e.getStatus().getMessage());
+				expressions[i] = expression;
+			}
+			return expressions;
 		}
 
-		return createExpressionFromAST(snippet, mapper, unit);
+		for (int i = 0; i < snippets.length; i++) {
+			EvaluationSourceGenerator mapper = new EvaluationSourceGenerator(localTypesNames,
+					localVariables, snippets[i], javaProject);
+			CompilationUnit unit;
+			try {
+				unit = parseCompilationUnit(
+						mapper.getSource(receivingType, lineNumber, javaProject,
+								isStatic).toCharArray(),
+						mapper.getCompilationUnitName(), javaProject, extraOptions);
+			} catch (CoreException e) {
+				InstructionSequence expression = new InstructionSequence(snippets[i]);
+				expression.addError(e.getStatus().getMessage());
+				expressions[i] = expression;
+				continue;
+			}
+			expressions[i] = createExpressionFromAST(snippets[i], mapper, unit);
+		}
+		return expressions;
 	}
 
 	private IVariable[] extractVariables(IJavaObject thisClass) throws DebugException {
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2021 IBM Corporation and others.
+ * Copyright (c) 2000, 2022 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -14,15 +14,20 @@
  *******************************************************************************/
 package org.eclipse.jdt.internal.debug.eval.ast.engine;
 
+import java.util.LinkedHashMap;
 import java.util.Map;
 
+import org.eclipse.core.resources.IResource;
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IStatus;
 import org.eclipse.core.runtime.Status;
 import org.eclipse.debug.core.DebugException;
+import org.eclipse.jdt.core.ICompilationUnit;
 import org.eclipse.jdt.core.IJavaProject;
 import org.eclipse.jdt.core.IType;
+import org.eclipse.jdt.core.ITypeRoot;
 import org.eclipse.jdt.core.JavaCore;
+import org.eclipse.jdt.core.JavaModelException;
 import org.eclipse.jdt.core.ToolFactory;
 import org.eclipse.jdt.core.compiler.IScanner;
 import org.eclipse.jdt.core.compiler.ITerminalSymbols;
@@ -33,6 +38,7 @@ import org.eclipse.jdt.core.dom.CompilationUnit;
 import org.eclipse.jdt.debug.core.IJavaReferenceType;
 import org.eclipse.jdt.internal.debug.core.JDIDebugPlugin;
 import org.eclipse.jdt.internal.debug.core.JavaDebugUtils;
+import org.eclipse.jdt.internal.debug.core.breakpoints.CompilationUnitCache;
 import org.eclipse.jdt.internal.debug.core.model.JDIReferenceType;
 
 /**
@@ -47,6 +53,57 @@ import org.eclipse.jdt.internal.debug.core.model.JDIReferenceType;
  */
 public class EvaluationSourceGenerator {
 
+	/**
+	 * Maximum number of evaluation contexts whose generated source is cached
+	 */
+	private static final int MAX_CONTEXT_CACHE_SIZE = 16;
+
+	/**
+	 * Source generated from the declaring type's source without a code snippet,
+	 * by type, line, static context and local variables, least recently used
+	 * first. Generating the source requires parsing the declaring type's
+	 * source, which is the same for all snippets evaluated in a context.
+	 */
+	private static final Map<String, Context> fgContextCache = new LinkedHashMap<String, Context>(16, 0.75f, true) {
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<String, Context> eldest) {
+			return size() > MAX_CONTEXT_CACHE_SIZE;
+		}
+	};
+
+	/**
+	 * Source generated for an evaluation context without a code snippet
+	 */
+	private static class Context {
+
+		final long fStamp;
+		final String fSource;
+		final String fCompilationUnitName;
+		final int fSnippetStart;
+		final int fRunMethodStart;
+		final int fRunMethodLength;
+
+		Context(long stamp, SourceBasedSourceGenerator generator) {
+			fStamp = stamp;
+			fSource = generator.getSource();
+			fCompilationUnitName = generator.getCompilationUnitName();
+			fSnippetStart = generator.getSnippetStart();
+			fRunMethodStart = generator.getRunMethodStart();
+			fRunMethodLength = generator.getRunMethodLength();
+		}
+
+		/**
+		 * Returns whether the code snippet can be inserted into the source,
+		 * i.e. whether the snippet start is followed by the empty body of the
+		 * run method.
+		 */
+		boolean isValid() {
+			return fSource != null && fSource.startsWith("{\n\n}", fSnippetStart); //$NON-NLS-1$
+		}
+	}
+
 	private String fCodeSnippet;
 
 	private String[] fLocalVariableTypeNames;
@@ -304,9 +361,94 @@ public class EvaluationSourceGenerator {
 		return fCodeSnippet;
 	}
 
-	private void createEvaluationSourceFromSource(String source, IType type,
-			int line, boolean createInAStaticMethod, IJavaProject project)
+	/**
+	 * Creates the evaluation source from the cached source generated for the
+	 * same context, if the declaring type's source has not changed since.
+	 *
+	 * @return whether the evaluation source has been created
+	 */
+	private boolean createEvaluationSourceFromContext(IType type, int line,
+			boolean createInAStaticMethod, IJavaProject project)
 			throws DebugException {
+		ITypeRoot root = type.getTypeRoot();
+		if (root == null || hasUnsavedChanges(root)) {
+			return false;
+		}
+		String key = getContextKey(type, line, createInAStaticMethod, project);
+		long stamp = CompilationUnitCache.getModificationStamp(root);
+		if (stamp == IResource.NULL_STAMP) {
+			return false;
+		}
+		Context context;
+		synchronized (fgContextCache) {
+			context = fgContextCache.get(key);
+		}
+		if (context == null || context.fStamp != stamp) {
+			String source = getBaseSource(type);
+			if (source == null) {
+				return false;
+			}
+			SourceBasedSourceGenerator visitor = generate(source, type, line,
+					createInAStaticMethod, project, ""); //$NON-NLS-1$
+			context = new Context(stamp, visitor);
+			if (!context.isValid()) {
+				return false;
+			}
+			synchronized (fgContextCache) {
+				fgContextCache.put(key, context);
+			}
+		}
+		String snippet = fCodeSnippet.trim();
+		int offset = context.fSnippetStart + 2;
+		setSource(new StringBuilder(context.fSource.length() + snippet.length())
+				.append(context.fSource, 0, offset).append(snippet)
+				.append(context.fSource, offset, context.fSource.length())
+				.toString());
+		setCompilationUnitName(context.fCompilationUnitName);
+		setSnippetStart(context.fSnippetStart);
+		setRunMethodStart(context.fRunMethodStart);
+		setRunMethodLength(context.fRunMethodLength + snippet.length());
+		return true;
+	}
+
+	private String getContextKey(IType type, int line,
+			boolean createInAStaticMethod, IJavaProject project) {
+		StringBuilder key = new StringBuilder(type.getHandleIdentifier());
+		key.append('#').append(line).append('#').append(createInAStaticMethod);
+		key.append('#').append(project.getHandleIdentifier());
+		key.append('#').append(project.getOption(JavaCore.COMPILER_SOURCE, true));
+		for (int i = 0; i < fLocalVariableNames.length; i++) {
+			key.append('#').append(fLocalVariableTypeNames[i]).append(' ').append(fLocalVariableNames[i]);
+		}
+		return key.toString();
+	}
+
+	private static boolean hasUnsavedChanges(ITypeRoot root) {
+		if (root instanceof ICompilationUnit) {
+			ICompilationUnit unit = (ICompilationUnit) root;
+			try {
+				return unit.hasUnsavedChanges();
+			} catch (JavaModelException e) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private static String getBaseSource(IType type) throws DebugException {
+		try {
+			if (type.isBinary()) {
+				return type.getClassFile().getSource();
+			}
+			return type.getCompilationUnit().getSource();
+		} catch (JavaModelException e) {
+			throw new DebugException(e.getStatus());
+		}
+	}
+
+	private SourceBasedSourceGenerator generate(String source, IType type,
+			int line, boolean createInAStaticMethod, IJavaProject project,
+			String codeSnippet) throws DebugException {
 		ASTParser parser = ASTParser.newParser(AST.getJLSLatest());
 		parser.setSource(source.toCharArray());
 		Map<String, String> options = getCompilerOptions(project);
@@ -315,7 +457,7 @@ public class EvaluationSourceGenerator {
 		CompilationUnit unit = (CompilationUnit) parser.createAST(null);
 		SourceBasedSourceGenerator visitor = new SourceBasedSourceGenerator(
 				type, line, createInAStaticMethod, fLocalVariableTypeNames,
-				fLocalVariableNames, fCodeSnippet, sourceLevel);
+				fLocalVariableNames, codeSnippet, sourceLevel);
 		unit.accept(visitor);
 
 		if (visitor.hasError()) {
@@ -323,7 +465,14 @@ public class EvaluationSourceGenerator {
 					JDIDebugPlugin.getUniqueIdentifier(), IStatus.OK,
 					visitor.getError(), null));
 		}
+		return visitor;
+	}
 
+	private void createEvaluationSourceFromSource(String source, IType type,
+			int line, boolean createInAStaticMethod, IJavaProject project)
+			throws DebugException {
+		SourceBasedSourceGenerator visitor = generate(source, type, line,
+				createInAStaticMethod, project, fCodeSnippet);
 		String sourceRes = visitor.getSource();
 		if (sourceRes == null) {
 			return;
@@ -388,13 +537,9 @@ public class EvaluationSourceGenerator {
 			boolean isStatic) throws CoreException {
 		if (fSource == null) {
 			IType iType = JavaDebugUtils.resolveType(type);
-			if (iType != null && !iType.isInterface()) {
-				String baseSource = null;
-				if (iType.isBinary()) {
-					baseSource = iType.getClassFile().getSource();
-				} else {
-					baseSource = iType.getCompilationUnit().getSource();
-				}
+			if (iType != null && !iType.isInterface()
+					&& !createEvaluationSourceFromContext(iType, line, isStatic, javaProject)) {
+				String baseSource = getBaseSource(iType);
 				if (baseSource != null) {
 					createEvaluationSourceFromSource(baseSource, iType,
 							line, isStatic, javaProject);
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2015 IBM Corporation and others.
+ * Copyright (c) 2000, 2022 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -18,7 +18,6 @@ import java.io.ByteArrayOutputStream;
 import java.io.DataInputStream;
 import java.io.DataOutputStream;
 import java.io.IOException;
-import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
 
@@ -29,7 +28,6 @@ import org.eclipse.jdi.internal.jdwp.JdwpID;
 import org.eclipse.jdi.internal.jdwp.JdwpReplyPacket;
 
 import com.sun.jdi.ClassNotLoadedException;
-import com.sun.jdi.ClassNotPreparedException;
 import com.sun.jdi.ClassType;
 import com.sun.jdi.Field;
 import com.sun.jdi.IncompatibleThreadStateException;
@@ -37,7 +35,6 @@ import com.sun.jdi.InvalidTypeException;
 import com.sun.jdi.InvocationException;
 import com.sun.jdi.Method;
 import com.sun.jdi.ObjectReference;
-import com.sun.jdi.ReferenceType;
 import com.sun.jdi.ThreadReference;
 import com.sun.jdi.Value;
 
@@ -276,24 +273,7 @@ public class ClassTypeImpl extends ReferenceTypeImpl implements ClassType {
 	 */
 	@Override
 	public List<ClassType> subclasses() {
-		// Note that this information should not be cached.
-		List<ClassType> subclasses = new ArrayList<>();
-		Iterator<ReferenceType> itr = virtualMachineImpl().allRefTypes();
-		while (itr.hasNext()) {
-			try {
-				ReferenceType refType = itr.next();
-				if (refType instanceof ClassTypeImpl) {
-					ClassTypeImpl classType = (ClassTypeImpl) refType;
-					if (classType.superclass() != null
-							&& classType.superclass().equals(this)) {
-						subclasses.add(classType);
-					}
-				}
-			} catch (ClassNotPreparedException e) {
-				continue;
-			}
-		}
-		return subclasses;
+		return virtualMachineImpl().typeHierarchyIndex().subclasses(this);
 	}
 
 	/* (non-Javadoc)
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2015 IBM Corporation and others.
+ * Copyright (c) 2000, 2022 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -16,7 +16,6 @@ package org.eclipse.jdi.internal;
 
 import java.io.DataInputStream;
 import java.io.IOException;
-import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
 
@@ -26,14 +25,12 @@ import org.eclipse.jdi.internal.jdwp.JdwpID;
 import org.eclipse.jdi.internal.jdwp.JdwpInterfaceID;
 
 import com.sun.jdi.ClassNotLoadedException;
-import com.sun.jdi.ClassNotPreparedException;
 import com.sun.jdi.ClassType;
 import com.sun.jdi.IncompatibleThreadStateException;
 import com.sun.jdi.InterfaceType;
 import com.sun.jdi.InvalidTypeException;
 import com.sun.jdi.InvocationException;
 import com.sun.jdi.Method;
-import com.sun.jdi.ReferenceType;
 import com.sun.jdi.ThreadReference;
 import com.sun.jdi.Value;
 
@@ -106,24 +103,7 @@ public class InterfaceTypeImpl extends ReferenceTypeImpl implements
 	 */
 	@Override
 	public List<ClassType> implementors() {
-		// Note that this information should not be cached.
-		List<ClassType> implementors = new ArrayList<>();
-		Iterator<ReferenceType> itr = virtualMachineImpl().allRefTypes();
-		while (itr.hasNext()) {
-			ReferenceType refType = itr.next();
-			if (refType instanceof ClassTypeImpl) {
-				try {
-					ClassTypeImpl classType = (ClassTypeImpl) refType;
-					List<InterfaceType> interfaces = classType.interfaces();
-					if (interfaces.contains(this)) {
-						implementors.add(classType);
-					}
-				} catch (ClassNotPreparedException e) {
-					continue;
-				}
-			}
-		}
-		return implementors;
+		return virtualMachineImpl().typeHierarchyIndex().implementors(this);
 	}
 
 	/* (non-Javadoc)
@@ -131,24 +111,7 @@ public class InterfaceTypeImpl extends ReferenceTypeImpl implements
 	 */
 	@Override
 	public List<InterfaceType> subinterfaces() {
-		// Note that this information should not be cached.
-		List<InterfaceType> implementors = new ArrayList<>();
-		Iterator<ReferenceType> itr = virtualMachineImpl().allRefTypes();
-		while (itr.hasNext()) {
-			try {
-				ReferenceType refType = itr.next();
-				if (refType instanceof InterfaceTypeImpl) {
-					InterfaceTypeImpl interFaceType = (InterfaceTypeImpl) refType;
-					List<InterfaceType> interfaces = interFaceType.superinterfaces();
-					if (interfaces.contains(this)) {
-						implementors.add(interFaceType);
-					}
-				}
-			} catch (ClassNotPreparedException e) {
-				continue;
-			}
-		}
-		return implementors;
+		return virtualMachineImpl().typeHierarchyIndex().subinterfaces(this);
 	}
 
 	/* (non-Javadoc)
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2015 IBM Corporation and others.
+ * Copyright (c) 2000, 2022 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -73,6 +73,7 @@ public class MethodImpl extends TypeComponentImpl implements Method, Locatable {
 	private byte[] fByteCodes = null;
 	private long[] fCodeIndexTable;
 	private int[] fJavaStratumLineNumberTable;
+	private SortedLineTable fSortedLineTable;
 
 	private String fReturnTypeName = null;
 
@@ -100,6 +101,7 @@ public class MethodImpl extends TypeComponentImpl implements Method, Locatable {
 		fStratumAllLineLocations = null;
 		fCodeIndexTable = null;
 		fJavaStratumLineNumberTable = null;
+		fSortedLineTable = null;
 		fArgumentSlotsCount = -1;
 		fArguments = null;
 		fArgumentTypes = null;
@@ -226,28 +228,24 @@ public class MethodImpl extends TypeComponentImpl implements Method, Locatable {
 			throw new AbsentInformationException(JDIMessages.MethodImpl_Invalid_code_index_of_a_location_given_4);
 		}
 
-		Long lineCodeIndexObj;
-		Integer lineNrObj;
-		long index = lineCodeIndex;
+		SortedLineTable table = fSortedLineTable;
+		if (table == null) {
+			table = new SortedLineTable(fCodeIndexTable, fJavaStratumLineNumberTable);
+			fSortedLineTable = table;
+		}
 		// Search for the line where this code index is located.
-		do {
-			lineCodeIndexObj = Long.valueOf(index);
-			lineNrObj = javaStratumCodeIndexToLine().get(lineCodeIndexObj);
-		} while (lineNrObj == null && --index >= fLowestValidCodeIndex);
-		if (lineNrObj == null) {
-			if (lineCodeIndex >= fLowestValidCodeIndex) {
-				index = lineCodeIndex;
-				do {
-					lineCodeIndexObj = Long.valueOf(index);
-					lineNrObj = javaStratumCodeIndexToLine().get(lineCodeIndexObj);
-				} while (lineNrObj == null && ++index <= fHighestValidCodeIndex);
-				if (lineNrObj != null) {
-					return lineNrObj.intValue();
-				}
+		int entry = table.floor(lineCodeIndex);
+		if (entry >= 0 && (table.fCodeIndexes[entry] >= fLowestValidCodeIndex || table.fCodeIndexes[entry] == lineCodeIndex)) {
+			return table.fLineNumbers[entry];
+		}
+		if (lineCodeIndex >= fLowestValidCodeIndex) {
+			// before the first line, take the next line
+			entry++;
+			if (entry < table.fCodeIndexes.length && table.fCodeIndexes[entry] <= fHighestValidCodeIndex) {
+				return table.fLineNumbers[entry];
 			}
-			throw new AbsentInformationException(JDIMessages.MethodImpl_Invalid_code_index_of_a_location_given_4);
 		}
-		return lineNrObj.intValue();
+		throw new AbsentInformationException(JDIMessages.MethodImpl_Invalid_code_index_of_a_location_given_4);
 	}
 
 	/* (non-Javadoc)
@@ -922,4 +920,51 @@ public class MethodImpl extends TypeComponentImpl implements Method, Locatable {
 		// see bug 53870
 		return !virtualMachine().name().equals("j9") && (fModifierBits & MODIFIER_ACC_VARARGS) != 0; //$NON-NLS-1$
 	}
+
+	/**
+	 * The Java stratum line number table of a method, sorted by code index,
+	 * with one entry per code index.
+	 */
+	private static class SortedLineTable {
+
+		final long[] fCodeIndexes;
+
+		final int[] fLineNumbers;
+
+		/**
+		 * Sorts the given line number table. If a code index occurs more than
+		 * once, its last line number is kept.
+		 */
+		SortedLineTable(long[] codeIndexes, int[] lineNumbers) {
+			Integer[] order = new Integer[codeIndexes.length];
+			for (int i = 0; i < order.length; i++) {
+				order[i] = Integer.valueOf(i);
+			}
+			// stable, so the entries of a code index stay in table order
+			Arrays.sort(order, (a, b) -> Long.compare(codeIndexes[a.intValue()], codeIndexes[b.intValue()]));
+			long[] sortedIndexes = new long[order.length];
+			int[] sortedLines = new int[order.length];
+			int size = 0;
+			for (Integer index : order) {
+				long codeIndex = codeIndexes[index.intValue()];
+				if (size > 0 && sortedIndexes[size - 1] == codeIndex) {
+					size--;
+				}
+				sortedIndexes[size] = codeIndex;
+				sortedLines[size] = lineNumbers[index.intValue()];
+				size++;
+			}
+			fCodeIndexes = Arrays.copyOf(sortedIndexes, size);
+			fLineNumbers = Arrays.copyOf(sortedLines, size);
+		}
+
+		/**
+		 * Returns the index of the last entry whose code index is less than or
+		 * equal to the given code index, or -1 if there is none.
+		 */
+		int floor(long codeIndex) {
+			int index = Arrays.binarySearch(fCodeIndexes, codeIndex);
+			return index >= 0 ? index : -index - 2;
+		}
+	}
 }
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2015 IBM Corporation and others.
+ * Copyright (c) 2000, 2022 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -20,6 +20,7 @@ import java.io.IOException;
 import java.io.PrintWriter;
 import java.util.Date;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 import org.eclipse.jdi.Bootstrap;
 import org.eclipse.jdi.internal.jdwp.JdwpCommandPacket;
@@ -271,6 +272,50 @@ public class MirrorImpl implements Mirror {
 		return requestVM(command, (byte[]) null);
 	}
 
+	/**
+	 * Performs a VM request without waiting for the reply. Any number of
+	 * requests may be pending at the same time. The reply is decoded by the
+	 * callbacks of the returned future, which run on the single "Packet Reply
+	 * Dispatcher" thread of the VM, one after the other. A callback must
+	 * therefore not wait for another asynchronous request, e.g. by
+	 * <code>join()</code>, as its reply could not be completed. Requests made
+	 * this way are not written to the verbose output.
+	 *
+	 * @param command
+	 *            the command
+	 * @param outData
+	 *            the command data, or <code>null</code>
+	 * @return the future reply
+	 * @since 3.20
+	 */
+	public CompletableFuture<JdwpReplyPacket> requestVMAsync(int command, byte[] outData) {
+		JdwpCommandPacket commandPacket = new JdwpCommandPacket(command);
+		commandPacket.setData(outData);
+		// expect the reply before it can be received
+		CompletableFuture<JdwpReplyPacket> reply = fVirtualMachineImpl.packetReceiveManager().expectReply(commandPacket);
+		fVirtualMachineImpl.packetSendManager().sendPacket(commandPacket);
+		return reply;
+	}
+
+	/**
+	 * Performs a VM request for a specified object without waiting for the
+	 * reply.
+	 *
+	 * @return the future reply
+	 * @since 3.20
+	 * @see #requestVMAsync(int, byte[])
+	 */
+	public CompletableFuture<JdwpReplyPacket> requestVMAsync(int command, ObjectReferenceImpl object) {
+		ByteArrayOutputStream byteOutStream = new ByteArrayOutputStream();
+		DataOutputStream dataOutStream = new DataOutputStream(byteOutStream);
+		try {
+			object.write(this, dataOutStream);
+		} catch (IOException e) {
+			defaultIOExceptionHandler(e);
+		}
+		return requestVMAsync(command, byteOutStream.toByteArray());
+	}
+
 	/**
 	 * Performs default error handling.
 	 */
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2015 IBM Corporation and others.
+ * Copyright (c) 2000, 2022 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -41,7 +41,6 @@ import org.eclipse.osgi.util.NLS;
 import com.sun.jdi.AbsentInformationException;
 import com.sun.jdi.ClassLoaderReference;
 import com.sun.jdi.ClassNotLoadedException;
-import com.sun.jdi.ClassNotPreparedException;
 import com.sun.jdi.ClassObjectReference;
 import com.sun.jdi.ClassType;
 import com.sun.jdi.Field;
@@ -1240,24 +1239,8 @@ public abstract class ReferenceTypeImpl extends TypeImpl implements
 	@Override
 	public List<ReferenceType> nestedTypes() {
 		// Note that the VM gives an empty reply on RT_NESTED_TYPES, therefore
-		// we search for the
-		// nested types in the loaded types.
-		List<ReferenceType> result = new ArrayList<>();
-		Iterator<ReferenceType> itr = virtualMachineImpl().allRefTypes();
-		while (itr.hasNext()) {
-			try {
-				ReferenceTypeImpl refType = (ReferenceTypeImpl) itr.next();
-				String refName = refType.name();
-				if (refName.length() > name().length()
-						&& refName.startsWith(name())
-						&& refName.charAt(name().length()) == '$') {
-					result.add(refType);
-				}
-			} catch (ClassNotPreparedException e) {
-				continue;
-			}
-		}
-		return result;
+		// we look up the nested types in the index of the loaded types.
+		return virtualMachineImpl().typeHierarchyIndex().nestedTypes(name());
 	}
 
 	/**
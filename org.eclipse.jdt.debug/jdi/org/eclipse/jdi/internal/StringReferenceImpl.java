@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2015 IBM Corporation and others.
+ * Copyright (c) 2000, 2022 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -15,6 +15,7 @@ package org.eclipse.jdi.internal;
 
 import java.io.DataInputStream;
 import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
 
 import org.eclipse.jdi.internal.jdwp.JdwpCommandPacket;
 import org.eclipse.jdi.internal.jdwp.JdwpID;
@@ -72,6 +73,26 @@ public class StringReferenceImpl extends ObjectReferenceImpl implements
 		}
 	}
 
+	/**
+	 * Retrieves the value of this string without waiting for the reply of the
+	 * VM. Exceptions that {@link #value()} throws complete the returned future
+	 * exceptionally.
+	 *
+	 * @return the future value of this string
+	 * @since 3.20
+	 */
+	public CompletableFuture<String> valueAsync() {
+		return requestVMAsync(JdwpCommandPacket.SR_VALUE, this).thenApply(replyPacket -> {
+			defaultReplyErrorHandler(replyPacket.errorCode());
+			try {
+				return readString("value", replyPacket.dataInStream()); //$NON-NLS-1$
+			} catch (IOException e) {
+				defaultIOExceptionHandler(e);
+				return null;
+			}
+		});
+	}
+
 	/**
 	 * @return Reads JDWP representation and returns new instance.
 	 */
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2015 IBM Corporation and others.
+ * Copyright (c) 2000, 2022 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -23,6 +23,8 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 import org.eclipse.jdi.internal.jdwp.JdwpCommandPacket;
 import org.eclipse.jdi.internal.jdwp.JdwpID;
@@ -240,6 +242,33 @@ public class ThreadReferenceImpl extends ObjectReferenceImpl implements	ThreadRe
 		}
 	}
 
+	/**
+	 * Retrieves the number of frames of this thread without waiting for the
+	 * reply of the VM. Exceptions that {@link #frameCount()} throws complete
+	 * the returned future exceptionally.
+	 *
+	 * @return the future number of frames
+	 * @since 3.20
+	 */
+	public CompletableFuture<Integer> frameCountAsync() {
+		return requestVMAsync(JdwpCommandPacket.TR_FRAME_COUNT, this).thenApply(replyPacket -> {
+			switch (replyPacket.errorCode()) {
+			case JdwpReplyPacket.INVALID_THREAD:
+				throw new ObjectCollectedException();
+			case JdwpReplyPacket.THREAD_NOT_SUSPENDED:
+				throw new CompletionException(new IncompatibleThreadStateException(
+						JDIMessages.ThreadReferenceImpl_Thread_was_not_suspended_1));
+			}
+			defaultReplyErrorHandler(replyPacket.errorCode());
+			try {
+				return Integer.valueOf(readInt("frame count", replyPacket.dataInStream())); //$NON-NLS-1$
+			} catch (IOException e) {
+				defaultIOExceptionHandler(e);
+				return Integer.valueOf(0);
+			}
+		});
+	}
+
 	/* (non-Javadoc)
 	 * @see com.sun.jdi.ThreadReference#frames()
 	 */
@@ -373,6 +402,30 @@ public class ThreadReferenceImpl extends ObjectReferenceImpl implements	ThreadRe
 		}
 	}
 
+	/**
+	 * Retrieves the name of this thread without waiting for the reply of the
+	 * VM. Exceptions that {@link #name()} throws complete the returned future
+	 * exceptionally.
+	 *
+	 * @return the future name
+	 * @since 3.20
+	 */
+	public CompletableFuture<String> nameAsync() {
+		return requestVMAsync(JdwpCommandPacket.TR_NAME, this).thenApply(replyPacket -> {
+			switch (replyPacket.errorCode()) {
+			case JdwpReplyPacket.INVALID_THREAD:
+				throw new ObjectCollectedException();
+			}
+			defaultReplyErrorHandler(replyPacket.errorCode());
+			try {
+				return readString("name", replyPacket.dataInStream()); //$NON-NLS-1$
+			} catch (IOException e) {
+				defaultIOExceptionHandler(e);
+				return null;
+			}
+		});
+	}
+
 	/* (non-Javadoc)
 	 * @see com.sun.jdi.ThreadReference#ownedMonitors()
 	 */
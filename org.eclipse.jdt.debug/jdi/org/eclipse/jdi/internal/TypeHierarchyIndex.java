@@ -0,0 +1,365 @@
+/*******************************************************************************
+ * Copyright (c) 2022 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdi.internal;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.eclipse.jdi.internal.event.EventQueueImpl;
+
+import com.sun.jdi.ClassNotPreparedException;
+import com.sun.jdi.ClassType;
+import com.sun.jdi.InterfaceType;
+import com.sun.jdi.ObjectCollectedException;
+import com.sun.jdi.ReferenceType;
+
+/**
+ * An index of the types loaded in a virtual machine, answering the
+ * subclasses, implementors, subinterfaces and nested types of a type.
+ * <p>
+ * JDWP has no command for these queries, they are answered by looking at the
+ * superclass, interfaces or name of every loaded type. The index keeps the
+ * loaded types and builds a map for each kind of query the first time it is
+ * asked. Types loaded and unloaded later are added to or removed from the
+ * maps, so a query only looks at the types that changed since the previous
+ * one.
+ * </p>
+ * <p>
+ * Once the index is seeded, class prepare events are requested internally.
+ * While every event received from the VM has been read from the event queue
+ * and no class has been unloaded, the index is known to be current and no
+ * request is sent to the VM. Otherwise all loaded types are requested again
+ * and compared against the index.
+ * </p>
+ */
+public class TypeHierarchyIndex {
+
+	private final VirtualMachineImpl fVM;
+
+	/**
+	 * Loaded types, or <code>null</code> if the index has not been seeded
+	 */
+	private Set<ReferenceTypeImpl> fTypes;
+
+	/**
+	 * Loaded types not yet added to the maps that have been built
+	 */
+	private final Set<ReferenceTypeImpl> fAdded = new LinkedHashSet<>();
+
+	/**
+	 * Whether types may have been unloaded or redefined since the index was
+	 * last compared against the loaded types
+	 */
+	private boolean fStale;
+
+	/**
+	 * Whether class prepare events have been requested
+	 */
+	private boolean fListening;
+
+	/**
+	 * Nested types by name of enclosing type
+	 */
+	private Map<String, Set<ReferenceTypeImpl>> fNestedTypes;
+
+	/**
+	 * Direct subclasses by class
+	 */
+	private Map<ClassTypeImpl, Set<ClassTypeImpl>> fSubclasses;
+
+	/**
+	 * Classes directly implementing an interface, by interface
+	 */
+	private Map<InterfaceTypeImpl, Set<ClassTypeImpl>> fImplementors;
+
+	/**
+	 * Direct subinterfaces by interface
+	 */
+	private Map<InterfaceTypeImpl, Set<InterfaceTypeImpl>> fSubinterfaces;
+
+	TypeHierarchyIndex(VirtualMachineImpl vm) {
+		fVM = vm;
+	}
+
+	/**
+	 * @return Returns the loaded types nested in the type with the given name,
+	 *         at any depth.
+	 */
+	synchronized List<ReferenceType> nestedTypes(String name) {
+		update();
+		if (fNestedTypes == null) {
+			fNestedTypes = new HashMap<>();
+			indexAll();
+		}
+		return copy(fNestedTypes.get(name));
+	}
+
+	/**
+	 * @return Returns the loaded direct subclasses of the given class.
+	 */
+	synchronized List<ClassType> subclasses(ClassTypeImpl type) {
+		update();
+		if (fSubclasses == null) {
+			fSubclasses = new HashMap<>();
+			indexAll();
+		}
+		return copy(fSubclasses.get(type));
+	}
+
+	/**
+	 * @return Returns the loaded classes that directly implement the given
+	 *         interface.
+	 */
+	synchronized List<ClassType> implementors(InterfaceTypeImpl type) {
+		update();
+		if (fImplementors == null) {
+			fImplementors = new HashMap<>();
+			indexAll();
+		}
+		return copy(fImplementors.get(type));
+	}
+
+	/**
+	 * @return Returns the loaded direct subinterfaces of the given interface.
+	 */
+	synchronized List<InterfaceType> subinterfaces(InterfaceTypeImpl type) {
+		update();
+		if (fSubinterfaces == null) {
+			fSubinterfaces = new HashMap<>();
+			indexAll();
+		}
+		return copy(fSubinterfaces.get(type));
+	}
+
+	/**
+	 * Adds a type for which a class prepare event has been read.
+	 */
+	public synchronized void prepared(ReferenceTypeImpl type) {
+		// the maps are updated on the next query, the event reader must not
+		// send requests to the VM
+		if (fTypes != null && type != null && fTypes.add(type)) {
+			fAdded.add(type);
+		}
+	}
+
+	/**
+	 * Notes that a class has been unloaded.
+	 */
+	public synchronized void unloaded() {
+		fStale = true;
+	}
+
+	/**
+	 * Removes the given redefined types, they are indexed again with their
+	 * new mirrors on the next query.
+	 */
+	synchronized void redefined(Collection<? extends ReferenceType> types) {
+		if (fTypes == null) {
+			return;
+		}
+		for (ReferenceType type : types) {
+			remove((ReferenceTypeImpl) type);
+		}
+		fStale = true;
+	}
+
+	/**
+	 * Discards the index, e.g. because all stored JDWP results have been
+	 * flushed.
+	 */
+	synchronized void flush() {
+		fTypes = null;
+		fAdded.clear();
+		fStale = false;
+		fNestedTypes = null;
+		fSubclasses = null;
+		fImplementors = null;
+		fSubinterfaces = null;
+	}
+
+	/**
+	 * Brings the index up to date with the types loaded in the VM.
+	 */
+	private void update() {
+		if (fTypes == null || fStale || !isCurrent()) {
+			refresh();
+		}
+		indexAdded();
+	}
+
+	/**
+	 * Adds all loaded types to a map that has just been created.
+	 */
+	private void indexAll() {
+		fAdded.addAll(fTypes);
+		indexAdded();
+	}
+
+	/**
+	 * Adds the types loaded since the last query to the maps that have been
+	 * built. Adding a type that is already in a map has no effect.
+	 */
+	private void indexAdded() {
+		Iterator<ReferenceTypeImpl> iter = fAdded.iterator();
+		while (iter.hasNext()) {
+			ReferenceTypeImpl type = iter.next();
+			try {
+				if (fNestedTypes != null) {
+					addNestedType(type);
+				}
+				if (fSubclasses != null) {
+					addToSuperclass(type);
+				}
+				if (fImplementors != null) {
+					addToInterfaces(type);
+				}
+				if (fSubinterfaces != null) {
+					addToSuperinterfaces(type);
+				}
+				iter.remove();
+			} catch (ClassNotPreparedException e) {
+				// retried on the next query
+			} catch (ObjectCollectedException e) {
+				// unloaded meanwhile
+				iter.remove();
+				fTypes.remove(type);
+				removeFromMaps(type);
+			}
+		}
+	}
+
+	/**
+	 * @return Returns whether every event received from the VM since class
+	 *         prepare events have been requested has been read.
+	 */
+	private boolean isCurrent() {
+		return fListening && fVM.packetReceiveManager().commandPacketCount() == ((EventQueueImpl) fVM.eventQueue()).eventSetCount();
+	}
+
+	/**
+	 * Compares the index against the types loaded in the VM.
+	 */
+	private void refresh() {
+		if (!fListening) {
+			// request events first, types prepared while reading the loaded
+			// types are added twice at most
+			fVM.eventRequestManagerImpl().enableInternalClassPrepareEvent();
+			fListening = true;
+		}
+		fStale = false;
+		List<ReferenceType> all = fVM.allClasses();
+		Set<ReferenceTypeImpl> loaded = new HashSet<>(all.size() * 4 / 3 + 1);
+		for (ReferenceType type : all) {
+			loaded.add((ReferenceTypeImpl) type);
+		}
+		if (fTypes == null) {
+			fTypes = loaded;
+			return;
+		}
+		for (ReferenceTypeImpl type : fTypes) {
+			if (!loaded.contains(type)) {
+				removeFromMaps(type);
+			}
+		}
+		for (ReferenceTypeImpl type : loaded) {
+			if (!fTypes.contains(type)) {
+				fAdded.add(type);
+			}
+		}
+		fTypes = loaded;
+	}
+
+	private void remove(ReferenceTypeImpl type) {
+		fTypes.remove(type);
+		removeFromMaps(type);
+	}
+
+	private void removeFromMaps(ReferenceTypeImpl type) {
+		fAdded.remove(type);
+		if (fNestedTypes != null) {
+			removeValue(fNestedTypes, type);
+		}
+		if (fSubclasses != null) {
+			fSubclasses.remove(type);
+			removeValue(fSubclasses, type);
+		}
+		if (fImplementors != null) {
+			fImplementors.remove(type);
+			removeValue(fImplementors, type);
+		}
+		if (fSubinterfaces != null) {
+			fSubinterfaces.remove(type);
+			removeValue(fSubinterfaces, type);
+		}
+	}
+
+	private void addNestedType(ReferenceTypeImpl type) {
+		String name = type.name();
+		int index = name.indexOf('$', 1);
+		while (index > 0) {
+			add(fNestedTypes, name.substring(0, index), type);
+			index = name.indexOf('$', index + 1);
+		}
+	}
+
+	private void addToSuperclass(ReferenceTypeImpl type) {
+		if (type instanceof ClassTypeImpl) {
+			ClassTypeImpl superclass = (ClassTypeImpl) ((ClassTypeImpl) type).superclass();
+			if (superclass != null) {
+				add(fSubclasses, superclass, (ClassTypeImpl) type);
+			}
+		}
+	}
+
+	private void addToInterfaces(ReferenceTypeImpl type) {
+		if (type instanceof ClassTypeImpl) {
+			for (InterfaceType superinterface : type.interfaces()) {
+				add(fImplementors, (InterfaceTypeImpl) superinterface, (ClassTypeImpl) type);
+			}
+		}
+	}
+
+	private void addToSuperinterfaces(ReferenceTypeImpl type) {
+		if (type instanceof InterfaceTypeImpl) {
+			for (InterfaceType superinterface : type.interfaces()) {
+				add(fSubinterfaces, (InterfaceTypeImpl) superinterface, (InterfaceTypeImpl) type);
+			}
+		}
+	}
+
+	private static <K, V> void add(Map<K, Set<V>> map, K key, V value) {
+		map.computeIfAbsent(key, k -> new LinkedHashSet<>(4)).add(value);
+	}
+
+	private static <K, V> void removeValue(Map<K, Set<V>> map, Object value) {
+		Iterator<Set<V>> iter = map.values().iterator();
+		while (iter.hasNext()) {
+			Set<V> values = iter.next();
+			if (values.remove(value) && values.isEmpty()) {
+				iter.remove();
+			}
+		}
+	}
+
+	private static <T> List<T> copy(Set<? extends T> values) {
+		return values == null ? new ArrayList<>() : new ArrayList<>(values);
+	}
+}
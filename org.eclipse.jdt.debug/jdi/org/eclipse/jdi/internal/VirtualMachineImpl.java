@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2015 IBM Corporation and others.
+ * Copyright (c) 2000, 2022 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -28,6 +28,7 @@ import java.util.Set;
 
 import org.eclipse.jdi.Bootstrap;
 import org.eclipse.jdi.internal.connect.PacketReceiveManager;
+import org.eclipse.jdi.internal.connect.PacketRecorder;
 import org.eclipse.jdi.internal.connect.PacketSendManager;
 import org.eclipse.jdi.internal.event.EventQueueImpl;
 import org.eclipse.jdi.internal.jdwp.JdwpCommandPacket;
@@ -99,6 +100,9 @@ public class VirtualMachineImpl extends MirrorImpl implements VirtualMachine,
 	private ValueCache fCachedReftypes = new ValueCache();
 	private ValueCache fCachedObjects = new ValueCache();
 
+	/** Index of the loaded types for hierarchy queries. */
+	private final TypeHierarchyIndex fTypeHierarchyIndex = new TypeHierarchyIndex(this);
+
 	/** The following are the stored results of JDWP calls. */
 	private String fVersionDescription = null; // Text information on the VM
 												// version.
@@ -169,10 +173,12 @@ public class VirtualMachineImpl extends MirrorImpl implements VirtualMachine,
 		super("VirtualMachine"); //$NON-NLS-1$
 		fEventReqMgr = new EventRequestManagerImpl(this);
 		fEventQueue = new EventQueueImpl(this);
-		fRequestTimeout = ((VirtualMachineManagerImpl) Bootstrap
-				.virtualMachineManager()).getGlobalRequestTimeout();
+		VirtualMachineManagerImpl manager = (VirtualMachineManagerImpl) Bootstrap.virtualMachineManager();
+		fRequestTimeout = manager.getGlobalRequestTimeout();
+		PacketRecorder recorder = manager.createPacketRecorder();
 
 		fPacketReceiveManager = new PacketReceiveManager(connection, this);
+		fPacketReceiveManager.setRecorder(recorder);
 		Thread receiveThread = new Thread(fPacketReceiveManager,
 				JDIMessages.VirtualMachineImpl_0);
 		receiveThread.setDaemon(true);
@@ -180,6 +186,7 @@ public class VirtualMachineImpl extends MirrorImpl implements VirtualMachine,
 		receiveThread.start();
 
 		fPacketSendManager = new PacketSendManager(connection);
+		fPacketSendManager.setRecorder(recorder);
 		Thread sendThread = new Thread(fPacketSendManager,
 				JDIMessages.VirtualMachineImpl_1);
 		sendThread.setDaemon(true);
@@ -264,11 +271,20 @@ public class VirtualMachineImpl extends MirrorImpl implements VirtualMachine,
 			refType.flushStoredJdwpResults();
 		}
 
+		fTypeHierarchyIndex.flush();
+
 		fVersionDescription = null;
 		fGotIDSizes = false;
 		fHcrCapabilities = null;
 	}
 
+	/**
+	 * @return Returns the index of the loaded types for hierarchy queries.
+	 */
+	public final TypeHierarchyIndex typeHierarchyIndex() {
+		return fTypeHierarchyIndex;
+	}
+
 	/*
 	 * Removes a known class. A class/interface is known if we have ever
 	 * received its ReferenceTypeID and we have not received an unload event for
@@ -1311,6 +1327,7 @@ public class VirtualMachineImpl extends MirrorImpl implements VirtualMachine,
 			default:
 				defaultReplyErrorHandler(reply.errorCode());
 			}
+			fTypeHierarchyIndex.redefined(types);
 		} catch (IOException ioe) {
 			defaultIOExceptionHandler(ioe);
 			return;
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2015 IBM Corporation and others.
+ * Copyright (c) 2000, 2022 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -13,6 +13,7 @@
  *******************************************************************************/
 package org.eclipse.jdi.internal;
 
+import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
@@ -26,11 +27,13 @@ import java.util.PropertyResourceBundle;
 
 import org.eclipse.core.runtime.Platform;
 import org.eclipse.core.runtime.preferences.IPreferencesService;
+import org.eclipse.jdi.internal.connect.PacketRecorder;
 import org.eclipse.jdi.internal.connect.SocketAttachingConnectorImpl;
 import org.eclipse.jdi.internal.connect.SocketLaunchingConnectorImpl;
 import org.eclipse.jdi.internal.connect.SocketListeningConnectorImpl;
 import org.eclipse.jdi.internal.connect.SocketRawLaunchingConnectorImpl;
 import org.eclipse.jdt.debug.core.JDIDebugModel;
+import org.eclipse.osgi.util.NLS;
 
 import com.sun.jdi.VirtualMachine;
 import com.sun.jdi.VirtualMachineManager;
@@ -60,6 +63,10 @@ public class VirtualMachineManagerImpl implements VirtualMachineManager {
 	private boolean fVerbose = false;
 	/** Name of verbose file. */
 	private String fVerboseFile = null;
+	/** Directory JDWP sessions are recorded to, null if not recorded. */
+	private String fRecordDirectory = null;
+	/** Number of sessions recorded. */
+	private int fRecordCount = 0;
 
 	/**
 	 * Creates new VirtualMachineManagerImpl.
@@ -129,6 +136,11 @@ public class VirtualMachineManagerImpl implements VirtualMachineManager {
 			} catch (MissingResourceException e) {
 			}
 
+			try {
+				fRecordDirectory = prefs.getString("Record.dir"); //$NON-NLS-1$
+			} catch (MissingResourceException e) {
+			}
+
 		} catch (IOException e) {
 		}
 
@@ -237,6 +249,23 @@ public class VirtualMachineManagerImpl implements VirtualMachineManager {
 		return fVerbosePrintWriter;
 	}
 
+	/**
+	 * @return Returns a recorder for the JDWP packets of a new session, or
+	 *         null if sessions are not recorded.
+	 */
+	public synchronized PacketRecorder createPacketRecorder() {
+		if (fRecordDirectory == null || fRecordDirectory.length() == 0) {
+			return null;
+		}
+		File file = new File(fRecordDirectory, "session-" + System.currentTimeMillis() + '-' + fRecordCount++ + ".jdwp"); //$NON-NLS-1$ //$NON-NLS-2$
+		try {
+			return new PacketRecorder(new FileOutputStream(file));
+		} catch (IOException e) {
+			System.out.println(NLS.bind(JDIMessages.VirtualMachineManagerImpl_Could_not_open_recording_file_3, file, e));
+			return null;
+		}
+	}
+
 	/* (non-Javadoc)
 	 * @see com.sun.jdi.VirtualMachineManager#createVirtualMachine(com.sun.jdi.connect.spi.Connection)
 	 */
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2018 IBM Corporation and others.
+ * Copyright (c) 2000, 2022 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -77,6 +77,7 @@ public class ConnectMessages extends NLS {
 	public static String PacketReceiveManager_Got__0__from_Virtual_Machine_1;
 	public static String PacketReceiveManager_Got__0__from_Virtual_Machine___1__1;
 	public static String PacketReceiveManager_0;
+	public static String PacketReceiveManager_1;
 	public static String SocketTransportService_0;
 	public static String SocketTransportService_1;
 	public static String SocketConnectionLabelSeparator;
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2011 IBM Corporation and others.
+ * Copyright (c) 2000, 2022 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -31,6 +31,8 @@ public abstract class PacketManager implements Runnable {
 	 */
 	private Thread fPartnerThread;
 	private IOException fDisconnectException;
+	/** Recorder of the packets, or <code>null</code> if none. */
+	private PacketRecorder fRecorder;
 
 	/**
 	 * Creates new PacketManager.
@@ -64,6 +66,9 @@ public abstract class PacketManager implements Runnable {
 		} catch (IOException e) {
 			fDisconnectException = e;
 		}
+		if (fRecorder != null) {
+			fRecorder.close();
+		}
 		// Interrupt the sending thread if we are the receiving thread and vice
 		// versa.
 		if (fPartnerThread != null) {
@@ -92,4 +97,31 @@ public abstract class PacketManager implements Runnable {
 	public void setPartnerThread(Thread thread) {
 		fPartnerThread = thread;
 	}
+
+	/**
+	 * Sets the recorder of the packets sent or received by this manager.
+	 *
+	 * @param recorder
+	 *            the recorder, or <code>null</code> if packets are not
+	 *            recorded
+	 * @since 3.20
+	 */
+	public void setRecorder(PacketRecorder recorder) {
+		fRecorder = recorder;
+	}
+
+	/**
+	 * Records a packet if a recorder is set.
+	 *
+	 * @param direction
+	 *            {@link PacketRecorder#TO_VM} or
+	 *            {@link PacketRecorder#FROM_VM}
+	 * @param packet
+	 *            the packet bytes
+	 */
+	protected void record(byte direction, byte[] packet) {
+		if (fRecorder != null) {
+			fRecorder.record(direction, packet);
+		}
+	}
 }
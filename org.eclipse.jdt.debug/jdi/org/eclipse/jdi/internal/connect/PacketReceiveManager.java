@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2015 IBM Corporation and others.
+ * Copyright (c) 2000, 2022 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -16,8 +16,15 @@ package org.eclipse.jdi.internal.connect;
 import java.io.IOException;
 import java.io.InterruptedIOException;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.LinkedList;
 import java.util.ListIterator;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
 import org.eclipse.jdi.TimeoutException;
 import org.eclipse.jdi.internal.VirtualMachineImpl;
@@ -46,6 +53,9 @@ public class PacketReceiveManager extends PacketManager {
 	/** List of Command packets received from Virtual Machine. */
 	private LinkedList<JdwpCommandPacket> fCommandPackets;
 
+	/** Number of Command packets added to the list. */
+	private long fCommandPacketCount;
+
 	/** List of Reply packets received from Virtual Machine. */
 	private LinkedList<JdwpReplyPacket> fReplyPackets;
 
@@ -55,6 +65,19 @@ public class PacketReceiveManager extends PacketManager {
 	 */
 	private ArrayList<Integer> fTimedOutPackets;
 
+	/**
+	 * Replies of asynchronous requests that have not been received yet, by
+	 * packet id. Guarded by the lock of the reply packet list.
+	 */
+	private Map<Integer, CompletableFuture<JdwpReplyPacket>> fPendingReplies;
+
+	/**
+	 * Completes the replies of asynchronous requests in the order they are
+	 * received, on a thread that only exists while there are replies to
+	 * complete.
+	 */
+	private ThreadPoolExecutor fReplyDispatcher;
+
 	private VirtualMachineImpl fVM;
 
 	/**
@@ -66,6 +89,12 @@ public class PacketReceiveManager extends PacketManager {
 		fCommandPackets = new LinkedList<>();
 		fReplyPackets = new LinkedList<>();
 		fTimedOutPackets = new ArrayList<>();
+		fPendingReplies = new HashMap<>();
+		fReplyDispatcher = new ThreadPoolExecutor(0, 1, 10, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), runnable -> {
+			Thread thread = new Thread(runnable, ConnectMessages.PacketReceiveManager_1);
+			thread.setDaemon(true);
+			return thread;
+		});
 	}
 
 	@Override
@@ -74,9 +103,16 @@ public class PacketReceiveManager extends PacketManager {
 		synchronized (fCommandPackets) {
 			fCommandPackets.notifyAll();
 		}
+		ArrayList<CompletableFuture<JdwpReplyPacket>> pending;
 		synchronized (fReplyPackets) {
 			fReplyPackets.notifyAll();
+			pending = new ArrayList<>(fPendingReplies.values());
+			fPendingReplies.clear();
 		}
+		for (CompletableFuture<JdwpReplyPacket> reply : pending) {
+			reply.completeExceptionally(new VMDisconnectedException(ConnectMessages.PacketReceiveManager_Got_IOException_from_Virtual_Machine_2));
+		}
+		fReplyDispatcher.shutdown();
 	}
 
 	/**
@@ -207,6 +243,54 @@ public class PacketReceiveManager extends PacketManager {
 		return getReply(commandPacket.getId(), fVM.getRequestTimeout());
 	}
 
+	/**
+	 * Returns the future reply to the given command packet, which must be
+	 * called before the packet is sent. Replies are completed one after the
+	 * other on a dispatch thread, not on the thread that reads packets, so
+	 * that callbacks can make blocking requests. The future is completed
+	 * exceptionally with a {@link TimeoutException} if the reply is not
+	 * received within the request timeout of the VM, and with a
+	 * {@link VMDisconnectedException} if the VM disconnects before.
+	 *
+	 * @param commandPacket
+	 *            the command packet to be sent
+	 * @return the future reply
+	 * @since 3.20
+	 */
+	public CompletableFuture<JdwpReplyPacket> expectReply(JdwpCommandPacket commandPacket) {
+		CompletableFuture<JdwpReplyPacket> reply = new CompletableFuture<>();
+		Integer id = Integer.valueOf(commandPacket.getId());
+		synchronized (fReplyPackets) {
+			if (VMIsDisconnected()) {
+				reply.completeExceptionally(new VMDisconnectedException(ConnectMessages.PacketReceiveManager_Got_IOException_from_Virtual_Machine_2));
+				return reply;
+			}
+			fPendingReplies.put(id, reply);
+		}
+		long timeout = Math.max(fVM.getRequestTimeout(), 0);
+		CompletableFuture.delayedExecutor(timeout, TimeUnit.MILLISECONDS).execute(() -> timeOut(id));
+		return reply;
+	}
+
+	/**
+	 * Completes the future reply with the given id exceptionally, if it has
+	 * not been received yet.
+	 */
+	private void timeOut(Integer id) {
+		CompletableFuture<JdwpReplyPacket> reply;
+		synchronized (fReplyPackets) {
+			reply = fPendingReplies.remove(id);
+			if (reply == null) {
+				return;
+			}
+			// while holding the lock, so that the reply is discarded
+			synchronized (fTimedOutPackets) {
+				fTimedOutPackets.add(id);
+			}
+		}
+		reply.completeExceptionally(new TimeoutException(NLS.bind(ConnectMessages.PacketReceiveManager_0, new String[] { id.toString() })));
+	}
+
 	/**
 	 * Wait for an available packet from the Virtual Machine.
 	 */
@@ -260,10 +344,21 @@ public class PacketReceiveManager extends PacketManager {
 		}
 		synchronized (fCommandPackets) {
 			fCommandPackets.add(packet);
+			fCommandPacketCount++;
 			fCommandPackets.notifyAll();
 		}
 	}
 
+	/**
+	 * @return Returns the number of Command packets received from the Virtual
+	 *         Machine.
+	 */
+	public long commandPacketCount() {
+		synchronized (fCommandPackets) {
+			return fCommandPacketCount;
+		}
+	}
+
 	/**
 	 * Returns whether the request for the given packet has already timed out.
 	 *
@@ -285,6 +380,19 @@ public class PacketReceiveManager extends PacketManager {
 	 * Add a reply packet to the reply packet list.
 	 */
 	private void addReplyPacket(JdwpReplyPacket packet) {
+		CompletableFuture<JdwpReplyPacket> reply;
+		synchronized (fReplyPackets) {
+			reply = fPendingReplies.remove(Integer.valueOf(packet.getId()));
+		}
+		if (reply != null) {
+			try {
+				reply.completeAsync(() -> packet, fReplyDispatcher);
+			} catch (RejectedExecutionException e) {
+				// disconnected meanwhile
+				reply.complete(packet);
+			}
+			return;
+		}
 		if (isTimedOut(packet)) {
 			return; // already timed out. No need to keep this one
 		}
@@ -301,6 +409,7 @@ public class PacketReceiveManager extends PacketManager {
 	private void readAvailablePacket() throws IOException {
 		// Read a packet from the Input Stream.
 		byte[] bytes = getConnection().readPacket();
+		record(PacketRecorder.FROM_VM, bytes);
 		JdwpPacket packet = JdwpPacket.build(bytes);
 		// Add packet to command or reply queue.
 		if (packet instanceof JdwpCommandPacket)
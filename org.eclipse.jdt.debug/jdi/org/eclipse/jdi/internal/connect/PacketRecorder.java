@@ -0,0 +1,164 @@
+/*******************************************************************************
+ * Copyright (c) 2022 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdi.internal.connect;
+
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Records the JDWP packets of a debug session, with their timing, so that the
+ * session can be played back by a {@link ReplayConnection}.
+ * <p>
+ * A recording starts with a header of {@link #MAGIC} and {@link #VERSION}.
+ * Each packet follows as a record of a direction byte, the microseconds
+ * elapsed since the previous record as an int, and the packet bytes, which
+ * start with the packet length. Packets sent to the VM are recorded before
+ * they are written, so a command always precedes its reply.
+ * </p>
+ * <p>
+ * If the recording cannot be written, recording stops and the session
+ * continues.
+ * </p>
+ *
+ * @since 3.20
+ */
+public class PacketRecorder {
+
+	/**
+	 * First int of a recording
+	 */
+	public static final int MAGIC = 0x4A445250;
+
+	/**
+	 * Version of the recording format
+	 */
+	public static final short VERSION = 1;
+
+	/**
+	 * Direction of a packet sent to the VM
+	 */
+	public static final byte TO_VM = 0;
+
+	/**
+	 * Direction of a packet received from the VM
+	 */
+	public static final byte FROM_VM = 1;
+
+	private DataOutputStream fOutput;
+
+	private long fLastTime;
+
+	/**
+	 * Creates a recorder writing to the given stream.
+	 *
+	 * @param out
+	 *            the stream to write the recording to
+	 * @throws IOException
+	 *             if the header cannot be written
+	 */
+	public PacketRecorder(OutputStream out) throws IOException {
+		fOutput = new DataOutputStream(new BufferedOutputStream(out));
+		fOutput.writeInt(MAGIC);
+		fOutput.writeShort(VERSION);
+		fLastTime = System.nanoTime();
+	}
+
+	/**
+	 * Records a packet.
+	 *
+	 * @param direction
+	 *            {@link #TO_VM} or {@link #FROM_VM}
+	 * @param packet
+	 *            the packet bytes
+	 */
+	public synchronized void record(byte direction, byte[] packet) {
+		if (fOutput == null) {
+			return;
+		}
+		long time = System.nanoTime();
+		long delay = (time - fLastTime) / 1000;
+		fLastTime = time;
+		try {
+			fOutput.writeByte(direction);
+			fOutput.writeInt((int) Math.min(delay, Integer.MAX_VALUE));
+			fOutput.write(packet, 0, getPacketLength(packet));
+		} catch (IOException e) {
+			close();
+		}
+	}
+
+	/**
+	 * Writes the remaining records and closes the recording. Packets recorded
+	 * afterwards are ignored.
+	 */
+	public synchronized void close() {
+		if (fOutput == null) {
+			return;
+		}
+		try {
+			fOutput.close();
+		} catch (IOException e) {
+			// the recording is incomplete
+		}
+		fOutput = null;
+	}
+
+	/**
+	 * Reads the header of a recording.
+	 *
+	 * @param in
+	 *            the recording
+	 * @throws IOException
+	 *             if the stream is not a recording of a supported version
+	 */
+	static void readHeader(DataInputStream in) throws IOException {
+		if (in.readInt() != MAGIC) {
+			throw new IOException("Not a JDWP recording"); //$NON-NLS-1$
+		}
+		short version = in.readShort();
+		if (version != VERSION) {
+			throw new IOException("Unsupported JDWP recording version: " + version); //$NON-NLS-1$
+		}
+	}
+
+	/**
+	 * Reads the packet of a record, after its direction and delay.
+	 *
+	 * @param in
+	 *            the recording
+	 * @return the packet bytes
+	 * @throws IOException
+	 *             if the packet cannot be read
+	 */
+	static byte[] readPacket(DataInputStream in) throws IOException {
+		int length = in.readInt();
+		if (length < 11) {
+			throw new IOException("JDWP Packet under 11 bytes"); //$NON-NLS-1$
+		}
+		byte[] packet = new byte[length];
+		packet[0] = (byte) (length >>> 24);
+		packet[1] = (byte) (length >>> 16);
+		packet[2] = (byte) (length >>> 8);
+		packet[3] = (byte) length;
+		in.readFully(packet, 4, length - 4);
+		return packet;
+	}
+
+	static int getPacketLength(byte[] packet) {
+		return ((packet[0] & 0xFF) << 24) + ((packet[1] & 0xFF) << 16) + ((packet[2] & 0xFF) << 8) + (packet[3] & 0xFF);
+	}
+}
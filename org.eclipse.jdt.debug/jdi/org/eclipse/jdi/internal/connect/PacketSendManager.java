@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2015 IBM Corporation and others.
+ * Copyright (c) 2000, 2022 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -121,6 +121,8 @@ public class PacketSendManager extends PacketManager {
 			// ClassCastException can't occur.
 			JdwpPacket packet = packetsToSend.removeFirst();
 			byte[] bytes = packet.getPacketAsBytes();
+			// recorded first, so that the reply is recorded after it
+			record(PacketRecorder.TO_VM, bytes);
 			getConnection().writePacket(bytes);
 		}
 	}
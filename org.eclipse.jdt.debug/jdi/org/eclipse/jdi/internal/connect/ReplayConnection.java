@@ -0,0 +1,316 @@
+/*******************************************************************************
+ * Copyright (c) 2022 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdi.internal.connect;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.sun.jdi.connect.spi.ClosedConnectionException;
+import com.sun.jdi.connect.spi.Connection;
+
+/**
+ * A connection that plays back the VM side of a session recorded by a
+ * {@link PacketRecorder}, without a VM. A virtual machine mirror created on
+ * this connection behaves as it did in the recorded session, as long as the
+ * same requests are made.
+ * <p>
+ * Commands written to the connection are matched against the commands of the
+ * recording, first by their data, then by their command only. Commands may be
+ * written in a different order than recorded, e.g. by other threads. The ids
+ * of replies are changed to the ids of the matching commands. A packet of the
+ * VM is read once all commands recorded before it have been written. If a
+ * command has no match in the recording, the replay has diverged and the
+ * connection is closed. The connection is also closed shortly after the end
+ * of the recording, as the VM closes it at the end of a session.
+ * </p>
+ *
+ * @since 3.20
+ */
+public class ReplayConnection extends Connection {
+
+	/**
+	 * Number of records searched past the first command of the same kind for
+	 * a command with the same data
+	 */
+	static final int LOOKAHEAD = 1024;
+
+	/**
+	 * Milliseconds the connection stays open at the end of the recording, for
+	 * the client to take the last replies
+	 */
+	static final long END_DELAY = 500;
+
+	private static final int FLAGS_INDEX = 8;
+
+	private static final int COMMAND_SET_INDEX = 9;
+
+	private static final int FLAG_REPLY = 0x80;
+
+	private static class Record {
+
+		final byte fDirection;
+
+		final int fDelay;
+
+		final byte[] fPacket;
+
+		/**
+		 * Whether the packet has been read, or the command has been matched
+		 */
+		boolean fDone;
+
+		Record(byte direction, int delay, byte[] packet) {
+			fDirection = direction;
+			fDelay = delay;
+			fPacket = packet;
+		}
+	}
+
+	private final DataInputStream fInput;
+
+	private final boolean fTimed;
+
+	/**
+	 * Records read from the recording and not yet done, in recorded order
+	 */
+	private final List<Record> fRecords = new ArrayList<>();
+
+	/**
+	 * Ids of written commands by id of the matching recorded command, until
+	 * the reply has been read
+	 */
+	private final Map<Integer, Integer> fIds = new HashMap<>();
+
+	private boolean fEnd;
+
+	private boolean fOpen = true;
+
+	/**
+	 * Creates a connection playing back the given recording.
+	 *
+	 * @param in
+	 *            the recording
+	 * @param timed
+	 *            whether packets are delayed as recorded, otherwise they are
+	 *            read as soon as they are due
+	 * @throws IOException
+	 *             if the stream is not a recording
+	 */
+	public ReplayConnection(InputStream in, boolean timed) throws IOException {
+		fInput = new DataInputStream(new BufferedInputStream(in));
+		fTimed = timed;
+		PacketRecorder.readHeader(fInput);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see com.sun.jdi.connect.spi.Connection#readPacket()
+	 */
+	@Override
+	public byte[] readPacket() throws IOException {
+		Record record;
+		synchronized (this) {
+			while ((record = nextPacket()) == null) {
+				if (!fOpen) {
+					throw new ClosedConnectionException();
+				}
+				try {
+					if (fEnd && fRecords.isEmpty()) {
+						// the recorded session ended
+						wait(END_DELAY);
+						close();
+					} else {
+						wait();
+					}
+				} catch (InterruptedException e) {
+					throw new InterruptedIOException();
+				}
+			}
+			record.fDone = true;
+			trim();
+		}
+		if (fTimed && record.fDelay > 0) {
+			try {
+				Thread.sleep(record.fDelay / 1000, (record.fDelay % 1000) * 1000);
+			} catch (InterruptedException e) {
+				throw new InterruptedIOException();
+			}
+		}
+		byte[] packet = record.fPacket;
+		if ((packet[FLAGS_INDEX] & FLAG_REPLY) != 0) {
+			Integer id;
+			synchronized (this) {
+				id = fIds.remove(Integer.valueOf(getId(packet)));
+			}
+			if (id != null) {
+				packet = packet.clone();
+				setId(packet, id.intValue());
+			}
+		}
+		return packet;
+	}
+
+	/**
+	 * Returns the next packet of the VM, if all commands recorded before it
+	 * have been matched.
+	 */
+	private Record nextPacket() throws IOException {
+		if (!fOpen) {
+			return null;
+		}
+		for (int i = 0; i < fRecords.size() || readRecord(); i++) {
+			Record record = fRecords.get(i);
+			if (!record.fDone) {
+				return record.fDirection == PacketRecorder.FROM_VM ? record : null;
+			}
+		}
+		return null;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see com.sun.jdi.connect.spi.Connection#writePacket(byte[])
+	 */
+	@Override
+	public synchronized void writePacket(byte[] packet) throws IOException {
+		if (!fOpen) {
+			throw new ClosedConnectionException();
+		}
+		if ((packet[FLAGS_INDEX] & FLAG_REPLY) != 0) {
+			// the VM sends no commands that expect a reply
+			return;
+		}
+		Record match = null;
+		Record candidate = null;
+		int limit = Integer.MAX_VALUE;
+		for (int i = 0; match == null && i < limit && (i < fRecords.size() || readRecord()); i++) {
+			Record record = fRecords.get(i);
+			if (record.fDone || record.fDirection != PacketRecorder.TO_VM || !isSameCommand(record.fPacket, packet)) {
+				continue;
+			}
+			if (isSameData(record.fPacket, packet)) {
+				match = record;
+			} else if (candidate == null) {
+				candidate = record;
+				limit = i + LOOKAHEAD;
+			}
+		}
+		if (match == null) {
+			match = candidate;
+		}
+		if (match == null) {
+			close();
+			throw new IOException("Replay diverged from the recording at command " + packet[COMMAND_SET_INDEX] + '/' + packet[COMMAND_SET_INDEX + 1]); //$NON-NLS-1$
+		}
+		match.fDone = true;
+		fIds.put(Integer.valueOf(getId(match.fPacket)), Integer.valueOf(getId(packet)));
+		trim();
+		notifyAll();
+	}
+
+	/**
+	 * Reads the next record of the recording.
+	 *
+	 * @return whether a record has been read
+	 */
+	private boolean readRecord() throws IOException {
+		if (fEnd) {
+			return false;
+		}
+		byte direction;
+		try {
+			direction = fInput.readByte();
+		} catch (EOFException e) {
+			fEnd = true;
+			return false;
+		}
+		int delay = fInput.readInt();
+		fRecords.add(new Record(direction, delay, PacketRecorder.readPacket(fInput)));
+		return true;
+	}
+
+	/**
+	 * Removes the records at the start of the list that are done.
+	 */
+	private void trim() {
+		int done = 0;
+		while (done < fRecords.size() && fRecords.get(done).fDone) {
+			done++;
+		}
+		fRecords.subList(0, done).clear();
+	}
+
+	private static boolean isSameCommand(byte[] recorded, byte[] packet) {
+		return recorded[COMMAND_SET_INDEX] == packet[COMMAND_SET_INDEX] && recorded[COMMAND_SET_INDEX + 1] == packet[COMMAND_SET_INDEX + 1];
+	}
+
+	private static boolean isSameData(byte[] recorded, byte[] packet) {
+		int length = PacketRecorder.getPacketLength(recorded);
+		if (length != PacketRecorder.getPacketLength(packet)) {
+			return false;
+		}
+		for (int i = COMMAND_SET_INDEX + 2; i < length; i++) {
+			if (recorded[i] != packet[i]) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private static int getId(byte[] packet) {
+		return ((packet[4] & 0xFF) << 24) + ((packet[5] & 0xFF) << 16) + ((packet[6] & 0xFF) << 8) + (packet[7] & 0xFF);
+	}
+
+	private static void setId(byte[] packet, int id) {
+		packet[4] = (byte) (id >>> 24);
+		packet[5] = (byte) (id >>> 16);
+		packet[6] = (byte) (id >>> 8);
+		packet[7] = (byte) id;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see com.sun.jdi.connect.spi.Connection#close()
+	 */
+	@Override
+	public synchronized void close() throws IOException {
+		if (!fOpen) {
+			return;
+		}
+		fOpen = false;
+		notifyAll();
+		fInput.close();
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see com.sun.jdi.connect.spi.Connection#isOpen()
+	 */
+	@Override
+	public synchronized boolean isOpen() {
+		return fOpen;
+	}
+}
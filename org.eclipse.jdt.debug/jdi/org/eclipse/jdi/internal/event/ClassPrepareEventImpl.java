@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2015 IBM Corporation and others.
+ * Copyright (c) 2000, 2022 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -60,6 +60,7 @@ public class ClassPrepareEventImpl extends EventImpl implements
 				target, false, dataInStream);
 		target.readInt(
 				"class status", ReferenceTypeImpl.classStatusStrings(), dataInStream); //$NON-NLS-1$
+		vmImpl.typeHierarchyIndex().prepared(event.fReferenceType);
 		return event;
 	}
 
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2015 IBM Corporation and others.
+ * Copyright (c) 2000, 2022 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -55,6 +55,7 @@ public class ClassUnloadEventImpl extends EventImpl implements ClassUnloadEvent
 		// Remove the class from classes that are known by the application to be
 		// loaded in the VM.
 		vmImpl.removeKnownRefType(event.fSignature);
+		vmImpl.typeHierarchyIndex().unloaded();
 		return event;
 	}
 
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2015 IBM Corporation and others.
+ * Copyright (c) 2000, 2022 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -14,6 +14,7 @@
 package org.eclipse.jdi.internal.event;
 
 import java.io.IOException;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.eclipse.jdi.TimeoutException;
 import org.eclipse.jdi.internal.MirrorImpl;
@@ -35,6 +36,9 @@ public class EventQueueImpl extends MirrorImpl implements EventQueue {
 	/** Flag used to see if a VMDisconnectEvent has already been generated. */
 	private boolean genereatedVMDisconnectEvent = false;
 
+	/** Number of event sets read, including the ones that failed to be read. */
+	private final AtomicLong fEventSetCount = new AtomicLong();
+
 	/**
 	 * Creates new EventQueueImpl.
 	 */
@@ -42,6 +46,14 @@ public class EventQueueImpl extends MirrorImpl implements EventQueue {
 		super("EventQueue", vmImpl); //$NON-NLS-1$
 	}
 
+	/**
+	 * @return Returns the number of event sets taken from the Virtual Machine,
+	 *         after each one has been read.
+	 */
+	public long eventSetCount() {
+		return fEventSetCount.get();
+	}
+
 	/*
 	 * @return Returns next EventSet from Virtual Machine.
 	 */
@@ -70,9 +82,13 @@ public class EventQueueImpl extends MirrorImpl implements EventQueue {
 			do {
 				JdwpCommandPacket packet = getCommandVM(
 						JdwpCommandPacket.E_COMPOSITE, timeout);
-				initJdwpEventSet(packet);
-				set = EventSetImpl.read(this, packet.dataInStream());
-				handledJdwpEventSet();
+				try {
+					initJdwpEventSet(packet);
+					set = EventSetImpl.read(this, packet.dataInStream());
+					handledJdwpEventSet();
+				} finally {
+					fEventSetCount.incrementAndGet();
+				}
 			} while (set.isEmpty());
 			return set;
 		} catch (TimeoutException e) {
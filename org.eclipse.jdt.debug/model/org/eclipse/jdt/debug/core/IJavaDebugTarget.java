@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2019 IBM Corporation and others.
+ * Copyright (c) 2000, 2022 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -15,6 +15,7 @@
  *******************************************************************************/
 package org.eclipse.jdt.debug.core;
 
+import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.debug.core.DebugException;
 import org.eclipse.debug.core.model.IDebugTarget;
 import org.eclipse.debug.core.model.IStepFilters;
@@ -580,4 +581,22 @@ public interface IJavaDebugTarget extends IDebugTarget, IStepFilters {
 	public void removeHotCodeReplaceListener(
 			IJavaHotCodeReplaceListener listener);
 
+	/**
+	 * Counts the reachable instances of all types loaded in this target.
+	 * Instances are counted in chunks of types, progress is reported to the
+	 * given monitor and the operation stops when the monitor is canceled.
+	 *
+	 * @param monitor
+	 *            progress monitor, or <code>null</code>
+	 * @return a heap histogram of this target
+	 * @throws DebugException
+	 *             if this target does not support instance retrieval, or an
+	 *             error occurs counting instances
+	 * @throws org.eclipse.core.runtime.OperationCanceledException
+	 *             if the monitor has been canceled
+	 * @see #supportsInstanceRetrieval()
+	 * @since 3.20
+	 */
+	public IJavaHeapHistogram getHeapHistogram(IProgressMonitor monitor) throws DebugException;
+
 }
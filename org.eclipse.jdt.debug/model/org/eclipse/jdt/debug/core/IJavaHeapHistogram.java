@@ -0,0 +1,101 @@
+/*******************************************************************************
+ * Copyright (c) 2022 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.debug.core;
+
+/**
+ * The number of instances of each type loaded in a debug target at a point in
+ * time, or the change in the number of instances between two such points.
+ * <p>
+ * A histogram taken from a target lists types in decreasing order of their
+ * instance count. A histogram compared against a baseline lists types in
+ * decreasing order of the change of their instance count since the baseline,
+ * types whose instance count did not change are omitted. Types are identified
+ * by their index in the histogram.
+ * </p>
+ * <p>
+ * Histograms are snapshots and do not change after they have been created.
+ * </p>
+ *
+ * @see IJavaDebugTarget#getHeapHistogram(org.eclipse.core.runtime.IProgressMonitor)
+ * @since 3.20
+ * @noimplement This interface is not intended to be implemented by clients.
+ */
+public interface IJavaHeapHistogram {
+
+	/**
+	 * Returns the time at which the instances were counted, as returned by
+	 * {@link System#currentTimeMillis()}.
+	 *
+	 * @return the time at which the instances were counted
+	 */
+	public long getTimestamp();
+
+	/**
+	 * Returns the number of types in this histogram.
+	 *
+	 * @return the number of types
+	 */
+	public int getTypeCount();
+
+	/**
+	 * Returns the fully qualified name of the type at the given index. Types
+	 * loaded by different class loaders may have the same name.
+	 *
+	 * @param index
+	 *            index of the type in this histogram
+	 * @return the name of the type
+	 */
+	public String getTypeName(int index);
+
+	/**
+	 * Returns the number of reachable instances of the type at the given index
+	 * when this histogram was taken.
+	 *
+	 * @param index
+	 *            index of the type in this histogram
+	 * @return the number of instances
+	 */
+	public long getInstanceCount(int index);
+
+	/**
+	 * Returns the change in the number of instances of the type at the given
+	 * index since the baseline this histogram was compared against. For a
+	 * histogram taken from a target, this is the number of instances.
+	 *
+	 * @param index
+	 *            index of the type in this histogram
+	 * @return the change in the number of instances
+	 */
+	public long getInstanceCountChange(int index);
+
+	/**
+	 * Returns the total number of instances counted in this histogram.
+	 *
+	 * @return the total number of instances
+	 */
+	public long getTotalInstanceCount();
+
+	/**
+	 * Compares this histogram against the given baseline, taken earlier from
+	 * the same target. Types that are not in the baseline are considered to
+	 * have had no instances, types that are not in this histogram any more,
+	 * e.g. because they have been unloaded, are considered to have no
+	 * instances.
+	 *
+	 * @param baseline
+	 *            a histogram taken from the same target
+	 * @return the changes since the baseline, in decreasing order of growth
+	 */
+	public IJavaHeapHistogram compareTo(IJavaHeapHistogram baseline);
+}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2015 IBM Corporation and others.
+ * Copyright (c) 2000, 2022 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -27,6 +27,7 @@ import org.eclipse.core.runtime.jobs.Job;
 import org.eclipse.debug.core.DebugEvent;
 import org.eclipse.debug.core.DebugException;
 import org.eclipse.debug.core.DebugPlugin;
+import org.eclipse.jdi.internal.event.EventQueueImpl;
 import org.eclipse.jdt.debug.core.IJavaLineBreakpoint;
 import org.eclipse.jdt.internal.debug.core.model.JDIDebugTarget;
 
@@ -82,6 +83,24 @@ public class EventDispatcher implements Runnable {
 	 */
 	private Map<EventSet, List<DebugEvent>> fSetToQueue = new HashMap<>();
 
+	/**
+	 * Number of event sets read from the event queue whose events have been
+	 * dispatched, or handed to a dispatch job, see
+	 * {@link EventQueueImpl#eventSetCount()}
+	 */
+	private long fDispatchedCount;
+
+	/**
+	 * Lock guarding the dispatched count, notified when it changes
+	 */
+	private final Object fDispatchLock = new Object();
+
+	/**
+	 * The thread reading and dispatching events, or <code>null</code> if not
+	 * started
+	 */
+	private volatile Thread fDispatchThread;
+
 	/**
 	 * Constructs a new event dispatcher listening for events originating from
 	 * the specified debug target's underlying VM.
@@ -290,6 +309,7 @@ public class EventDispatcher implements Runnable {
 		VirtualMachine vm = fTarget.getVM();
 		if (vm != null) {
 			EventQueue q = vm.eventQueue();
+			fDispatchThread = Thread.currentThread();
 			while (!isShutdown()) {
 				try {
 					EventSet eventSet;
@@ -299,6 +319,8 @@ public class EventDispatcher implements Runnable {
 					} catch (VMDisconnectedException e) {
 						break;
 					}
+					// no other event set is read until this one is dispatched
+					long read = q instanceof EventQueueImpl ? ((EventQueueImpl) q).eventSetCount() : -1;
 
 					if (eventSet != null) {
 						if (!requiresExpressionEvaluation(eventSet)) {
@@ -316,6 +338,12 @@ public class EventDispatcher implements Runnable {
 							job.schedule();
 						}
 					}
+					if (read != -1) {
+						synchronized (fDispatchLock) {
+							fDispatchedCount = read;
+							fDispatchLock.notifyAll();
+						}
+					}
 				} catch (InterruptedException e) {
 					break;
 				}
@@ -331,6 +359,44 @@ public class EventDispatcher implements Runnable {
 	public void shutdown() {
 		fShutdown = true;
 		Job.getJobManager().cancel(this);
+		synchronized (fDispatchLock) {
+			fDispatchLock.notifyAll();
+		}
+	}
+
+	/**
+	 * Waits until the events of the given number of event sets received from
+	 * the VM have been dispatched, except the ones dispatched by jobs because
+	 * they require expression evaluation. Returns immediately if called while
+	 * dispatching.
+	 *
+	 * @param count
+	 *            number of event sets received from the VM, see
+	 *            {@link org.eclipse.jdi.internal.connect.PacketReceiveManager#commandPacketCount()}
+	 * @param timeout
+	 *            maximum time to wait, in milliseconds
+	 * @return whether the events have been dispatched
+	 */
+	public boolean waitForDispatch(long count, long timeout) {
+		if (Thread.currentThread() == fDispatchThread || fDispatchThread == null) {
+			return false;
+		}
+		long end = System.currentTimeMillis() + timeout;
+		synchronized (fDispatchLock) {
+			while (fDispatchedCount < count) {
+				long remaining = end - System.currentTimeMillis();
+				if (isShutdown() || remaining <= 0) {
+					return false;
+				}
+				try {
+					fDispatchLock.wait(remaining);
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					return false;
+				}
+			}
+		}
+		return true;
 	}
 
 	/**
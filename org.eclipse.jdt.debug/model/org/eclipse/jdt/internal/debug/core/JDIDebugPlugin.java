@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2015 IBM Corporation and others.
+ * Copyright (c) 2000, 2022 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -43,7 +43,9 @@ import org.eclipse.jdt.debug.core.IJavaThread;
 import org.eclipse.jdt.debug.core.IJavaType;
 import org.eclipse.jdt.debug.core.JDIDebugModel;
 import org.eclipse.jdt.debug.eval.IAstEvaluationEngine;
+import org.eclipse.jdt.internal.debug.core.breakpoints.BreakpointInstallStateWriter;
 import org.eclipse.jdt.internal.debug.core.breakpoints.BreakpointListenerManager;
+import org.eclipse.jdt.internal.debug.core.breakpoints.CompilationUnitCache;
 import org.eclipse.jdt.internal.debug.core.hcr.JavaHotCodeReplaceManager;
 import org.eclipse.jdt.internal.debug.core.model.JDIDebugTarget;
 import org.eclipse.jdt.internal.debug.core.model.JDIThread;
@@ -369,6 +371,8 @@ public class JDIDebugPlugin extends Plugin implements IEclipsePreferences.IPrefe
 				}
 			}
 			fBreakpointListeners = null;
+			BreakpointInstallStateWriter.getDefault().flush();
+			CompilationUnitCache.shutdown();
 			ResourcesPlugin.getWorkspace().removeSaveParticipant(getUniqueIdentifier());
 		} finally {
 			fgPlugin = null;
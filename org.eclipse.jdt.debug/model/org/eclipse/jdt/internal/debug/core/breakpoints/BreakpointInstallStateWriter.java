@@ -0,0 +1,159 @@
+/*******************************************************************************
+ * Copyright (c) 2022 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.internal.debug.core.breakpoints;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.eclipse.core.resources.IMarker;
+import org.eclipse.core.resources.IResourceRuleFactory;
+import org.eclipse.core.resources.IWorkspace;
+import org.eclipse.core.resources.IWorkspaceRunnable;
+import org.eclipse.core.resources.ResourcesPlugin;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.jobs.ISchedulingRule;
+import org.eclipse.core.runtime.jobs.Job;
+import org.eclipse.core.runtime.jobs.MultiRule;
+import org.eclipse.jdt.internal.debug.core.JDIDebugPlugin;
+
+/**
+ * Writes the install state of Java breakpoints to their markers.
+ * <p>
+ * The install count and expired state of a breakpoint are kept in memory and
+ * change whenever a breakpoint is installed in or removed from a debug target.
+ * Launching or terminating a program with many breakpoints would otherwise
+ * modify one marker at a time, each modification resulting in a resource
+ * change notification. Instead, breakpoints whose state changed are collected
+ * and their markers are updated in a single workspace operation once no further
+ * change happened for a short delay.
+ * </p>
+ *
+ * @since 3.19.200
+ */
+public final class BreakpointInstallStateWriter extends Job {
+
+	/**
+	 * Delay in milliseconds to wait for further changes before markers are
+	 * updated
+	 */
+	private static final long DELAY = 100;
+
+	private static BreakpointInstallStateWriter fgDefault;
+
+	/**
+	 * Breakpoints whose install state has changed since their markers were
+	 * last updated
+	 */
+	private final Set<JavaBreakpoint> fPending = new LinkedHashSet<>();
+
+	private BreakpointInstallStateWriter() {
+		super(JDIDebugBreakpointMessages.BreakpointInstallStateWriter_0);
+		setSystem(true);
+	}
+
+	/**
+	 * Returns the shared install state writer
+	 *
+	 * @return the shared install state writer
+	 */
+	public static synchronized BreakpointInstallStateWriter getDefault() {
+		if (fgDefault == null) {
+			fgDefault = new BreakpointInstallStateWriter();
+		}
+		return fgDefault;
+	}
+
+	/**
+	 * Schedules the marker of the given breakpoint to be updated with its
+	 * current install state.
+	 *
+	 * @param breakpoint
+	 *            the breakpoint whose install state has changed
+	 */
+	void changed(JavaBreakpoint breakpoint) {
+		synchronized (fPending) {
+			if (fPending.add(breakpoint)) {
+				schedule(DELAY);
+			}
+		}
+	}
+
+	/**
+	 * Updates the markers of all breakpoints whose install state has changed
+	 * in the calling thread.
+	 */
+	public void flush() {
+		cancel();
+		write(null);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see org.eclipse.core.runtime.jobs.Job#run(org.eclipse.core.runtime.IProgressMonitor)
+	 */
+	@Override
+	protected IStatus run(IProgressMonitor monitor) {
+		write(monitor);
+		return Status.OK_STATUS;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see org.eclipse.core.runtime.jobs.Job#belongsTo(java.lang.Object)
+	 */
+	@Override
+	public boolean belongsTo(Object family) {
+		return family == BreakpointInstallStateWriter.class;
+	}
+
+	private void write(IProgressMonitor monitor) {
+		List<JavaBreakpoint> breakpoints;
+		synchronized (fPending) {
+			if (fPending.isEmpty()) {
+				return;
+			}
+			breakpoints = new ArrayList<>(fPending);
+			fPending.clear();
+		}
+		IWorkspace workspace = ResourcesPlugin.getWorkspace();
+		IResourceRuleFactory factory = workspace.getRuleFactory();
+		List<ISchedulingRule> rules = new ArrayList<>(breakpoints.size());
+		for (JavaBreakpoint breakpoint : breakpoints) {
+			IMarker marker = breakpoint.getMarker();
+			if (marker != null) {
+				rules.add(factory.markerRule(marker.getResource()));
+			}
+		}
+		IWorkspaceRunnable runnable = new IWorkspaceRunnable() {
+			@Override
+			public void run(IProgressMonitor pm) throws CoreException {
+				for (JavaBreakpoint breakpoint : breakpoints) {
+					breakpoint.writeInstallState();
+				}
+			}
+		};
+		try {
+			workspace.run(runnable, MultiRule.combine(rules.toArray(new ISchedulingRule[rules.size()])), IWorkspace.AVOID_UPDATE, monitor);
+		} catch (CoreException e) {
+			JDIDebugPlugin.log(e);
+		}
+	}
+}
@@ -0,0 +1,294 @@
+/*******************************************************************************
+ * Copyright (c) 2022 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.internal.debug.core.breakpoints;
+
+import java.io.File;
+import java.lang.ref.SoftReference;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.eclipse.core.resources.IResource;
+import org.eclipse.core.runtime.IPath;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.jdt.core.ElementChangedEvent;
+import org.eclipse.jdt.core.ICompilationUnit;
+import org.eclipse.jdt.core.IElementChangedListener;
+import org.eclipse.jdt.core.ITypeRoot;
+import org.eclipse.jdt.core.JavaCore;
+import org.eclipse.jdt.core.JavaModelException;
+import org.eclipse.jdt.core.dom.AST;
+import org.eclipse.jdt.core.dom.ASTParser;
+import org.eclipse.jdt.core.dom.CompilationUnit;
+
+/**
+ * A bounded cache of compilation units with resolved bindings, shared by
+ * breakpoint verification and location validation of the debug plug-ins.
+ * <p>
+ * Compilation units are cached by type root and are parsed again once the
+ * underlying resource or archive has been modified. Type roots of working
+ * copies with unsaved changes are never cached. Besides the compilation unit,
+ * the valid breakpoint location computed for each line is remembered, so
+ * verifying many breakpoints of the same file only visits its AST once per
+ * line.
+ * </p>
+ * <p>
+ * Bindings depend on other types as well, so all entries are discarded when
+ * the Java model changes. Entries are softly referenced and may also be
+ * discarded when memory runs low. The binding resolver of an AST is not thread
+ * safe, so a cached AST is only handed out to an {@link ASTRunnable} that runs
+ * while no other thread uses it.
+ * </p>
+ *
+ * @since 3.19.200
+ */
+public final class CompilationUnitCache implements IElementChangedListener {
+
+	/**
+	 * Runs with a cached compilation unit
+	 *
+	 * @param <T>
+	 *            the type of the result
+	 */
+	public interface ASTRunnable<T> {
+
+		/**
+		 * Called with exclusive access to the given compilation unit. The
+		 * compilation unit and its nodes and bindings must not be used after
+		 * this method returns.
+		 *
+		 * @param unit
+		 *            the compilation unit with resolved bindings
+		 * @return the result
+		 */
+		T run(CompilationUnit unit);
+	}
+
+	/**
+	 * Maximum number of compilation units that are kept
+	 */
+	private static final int MAX_CACHE_SIZE = 8;
+
+	private static CompilationUnitCache fgDefault;
+
+	/**
+	 * Cache entries by handle identifier of their type root, least recently
+	 * used first
+	 */
+	private final Map<String, SoftReference<Entry>> fEntries = new LinkedHashMap<String, SoftReference<Entry>>(16, 0.75f, true) {
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<String, SoftReference<Entry>> eldest) {
+			return size() > MAX_CACHE_SIZE;
+		}
+	};
+
+	/**
+	 * A parsed compilation unit and the breakpoint locations computed for it
+	 */
+	private static class Entry {
+
+		final long fStamp;
+
+		final CompilationUnit fUnit;
+
+		/**
+		 * Locators that have visited the unit, by line number and flags
+		 */
+		final Map<Long, ValidBreakpointLocationLocator> fLocations = new HashMap<>();
+
+		Entry(long stamp, CompilationUnit unit) {
+			fStamp = stamp;
+			fUnit = unit;
+		}
+	}
+
+	private CompilationUnitCache() {
+	}
+
+	/**
+	 * Returns the shared compilation unit cache
+	 *
+	 * @return the shared compilation unit cache
+	 */
+	public static synchronized CompilationUnitCache getDefault() {
+		if (fgDefault == null) {
+			fgDefault = new CompilationUnitCache();
+			JavaCore.addElementChangedListener(fgDefault, ElementChangedEvent.POST_CHANGE);
+		}
+		return fgDefault;
+	}
+
+	/**
+	 * Stops listening to Java model changes and discards the shared cache
+	 */
+	public static synchronized void shutdown() {
+		if (fgDefault != null) {
+			JavaCore.removeElementChangedListener(fgDefault);
+			fgDefault.clear();
+			fgDefault = null;
+		}
+	}
+
+	/**
+	 * Runs the given runnable with the compilation unit of the given type root
+	 * with resolved bindings, parsing it if it is not cached or has been
+	 * modified since it was parsed.
+	 *
+	 * @param root
+	 *            the type root
+	 * @param monitor
+	 *            progress monitor or <code>null</code>
+	 * @param runnable
+	 *            the runnable to run with the compilation unit
+	 * @return the result of the runnable, or <code>null</code> if no
+	 *         compilation unit can be created, e.g. because a class file has no
+	 *         source
+	 */
+	public <T> T runWithAST(ITypeRoot root, IProgressMonitor monitor, ASTRunnable<T> runnable) {
+		Entry entry = getEntry(root, monitor);
+		if (entry == null) {
+			return null;
+		}
+		synchronized (entry) {
+			return runnable.run(entry.fUnit);
+		}
+	}
+
+	/**
+	 * Returns a locator that has visited the compilation unit of the given
+	 * type root to find the valid breakpoint location for the given line.
+	 * Locators are cached along with the compilation unit and must not be
+	 * modified.
+	 *
+	 * @param root
+	 *            the type root
+	 * @param lineNumber
+	 *            the line where to put the breakpoint
+	 * @param bindingsResolved
+	 *            whether the locator may use bindings
+	 * @param bestMatch
+	 *            whether to look for the best match or only for a valid line
+	 * @return the locator or <code>null</code> if no compilation unit can be
+	 *         created for the type root
+	 */
+	public ValidBreakpointLocationLocator getLocation(ITypeRoot root, int lineNumber, boolean bindingsResolved, boolean bestMatch) {
+		Entry entry = getEntry(root, null);
+		if (entry == null) {
+			return null;
+		}
+		Long key = Long.valueOf(((long) lineNumber << 2) | (bindingsResolved ? 2 : 0) | (bestMatch ? 1 : 0));
+		synchronized (entry) {
+			ValidBreakpointLocationLocator locator = entry.fLocations.get(key);
+			if (locator == null) {
+				locator = new ValidBreakpointLocationLocator(entry.fUnit, lineNumber, bindingsResolved, bestMatch);
+				entry.fUnit.accept(locator);
+				entry.fLocations.put(key, locator);
+			}
+			return locator;
+		}
+	}
+
+	/**
+	 * Discards all cached compilation units
+	 */
+	public void clear() {
+		synchronized (fEntries) {
+			fEntries.clear();
+		}
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see org.eclipse.jdt.core.IElementChangedListener#elementChanged(org.eclipse.jdt.core.ElementChangedEvent)
+	 */
+	@Override
+	public void elementChanged(ElementChangedEvent event) {
+		// bindings may refer to any changed type
+		clear();
+	}
+
+	private Entry getEntry(ITypeRoot root, IProgressMonitor monitor) {
+		if (root == null) {
+			return null;
+		}
+		if (hasUnsavedChanges(root)) {
+			// the modification stamp does not reflect the contents
+			CompilationUnit unit = parse(root, monitor);
+			return unit == null ? null : new Entry(IResource.NULL_STAMP, unit);
+		}
+		String key = root.getHandleIdentifier();
+		long stamp = getModificationStamp(root);
+		synchronized (fEntries) {
+			SoftReference<Entry> reference = fEntries.get(key);
+			Entry entry = reference == null ? null : reference.get();
+			if (entry != null && entry.fStamp == stamp) {
+				return entry;
+			}
+		}
+		// parse outside the lock, concurrent requests for the same type root
+		// at worst parse it twice
+		CompilationUnit unit = parse(root, monitor);
+		if (unit == null) {
+			return null;
+		}
+		Entry entry = new Entry(stamp, unit);
+		synchronized (fEntries) {
+			fEntries.put(key, new SoftReference<>(entry));
+		}
+		return entry;
+	}
+
+	private static boolean hasUnsavedChanges(ITypeRoot root) {
+		if (root instanceof ICompilationUnit) {
+			try {
+				return ((ICompilationUnit) root).hasUnsavedChanges();
+			} catch (JavaModelException e) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private static CompilationUnit parse(ITypeRoot root, IProgressMonitor monitor) {
+		ASTParser parser = ASTParser.newParser(AST.getJLSLatest());
+		parser.setSource(root);
+		parser.setResolveBindings(true);
+		try {
+			return (CompilationUnit) parser.createAST(monitor);
+		} catch (IllegalStateException e) {
+			// a class file without source
+			return null;
+		}
+	}
+
+	/**
+	 * Returns the modification stamp of the resource of the given type root,
+	 * or the time stamp of its external archive.
+	 *
+	 * @param root
+	 *            the type root
+	 * @return a stamp that changes when the type root changes
+	 */
+	public static long getModificationStamp(ITypeRoot root) {
+		IResource resource = root.getResource();
+		if (resource != null) {
+			return resource.getModificationStamp();
+		}
+		IPath path = root.getPath();
+		return path == null ? IResource.NULL_STAMP : new File(path.toOSString()).lastModified();
+	}
+}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2010 IBM Corporation and others.
+ * Copyright (c) 2000, 2022 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -24,6 +24,7 @@ public class JDIDebugBreakpointMessages extends NLS {
 
 	public static String JavaBreakpoint___Hit_Count___0___1;
 	public static String JavaBreakpoint_Exception;
+	public static String BreakpointInstallStateWriter_0;
 	public static String JavaPatternBreakpoint_0;
 	public static String JavaBreakpoint__suspend_policy__thread__1;
 	public static String JavaBreakpoint__suspend_policy__VM__2;
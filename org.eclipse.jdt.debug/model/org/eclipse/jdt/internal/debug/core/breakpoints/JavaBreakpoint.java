@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2018 IBM Corporation and others.
+ * Copyright (c) 2000, 2022 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -22,6 +22,7 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.eclipse.core.resources.IMarker;
 import org.eclipse.core.runtime.CoreException;
@@ -161,6 +162,19 @@ public abstract class JavaBreakpoint extends Breakpoint implements IJavaBreakpoi
 	 */
 	private List<String> fBreakpointListenerIds = null;
 
+	/**
+	 * Number of requests installed in debug targets. Kept in memory and written
+	 * to the <code>INSTALL_COUNT</code> attribute of the marker by the
+	 * {@link BreakpointInstallStateWriter}.
+	 */
+	private final AtomicInteger fInstallCount = new AtomicInteger();
+
+	/**
+	 * Whether the hit count of this breakpoint has expired. Kept in memory and
+	 * written to the <code>EXPIRED</code> attribute of the marker.
+	 */
+	private volatile boolean fExpired = false;
+
 	/**
 	 * Empty instance filters array.
 	 */
@@ -461,6 +475,7 @@ public abstract class JavaBreakpoint extends Breakpoint implements IJavaBreakpoi
 			if (request != null) {
 				request.putProperty(EXPIRED, Boolean.TRUE);
 			}
+			fExpired = true;
 			try {
 				setAttributes(fgExpiredEnabledAttributes, new Object[] {
 						Boolean.TRUE, Boolean.FALSE });
@@ -844,7 +859,7 @@ public abstract class JavaBreakpoint extends Breakpoint implements IJavaBreakpoi
 	 * Returns whether this breakpoint has expired.
 	 */
 	public boolean isExpired() throws CoreException {
-		return ensureMarker().getAttribute(EXPIRED, false);
+		return fExpired;
 	}
 
 	/**
@@ -865,23 +880,23 @@ public abstract class JavaBreakpoint extends Breakpoint implements IJavaBreakpoi
 	 */
 	@Override
 	public boolean isInstalled() throws CoreException {
-		return ensureMarker().getAttribute(INSTALL_COUNT, 0) > 0;
+		return fInstallCount.get() > 0;
 	}
 
 	/**
 	 * Increments the install count of this breakpoint
 	 */
 	protected void incrementInstallCount() throws CoreException {
-		int count = getInstallCount();
-		setAttribute(INSTALL_COUNT, count + 1);
+		fInstallCount.incrementAndGet();
+		BreakpointInstallStateWriter.getDefault().changed(this);
 	}
 
 	/**
-	 * Returns the <code>INSTALL_COUNT</code> attribute of this breakpoint or 0
-	 * if the attribute is not set.
+	 * Returns the install count of this breakpoint, i.e. the number of requests
+	 * installed in debug targets.
 	 */
 	public int getInstallCount() throws CoreException {
-		return ensureMarker().getAttribute(INSTALL_COUNT, 0);
+		return fInstallCount.get();
 	}
 
 	/**
@@ -895,19 +910,39 @@ public abstract class JavaBreakpoint extends Breakpoint implements IJavaBreakpoi
 	 * Decrements the install count of this breakpoint.
 	 */
 	protected void decrementInstallCount() throws CoreException {
-		int count = getInstallCount();
+		int count = fInstallCount.getAndUpdate(c -> c > 0 ? c - 1 : c);
 		if (count > 0) {
-			setAttribute(INSTALL_COUNT, count - 1);
+			BreakpointInstallStateWriter.getDefault().changed(this);
 		}
 		if (count == 1) {
 			if (isExpired()) {
 				// if breakpoint was auto-disabled, re-enable it
+				fExpired = false;
 				setAttributes(fgExpiredEnabledAttributes, new Object[] {
 						Boolean.FALSE, Boolean.TRUE });
 			}
 		}
 	}
 
+	/**
+	 * Writes the in-memory install count and expired state of this breakpoint
+	 * to its marker, if the marker still exists and differs. Called by the
+	 * {@link BreakpointInstallStateWriter} inside a workspace operation.
+	 */
+	void writeInstallState() throws CoreException {
+		IMarker marker = getMarker();
+		if (marker == null || !marker.exists()) {
+			return;
+		}
+		Integer count = Integer.valueOf(fInstallCount.get());
+		Boolean expired = Boolean.valueOf(fExpired);
+		if (marker.getAttribute(INSTALL_COUNT, 0) != count.intValue()
+				|| marker.getAttribute(EXPIRED, false) != expired.booleanValue()) {
+			marker.setAttributes(new String[] { INSTALL_COUNT, EXPIRED },
+					new Object[] { count, expired });
+		}
+	}
+
 	/**
 	 * Sets the type name in which to install this breakpoint.
 	 */
@@ -936,14 +971,17 @@ public abstract class JavaBreakpoint extends Breakpoint implements IJavaBreakpoi
 	 * been persisted in an incorrect state.
 	 */
 	private void configureAtStartup() throws CoreException {
+		fInstallCount.set(0);
+		fExpired = false;
+		IMarker marker = ensureMarker();
 		List<String> attributes = null;
 		List<Object> values = new ArrayList<>(3);
-		if (isInstalled()) {
+		if (marker.getAttribute(INSTALL_COUNT, 0) > 0) {
 			attributes = new ArrayList<>(3);
 			attributes.add(INSTALL_COUNT);
 			values.add(Integer.valueOf(0));
 		}
-		if (isExpired()) {
+		if (marker.getAttribute(EXPIRED, false)) {
 			if (attributes == null) {
 				attributes = new ArrayList<>(3);
 			}
@@ -984,6 +1022,7 @@ public abstract class JavaBreakpoint extends Breakpoint implements IJavaBreakpoi
 	@Override
 	public void setHitCount(int count) throws CoreException {
 		if (getHitCount() != count) {
+			fExpired = false;
 			if (!isEnabled() && count > -1) {
 				setAttributes(new String[] { ENABLED, HIT_COUNT, EXPIRED },
 						new Object[] { Boolean.TRUE, Integer.valueOf(count),
@@ -1019,7 +1058,8 @@ public abstract class JavaBreakpoint extends Breakpoint implements IJavaBreakpoi
 	 * Sets whether this breakpoint's hit count has expired.
 	 */
 	public void setExpired(boolean expired) throws CoreException {
-		setAttribute(EXPIRED, expired);
+		fExpired = expired;
+		BreakpointInstallStateWriter.getDefault().changed(this);
 	}
 
 	/*
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2008, 2020 IBM Corporation and others.
+ * Copyright (c) 2008, 2022 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -30,9 +30,7 @@ import org.eclipse.debug.core.model.IBreakpointImportParticipant;
 import org.eclipse.jdt.core.ICompilationUnit;
 import org.eclipse.jdt.core.JavaCore;
 import org.eclipse.jdt.core.Signature;
-import org.eclipse.jdt.core.dom.AST;
 import org.eclipse.jdt.core.dom.ASTNode;
-import org.eclipse.jdt.core.dom.ASTParser;
 import org.eclipse.jdt.core.dom.ASTVisitor;
 import org.eclipse.jdt.core.dom.AbstractTypeDeclaration;
 import org.eclipse.jdt.core.dom.ArrayType;
@@ -58,11 +56,6 @@ import org.eclipse.jdt.debug.core.IJavaWatchpoint;
 public class JavaBreakpointImportParticipant implements
 		IBreakpointImportParticipant {
 
-	// keep the last resource/timestamp with CU for optimization
-	IResource lastResourceVerified = null;
-	long lastResourceVerifiedTimeStamp = -1;
-	CompilationUnit lastCompilationUnit = null;
-
 	class BreakpointVerifier extends ASTVisitor {
 		final int TYPE = 0;
 		final int METHOD = 1;
@@ -543,40 +536,29 @@ public class JavaBreakpointImportParticipant implements
 	@Override
 	public void verify(IBreakpoint breakpoint) throws CoreException {
 		IResource resource = breakpoint.getMarker().getResource();
-		CompilationUnit unit = null;
-		if (resource != null && resource.getType() == IResource.FILE) {
-			if (resource.equals(lastResourceVerified)) {
-				if (resource.getModificationStamp() == lastResourceVerifiedTimeStamp) {
-					unit = lastCompilationUnit;
-				}
-			}
-			if (unit == null) {
-				ICompilationUnit cunit = JavaCore.createCompilationUnitFrom((IFile) resource);
-				if (cunit != null) {
-					ASTParser parser = ASTParser.newParser(AST.getJLSLatest());
-					parser.setSource(cunit);
-					parser.setResolveBindings(true);
-					unit = (CompilationUnit) parser.createAST(new NullProgressMonitor());
-				}
-			}
+		if (resource == null || resource.getType() != IResource.FILE) {
+			return;
 		}
-		if (unit != null) {
-			lastResourceVerified = resource;
-			lastCompilationUnit = unit;
-			lastResourceVerifiedTimeStamp = lastResourceVerified.getModificationStamp();
+		ICompilationUnit cunit = JavaCore.createCompilationUnitFrom((IFile) resource);
+		if (cunit != null) {
 			if (breakpoint instanceof JavaClassPrepareBreakpoint
 					|| breakpoint instanceof JavaWatchpoint
 					|| breakpoint instanceof JavaMethodEntryBreakpoint
 					|| breakpoint instanceof JavaMethodBreakpoint) {
-				unit.accept(new BreakpointVerifier(breakpoint, unit));
+				CompilationUnitCache.getDefault().runWithAST(cunit, new NullProgressMonitor(), unit -> {
+					unit.accept(new BreakpointVerifier(breakpoint, unit));
+					return null;
+				});
 			} else if (breakpoint instanceof JavaLineBreakpoint) {
 				JavaLineBreakpoint bp = (JavaLineBreakpoint) breakpoint;
 				// line breakpoint use the ValidBreakpointLocationLocator to
-				// (re)place it
+				// (re)place it, the locations of a compilation unit are
+				// computed once for all breakpoints on the same line
 				int currentline = bp.getLineNumber();
-				ValidBreakpointLocationLocator locator = new ValidBreakpointLocationLocator(
-						unit, currentline, true, true);
-				unit.accept(locator);
+				ValidBreakpointLocationLocator locator = CompilationUnitCache.getDefault().getLocation(cunit, currentline, true, true);
+				if (locator == null) {
+					return;
+				}
 				int newline = locator.getLineLocation();
 				if (locator.getLocationType() == ValidBreakpointLocationLocator.LOCATION_LINE) {
 					if (currentline != newline) {
@@ -587,7 +569,7 @@ public class JavaBreakpointImportParticipant implements
 						bp.getMarker().setAttribute(IMarker.LINE_NUMBER,
 								newline);
 						int length = bp.getCharEnd() - bp.getCharStart();
-						int pos = unit.getPosition(newline, 1);
+						int pos = locator.getCompilationUnit().getPosition(newline, 1);
 						bp.getMarker().setAttribute(IMarker.CHAR_START, pos);
 						bp.getMarker().setAttribute(IMarker.CHAR_END,
 								pos + length);
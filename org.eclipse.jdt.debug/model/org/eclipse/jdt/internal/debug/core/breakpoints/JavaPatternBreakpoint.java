@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2012 IBM Corporation and others.
+ * Copyright (c) 2000, 2022 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -14,8 +14,6 @@
 package org.eclipse.jdt.internal.debug.core.breakpoints;
 
 import java.text.MessageFormat;
-import java.util.Iterator;
-import java.util.List;
 import java.util.Map;
 
 import org.eclipse.core.resources.IResource;
@@ -205,24 +203,16 @@ public class JavaPatternBreakpoint extends JavaLineBreakpoint implements
 					JDIDebugBreakpointMessages.JavaPatternBreakpoint_Unable_to_add_breakpoint___VM_disconnected__1,
 					new VMDisconnectedException());
 		}
-		List<ReferenceType> classes = null;
+		String prefix = referenceTypeName.endsWith("*") ? referenceTypeName.substring(0, referenceTypeName.length() - 1) : referenceTypeName; //$NON-NLS-1$
 		try {
-			classes = vm.allClasses();
+			target.getLoadedClassIndex().runWithClasses(index -> {
+				for (ReferenceType type : index.getClassesWithPrefix(prefix)) {
+					createRequest(target, type);
+				}
+			});
 		} catch (RuntimeException e) {
 			target.targetRequestFailed(
 					JDIDebugBreakpointMessages.JavaPatternBreakpoint_0, e);
 		}
-		if (classes != null) {
-			Iterator<ReferenceType> iter = classes.iterator();
-			String typeName = null;
-			ReferenceType type = null;
-			while (iter.hasNext()) {
-				type = iter.next();
-				typeName = type.name();
-				if (typeName != null && typeName.startsWith(referenceTypeName)) {
-					createRequest(target, type);
-				}
-			}
-		}
 	}
 }
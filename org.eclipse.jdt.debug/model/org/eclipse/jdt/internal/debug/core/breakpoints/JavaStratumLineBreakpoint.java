@@ -1,5 +1,5 @@
 /*******************************************************************************
- *  Copyright (c) 2003, 2012 IBM Corporation and others.
+ *  Copyright (c) 2003, 2022 IBM Corporation and others.
  *
  *  This program and the accompanying materials
  *  are made available under the terms of the Eclipse Public License 2.0
@@ -13,9 +13,11 @@
  *******************************************************************************/
 package org.eclipse.jdt.internal.debug.core.breakpoints;
 
-import java.util.Iterator;
+import java.util.Collection;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 import org.eclipse.core.resources.IResource;
 import org.eclipse.core.resources.IWorkspaceRunnable;
@@ -28,6 +30,8 @@ import org.eclipse.debug.core.IStatusHandler;
 import org.eclipse.jdt.debug.core.IJavaStratumLineBreakpoint;
 import org.eclipse.jdt.internal.debug.core.JDIDebugPlugin;
 import org.eclipse.jdt.internal.debug.core.model.JDIDebugTarget;
+import org.eclipse.jdt.internal.debug.core.model.LoadedClassIndex;
+import org.eclipse.jdt.internal.debug.core.model.SourceLocationCache;
 
 import com.sun.jdi.AbsentInformationException;
 import com.sun.jdi.ClassNotPreparedException;
@@ -330,15 +334,13 @@ public class JavaStratumLineBreakpoint extends JavaLineBreakpoint implements
 				return locations;
 			}
 		} else {
-			for(Location location : locations) {
-				try {
-					if (!sourcePath.equals(location.sourcePath())) {
-						locations.remove(location);
-					}
-				} catch (AbsentInformationException e1) {
-					// nothing to do;
-				}
-			}
+			SourceLocationCache cache = target.getSourceLocationCache();
+			String stratum = target.getDefaultStratum();
+			// locations without source path information are kept
+			locations.removeIf(location -> {
+				String path = cache.getSourcePath(location, stratum);
+				return path != null && !sourcePath.equals(path);
+			});
 			if (locations.size() > 0) {
 				return locations;
 			}
@@ -418,22 +420,35 @@ public class JavaStratumLineBreakpoint extends JavaLineBreakpoint implements
 					JDIDebugBreakpointMessages.JavaPatternBreakpoint_Unable_to_add_breakpoint___VM_disconnected__1,
 					new VMDisconnectedException());
 		}
-		List<ReferenceType> classes = null;
+		String[] typeNamePatterns = patterns;
 		try {
-			classes = vm.allClasses();
+			target.getLoadedClassIndex().runWithClasses(index -> {
+				for (ReferenceType type : getCandidateTypes(index, typeNamePatterns)) {
+					if (installableReferenceType(type, target)) {
+						createRequest(target, type);
+					}
+				}
+			});
 		} catch (RuntimeException e) {
 			target.targetRequestFailed(
 					JDIDebugBreakpointMessages.JavaPatternBreakpoint_0, e);
 		}
-		if (classes != null) {
-			Iterator<ReferenceType> iter = classes.iterator();
-			while (iter.hasNext()) {
-				ReferenceType type = iter.next();
-				if (installableReferenceType(type, target)) {
-					createRequest(target, type);
-				}
+	}
+
+	/**
+	 * Returns the loaded types whose names may match the given type name
+	 * patterns. Names are matched by prefix in the index, only patterns
+	 * starting with a wildcard require all loaded types.
+	 */
+	private Collection<ReferenceType> getCandidateTypes(LoadedClassIndex index, String[] patterns) {
+		Set<ReferenceType> types = new LinkedHashSet<>();
+		for (int i = 0; i < patterns.length; i++) {
+			if (fSuffix[i] != null) {
+				return index.getAllClasses();
 			}
+			types.addAll(index.getClassesWithPrefix(fPrefix[i] != null ? fPrefix[i] : patterns[i]));
 		}
+		return types;
 	}
 
 	public synchronized String[] getTypeNamePatterns() throws CoreException {
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2011 IBM Corporation and others.
+ * Copyright (c) 2000, 2022 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -15,7 +15,6 @@ package org.eclipse.jdt.internal.debug.core.breakpoints;
 
 import java.text.MessageFormat;
 import java.util.HashMap;
-import java.util.List;
 import java.util.Map;
 
 import org.eclipse.core.resources.IResource;
@@ -107,16 +106,12 @@ public class JavaTargetPatternBreakpoint extends JavaLineBreakpoint implements
 		// create breakpoint requests for each class currently loaded
 		VirtualMachine vm = target.getVM();
 		if (vm != null) {
-			List<ReferenceType> classes = vm.allClasses();
-			if (classes != null) {
-				String typeName = null;
-				for(ReferenceType type : classes) {
-					typeName = type.name();
-					if (typeName != null && typeName.startsWith(referenceTypeName)) {
-						createRequest(target, type);
-					}
+			String prefix = referenceTypeName.endsWith("*") ? referenceTypeName.substring(0, referenceTypeName.length() - 1) : referenceTypeName; //$NON-NLS-1$
+			target.getLoadedClassIndex().runWithClasses(index -> {
+				for (ReferenceType type : index.getClassesWithPrefix(prefix)) {
+					createRequest(target, type);
 				}
-			}
+			});
 		} else {
 			target.requestFailed(
 					JDIDebugBreakpointMessages.JavaTargetPatternBreakpoint_Unable_to_add_breakpoint___VM_disconnected__1,
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2016 IBM Corporation and others.
+ * Copyright (c) 2000, 2022 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -14,15 +14,20 @@
  *******************************************************************************/
 package org.eclipse.jdt.internal.debug.core.hcr;
 
+import java.net.URI;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.text.MessageFormat;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 import org.eclipse.core.resources.IFile;
 import org.eclipse.core.resources.IMarker;
@@ -38,12 +43,14 @@ import org.eclipse.core.resources.ResourcesPlugin;
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IAdaptable;
 import org.eclipse.core.runtime.IPath;
+import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.core.runtime.IStatus;
 import org.eclipse.core.runtime.ListenerList;
 import org.eclipse.core.runtime.MultiStatus;
 import org.eclipse.core.runtime.Path;
 import org.eclipse.core.runtime.Platform;
 import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.jobs.Job;
 import org.eclipse.debug.core.DebugEvent;
 import org.eclipse.debug.core.DebugException;
 import org.eclipse.debug.core.DebugPlugin;
@@ -71,6 +78,7 @@ import org.eclipse.jdt.debug.core.IJavaStackFrame;
 import org.eclipse.jdt.debug.core.IJavaThread;
 import org.eclipse.jdt.debug.core.JDIDebugModel;
 import org.eclipse.jdt.internal.core.util.Util;
+import org.eclipse.jdt.internal.debug.core.JDIDebugOptions;
 import org.eclipse.jdt.internal.debug.core.JDIDebugPlugin;
 import org.eclipse.jdt.internal.debug.core.JavaDebugUtils;
 import org.eclipse.jdt.internal.debug.core.model.JDIDebugTarget;
@@ -122,10 +130,154 @@ public class JavaHotCodeReplaceManager implements IResourceChangeListener,
 	private static Date fStartupDate = new Date();
 
 	/**
-	 * Cache of compilation unit deltas renewed on each HCR attempt.
+	 * Cache of compilation unit deltas renewed on each HCR attempt, shared by
+	 * the targets updated concurrently.
 	 */
 	private Map<ICompilationUnit, CompilationUnitDelta> fDeltaCache = new HashMap<>();
 
+	/**
+	 * Digests of the types loaded or redefined in hot swap targets, by target
+	 */
+	private Map<JDIDebugTarget, TypeDigestIndex> fDigestIndexes = new HashMap<>();
+
+	/**
+	 * The bytes and digests of the class files changed by a build, read once
+	 * per hot code replace attempt and shared by all targets.
+	 */
+	static class ClassFiles {
+
+		private final Map<IResource, byte[]> fBytes = new HashMap<>();
+
+		private final Map<IResource, byte[]> fDigests = new HashMap<>();
+
+		private final Map<IResource, IFile[]> fFilesForLocation = new HashMap<>();
+
+		/**
+		 * Returns the contents of the given class file.
+		 *
+		 * @param resource
+		 *            a class file
+		 * @return the bytes of the class file or <code>null</code> if it
+		 *         cannot be read
+		 */
+		synchronized byte[] getBytes(IResource resource) {
+			if (fBytes.containsKey(resource)) {
+				return fBytes.get(resource);
+			}
+			byte[] bytes = null;
+			try {
+				bytes = Util.getResourceContentsAsByteArray((IFile) resource);
+			} catch (JavaModelException jme) {
+				// not readable, the type is not replaced
+			}
+			fBytes.put(resource, bytes);
+			return bytes;
+		}
+
+		/**
+		 * Returns the digest of the contents of the given class file.
+		 *
+		 * @param resource
+		 *            a class file
+		 * @return the digest of the class file or <code>null</code> if it
+		 *         cannot be read
+		 */
+		synchronized byte[] getDigest(IResource resource) {
+			if (fDigests.containsKey(resource)) {
+				return fDigests.get(resource);
+			}
+			byte[] digest = null;
+			byte[] bytes = getBytes(resource);
+			if (bytes != null) {
+				try {
+					digest = MessageDigest.getInstance("SHA-1").digest(bytes); //$NON-NLS-1$
+				} catch (NoSuchAlgorithmException e) {
+					// always redefine
+				}
+			}
+			fDigests.put(resource, digest);
+			return digest;
+		}
+
+		/**
+		 * Returns the workspace files at the location of the given class file,
+		 * e.g. linked class files of other projects.
+		 *
+		 * @param resource
+		 *            a class file
+		 * @return the workspace files at the location of the class file
+		 */
+		synchronized IFile[] getFilesForLocation(IResource resource) {
+			IFile[] files = fFilesForLocation.get(resource);
+			if (files == null) {
+				URI uri = resource.getLocationURI();
+				files = uri == null ? new IFile[0] : ResourcesPlugin.getWorkspace().getRoot().findFilesForLocationURI(uri);
+				fFilesForLocation.put(resource, files);
+			}
+			return files;
+		}
+	}
+
+	/**
+	 * Performs a hot code replace in one of several targets that are updated
+	 * concurrently.
+	 */
+	class HotCodeReplaceJob extends Job {
+
+		private final JDIDebugTarget fTarget;
+
+		private final List<IResource> fResources;
+
+		private final List<String> fQualifiedNames;
+
+		private final ClassFiles fClassFiles;
+
+		/**
+		 * Failures to drop to frame in the target
+		 */
+		final MultiStatus fStatus = new MultiStatus(JDIDebugPlugin.getUniqueIdentifier(), DebugException.TARGET_REQUEST_FAILED, "", null); //$NON-NLS-1$
+
+		HotCodeReplaceJob(JDIDebugTarget target, List<IResource> resources, List<String> qualifiedNames, ClassFiles classFiles) {
+			super(getTargetName(target));
+			fTarget = target;
+			fResources = resources;
+			fQualifiedNames = qualifiedNames;
+			fClassFiles = classFiles;
+		}
+
+		/*
+		 * (non-Javadoc)
+		 *
+		 * @see org.eclipse.core.runtime.jobs.Job#run(org.eclipse.core.runtime.IProgressMonitor)
+		 */
+		@Override
+		protected IStatus run(IProgressMonitor monitor) {
+			doHotCodeReplace(fTarget, fResources, fQualifiedNames, fClassFiles, fStatus);
+			return Status.OK_STATUS;
+		}
+
+		/*
+		 * (non-Javadoc)
+		 *
+		 * @see org.eclipse.core.runtime.jobs.Job#belongsTo(java.lang.Object)
+		 */
+		@Override
+		public boolean belongsTo(Object family) {
+			return family == HotCodeReplaceJob.class;
+		}
+	}
+
+	/**
+	 * Returns the name of a job updating the given target.
+	 */
+	private static String getTargetName(JDIDebugTarget target) {
+		try {
+			return MessageFormat.format(JDIDebugHCRMessages.JavaHotCodeReplaceManager_hcr_target, target.getName());
+		} catch (DebugException e) {
+			return JDIDebugHCRMessages.JavaHotCodeReplaceManager_hcr_progress;
+		}
+	}
+
 	/**
 	 * Utility object used for tracking build times of projects. The HCR manager
 	 * receives notification of builds AFTER the build has occurred but BEFORE
@@ -204,6 +356,9 @@ public class JavaHotCodeReplaceManager implements IResourceChangeListener,
 			fHotSwapTargets.clear();
 			fNoHotSwapTargets.clear();
 		}
+		synchronized (fDigestIndexes) {
+			fDigestIndexes.clear();
+		}
 	}
 
 	/**
@@ -281,13 +436,15 @@ public class JavaHotCodeReplaceManager implements IResourceChangeListener,
 	private void updateProjectBuildTime(List<IProject> projects) {
 		Date currentDate = new Date();
 		ProjectBuildTime buildTime = null;
-		for(IProject project : projects) {
-			buildTime = fProjectBuildTimes.get(project);
-			if (buildTime == null) {
-				buildTime = new ProjectBuildTime();
-				fProjectBuildTimes.put(project, buildTime);
+		synchronized (fProjectBuildTimes) {
+			for (IProject project : projects) {
+				buildTime = fProjectBuildTimes.get(project);
+				if (buildTime == null) {
+					buildTime = new ProjectBuildTime();
+					fProjectBuildTimes.put(project, buildTime);
+				}
+				buildTime.setCurrentBuildDate(currentDate);
 			}
-			buildTime.setCurrentBuildDate(currentDate);
 		}
 	}
 
@@ -297,14 +454,16 @@ public class JavaHotCodeReplaceManager implements IResourceChangeListener,
 	 * is set to the hot code replace manager's startup time.
 	 */
 	protected long getLastProjectBuildTime(IProject project) {
-		ProjectBuildTime time = fProjectBuildTimes
-				.get(project);
-		if (time == null) {
-			time = new ProjectBuildTime();
-			time.setLastBuildDate(fStartupDate);
-			fProjectBuildTimes.put(project, time);
-		}
-		return time.getLastBuildDate().getTime();
+		synchronized (fProjectBuildTimes) {
+			ProjectBuildTime time = fProjectBuildTimes
+					.get(project);
+			if (time == null) {
+				time = new ProjectBuildTime();
+				time.setLastBuildDate(fStartupDate);
+				fProjectBuildTimes.put(project, time);
+			}
+			return time.getLastBuildDate().getTime();
+		}
 	}
 
 	/**
@@ -396,6 +555,8 @@ public class JavaHotCodeReplaceManager implements IResourceChangeListener,
 	 * reloading the given resources and then performing a step-into operation
 	 * on all threads which were affected by the class redefinition.</li>
 	 * </ol>
+	 * Several targets are updated concurrently. The changed class files are
+	 * read once and shared by all targets.
 	 *
 	 * @param targets
 	 *            the targets in which to perform HCR
@@ -418,97 +579,213 @@ public class JavaHotCodeReplaceManager implements IResourceChangeListener,
 				JDIDebugPlugin.getUniqueIdentifier(),
 				DebugException.TARGET_REQUEST_FAILED,
 				"At least one target failed to drop to frame after successful hot code replace.", null); //$NON-NLS-1$
-		Iterator<JDIDebugTarget> iter = targets.iterator();
-		while (iter.hasNext()) {
-			JDIDebugTarget target = iter.next();
+		ClassFiles classFiles = new ClassFiles();
+		List<JDIDebugTarget> targetsToReplace = new ArrayList<>(targets.size());
+		for (JDIDebugTarget target : targets) {
 			if (!target.isAvailable()) {
 				deregisterTarget(target);
-				continue;
+			} else if (isHCREnabled(target)) {
+				targetsToReplace.add(target);
 			}
-			if (!isHCREnabled(target)) {
-				continue;
+		}
+		if (targetsToReplace.size() == 1) {
+			doHotCodeReplace(targetsToReplace.get(0), resources, qualifiedNames, classFiles, ms);
+		} else if (!targetsToReplace.isEmpty()) {
+			// Update the targets concurrently, each target by a single job
+			IProgressMonitor group = Job.getJobManager().createProgressGroup();
+			group.beginTask(JDIDebugHCRMessages.JavaHotCodeReplaceManager_hcr_progress, targetsToReplace.size());
+			List<HotCodeReplaceJob> jobs = new ArrayList<>(targetsToReplace.size());
+			for (JDIDebugTarget target : targetsToReplace) {
+				HotCodeReplaceJob job = new HotCodeReplaceJob(target, resources, qualifiedNames, classFiles);
+				job.setProgressGroup(group, 1);
+				job.schedule();
+				jobs.add(job);
 			}
-			// Make a local copy of the resources/names to swap so we can filter
-			// unloaded types on a per-target basis.
-			List<IResource> resourcesToReplace = new ArrayList<>(resources);
-			List<String> qualifiedNamesToReplace = new ArrayList<>(qualifiedNames);
-
-			// Make sure we only try to replace types from related projects
-			target.filterUnrelatedResources(resourcesToReplace, qualifiedNamesToReplace);
-			if (qualifiedNamesToReplace.isEmpty()) {
-				// If none of the changed types are related to our target, do nothing.
-				continue;
+			try {
+				for (HotCodeReplaceJob job : jobs) {
+					job.join();
+					ms.merge(job.fStatus);
+				}
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			} finally {
+				group.done();
 			}
+		}
+		if (!ms.isOK()) {
+			JDIDebugPlugin.log(ms);
+		}
+		synchronized (fDeltaCache) {
+			fDeltaCache.clear();
+		}
+	}
 
-			target.filterNotLoadedTypes(resourcesToReplace, qualifiedNamesToReplace);
-			if (qualifiedNamesToReplace.isEmpty()) {
-				// If none of the changed types are loaded, do nothing.
-				continue;
-			}
+	/**
+	 * Performs a hot code replace with the given resources in the given target.
+	 *
+	 * @param target
+	 *            the target in which to perform HCR
+	 * @param resources
+	 *            the resources which correspond to the changed classes
+	 * @param qualifiedNames
+	 *            the qualified names of the changed classes
+	 * @param classFiles
+	 *            the contents of the changed class files
+	 * @param ms
+	 *            status to add failures to drop to frame to
+	 */
+	private void doHotCodeReplace(JDIDebugTarget target, List<IResource> resources,
+			List<String> qualifiedNames, ClassFiles classFiles, MultiStatus ms) {
+		// Make a local copy of the resources/names to swap so we can filter
+		// unloaded types on a per-target basis.
+		List<IResource> resourcesToReplace = new ArrayList<>(resources);
+		List<String> qualifiedNamesToReplace = new ArrayList<>(qualifiedNames);
+
+		// Make sure we only try to replace types from related projects
+		target.filterUnrelatedResources(resourcesToReplace, qualifiedNamesToReplace, classFiles::getFilesForLocation);
+		if (qualifiedNamesToReplace.isEmpty()) {
+			// If none of the changed types are related to our target, do nothing.
+			return;
+		}
 
-			List<IThread> poppedThreads = new ArrayList<>();
-			target.setIsPerformingHotCodeReplace(true);
-			try {
-				boolean framesPopped = false;
-				if (target.canPopFrames()) {
-					// JDK 1.4 drop to frame support:
-					// JDK 1.4 spec is faulty around methods that have
-					// been rendered obsolete after class redefinition.
-					// Thus, pop the frames that contain affected methods
-					// *before* the class redefinition to avoid problems.
-					try {
-						attemptPopFrames(target, resourcesToReplace,
-								qualifiedNamesToReplace, poppedThreads);
-						framesPopped = true; // No exception occurred
-					} catch (DebugException de) {
-						if (shouldLogHCRException(de)) {
-							ms.merge(de.getStatus());
-						}
-					}
-				}
-				target.removeOutOfSynchTypes(qualifiedNamesToReplace);
-				if (target.supportsJDKHotCodeReplace()) {
-					redefineTypesJDK(target, resourcesToReplace,
-							qualifiedNamesToReplace);
-				} else if (target.supportsJ9HotCodeReplace()) {
-					redefineTypesJ9(target, qualifiedNamesToReplace);
-				}
-				if (containsObsoleteMethods(target)) {
-					fireObsoleteMethods(target);
+		// Skip types whose bytes are the ones already in the target
+		TypeDigestIndex index = getDigestIndex(target);
+		int skipped = filterUnchangedTypes(index, classFiles, resourcesToReplace, qualifiedNamesToReplace);
+		index.skipped(skipped);
+		if (qualifiedNamesToReplace.isEmpty()) {
+			// If none of the changed types have changed bytes, do nothing.
+			return;
+		}
+
+		List<IResource> changedResources = new ArrayList<>(resourcesToReplace);
+		List<String> changedNames = new ArrayList<>(qualifiedNamesToReplace);
+		target.filterNotLoadedTypes(resourcesToReplace, qualifiedNamesToReplace);
+		if (changedNames.size() > qualifiedNamesToReplace.size()) {
+			// Types that are not loaded yet will be loaded from the current bytes
+			Set<String> loadedNames = new HashSet<>(qualifiedNamesToReplace);
+			for (int i = 0; i < changedNames.size(); i++) {
+				if (!loadedNames.contains(changedNames.get(i))) {
+					index.update(changedNames.get(i), classFiles.getDigest(changedResources.get(i)));
 				}
+			}
+		}
+		if (qualifiedNamesToReplace.isEmpty()) {
+			// If none of the changed types are loaded, do nothing.
+			return;
+		}
+
+		List<IThread> poppedThreads = new ArrayList<>();
+		target.setIsPerformingHotCodeReplace(true);
+		boolean redefined = false;
+		try {
+			boolean framesPopped = false;
+			if (target.canPopFrames()) {
+				// JDK 1.4 drop to frame support:
+				// JDK 1.4 spec is faulty around methods that have
+				// been rendered obsolete after class redefinition.
+				// Thus, pop the frames that contain affected methods
+				// *before* the class redefinition to avoid problems.
 				try {
-					if (target.canPopFrames() && framesPopped) {
-						// Second half of JDK 1.4 drop to frame support:
-						// All affected frames have been popped and the classes
-						// have been reloaded. Step into the first changed
-						// frame of each affected thread.
-						// must re-set 'is doing HCR' to be able to step
-						target.setIsPerformingHotCodeReplace(false);
-						attemptStepIn(poppedThreads);
-					} else {
-						// J9 drop to frame support:
-						// After redefining classes, drop to frame
-						attemptDropToFrame(target, resourcesToReplace,
-								qualifiedNamesToReplace);
-					}
+					attemptPopFrames(target, resourcesToReplace,
+							qualifiedNamesToReplace, poppedThreads);
+					framesPopped = true; // No exception occurred
 				} catch (DebugException de) {
 					if (shouldLogHCRException(de)) {
 						ms.merge(de.getStatus());
 					}
 				}
-				fireHCRSucceeded(target);
+			}
+			target.removeOutOfSynchTypes(qualifiedNamesToReplace);
+			if (target.supportsJDKHotCodeReplace()) {
+				redefineTypesJDK(target, resourcesToReplace,
+						qualifiedNamesToReplace, classFiles);
+			} else if (target.supportsJ9HotCodeReplace()) {
+				redefineTypesJ9(target, qualifiedNamesToReplace);
+			}
+			redefined = true;
+			// line tables of the redefined types have changed
+			target.getSourceLocationCache().clear();
+			for (int i = 0; i < resourcesToReplace.size(); i++) {
+				index.update(qualifiedNamesToReplace.get(i), classFiles.getDigest(resourcesToReplace.get(i)));
+			}
+			index.redefined(qualifiedNamesToReplace.size());
+			if (JDIDebugOptions.DEBUG_HCR) {
+				JDIDebugOptions.trace("HCR redefined types " + qualifiedNamesToReplace); //$NON-NLS-1$
+			}
+			if (containsObsoleteMethods(target)) {
+				fireObsoleteMethods(target);
+			}
+			try {
+				if (target.canPopFrames() && framesPopped) {
+					// Second half of JDK 1.4 drop to frame support:
+					// All affected frames have been popped and the classes
+					// have been reloaded. Step into the first changed
+					// frame of each affected thread.
+					// must re-set 'is doing HCR' to be able to step
+					target.setIsPerformingHotCodeReplace(false);
+					attemptStepIn(poppedThreads);
+				} else {
+					// J9 drop to frame support:
+					// After redefining classes, drop to frame
+					attemptDropToFrame(target, resourcesToReplace,
+							qualifiedNamesToReplace);
+				}
 			} catch (DebugException de) {
-				// target update failed
-				fireHCRFailed(target, de);
+				if (shouldLogHCRException(de)) {
+					ms.merge(de.getStatus());
+				}
+			}
+			fireHCRSucceeded(target);
+		} catch (DebugException de) {
+			// target update failed
+			if (!redefined) {
+				// the bytes in the target are unknown
+				for (String name : qualifiedNamesToReplace) {
+					index.remove(name);
+				}
 			}
-			// also re-set 'is doing HCR' here in case HCR failed
-			target.setIsPerformingHotCodeReplace(false);
-			target.fireChangeEvent(DebugEvent.CONTENT);
+			fireHCRFailed(target, de);
 		}
-		if (!ms.isOK()) {
-			JDIDebugPlugin.log(ms);
+		// also re-set 'is doing HCR' here in case HCR failed
+		target.setIsPerformingHotCodeReplace(false);
+		target.fireChangeEvent(DebugEvent.CONTENT);
+	}
+
+	/**
+	 * Removes the types whose class files have the digest recorded in the
+	 * given index from the given lists.
+	 *
+	 * @return the number of types removed
+	 */
+	private int filterUnchangedTypes(TypeDigestIndex index, ClassFiles classFiles, List<IResource> resources, List<String> qualifiedNames) {
+		int skipped = 0;
+		for (int i = 0; i < qualifiedNames.size(); i++) {
+			if (index.isUnchanged(qualifiedNames.get(i), classFiles.getDigest(resources.get(i)))) {
+				if (JDIDebugOptions.DEBUG_HCR) {
+					JDIDebugOptions.trace("HCR skipped unchanged type " + qualifiedNames.get(i)); //$NON-NLS-1$
+				}
+				resources.remove(i);
+				qualifiedNames.remove(i);
+				i--;
+				skipped++;
+			}
+		}
+		return skipped;
+	}
+
+	/**
+	 * Returns the index of the digests of the types loaded or redefined in the
+	 * given target by hot code replace.
+	 *
+	 * @param target
+	 *            a debug target
+	 * @return the digest index of the target
+	 * @since 3.19.200
+	 */
+	public TypeDigestIndex getDigestIndex(IJavaDebugTarget target) {
+		synchronized (fDigestIndexes) {
+			return fDigestIndexes.computeIfAbsent((JDIDebugTarget) target, t -> new TypeDigestIndex());
 		}
-		fDeltaCache.clear();
 	}
 
 	private boolean isHCREnabled(JDIDebugTarget target) {
@@ -596,11 +873,11 @@ public class JavaHotCodeReplaceManager implements IResourceChangeListener,
 	 * This method is to be used for JDK hot code replace.
 	 */
 	private void redefineTypesJDK(JDIDebugTarget target, List<IResource> resources,
-			List<String> qualifiedNames) throws DebugException {
+			List<String> qualifiedNames, ClassFiles classFiles) throws DebugException {
 		if (target.supportsJDKHotCodeReplace()) {
 			target.setHCROccurred(true);
 			Map<ReferenceType, byte[]> typesToBytes = getTypesToBytes(target, resources,
-					qualifiedNames);
+					qualifiedNames, classFiles);
 			try {
 				VirtualMachine vm = target.getVM();
 				if (vm == null) {
@@ -694,11 +971,13 @@ public class JavaHotCodeReplaceManager implements IResourceChangeListener,
 	 *            the fully qualified type names corresponding to the
 	 *            classfiles. The typeNames correspond to the resources on a
 	 *            one-to-one basis.
+	 * @param classFiles
+	 *            the contents of the class files
 	 * @return a mapping of class files to bytes key: class file value: the
 	 *         bytes which make up that classfile
 	 */
 	private Map<ReferenceType, byte[]> getTypesToBytes(JDIDebugTarget target, List<IResource> resources,
-			List<String> qualifiedNames) {
+			List<String> qualifiedNames, ClassFiles classFiles) {
 		Map<ReferenceType, byte[]> typesToBytes = new HashMap<>(resources.size());
 		Iterator<IResource> resourceIter = resources.iterator();
 		Iterator<String> nameIter = qualifiedNames.iterator();
@@ -707,11 +986,9 @@ public class JavaHotCodeReplaceManager implements IResourceChangeListener,
 		while (resourceIter.hasNext()) {
 			resource = resourceIter.next();
 			name = nameIter.next();
-			List<ReferenceType> classes = target.jdiClassesByName(name);
-			byte[] bytes = null;
-			try {
-				bytes = Util.getResourceContentsAsByteArray((IFile) resource);
-			} catch (JavaModelException jme) {
+			List<ReferenceType> classes = target.getLoadedClasses(name);
+			byte[] bytes = classFiles.getBytes(resource);
+			if (bytes == null) {
 				continue;
 			}
 			for(ReferenceType type : classes) {
@@ -972,12 +1249,14 @@ public class JavaHotCodeReplaceManager implements IResourceChangeListener,
 	 */
 	private CompilationUnitDelta getDelta(ICompilationUnit cu, long time)
 			throws CoreException {
-		CompilationUnitDelta delta = fDeltaCache.get(cu);
-		if (delta == null) {
-			delta = new CompilationUnitDelta(cu, time);
-			fDeltaCache.put(cu, delta);
+		synchronized (fDeltaCache) {
+			CompilationUnitDelta delta = fDeltaCache.get(cu);
+			if (delta == null) {
+				delta = new CompilationUnitDelta(cu, time);
+				fDeltaCache.put(cu, delta);
+			}
+			return delta;
 		}
-		return delta;
 	}
 
 	/**
@@ -1400,6 +1679,9 @@ public class JavaHotCodeReplaceManager implements IResourceChangeListener,
 		if (!fHotSwapTargets.remove(target)) {
 			fNoHotSwapTargets.remove(target);
 		}
+		synchronized (fDigestIndexes) {
+			fDigestIndexes.remove(target);
+		}
 		ILaunch[] launches = DebugPlugin.getDefault().getLaunchManager()
 				.getLaunches();
 		// If there are no more active JDIDebugTargets, stop
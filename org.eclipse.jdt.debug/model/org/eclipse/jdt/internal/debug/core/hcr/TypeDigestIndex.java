@@ -0,0 +1,126 @@
+/*******************************************************************************
+ * Copyright (c) 2022 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.internal.debug.core.hcr;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Digests of the class file bytes last loaded or redefined in a debug target,
+ * by qualified type name.
+ * <p>
+ * A build may rewrite class files whose bytes did not change, e.g. when a
+ * dependent compilation unit is recompiled. Hot code replace compares the
+ * digest of a changed class file against the index and only redefines types
+ * whose bytes differ from the ones known to be in the target. The index also
+ * counts the types that have been redefined and the types that have been
+ * skipped because their bytes did not change.
+ * </p>
+ *
+ * @since 3.19.200
+ */
+public class TypeDigestIndex {
+
+	/**
+	 * Digests by qualified type name
+	 */
+	private final Map<String, byte[]> fDigests = new HashMap<>();
+
+	private int fRedefinedCount;
+
+	private int fSkippedCount;
+
+	/**
+	 * Returns whether the given digest is the digest of the bytes last loaded
+	 * or redefined for the given type.
+	 *
+	 * @param name
+	 *            qualified type name
+	 * @param digest
+	 *            digest of the type's class file, or <code>null</code> if
+	 *            unknown
+	 * @return whether the type's bytes are known to be unchanged
+	 */
+	public synchronized boolean isUnchanged(String name, byte[] digest) {
+		return digest != null && Arrays.equals(fDigests.get(name), digest);
+	}
+
+	/**
+	 * Records the digest of the bytes loaded or redefined for the given type.
+	 *
+	 * @param name
+	 *            qualified type name
+	 * @param digest
+	 *            digest of the type's class file, or <code>null</code> if
+	 *            unknown
+	 */
+	public synchronized void update(String name, byte[] digest) {
+		if (digest == null) {
+			fDigests.remove(name);
+		} else {
+			fDigests.put(name, digest);
+		}
+	}
+
+	/**
+	 * Forgets the digest of the given type, e.g. because redefining it failed
+	 * and the bytes in the target are unknown.
+	 *
+	 * @param name
+	 *            qualified type name
+	 */
+	public synchronized void remove(String name) {
+		fDigests.remove(name);
+	}
+
+	/**
+	 * Adds to the number of redefined types.
+	 *
+	 * @param count
+	 *            number of types redefined
+	 */
+	synchronized void redefined(int count) {
+		fRedefinedCount += count;
+	}
+
+	/**
+	 * Adds to the number of types skipped because their bytes did not change.
+	 *
+	 * @param count
+	 *            number of types skipped
+	 */
+	synchronized void skipped(int count) {
+		fSkippedCount += count;
+	}
+
+	/**
+	 * Returns the number of types redefined in the target.
+	 *
+	 * @return the number of redefined types
+	 */
+	public synchronized int getRedefinedCount() {
+		return fRedefinedCount;
+	}
+
+	/**
+	 * Returns the number of types that were not redefined in the target because
+	 * their bytes did not change.
+	 *
+	 * @return the number of skipped types
+	 */
+	public synchronized int getSkippedCount() {
+		return fSkippedCount;
+	}
+}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2007, 2013 IBM Corporation and others.
+ * Copyright (c) 2007, 2022 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -15,6 +15,8 @@
 package org.eclipse.jdt.internal.debug.core.logicalstructures;
 
 import java.text.MessageFormat;
+import java.util.Collections;
+import java.util.List;
 
 import org.eclipse.debug.core.DebugException;
 import org.eclipse.debug.core.model.IVariable;
@@ -26,21 +28,26 @@ import org.eclipse.jdt.internal.debug.core.HeapWalkingManager;
 import org.eclipse.jdt.internal.debug.core.JDIDebugPlugin;
 import org.eclipse.jdt.internal.debug.core.model.JDIArrayValue;
 import org.eclipse.jdt.internal.debug.core.model.JDIDebugTarget;
+import org.eclipse.jdt.internal.debug.core.model.JDIObjectList;
 import org.eclipse.jdt.internal.debug.core.model.JDIPlaceholderValue;
 import org.eclipse.jdt.internal.debug.core.model.JDIReferenceType;
 
+import com.sun.jdi.ObjectReference;
+
 
 
 /**
  * Java value containing an array of java objects. This value is used to hold a
- * list of all instances of a specific java type.
+ * list of all instances of a specific java type. The values of the instances
+ * are created as they are displayed, see {@link JDIObjectList}.
  *
  * @since 3.3
  * @see org.eclipse.jdt.internal.debug.ui.heapwalking.AllInstancesActionDelegate
  */
 public class JDIAllInstancesValue extends JDIArrayValue {
 
-	private IJavaObject[] fInstances;
+	private JDIObjectList fInstances;
+	private JDIPlaceholderValue fMoreValue;
 	private JDIReferenceType fRoot;
 	private IJavaArrayType fType;
 	private boolean fIsMoreThanPreference;
@@ -67,24 +74,26 @@ public class JDIAllInstancesValue extends JDIArrayValue {
 	}
 
 	/**
-	 * @return an array of java objects that are instances of the root type
+	 * @return the instances of the root type, retrieved from the VM on first
+	 *         access
 	 */
-	protected IJavaObject[] getInstances() {
+	protected synchronized JDIObjectList getInstances() {
 		if (fInstances != null) {
 			return fInstances;
 		}
-		IJavaObject[] instances = new IJavaObject[0];
+		List<ObjectReference> instances = Collections.emptyList();
 		fIsMoreThanPreference = false;
 		if (fRoot != null) {
 			int max = HeapWalkingManager.getDefault()
 					.getAllInstancesMaxCount();
 			try {
 				if (max == 0) {
-					instances = fRoot.getInstances(max);
+					instances = fRoot.getInstanceReferences(max);
 				} else {
-					instances = fRoot.getInstances(max + 1);
-					if (instances.length > max) {
-						instances[max] = new JDIPlaceholderValue(
+					instances = fRoot.getInstanceReferences(max + 1);
+					if (instances.size() > max) {
+						instances = instances.subList(0, max);
+						fMoreValue = new JDIPlaceholderValue(
 								(JDIDebugTarget) fRoot.getDebugTarget(),
 								MessageFormat.format(LogicalStructuresMessages.JDIAllInstancesValue_2, Integer.toString(max)));
 						fIsMoreThanPreference = true;
@@ -94,8 +103,17 @@ public class JDIAllInstancesValue extends JDIArrayValue {
 				JDIDebugPlugin.log(e);
 			}
 		}
-		fInstances = instances;
-		return instances;
+		fInstances = new JDIObjectList((JDIDebugTarget) getDebugTarget(), instances);
+		return fInstances;
+	}
+
+	/**
+	 * @return the number of elements of this value, including the element
+	 *         indicating that there are more instances than displayed
+	 */
+	private int getElementCount() {
+		int count = getInstances().size();
+		return isMoreThanPreference() ? count + 1 : count;
 	}
 
 	/*
@@ -105,7 +123,7 @@ public class JDIAllInstancesValue extends JDIArrayValue {
 	 */
 	@Override
 	public synchronized int getLength() throws DebugException {
-		return getInstances().length;
+		return getElementCount();
 	}
 
 	/*
@@ -115,7 +133,7 @@ public class JDIAllInstancesValue extends JDIArrayValue {
 	 */
 	@Override
 	public int getSize() throws DebugException {
-		return getInstances().length;
+		return getElementCount();
 	}
 
 	/*
@@ -126,10 +144,13 @@ public class JDIAllInstancesValue extends JDIArrayValue {
 	 */
 	@Override
 	public IJavaValue getValue(int index) throws DebugException {
-		if (index > getInstances().length - 1 || index < 0) {
+		if (index > getElementCount() - 1 || index < 0) {
 			internalError(LogicalStructuresMessages.JDIAllInstancesValue_0);
 		}
-		return getInstances()[index];
+		if (index == getInstances().size()) {
+			return fMoreValue;
+		}
+		return getInstances().get(index);
 	}
 
 	/*
@@ -139,7 +160,11 @@ public class JDIAllInstancesValue extends JDIArrayValue {
 	 */
 	@Override
 	public IJavaValue[] getValues() throws DebugException {
-		return getInstances();
+		IJavaValue[] values = new IJavaValue[getElementCount()];
+		for (int i = 0; i < values.length; i++) {
+			values[i] = getValue(i);
+		}
+		return values;
 	}
 
 	/*
@@ -150,17 +175,17 @@ public class JDIAllInstancesValue extends JDIArrayValue {
 	 */
 	@Override
 	public IVariable getVariable(int offset) throws DebugException {
-		if (offset > getInstances().length - 1 || offset < 0) {
+		if (offset > getElementCount() - 1 || offset < 0) {
 			internalError(LogicalStructuresMessages.JDIAllInstancesValue_1);
 		}
-		if (isMoreThanPreference() && offset == getInstances().length - 1) {
+		if (offset == getInstances().size()) {
 			return new JDIPlaceholderVariable(
 					LogicalStructuresMessages.JDIAllInstancesValue_4,
-					getInstances()[offset]);
+					fMoreValue);
 		}
 		return new JDIPlaceholderVariable(MessageFormat.format(LogicalStructuresMessages.JDIAllInstancesValue_5,
 				Integer.toString(offset)),
-				getInstances()[offset]);
+				getInstances().get(offset));
 	}
 
 	/*
@@ -176,7 +201,7 @@ public class JDIAllInstancesValue extends JDIArrayValue {
 		if (length == 0) {
 			return new IVariable[0];
 		}
-		if (offset > getInstances().length - 1 || offset < 0) {
+		if (offset > getElementCount() - 1 || offset < 0) {
 			internalError(LogicalStructuresMessages.JDIAllInstancesValue_1);
 		}
 		IVariable[] vars = new JDIPlaceholderVariable[length];
@@ -193,7 +218,7 @@ public class JDIAllInstancesValue extends JDIArrayValue {
 	 */
 	@Override
 	public IVariable[] getVariables() throws DebugException {
-		return getVariables(0, getInstances().length);
+		return getVariables(0, getElementCount());
 	}
 
 	/*
@@ -238,7 +263,7 @@ public class JDIAllInstancesValue extends JDIArrayValue {
 	 */
 	@Override
 	public boolean hasVariables() throws DebugException {
-		return getInstances().length > 0;
+		return getElementCount() > 0;
 	}
 
 	/*
@@ -282,13 +307,13 @@ public class JDIAllInstancesValue extends JDIArrayValue {
 	public String getValueString() throws DebugException {
 		if (isMoreThanPreference()) {
 			return MessageFormat.format(LogicalStructuresMessages.JDIAllInstancesValue_7,
-							Integer.toString(getInstances().length - 1));
-		} else if (getInstances().length == 1) {
+							Integer.toString(getInstances().size()));
+		} else if (getInstances().size() == 1) {
 			return MessageFormat.format(LogicalStructuresMessages.JDIAllInstancesValue_8,
-					Integer.toString(getInstances().length));
+					Integer.toString(getInstances().size()));
 		} else {
 			return MessageFormat.format(LogicalStructuresMessages.JDIAllInstancesValue_9,
-					Integer.toString(getInstances().length));
+					Integer.toString(getInstances().size()));
 		}
 	}
 
@@ -301,24 +326,28 @@ public class JDIAllInstancesValue extends JDIArrayValue {
 	 */
 	public String getDetailString() {
 		StringBuilder buf = new StringBuilder();
-		Object[] elements = getInstances();
-		if (elements.length == 0) {
+		JDIObjectList elements = getInstances();
+		if (elements.size() == 0) {
 			buf.append(LogicalStructuresMessages.JDIAllInstancesValue_10);
 		} else {
 			String length = null;
 			if (isMoreThanPreference()) {
 				length = MessageFormat.format(LogicalStructuresMessages.JDIAllInstancesValue_11,
-						Integer.toString(elements.length - 1));
+						Integer.toString(elements.size()));
 			} else {
-				length = Integer.toString(elements.length);
+				length = Integer.toString(elements.size());
 			}
-			if (elements.length == 1) {
+			if (elements.size() == 1) {
 				buf.append(MessageFormat.format(LogicalStructuresMessages.JDIAllInstancesValue_12, length));
 			} else {
 				buf.append(MessageFormat.format(LogicalStructuresMessages.JDIAllInstancesValue_13, length));
 			}
-			for (Object element : elements) {
-				buf.append(element + "\n"); //$NON-NLS-1$
+			// the references print like their values
+			for (int i = 0; i < elements.size(); i++) {
+				buf.append(elements.getObject(i) + "\n"); //$NON-NLS-1$
+			}
+			if (isMoreThanPreference()) {
+				buf.append(fMoreValue + "\n"); //$NON-NLS-1$
 			}
 		}
 		return buf.toString();
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2004, 2015 IBM Corporation and others.
+ * Copyright (c) 2004, 2022 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -17,6 +17,7 @@ package org.eclipse.jdt.internal.debug.core.logicalstructures;
 import java.text.MessageFormat;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.Map;
 import java.util.stream.Collectors;
 
@@ -35,10 +36,13 @@ import org.eclipse.debug.core.model.IThread;
 import org.eclipse.debug.core.model.IValue;
 import org.eclipse.jdt.core.IJavaProject;
 import org.eclipse.jdt.core.JavaCore;
+import org.eclipse.jdt.debug.core.IJavaArray;
+import org.eclipse.jdt.debug.core.IJavaArrayType;
 import org.eclipse.jdt.debug.core.IJavaClassType;
 import org.eclipse.jdt.debug.core.IJavaDebugTarget;
 import org.eclipse.jdt.debug.core.IJavaInterfaceType;
 import org.eclipse.jdt.debug.core.IJavaObject;
+import org.eclipse.jdt.debug.core.IJavaPrimitiveValue;
 import org.eclipse.jdt.debug.core.IJavaReferenceType;
 import org.eclipse.jdt.debug.core.IJavaStackFrame;
 import org.eclipse.jdt.debug.core.IJavaThread;
@@ -51,6 +55,9 @@ import org.eclipse.jdt.debug.eval.IEvaluationResult;
 import org.eclipse.jdt.internal.compiler.impl.CompilerOptions;
 import org.eclipse.jdt.internal.debug.core.JDIDebugPlugin;
 import org.eclipse.jdt.internal.debug.core.JavaDebugUtils;
+import org.eclipse.jdt.internal.debug.core.model.JDIDebugTarget;
+import org.eclipse.jdt.internal.debug.core.model.JDIPagedArrayValue;
+import org.eclipse.jdt.internal.debug.core.model.JDIPagedArrayValue.PageProvider;
 import org.eclipse.jdt.internal.debug.core.model.JDIValue;
 
 import com.sun.jdi.VMDisconnectedException;
@@ -73,6 +80,19 @@ public class JavaLogicalStructure implements ILogicalStructureType, ILogicalStru
 	 * Code snippet to evaluate to create the logical value.
 	 */
 	private String fValue;
+	/**
+	 * Code snippet to evaluate the number of elements of the logical value, or
+	 * <code>null</code> if the logical value is not evaluated a page at a
+	 * time.
+	 */
+	private String fSize;
+	/**
+	 * Code snippet to evaluate an array of the elements of the logical value
+	 * in the range given by the local variables <code>offset</code> and
+	 * <code>length</code>, or <code>null</code> if the logical value is not
+	 * evaluated a page at a time.
+	 */
+	private String fPage;
 	/**
 	 * Description of the logical structure.
 	 */
@@ -139,10 +159,34 @@ public class JavaLogicalStructure implements ILogicalStructureType, ILogicalStru
 		 * @throws DebugException
 		 */
 		public IJavaValue evaluate(String snippet) throws DebugException {
+			return evaluate(compile(snippet));
+		}
+
+		/**
+		 * Compiles the specified snippet in the context of the type of the
+		 * evaluation value
+		 *
+		 * @param snippet
+		 *            the snippet to compile
+		 * @return the compiled snippet, possibly with errors
+		 * @throws DebugException
+		 */
+		public ICompiledExpression compile(String snippet) throws DebugException {
 			Map<String, String> compileOptions =
 					Collections.singletonMap(CompilerOptions.OPTION_JdtDebugCompileMode, JavaCore.ENABLED);
-			ICompiledExpression compiledExpression = fEvaluationEngine
-					.getCompiledExpression(snippet, fEvaluationType, compileOptions);
+			return fEvaluationEngine.getCompiledExpression(snippet, fEvaluationType, compileOptions);
+		}
+
+		/**
+		 * Evaluates the specified compiled snippet and returns the
+		 * <code>IJavaValue</code> from the evaluation
+		 *
+		 * @param compiledExpression
+		 *            the compiled snippet to evaluate
+		 * @return the <code>IJavaValue</code> from the evaluation
+		 * @throws DebugException
+		 */
+		public IJavaValue evaluate(ICompiledExpression compiledExpression) throws DebugException {
 			if (compiledExpression.hasErrors()) {
 				String[] errorMessages = compiledExpression.getErrorMessages();
 				log(errorMessages);
@@ -201,6 +245,80 @@ public class JavaLogicalStructure implements ILogicalStructureType, ILogicalStru
 		}
 	}
 
+	/**
+	 * Creates the pages of a logical value by evaluating the page snippet for
+	 * each range.
+	 * <p>
+	 * The evaluation engine cannot bind variables of a snippet evaluated in the
+	 * context of an object, so the range is declared by the snippet of each
+	 * page and each page is compiled once. The compiled snippets are kept with
+	 * the pages of the logical value, so a page that is displayed again after
+	 * the target suspended, or after its array was released, is evaluated
+	 * without compiling it again. The page snippets of the contributed
+	 * structures skip the elements before the range in the target, not by
+	 * interpreting a loop, so each page costs the same number of remote
+	 * invocations whatever its offset. The target itself still steps over the
+	 * elements before the range of a collection without random access.
+	 * </p>
+	 */
+	private class PageEvaluation implements PageProvider {
+
+		private EvaluationBlock fEvaluationBlock;
+
+		/**
+		 * Compiled page snippets, by the declarations of their range
+		 */
+		private Map<String, ICompiledExpression> fCompiledPages = new HashMap<>();
+
+		PageEvaluation(EvaluationBlock evaluationBlock) {
+			fEvaluationBlock = evaluationBlock;
+		}
+
+		/*
+		 * (non-Javadoc)
+		 *
+		 * @see org.eclipse.jdt.internal.debug.core.model.JDIPagedArrayValue.PageProvider#getSize()
+		 */
+		@Override
+		public int getSize() throws DebugException {
+			IJavaValue size = fEvaluationBlock.evaluate(fSize);
+			if (size instanceof IJavaPrimitiveValue) {
+				return ((IJavaPrimitiveValue) size).getIntValue();
+			}
+			throw failed(size);
+		}
+
+		/*
+		 * (non-Javadoc)
+		 *
+		 * @see org.eclipse.jdt.internal.debug.core.model.JDIPagedArrayValue.PageProvider#getPage(int, int)
+		 */
+		@Override
+		public synchronized IJavaArray getPage(int offset, int length) throws DebugException {
+			String range = "int offset = " + offset + "; int length = " + length + "; "; //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+			ICompiledExpression compiledPage = fCompiledPages.get(range);
+			if (compiledPage == null) {
+				compiledPage = fEvaluationBlock.compile(range + fPage);
+				fCompiledPages.put(range, compiledPage);
+			}
+			if (compiledPage.hasErrors()) {
+				// e.g. the libraries of the target predate the snippet, the
+				// value snippet is evaluated instead
+				throw failed(null);
+			}
+			IJavaValue page = fEvaluationBlock.evaluate(compiledPage);
+			if (page instanceof IJavaArray) {
+				return (IJavaArray) page;
+			}
+			throw failed(page);
+		}
+
+		private DebugException failed(IJavaValue value) throws DebugException {
+			String message = value instanceof JavaStructureErrorValue ? value.getValueString() : LogicalStructuresMessages.JavaLogicalStructure_3;
+			return new DebugException(new Status(IStatus.ERROR, JDIDebugPlugin.getUniqueIdentifier(), DebugException.REQUEST_FAILED, message, null));
+		}
+	}
+
 	/**
 	 * Constructor from parameters.
 	 */
@@ -226,6 +344,8 @@ public class JavaLogicalStructure implements ILogicalStructureType, ILogicalStru
 		}
 		fSubtypes = Boolean.parseBoolean(configurationElement.getAttribute("subtypes")); //$NON-NLS-1$
 		fValue = configurationElement.getAttribute("value"); //$NON-NLS-1$
+		fSize = configurationElement.getAttribute("size"); //$NON-NLS-1$
+		fPage = configurationElement.getAttribute("page"); //$NON-NLS-1$
 		fDescription = configurationElement.getAttribute("description"); //$NON-NLS-1$
 		if (fDescription == null) {
 			throw new CoreException(new Status(IStatus.ERROR,
@@ -319,7 +439,13 @@ public class JavaLogicalStructure implements ILogicalStructureType, ILogicalStru
 				return new LogicalObjectStructureValue(javaValue, variables);
 			}
 			// evaluate the logical value
-			IJavaValue logicalValue = evaluationBlock.evaluate(fValue);
+			IJavaValue logicalValue = null;
+			if (fSize != null && fPage != null && stackFrame.getDebugTarget() instanceof JDIDebugTarget) {
+				logicalValue = getPagedValue(evaluationBlock, (JDIDebugTarget) stackFrame.getDebugTarget());
+			}
+			if (logicalValue == null) {
+				logicalValue = evaluationBlock.evaluate(fValue);
+			}
 			if (logicalValue instanceof JDIValue) {
 				((JDIValue) logicalValue).setLogicalParent(javaValue);
 			}
@@ -334,6 +460,40 @@ public class JavaLogicalStructure implements ILogicalStructureType, ILogicalStru
 		return value;
 	}
 
+	/**
+	 * Evaluates the first page of the logical value. Returns the page if it
+	 * contains all elements, otherwise a value that evaluates the other pages
+	 * when they are displayed, so that large structures are not materialized
+	 * in the target.
+	 *
+	 * @return the logical value, or <code>null</code> if the page snippet
+	 *         failed
+	 */
+	private IJavaValue getPagedValue(EvaluationBlock evaluationBlock, JDIDebugTarget target) throws DebugException {
+		PageEvaluation evaluation = new PageEvaluation(evaluationBlock);
+		IJavaArray firstPage = null;
+		try {
+			firstPage = evaluation.getPage(0, JDIPagedArrayValue.PAGE_SIZE);
+			if (firstPage.getLength() < JDIPagedArrayValue.PAGE_SIZE) {
+				return firstPage;
+			}
+			int size = evaluation.getSize();
+			if (size <= JDIPagedArrayValue.PAGE_SIZE) {
+				return firstPage;
+			}
+			return new JDIPagedArrayValue(target, (IJavaArrayType) firstPage.getJavaType(), evaluation, size, firstPage);
+		} catch (DebugException e) {
+			if (firstPage != null) {
+				releaseValue(firstPage);
+			}
+			if (e.getStatus().getCode() == IJavaThread.ERR_THREAD_NOT_SUSPENDED) {
+				throw e;
+			}
+			// evaluate the logical value at once
+			return null;
+		}
+	}
+
 	@Override
 	public void releaseValue(IValue value) {
 		if (value instanceof IJavaObject) {
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2018 IBM Corporation and others.
+ * Copyright (c) 2000, 2022 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -34,6 +34,10 @@ public class JDIDebugModelMessages extends NLS {
 	public static String JDIArrayValue_6;
 	public static String JDIArrayValue_8;
 
+	public static String JDIPagedArrayValue_0;
+	public static String JDIPagedArrayValue_1;
+	public static String JDIPagedArrayValue_2;
+
 	public static String JDIClassType_exception_while_performing_method_lookup_for_constructor;
 	public static String JDIClassType_exception_while_performing_method_lookup_for_selector;
 	public static String JDIClassType_exception_while_retrieving_class_object;
@@ -238,4 +242,12 @@ public class JDIDebugModelMessages extends NLS {
 
 	public static String JDIDebugTarget_1;
 
+	public static String JDIHeapHistogram_0;
+
+	public static String JDIHeapHistogram_1;
+
+	public static String JDIHeapHistogram_2;
+
+	public static String RunToLineRequest_0;
+
 }
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2017 IBM Corporation and others.
+ * Copyright (c) 2000, 2022 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -29,6 +29,7 @@ import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.Callable;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
 
 import org.eclipse.core.resources.IFile;
 import org.eclipse.core.resources.IMarker;
@@ -81,6 +82,7 @@ import org.eclipse.jdt.core.search.TypeNameMatch;
 import org.eclipse.jdt.core.search.TypeNameMatchRequestor;
 import org.eclipse.jdt.debug.core.IJavaBreakpoint;
 import org.eclipse.jdt.debug.core.IJavaDebugTarget;
+import org.eclipse.jdt.debug.core.IJavaHeapHistogram;
 import org.eclipse.jdt.debug.core.IJavaHotCodeReplaceListener;
 import org.eclipse.jdt.debug.core.IJavaObject;
 import org.eclipse.jdt.debug.core.IJavaThread;
@@ -239,18 +241,47 @@ public class JDIDebugTarget extends JDIDebugElement implements
 	 */
 	private int fSuspendCount;
 
+	/**
+	 * Generation of the state of this target, incremented whenever a thread
+	 * runs or suspends, including implicit evaluations. Variable values that
+	 * were retrieved in bulk are only valid for the generation they were
+	 * retrieved in.
+	 */
+	private final AtomicInteger fStateGeneration = new AtomicInteger();
+
 	/**
 	 * Evaluation engine cache by Java project. Engines are disposed when this
 	 * target terminates.
 	 */
 	private Map<IJavaProject, IAstEvaluationEngine> fEngines;
 
+	/**
+	 * Evaluates and caches the results of watch expressions in this target
+	 */
+	private final WatchExpressionEvaluator fWatchExpressionEvaluator = new WatchExpressionEvaluator(this);
+
+	/**
+	 * Index of the classes loaded in this target, seeded on first use
+	 */
+	private final LoadedClassIndex fLoadedClassIndex = new LoadedClassIndex(this);
+
+	/**
+	 * Source names, source paths and line numbers of locations in this target
+	 */
+	private final SourceLocationCache fSourceLocationCache = new SourceLocationCache();
+
 	/**
 	 * List of step filters - each string is a pattern/fully qualified name of a
 	 * type to filter.
 	 */
 	private String[] fStepFilters;
 
+	/**
+	 * The step filters compiled for matching, or <code>null</code> if not
+	 * compiled yet
+	 */
+	private volatile StepFilterMatcher fStepFilterMatcher;
+
 	/**
 	 * Step filter state mask.
 	 */
@@ -626,10 +657,17 @@ public class JDIDebugTarget extends JDIDebugElement implements
 		manager.addBreakpointListener(this);
 		IBreakpoint[] bps = manager.getBreakpoints(JDIDebugModel
 				.getPluginIdentifier());
-		for (IBreakpoint bp : bps) {
-			if (bp instanceof IJavaBreakpoint) {
-				breakpointAdded(bp);
+		// breakpoints installing in loaded classes share one query of the
+		// loaded classes
+		fLoadedClassIndex.beginBatch();
+		try {
+			for (IBreakpoint bp : bps) {
+				if (bp instanceof IJavaBreakpoint) {
+					breakpointAdded(bp);
+				}
 			}
+		} finally {
+			fLoadedClassIndex.endBatch();
 		}
 	}
 
@@ -1389,6 +1427,13 @@ public class JDIDebugTarget extends JDIDebugElement implements
 
 
 	public boolean supportsResource(Callable<String> typeNameSupplier, IResource resource) {
+		return supportsResource(typeNameSupplier, resource, r -> {
+			URI uri = r.getLocationURI();
+			return uri == null ? new IFile[0] : ResourcesPlugin.getWorkspace().getRoot().findFilesForLocationURI(uri);
+		});
+	}
+
+	private boolean supportsResource(Callable<String> typeNameSupplier, IResource resource, Function<IResource, IFile[]> filesForLocation) {
 		if (fScope == null) {
 			// No checks, everything in scope: the filtering is disabled
 			return true;
@@ -1408,14 +1453,9 @@ public class JDIDebugTarget extends JDIDebugElement implements
 		}
 
 		// Check if this is a resource which is linked to any of the projects
-		IWorkspaceRoot root = ResourcesPlugin.getWorkspace().getRoot();
-		URI uri = resource.getLocationURI();
-		if(uri != null){
-			IFile[] files = root.findFilesForLocationURI(uri);
-			for (IFile file : files) {
-				if(projects.contains(file.getProject())){
-					return true;
-				}
+		for (IFile file : filesForLocation.apply(resource)) {
+			if (projects.contains(file.getProject())) {
+				return true;
 			}
 		}
 
@@ -1785,6 +1825,18 @@ public class JDIDebugTarget extends JDIDebugElement implements
 		resumeThreads();
 	}
 
+	/**
+	 * Notifies this VM that a run to line request has suspended all threads.
+	 *
+	 * @param set
+	 *            the event set of the request
+	 */
+	void suspendedByRunToLine(EventSet set) {
+		setSuspended(true);
+		suspendThreads();
+		queueSuspendEvent(DebugEvent.BREAKPOINT, set);
+	}
+
 	@Override
 	public void terminate() throws DebugException {
 		if (!isAvailable()) {
@@ -1879,6 +1931,8 @@ public class JDIDebugTarget extends JDIDebugElement implements
 			}
 			fEngines.clear();
 		}
+		fWatchExpressionEvaluator.clear();
+		fLoadedClassIndex.dispose();
 		fVirtualMachine = null;
 		setThreadStartHandler(null);
 		setEventDispatcher(null);
@@ -2421,7 +2475,7 @@ public class JDIDebugTarget extends JDIDebugElement implements
 		private static final String METHOD_NAME = "setName"; //$NON-NLS-1$
 		private static final String METHOD_SIGNATURE = "(Ljava/lang/String;)V"; //$NON-NLS-1$
 
-		private EventRequest request;
+		private volatile EventRequest request;
 		private ThreadChangeNotifierJob notfierJob;
 
 		ThreadNameChangeHandler() {
@@ -2479,9 +2533,19 @@ public class JDIDebugTarget extends JDIDebugElement implements
 			return null;
 		}
 
+		/**
+		 * Returns whether thread name changes are listened to, i.e. the
+		 * listener is not disabled and the request has been created.
+		 */
+		boolean isInstalled() {
+			return request != null;
+		}
+
 		void deleteRequest() {
-			if (request != null) {
-				removeJDIEventListener(this, request);
+			EventRequest nameRequest = request;
+			request = null;
+			if (nameRequest != null) {
+				removeJDIEventListener(this, nameRequest);
 			}
 			if (notfierJob != null) {
 				notfierJob.stop();
@@ -2561,6 +2625,10 @@ public class JDIDebugTarget extends JDIDebugElement implements
 			if (monitor.isCanceled()) {
 				return Status.CANCEL_STATUS;
 			}
+			// the names are stored once setName() completes, which is after
+			// the breakpoint at its entry, so names cached until now, also of
+			// suspended threads, are discarded here
+			incrementStateGeneration();
 			// Dispatch known events
 			DebugPlugin.getDefault().fireDebugEventSet(events);
 			return Status.OK_STATUS;
@@ -2618,6 +2686,17 @@ public class JDIDebugTarget extends JDIDebugElement implements
 		return fThreadNameChangeHandler;
 	}
 
+	/**
+	 * Returns whether changes of thread names are listened to. Thread names
+	 * may only be cached while they are.
+	 *
+	 * @return whether changes of thread names are listened to
+	 */
+	protected boolean isThreadNameChangeListenerInstalled() {
+		ThreadNameChangeHandler handler = getThreadNameChangeHandler();
+		return handler != null && handler.isInstalled();
+	}
+
 	private void setThreadNameChangeHandler(ThreadNameChangeHandler threadNameChangeHandler) {
 		fThreadNameChangeHandler = threadNameChangeHandler;
 	}
@@ -2787,6 +2866,22 @@ public class JDIDebugTarget extends JDIDebugElement implements
 	@Override
 	public void setStepFilters(String[] list) {
 		fStepFilters = list;
+		fStepFilterMatcher = null;
+	}
+
+	/**
+	 * Returns the step filters of this target compiled for matching.
+	 *
+	 * @return the compiled step filters
+	 * @since 3.19.200
+	 */
+	public StepFilterMatcher getStepFilterMatcher() {
+		StepFilterMatcher matcher = fStepFilterMatcher;
+		if (matcher == null) {
+			matcher = new StepFilterMatcher(fStepFilters);
+			fStepFilterMatcher = matcher;
+		}
+		return matcher;
 	}
 
 	@Override
@@ -2837,11 +2932,30 @@ public class JDIDebugTarget extends JDIDebugElement implements
 	 *            the reason for the suspend event
 	 */
 	protected void incrementSuspendCount(int eventDetail) {
+		incrementStateGeneration();
 		if (eventDetail != DebugEvent.EVALUATION_IMPLICIT) {
 			fSuspendCount++;
 		}
 	}
 
+	/**
+	 * Returns the generation of the state of this target. The generation
+	 * changes whenever a thread runs or suspends, or a variable is modified.
+	 *
+	 * @return the generation of the state of this target
+	 */
+	protected int getStateGeneration() {
+		return fStateGeneration.get();
+	}
+
+	/**
+	 * Increments the generation of the state of this target, which invalidates
+	 * variable values that were retrieved in bulk.
+	 */
+	protected void incrementStateGeneration() {
+		fStateGeneration.incrementAndGet();
+	}
+
 	/**
 	 * Returns an evaluation engine for the given project, creating one if
 	 * necessary.
@@ -2863,6 +2977,57 @@ public class JDIDebugTarget extends JDIDebugElement implements
 		return engine;
 	}
 
+	/**
+	 * Returns the evaluator of the watch expressions in this target.
+	 *
+	 * @return the watch expression evaluator
+	 * @since 3.19.200
+	 */
+	public WatchExpressionEvaluator getWatchExpressionEvaluator() {
+		return fWatchExpressionEvaluator;
+	}
+
+	/**
+	 * Returns the classes with the given name loaded in this target, from an
+	 * index of the loaded classes that avoids a round trip to the VM per loaded
+	 * name. A class prepared very recently may not be in the index yet, so the
+	 * VM is queried for names the index does not contain.
+	 *
+	 * @param className
+	 *            fully qualified class name
+	 * @return the loaded classes, possibly empty
+	 * @see LoadedClassIndex
+	 * @since 3.19.200
+	 */
+	public List<ReferenceType> getLoadedClasses(String className) {
+		List<ReferenceType> classes = fLoadedClassIndex.getClasses(className);
+		if (classes.isEmpty()) {
+			// the prepare event of the class may not have been dispatched yet
+			return jdiClassesByName(className);
+		}
+		return classes;
+	}
+
+	/**
+	 * Returns the index of the classes loaded in this target.
+	 *
+	 * @return the index of loaded classes
+	 * @since 3.19.200
+	 */
+	public LoadedClassIndex getLoadedClassIndex() {
+		return fLoadedClassIndex;
+	}
+
+	/**
+	 * Returns the cache of the source information of locations in this target.
+	 *
+	 * @return the source information of locations
+	 * @since 3.20
+	 */
+	public SourceLocationCache getSourceLocationCache() {
+		return fSourceLocationCache;
+	}
+
 	@Override
 	public boolean supportsMonitorInformation() {
 		if (!isAvailable()) {
@@ -3054,6 +3219,26 @@ public class JDIDebugTarget extends JDIDebugElement implements
 		return false;
 	}
 
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see org.eclipse.jdt.debug.core.IJavaDebugTarget#getHeapHistogram(org.eclipse.core.runtime.IProgressMonitor)
+	 */
+	@Override
+	public IJavaHeapHistogram getHeapHistogram(IProgressMonitor monitor) throws DebugException {
+		if (!supportsInstanceRetrieval()) {
+			notSupported(JDIDebugModelMessages.JDIHeapHistogram_2);
+		}
+		try {
+			return JDIHeapHistogram.create(this, monitor);
+		} catch (OperationCanceledException e) {
+			throw e;
+		} catch (RuntimeException e) {
+			targetRequestFailed(JDIDebugModelMessages.JDIHeapHistogram_1, e);
+		}
+		return null;
+	}
+
 	/**
 	 * Sends a JDWP command to the back end and returns the JDWP reply packet as
 	 * bytes. This method creates an appropriate command header and packet id,
@@ -3286,10 +3471,31 @@ public class JDIDebugTarget extends JDIDebugElement implements
 	 *            the list of qualified names to filter, which corresponds to the list of resources on a one-to-one-basis
 	 */
 	public void filterUnrelatedResources(List<IResource> resourcesToFilter, List<String> qualifiedNamesToFilter) {
+		filterUnrelatedResources(resourcesToFilter, qualifiedNamesToFilter, null);
+	}
+
+	/**
+	 * Filters elements out of the given collections of resources and qualified names if there is no related resources in the given debug target. The
+	 * workspace files at the location of each resource are looked up with the given function, which allows callers filtering the same resources for
+	 * several targets to look up each location only once.
+	 *
+	 * @param resourcesToFilter
+	 *            the list of resources to filter
+	 * @param qualifiedNamesToFilter
+	 *            the list of qualified names to filter, which corresponds to the list of resources on a one-to-one-basis
+	 * @param filesForLocation
+	 *            returns the workspace files at the location of a resource, or <code>null</code> to look them up in the workspace
+	 * @since 3.19.200
+	 */
+	public void filterUnrelatedResources(List<IResource> resourcesToFilter, List<String> qualifiedNamesToFilter, Function<IResource, IFile[]> filesForLocation) {
 		Iterator<IResource> resources = resourcesToFilter.iterator();
 		Iterator<String> names = qualifiedNamesToFilter.iterator();
 		while (resources.hasNext()) {
-			boolean supported = supportsResource(() -> names.next(), resources.next());
+			IResource resource = resources.next();
+			// advance both iterators, the name is only requested by some checks
+			String name = names.next();
+			boolean supported = filesForLocation == null ? supportsResource(() -> name, resource)
+					: supportsResource(() -> name, resource, filesForLocation);
 			if (!supported) {
 				resources.remove();
 				names.remove();
@@ -3309,7 +3515,7 @@ public class JDIDebugTarget extends JDIDebugElement implements
 	public void filterNotLoadedTypes(List<IResource> resources, List<String> qualifiedNames) {
 		for (int i = 0, numElements = qualifiedNames.size(); i < numElements; i++) {
 			String name = qualifiedNames.get(i);
-			List<ReferenceType> list = jdiClassesByName(name);
+			List<ReferenceType> list = getLoadedClasses(name);
 			if (list.isEmpty()) {
 				// If no classes with the given name are loaded in the VM, don't
 				// waste cycles trying to replace.
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2011 IBM Corporation and others.
+ * Copyright (c) 2000, 2022 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -14,6 +14,11 @@
 package org.eclipse.jdt.internal.debug.core.model;
 
 import java.text.MessageFormat;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
 
 import org.eclipse.debug.core.DebugEvent;
 import org.eclipse.debug.core.DebugException;
@@ -98,6 +103,66 @@ public class JDIFieldVariable extends JDIModificationVariable implements
 		return getObjectReference().getValue(getField());
 	}
 
+	/**
+	 * Retrieves the values of the given field variables with one request per
+	 * object, respectively per declaring type for static fields, instead of
+	 * one request per field. Variables that are not field variables or whose
+	 * value has already been retrieved in the given generation are ignored.
+	 *
+	 * @param variables
+	 *            variables of a stack frame or children of a value
+	 * @param generation
+	 *            the state generation of the debug target, obtained before
+	 *            calling this method
+	 */
+	static void prefetchValues(List<? extends IJavaVariable> variables, int generation) {
+		Map<ObjectReference, List<JDIFieldVariable>> instanceFields = new HashMap<>();
+		Map<ReferenceType, List<JDIFieldVariable>> staticFields = new HashMap<>();
+		for (IJavaVariable variable : variables) {
+			if (variable instanceof JDIFieldVariable) {
+				JDIFieldVariable field = (JDIFieldVariable) variable;
+				if (field.isPrefetched(generation)) {
+					continue;
+				}
+				if (field.getField().isStatic()) {
+					staticFields.computeIfAbsent(field.getField().declaringType(), t -> new ArrayList<>()).add(field);
+				} else if (field.getObjectReference() != null) {
+					instanceFields.computeIfAbsent(field.getObjectReference(), o -> new ArrayList<>()).add(field);
+				}
+			}
+		}
+		for (Entry<ObjectReference, List<JDIFieldVariable>> entry : instanceFields.entrySet()) {
+			try {
+				setPrefetchedValues(entry.getValue(), entry.getKey().getValues(getFields(entry.getValue())), generation);
+			} catch (RuntimeException e) {
+				// the values are retrieved one by one, which reports the failure
+			}
+		}
+		for (Entry<ReferenceType, List<JDIFieldVariable>> entry : staticFields.entrySet()) {
+			try {
+				setPrefetchedValues(entry.getValue(), entry.getKey().getValues(getFields(entry.getValue())), generation);
+			} catch (RuntimeException e) {
+				// the values are retrieved one by one, which reports the failure
+			}
+		}
+	}
+
+	private static List<Field> getFields(List<JDIFieldVariable> variables) {
+		List<Field> fields = new ArrayList<>(variables.size());
+		for (JDIFieldVariable variable : variables) {
+			fields.add(variable.getField());
+		}
+		return fields;
+	}
+
+	private static void setPrefetchedValues(List<JDIFieldVariable> variables, Map<Field, Value> values, int generation) {
+		for (JDIFieldVariable variable : variables) {
+			if (values.containsKey(variable.getField())) {
+				variable.setPrefetchedValue(values.get(variable.getField()), generation);
+			}
+		}
+	}
+
 	/**
 	 * @see IJavaFieldVariable#getDeclaringType()
 	 */
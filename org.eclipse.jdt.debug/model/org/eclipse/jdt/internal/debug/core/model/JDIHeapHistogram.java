@@ -0,0 +1,227 @@
+/*******************************************************************************
+ * Copyright (c) 2022 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.internal.debug.core.model;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.OperationCanceledException;
+import org.eclipse.core.runtime.SubMonitor;
+import org.eclipse.jdt.debug.core.IJavaHeapHistogram;
+
+import com.sun.jdi.ObjectCollectedException;
+import com.sun.jdi.ReferenceType;
+import com.sun.jdi.VirtualMachine;
+
+/**
+ * A heap histogram of a debug target.
+ * <p>
+ * Instances are counted for all loaded types, a chunk of types per request.
+ * The VM walks its heap for each request and serves no other request
+ * meanwhile, chunks keep other requests from waiting for all types of a large
+ * program to be counted. Counts are kept in primitive arrays, sorted by count
+ * or by change.
+ * </p>
+ *
+ * @since 3.20
+ */
+public class JDIHeapHistogram implements IJavaHeapHistogram {
+
+	/**
+	 * Number of types whose instances are counted per request
+	 */
+	static final int CHUNK_SIZE = 4096;
+
+	private final long fTimestamp;
+
+	private final ReferenceType[] fTypes;
+
+	private final long[] fCounts;
+
+	private final long[] fChanges;
+
+	private final long fTotal;
+
+	/**
+	 * Creates a histogram of the given types, sorted by decreasing change and
+	 * omitting types that did not change, unless all types are kept.
+	 */
+	private JDIHeapHistogram(long timestamp, ReferenceType[] types, long[] counts, long[] changes, boolean keepUnchanged) {
+		fTimestamp = timestamp;
+		Integer[] order = new Integer[types.length];
+		int size = 0;
+		for (int i = 0; i < types.length; i++) {
+			if (keepUnchanged || changes[i] != 0) {
+				order[size++] = Integer.valueOf(i);
+			}
+		}
+		Arrays.sort(order, 0, size, (a, b) -> {
+			int result = Long.compare(changes[b.intValue()], changes[a.intValue()]);
+			return result != 0 ? result : types[a.intValue()].name().compareTo(types[b.intValue()].name());
+		});
+		fTypes = new ReferenceType[size];
+		fCounts = new long[size];
+		fChanges = new long[size];
+		long total = 0;
+		for (int i = 0; i < size; i++) {
+			int index = order[i].intValue();
+			fTypes[i] = types[index];
+			fCounts[i] = counts[index];
+			fChanges[i] = changes[index];
+			total += counts[index];
+		}
+		fTotal = total;
+	}
+
+	/**
+	 * Counts the instances of all types loaded in the given target.
+	 *
+	 * @param target
+	 *            the debug target
+	 * @param monitor
+	 *            progress monitor, may be <code>null</code>
+	 * @return the heap histogram
+	 * @throws OperationCanceledException
+	 *             if the monitor has been canceled
+	 * @throws RuntimeException
+	 *             if the instances cannot be counted
+	 */
+	static JDIHeapHistogram create(JDIDebugTarget target, IProgressMonitor monitor) {
+		VirtualMachine vm = target.getVM();
+		List<ReferenceType> types = target.getLoadedClassIndex().getAllClasses();
+		int size = types.size();
+		SubMonitor progress = SubMonitor.convert(monitor, JDIDebugModelMessages.JDIHeapHistogram_0, (size + CHUNK_SIZE - 1) / CHUNK_SIZE);
+		long[] counts = new long[size];
+		for (int start = 0; start < size; start += CHUNK_SIZE) {
+			if (progress.isCanceled()) {
+				throw new OperationCanceledException();
+			}
+			count(vm, types.subList(start, Math.min(start + CHUNK_SIZE, size)), counts, start);
+			progress.worked(1);
+		}
+		return new JDIHeapHistogram(System.currentTimeMillis(), types.toArray(new ReferenceType[size]), counts, counts, true);
+	}
+
+	/**
+	 * Counts the instances of the given types into the given array. If a type
+	 * has been unloaded meanwhile, the types are counted in halves, until the
+	 * unloaded type is found and left with no instances.
+	 */
+	private static void count(VirtualMachine vm, List<ReferenceType> types, long[] counts, int offset) {
+		try {
+			long[] chunk = vm.instanceCounts(types);
+			System.arraycopy(chunk, 0, counts, offset, chunk.length);
+		} catch (ObjectCollectedException e) {
+			int size = types.size();
+			if (size > 1) {
+				count(vm, types.subList(0, size / 2), counts, offset);
+				count(vm, types.subList(size / 2, size), counts, offset + size / 2);
+			}
+		}
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see org.eclipse.jdt.debug.core.IJavaHeapHistogram#getTimestamp()
+	 */
+	@Override
+	public long getTimestamp() {
+		return fTimestamp;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see org.eclipse.jdt.debug.core.IJavaHeapHistogram#getTypeCount()
+	 */
+	@Override
+	public int getTypeCount() {
+		return fTypes.length;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see org.eclipse.jdt.debug.core.IJavaHeapHistogram#getTypeName(int)
+	 */
+	@Override
+	public String getTypeName(int index) {
+		return fTypes[index].name();
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see org.eclipse.jdt.debug.core.IJavaHeapHistogram#getInstanceCount(int)
+	 */
+	@Override
+	public long getInstanceCount(int index) {
+		return fCounts[index];
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see org.eclipse.jdt.debug.core.IJavaHeapHistogram#getInstanceCountChange(int)
+	 */
+	@Override
+	public long getInstanceCountChange(int index) {
+		return fChanges[index];
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see org.eclipse.jdt.debug.core.IJavaHeapHistogram#getTotalInstanceCount()
+	 */
+	@Override
+	public long getTotalInstanceCount() {
+		return fTotal;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see org.eclipse.jdt.debug.core.IJavaHeapHistogram#compareTo(org.eclipse.jdt.debug.core.IJavaHeapHistogram)
+	 */
+	@Override
+	public IJavaHeapHistogram compareTo(IJavaHeapHistogram baseline) {
+		JDIHeapHistogram other = (JDIHeapHistogram) baseline;
+		Map<ReferenceType, Integer> indexes = new HashMap<>(other.fTypes.length * 4 / 3 + 1);
+		for (int i = 0; i < other.fTypes.length; i++) {
+			indexes.put(other.fTypes[i], Integer.valueOf(i));
+		}
+		int size = fTypes.length;
+		ReferenceType[] types = Arrays.copyOf(fTypes, size + other.fTypes.length);
+		long[] counts = Arrays.copyOf(fCounts, types.length);
+		long[] changes = new long[types.length];
+		for (int i = 0; i < fTypes.length; i++) {
+			Integer index = indexes.remove(fTypes[i]);
+			changes[i] = index == null ? fCounts[i] : fCounts[i] - other.fCounts[index.intValue()];
+		}
+		// types of the baseline that are gone
+		for (int i = 0; i < other.fTypes.length; i++) {
+			if (indexes.containsKey(other.fTypes[i])) {
+				types[size] = other.fTypes[i];
+				changes[size] = -other.fCounts[i];
+				size++;
+			}
+		}
+		return new JDIHeapHistogram(fTimestamp, Arrays.copyOf(types, size), counts, changes, false);
+	}
+}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2012 IBM Corporation and others.
+ * Copyright (c) 2000, 2022 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -203,7 +203,12 @@ public abstract class JDIModificationVariable extends JDIVariable {
 	@Override
 	public final void setValue(String expression) throws DebugException {
 		Value value = generateVMValue(expression);
-		setJDIValue(value);
+		try {
+			setJDIValue(value);
+		} finally {
+			getJavaDebugTarget().incrementStateGeneration();
+			getJavaDebugTarget().getWatchExpressionEvaluator().clear();
+		}
 	}
 
 	/*
@@ -217,7 +222,12 @@ public abstract class JDIModificationVariable extends JDIVariable {
 	public final void setValue(IValue v) throws DebugException {
 		if (v instanceof JDIValue) {
 			JDIValue value = (JDIValue) v;
-			setJDIValue(value.getUnderlyingValue());
+			try {
+				setJDIValue(value.getUnderlyingValue());
+			} finally {
+				getJavaDebugTarget().incrementStateGeneration();
+				getJavaDebugTarget().getWatchExpressionEvaluator().clear();
+			}
 		}
 	}
 
@@ -0,0 +1,140 @@
+/*******************************************************************************
+ * Copyright (c) 2022 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.internal.debug.core.model;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.jdt.debug.core.IJavaObject;
+
+import com.sun.jdi.ObjectReference;
+
+/**
+ * A list of objects retrieved from the VM by a heap walking request, such as
+ * all instances of a type or all objects referring to an object.
+ * <p>
+ * The objects are kept as JDI references, and model values are created a page
+ * at a time when the page is first asked for, e.g. when a partition of the
+ * list is expanded in a view. Only the most recently used pages are kept, the
+ * values of other pages are released and created again when needed.
+ * </p>
+ *
+ * @since 3.20
+ */
+public class JDIObjectList {
+
+	/**
+	 * Number of values per page
+	 */
+	static final int PAGE_SIZE = 100;
+
+	/**
+	 * Number of pages whose values are kept
+	 */
+	static final int MAX_PAGES = 4;
+
+	private final JDIDebugTarget fTarget;
+
+	private final List<ObjectReference> fObjects;
+
+	/**
+	 * Values of the most recently used pages, by page index
+	 */
+	private final Map<Integer, IJavaObject[]> fPages = new LinkedHashMap<Integer, IJavaObject[]>(MAX_PAGES * 2, 0.75f, true) {
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<Integer, IJavaObject[]> eldest) {
+			return size() > MAX_PAGES;
+		}
+	};
+
+	/**
+	 * Constructs a list of the given objects.
+	 *
+	 * @param target
+	 *            the debug target the objects belong to
+	 * @param objects
+	 *            objects retrieved from the VM
+	 */
+	public JDIObjectList(JDIDebugTarget target, List<ObjectReference> objects) {
+		fTarget = target;
+		fObjects = objects;
+	}
+
+	/**
+	 * @return the number of objects in this list
+	 */
+	public int size() {
+		return fObjects.size();
+	}
+
+	/**
+	 * Returns the value of the object at the given index.
+	 *
+	 * @param index
+	 *            index of the object
+	 * @return the value of the object
+	 * @throws IndexOutOfBoundsException
+	 *             if the index is out of range
+	 */
+	public synchronized IJavaObject get(int index) {
+		if (index < 0 || index >= fObjects.size()) {
+			throw new IndexOutOfBoundsException(Integer.toString(index));
+		}
+		Integer page = Integer.valueOf(index / PAGE_SIZE);
+		IJavaObject[] values = fPages.get(page);
+		if (values == null) {
+			int start = page.intValue() * PAGE_SIZE;
+			values = new IJavaObject[Math.min(PAGE_SIZE, fObjects.size() - start)];
+			for (int i = 0; i < values.length; i++) {
+				values[i] = (IJavaObject) JDIValue.createValue(fTarget, fObjects.get(start + i));
+			}
+			fPages.put(page, values);
+		}
+		return values[index % PAGE_SIZE];
+	}
+
+	/**
+	 * Returns the values of the objects in the given range.
+	 *
+	 * @param offset
+	 *            index of the first object
+	 * @param length
+	 *            number of objects
+	 * @return the values of the objects
+	 * @throws IndexOutOfBoundsException
+	 *             if the range is out of bounds
+	 */
+	public IJavaObject[] get(int offset, int length) {
+		IJavaObject[] values = new IJavaObject[length];
+		for (int i = 0; i < length; i++) {
+			values[i] = get(offset + i);
+		}
+		return values;
+	}
+
+	/**
+	 * Returns the JDI reference of the object at the given index, without
+	 * creating its value.
+	 *
+	 * @param index
+	 *            index of the object
+	 * @return the object reference
+	 */
+	public ObjectReference getObject(int index) {
+		return fObjects.get(index);
+	}
+}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2015 IBM Corporation and others.
+ * Copyright (c) 2000, 2022 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -46,7 +46,7 @@ import com.sun.jdi.Value;
  */
 public class JDIObjectValue extends JDIValue implements IJavaObject {
 
-	private IJavaObject[] fCachedReferences;
+	private List<ObjectReference> fCachedReferences;
 	private int fSuspendCount;
 	private long fPreviousMax;
 
@@ -559,6 +559,27 @@ public class JDIObjectValue extends JDIValue implements IJavaObject {
 	 */
 	@Override
 	public IJavaObject[] getReferringObjects(long max) throws DebugException {
+		List<ObjectReference> list = getReferringObjectReferences(max);
+		IJavaObject[] references = new IJavaObject[list.size()];
+		for (int i = 0; i < references.length; i++) {
+			references[i] = (IJavaObject) JDIValue.createValue(
+					getJavaDebugTarget(), list.get(i));
+		}
+		return references;
+	}
+
+	/**
+	 * Returns the objects that reference this object as JDI references,
+	 * without creating their values.
+	 *
+	 * @param max
+	 *            The maximum number of entries to return, or 0 for all
+	 * @return the referring objects
+	 * @throws DebugException
+	 *             if the VM cannot return a list of referring objects
+	 * @since 3.20
+	 */
+	public synchronized List<ObjectReference> getReferringObjectReferences(long max) throws DebugException {
 		// The cached references should be reloaded if the suspend count has
 		// changed, or the maximum entries has changed
 		if (fCachedReferences == null
@@ -595,13 +616,7 @@ public class JDIObjectValue extends JDIValue implements IJavaObject {
 	 */
 	protected void reloadReferringObjects(long max) throws DebugException {
 		try {
-			List<ObjectReference> list = getUnderlyingObject().referringObjects(max);
-			IJavaObject[] references = new IJavaObject[list.size()];
-			for (int i = 0; i < references.length; i++) {
-				references[i] = (IJavaObject) JDIValue.createValue(
-						getJavaDebugTarget(), list.get(i));
-			}
-			fCachedReferences = references;
+			fCachedReferences = getUnderlyingObject().referringObjects(max);
 		} catch (RuntimeException e) {
 			fCachedReferences = null;
 			targetRequestFailed(MessageFormat.format(
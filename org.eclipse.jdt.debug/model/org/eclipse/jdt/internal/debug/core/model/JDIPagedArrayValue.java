@@ -0,0 +1,428 @@
+/*******************************************************************************
+ * Copyright (c) 2022 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.internal.debug.core.model;
+
+import java.text.MessageFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.eclipse.debug.core.DebugException;
+import org.eclipse.debug.core.model.IVariable;
+import org.eclipse.jdt.debug.core.IJavaArray;
+import org.eclipse.jdt.debug.core.IJavaArrayType;
+import org.eclipse.jdt.debug.core.IJavaObject;
+import org.eclipse.jdt.debug.core.IJavaType;
+import org.eclipse.jdt.debug.core.IJavaValue;
+import org.eclipse.jdt.internal.debug.core.logicalstructures.JDIPlaceholderVariable;
+
+/**
+ * An array of the elements of a logical structure, e.g. of a large collection,
+ * that are retrieved a page at a time when the page is first displayed.
+ * <p>
+ * Each page is an array created in the target by a {@link PageProvider}, so
+ * only the elements of the displayed pages are materialized in the target and
+ * transferred. Pages and the size are cached until the target suspends again.
+ * Only the most recently used pages are kept, the arrays of other pages are
+ * released for garbage collection in the target.
+ * </p>
+ *
+ * @since 3.20
+ */
+public class JDIPagedArrayValue extends JDIArrayValue {
+
+	/**
+	 * Number of elements per page
+	 */
+	public static final int PAGE_SIZE = 100;
+
+	/**
+	 * Number of pages that are kept
+	 */
+	static final int MAX_PAGES = 8;
+
+	/**
+	 * Creates the pages of a paged array in the target.
+	 */
+	public interface PageProvider {
+
+		/**
+		 * Returns the number of elements.
+		 *
+		 * @return the number of elements
+		 * @throws DebugException
+		 *             if the size cannot be computed
+		 */
+		int getSize() throws DebugException;
+
+		/**
+		 * Returns an array of the elements in the given range, collection of
+		 * the array must be disabled. The array is shorter than the range if
+		 * there are fewer elements.
+		 *
+		 * @param offset
+		 *            index of the first element
+		 * @param length
+		 *            number of elements
+		 * @return an array of the elements
+		 * @throws DebugException
+		 *             if the page cannot be created
+		 */
+		IJavaArray getPage(int offset, int length) throws DebugException;
+	}
+
+	private final PageProvider fProvider;
+
+	private final IJavaArrayType fType;
+
+	private int fSize;
+
+	/**
+	 * Suspend count of the target the size and pages have been retrieved in
+	 */
+	private int fSuspendCount;
+
+	/**
+	 * Arrays and elements of the most recently used pages, by page index
+	 */
+	private final Map<Integer, Page> fPages = new LinkedHashMap<Integer, Page>(MAX_PAGES * 2, 0.75f, true) {
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<Integer, Page> eldest) {
+			if (size() > MAX_PAGES) {
+				eldest.getValue().release();
+				return true;
+			}
+			return false;
+		}
+	};
+
+	private static class Page {
+
+		final IJavaArray fArray;
+
+		final IJavaValue[] fValues;
+
+		Page(IJavaArray array) throws DebugException {
+			fArray = array;
+			fValues = array.getValues();
+		}
+
+		void release() {
+			try {
+				fArray.enableCollection();
+			} catch (DebugException e) {
+				// the target is gone, or the array has been collected
+			}
+		}
+	}
+
+	/**
+	 * Constructs a paged array.
+	 *
+	 * @param target
+	 *            the debug target
+	 * @param type
+	 *            the array type of the elements
+	 * @param provider
+	 *            provider of the pages
+	 * @param size
+	 *            the current number of elements
+	 * @param firstPage
+	 *            the first page retrieved already, or <code>null</code>
+	 * @throws DebugException
+	 *             if the elements of the first page cannot be retrieved
+	 */
+	public JDIPagedArrayValue(JDIDebugTarget target, IJavaArrayType type, PageProvider provider, int size, IJavaArray firstPage) throws DebugException {
+		super(target, null);
+		fType = type;
+		fProvider = provider;
+		fSize = size;
+		fSuspendCount = target.getSuspendCount();
+		if (firstPage != null) {
+			fPages.put(Integer.valueOf(0), new Page(firstPage));
+		}
+	}
+
+	/**
+	 * Discards the size and pages once the target has suspended again.
+	 */
+	private void checkSuspendCount() throws DebugException {
+		int suspendCount = getJavaDebugTarget().getSuspendCount();
+		if (suspendCount != fSuspendCount) {
+			releasePages();
+			fSize = fProvider.getSize();
+			fSuspendCount = suspendCount;
+		}
+	}
+
+	private void releasePages() {
+		for (Page page : fPages.values()) {
+			page.release();
+		}
+		fPages.clear();
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see org.eclipse.jdt.internal.debug.core.model.JDIArrayValue#getLength()
+	 */
+	@Override
+	public synchronized int getLength() throws DebugException {
+		checkSuspendCount();
+		return fSize;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see org.eclipse.jdt.internal.debug.core.model.JDIArrayValue#getSize()
+	 */
+	@Override
+	public int getSize() throws DebugException {
+		return getLength();
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see org.eclipse.jdt.internal.debug.core.model.JDIValue#getArrayLength()
+	 */
+	@Override
+	public int getArrayLength() throws DebugException {
+		return getLength();
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see org.eclipse.jdt.internal.debug.core.model.JDIArrayValue#getValue(int)
+	 */
+	@Override
+	public synchronized IJavaValue getValue(int index) throws DebugException {
+		checkSuspendCount();
+		if (index < 0 || index >= fSize) {
+			requestFailed(JDIDebugModelMessages.JDIArrayValue_6, null);
+		}
+		Integer key = Integer.valueOf(index / PAGE_SIZE);
+		Page page = fPages.get(key);
+		if (page == null) {
+			int offset = key.intValue() * PAGE_SIZE;
+			page = new Page(fProvider.getPage(offset, Math.min(PAGE_SIZE, fSize - offset)));
+			fPages.put(key, page);
+		}
+		int offset = index % PAGE_SIZE;
+		if (offset >= page.fValues.length) {
+			// the structure shrank since its size was computed
+			requestFailed(JDIDebugModelMessages.JDIArrayValue_6, null);
+		}
+		return page.fValues[offset];
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see org.eclipse.jdt.internal.debug.core.model.JDIArrayValue#getValues()
+	 */
+	@Override
+	public IJavaValue[] getValues() throws DebugException {
+		IJavaValue[] values = new IJavaValue[getLength()];
+		for (int i = 0; i < values.length; i++) {
+			values[i] = getValue(i);
+		}
+		return values;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see org.eclipse.jdt.internal.debug.core.model.JDIArrayValue#setValue(int, org.eclipse.jdt.debug.core.IJavaValue)
+	 */
+	@Override
+	public void setValue(int index, IJavaValue value) throws DebugException {
+		notSupported(JDIDebugModelMessages.JDIPagedArrayValue_2);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see org.eclipse.jdt.internal.debug.core.model.JDIArrayValue#setValues(int, int, org.eclipse.jdt.debug.core.IJavaValue[], int)
+	 */
+	@Override
+	public void setValues(int offset, int length, IJavaValue[] values, int startOffset) throws DebugException {
+		notSupported(JDIDebugModelMessages.JDIPagedArrayValue_2);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see org.eclipse.jdt.internal.debug.core.model.JDIArrayValue#setValues(org.eclipse.jdt.debug.core.IJavaValue[])
+	 */
+	@Override
+	public void setValues(IJavaValue[] values) throws DebugException {
+		notSupported(JDIDebugModelMessages.JDIPagedArrayValue_2);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see org.eclipse.jdt.internal.debug.core.model.JDIArrayValue#getVariable(int)
+	 */
+	@Override
+	public IVariable getVariable(int offset) throws DebugException {
+		return new JDIPlaceholderVariable("[" + offset + "]", getValue(offset), this); //$NON-NLS-1$ //$NON-NLS-2$
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see org.eclipse.jdt.internal.debug.core.model.JDIArrayValue#getVariables(int, int)
+	 */
+	@Override
+	public IVariable[] getVariables(int offset, int length) throws DebugException {
+		IVariable[] variables = new IVariable[length];
+		for (int i = 0; i < length; i++) {
+			variables[i] = getVariable(offset + i);
+		}
+		return variables;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see org.eclipse.jdt.internal.debug.core.model.JDIValue#getVariables()
+	 */
+	@Override
+	public IVariable[] getVariables() throws DebugException {
+		return getVariables(0, getLength());
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see org.eclipse.jdt.internal.debug.core.model.JDIArrayValue#hasVariables()
+	 */
+	@Override
+	public boolean hasVariables() throws DebugException {
+		return getLength() > 0;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see org.eclipse.jdt.internal.debug.core.model.JDIArrayValue#getInitialOffset()
+	 */
+	@Override
+	public int getInitialOffset() {
+		return 0;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see org.eclipse.jdt.internal.debug.core.model.JDIObjectValue#getReferringObjects(long)
+	 */
+	@Override
+	public IJavaObject[] getReferringObjects(long max) throws DebugException {
+		return new IJavaObject[0];
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see org.eclipse.jdt.internal.debug.core.model.JDIValue#isAllocated()
+	 */
+	@Override
+	public boolean isAllocated() throws DebugException {
+		return getJavaDebugTarget().isAvailable();
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see org.eclipse.jdt.internal.debug.core.model.JDIValue#getJavaType()
+	 */
+	@Override
+	public IJavaType getJavaType() throws DebugException {
+		return fType;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see org.eclipse.jdt.internal.debug.core.model.JDIValue#getSignature()
+	 */
+	@Override
+	public String getSignature() throws DebugException {
+		return fType.getSignature();
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see org.eclipse.jdt.internal.debug.core.model.JDIObjectValue#getReferenceTypeName()
+	 */
+	@Override
+	public String getReferenceTypeName() throws DebugException {
+		return fType.getName();
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see org.eclipse.jdt.internal.debug.core.model.JDIValue#getValueString()
+	 */
+	@Override
+	public String getValueString() throws DebugException {
+		return MessageFormat.format(JDIDebugModelMessages.JDIPagedArrayValue_0, Integer.toString(getLength()));
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see org.eclipse.jdt.internal.debug.core.model.JDIValue#toString()
+	 */
+	@Override
+	public synchronized String toString() {
+		String name;
+		try {
+			name = fType.getName();
+		} catch (DebugException e) {
+			name = fType.toString();
+		}
+		return MessageFormat.format(JDIDebugModelMessages.JDIPagedArrayValue_1, name, Integer.toString(fSize));
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see org.eclipse.jdt.internal.debug.core.model.JDIObjectValue#enableCollection()
+	 */
+	@Override
+	public synchronized void enableCollection() throws DebugException {
+		releasePages();
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see org.eclipse.jdt.internal.debug.core.model.JDIObjectValue#disableCollection()
+	 */
+	@Override
+	public void disableCollection() throws DebugException {
+		// the arrays of the pages are not collected while they are kept
+	}
+
+}
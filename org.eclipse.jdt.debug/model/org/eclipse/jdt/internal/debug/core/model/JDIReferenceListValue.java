@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2007, 2013 IBM Corporation and others.
+ * Copyright (c) 2007, 2022 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -15,6 +15,9 @@
 package org.eclipse.jdt.internal.debug.core.model;
 
 import java.text.MessageFormat;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 
 import org.eclipse.debug.core.DebugException;
 import org.eclipse.debug.core.model.IIndexedValue;
@@ -34,7 +37,8 @@ import com.sun.jdi.ObjectReference;
  * views including the variables view. The value should belong to a
  * <code>JDIReferenceListVariable</code>. The children of this value will be
  * <code>JDIReferenceListEntryVariable</code>, each representing one reference
- * to the root object.
+ * to the root object. The values of the referring objects are created as they
+ * are displayed, see {@link JDIObjectList}.
  *
  * @see JDIReferenceListVariable
  * @see JDIReferenceListEntryVariable
@@ -44,6 +48,9 @@ public class JDIReferenceListValue extends JDIObjectValue implements
 		IIndexedValue {
 
 	private IJavaObject fRoot;
+	private List<ObjectReference> fReferringObjects;
+	private JDIObjectList fReferences;
+	private JDIPlaceholderValue fMoreValue;
 	private boolean fIsMoreThanPreference;
 	private IJavaType fType = null;
 
@@ -70,32 +77,58 @@ public class JDIReferenceListValue extends JDIObjectValue implements
 	}
 
 	/**
-	 * @return all references to the root object as an array of IJavaObjects
+	 * @return all references to the root object, retrieved again from the VM
+	 *         when the target has been suspended since they were retrieved
 	 */
-	protected synchronized IJavaObject[] getReferences() {
+	protected synchronized JDIObjectList getReferences() {
+		List<ObjectReference> referringObjects = Collections.emptyList();
+		int max = HeapWalkingManager.getDefault().getAllReferencesMaxCount();
 		try {
-			int max = HeapWalkingManager.getDefault()
-					.getAllReferencesMaxCount();
-			IJavaObject[] referringObjects = null;
-			fIsMoreThanPreference = false;
-			if (max == 0) {
-				referringObjects = fRoot.getReferringObjects(max);
-			} else {
-				referringObjects = fRoot.getReferringObjects(max + 1);
-				if (referringObjects.length > max) {
-					fIsMoreThanPreference = true;
-					referringObjects[max] = new JDIPlaceholderValue(
-							(JDIDebugTarget) fRoot.getDebugTarget(),
-							MessageFormat
-									.format(JDIDebugModelMessages.JDIReferenceListValue_9,
-											Integer.toString(max)));
-				}
-			}
-			return referringObjects;
+			referringObjects = getRootReferences(max == 0 ? max : max + 1);
 		} catch (DebugException e) {
 			JDIDebugPlugin.log(e);
-			return new IJavaObject[0];
 		}
+		if (fReferences == null || referringObjects != fReferringObjects) {
+			// values created so far are kept while the root object caches
+			// its referring objects
+			fReferringObjects = referringObjects;
+			fIsMoreThanPreference = max != 0 && referringObjects.size() > max;
+			if (fIsMoreThanPreference) {
+				referringObjects = referringObjects.subList(0, max);
+				fMoreValue = new JDIPlaceholderValue(
+						(JDIDebugTarget) fRoot.getDebugTarget(),
+						MessageFormat
+								.format(JDIDebugModelMessages.JDIReferenceListValue_9,
+										Integer.toString(max)));
+			}
+			fReferences = new JDIObjectList((JDIDebugTarget) fRoot.getDebugTarget(), referringObjects);
+		}
+		return fReferences;
+	}
+
+	/**
+	 * Returns the objects referring to the root object, as cached by the root
+	 * object.
+	 */
+	private List<ObjectReference> getRootReferences(long max) throws DebugException {
+		if (fRoot instanceof JDIObjectValue) {
+			return ((JDIObjectValue) fRoot).getReferringObjectReferences(max);
+		}
+		IJavaObject[] objects = fRoot.getReferringObjects(max);
+		List<ObjectReference> references = new ArrayList<>(objects.length);
+		for (IJavaObject object : objects) {
+			references.add(((JDIObjectValue) object).getUnderlyingObject());
+		}
+		return references;
+	}
+
+	/**
+	 * @return the number of elements of this value, including the element
+	 *         indicating that there are more references than displayed
+	 */
+	private int getElementCount() {
+		int count = getReferences().size();
+		return fIsMoreThanPreference ? count + 1 : count;
 	}
 
 	/**
@@ -116,22 +149,7 @@ public class JDIReferenceListValue extends JDIObjectValue implements
 	 */
 	@Override
 	public IVariable[] getVariables() throws DebugException {
-		IJavaObject[] elements = getReferences();
-		IVariable[] vars = new JDIPlaceholderVariable[elements.length];
-		int length = elements.length;
-		if (fIsMoreThanPreference) {
-			length--;
-			vars[length] = new JDIPlaceholderVariable(
-					JDIDebugModelMessages.JDIReferenceListValue_11,
-					elements[length]);
-		}
-
-		for (int i = 0; i < length; i++) {
-			vars[i] = new JDIReferenceListEntryVariable(MessageFormat.format(
-					JDIDebugModelMessages.JDIReferenceListValue_0,
-					Integer.toString(i)), elements[i]);
-		}
-		return vars;
+		return getVariables(0, getElementCount());
 	}
 
 	/*
@@ -154,7 +172,7 @@ public class JDIReferenceListValue extends JDIObjectValue implements
 	@Override
 	public boolean hasVariables() throws DebugException {
 		if (referencesLoaded()) {
-			return getReferences().length > 0;
+			return getElementCount() > 0;
 		}
 		return true;
 	}
@@ -220,19 +238,19 @@ public class JDIReferenceListValue extends JDIObjectValue implements
 	 */
 	public String getDetailString() {
 		StringBuilder buf = new StringBuilder();
-		Object[] elements = getReferences();
-		if (elements.length == 0) {
+		JDIObjectList elements = getReferences();
+		if (elements.size() == 0) {
 			buf.append(JDIDebugModelMessages.JDIReferenceListValue_2);
 		} else {
 			String length = null;
 			if (fIsMoreThanPreference) {
 				length = MessageFormat.format(
 						JDIDebugModelMessages.JDIReferenceListValue_15,
-						Integer.toString(elements.length - 1));
+						Integer.toString(elements.size()));
 			} else {
-				length = Integer.toString(elements.length);
+				length = Integer.toString(elements.size());
 			}
-			if (elements.length == 1) {
+			if (elements.size() == 1) {
 				buf.append(MessageFormat.format(
 						JDIDebugModelMessages.JDIReferenceListValue_3,
 						length));
@@ -241,8 +259,12 @@ public class JDIReferenceListValue extends JDIObjectValue implements
 						JDIDebugModelMessages.JDIReferenceListValue_4,
 						length));
 			}
-			for (Object element : elements) {
-				buf.append(element + "\n"); //$NON-NLS-1$
+			// the references print like their values
+			for (int i = 0; i < elements.size(); i++) {
+				buf.append(elements.getObject(i) + "\n"); //$NON-NLS-1$
+			}
+			if (fIsMoreThanPreference) {
+				buf.append(fMoreValue + "\n"); //$NON-NLS-1$
 			}
 		}
 		return buf.toString();
@@ -305,7 +327,7 @@ public class JDIReferenceListValue extends JDIObjectValue implements
 	 */
 	@Override
 	public int getSize() throws DebugException {
-		return getVariables().length;
+		return getElementCount();
 	}
 
 	/*
@@ -315,9 +337,16 @@ public class JDIReferenceListValue extends JDIObjectValue implements
 	 */
 	@Override
 	public IVariable getVariable(int offset) throws DebugException {
-		IVariable[] variables = getVariables();
-		if (offset < variables.length) {
-			return variables[offset];
+		JDIObjectList elements = getReferences();
+		if (offset >= 0 && offset < elements.size()) {
+			return new JDIReferenceListEntryVariable(MessageFormat.format(
+					JDIDebugModelMessages.JDIReferenceListValue_0,
+					Integer.toString(offset)), elements.get(offset));
+		}
+		if (fIsMoreThanPreference && offset == elements.size()) {
+			return new JDIPlaceholderVariable(
+					JDIDebugModelMessages.JDIReferenceListValue_11,
+					fMoreValue);
 		}
 		requestFailed(JDIDebugModelMessages.JDIReferenceListValue_7, new IndexOutOfBoundsException());
 		return null;
@@ -331,10 +360,11 @@ public class JDIReferenceListValue extends JDIObjectValue implements
 	@Override
 	public IVariable[] getVariables(int offset, int length)
 			throws DebugException {
-		IVariable[] variables = getVariables();
-		if (offset < variables.length && (offset + length) <= variables.length) {
+		if (offset >= 0 && length >= 0 && (offset + length) <= getElementCount()) {
 			IJavaVariable[] vars = new IJavaVariable[length];
-			System.arraycopy(variables, offset, vars, 0, length);
+			for (int i = 0; i < length; i++) {
+				vars[i] = (IJavaVariable) getVariable(offset + i);
+			}
 			return vars;
 		}
 		requestFailed(JDIDebugModelMessages.JDIReferenceListValue_8, new IndexOutOfBoundsException());
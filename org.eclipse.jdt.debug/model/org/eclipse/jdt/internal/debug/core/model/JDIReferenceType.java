@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2015 IBM Corporation and others.
+ * Copyright (c) 2000, 2022 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -367,14 +367,29 @@ public abstract class JDIReferenceType extends JDIType implements
 	 */
 	@Override
 	public IJavaObject[] getInstances(long max) throws DebugException {
+		List<ObjectReference> list = getInstanceReferences(max);
+		IJavaObject[] instances = new IJavaObject[list.size()];
+		for (int i = 0; i < instances.length; i++) {
+			instances[i] = (IJavaObject) JDIValue.createValue(
+					getJavaDebugTarget(), list.get(i));
+		}
+		return instances;
+	}
+
+	/**
+	 * Returns the instances of this type as JDI references, without creating
+	 * their values.
+	 *
+	 * @param max
+	 *            the maximum number of instances to return, or 0 for all
+	 * @return the instances of this type
+	 * @throws DebugException
+	 *             if the instances cannot be retrieved
+	 * @since 3.20
+	 */
+	public List<ObjectReference> getInstanceReferences(long max) throws DebugException {
 		try {
-			List<ObjectReference> list = getReferenceType().instances(max);
-			IJavaObject[] instances = new IJavaObject[list.size()];
-			for (int i = 0; i < instances.length; i++) {
-				instances[i] = (IJavaObject) JDIValue.createValue(
-						getJavaDebugTarget(), list.get(i));
-			}
-			return instances;
+			return getReferenceType().instances(max);
 		} catch (RuntimeException e) {
 			targetRequestFailed(JDIDebugModelMessages.JDIReferenceType_5, e);
 		}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2020 IBM Corporation and others.
+ * Copyright (c) 2000, 2022 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -20,6 +20,7 @@ import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
 import java.util.ListIterator;
+import java.util.Map;
 
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IAdaptable;
@@ -40,13 +41,6 @@ import org.eclipse.jdi.internal.ValueImpl;
 import org.eclipse.jdi.internal.VirtualMachineImpl;
 import org.eclipse.jdt.core.IType;
 import org.eclipse.jdt.core.Signature;
-import org.eclipse.jdt.core.dom.AST;
-import org.eclipse.jdt.core.dom.ASTParser;
-import org.eclipse.jdt.core.dom.ASTVisitor;
-import org.eclipse.jdt.core.dom.CompilationUnit;
-import org.eclipse.jdt.core.dom.IMethodBinding;
-import org.eclipse.jdt.core.dom.IVariableBinding;
-import org.eclipse.jdt.core.dom.LambdaExpression;
 import org.eclipse.jdt.debug.core.IJavaClassType;
 import org.eclipse.jdt.debug.core.IJavaModifiers;
 import org.eclipse.jdt.debug.core.IJavaObject;
@@ -74,6 +68,7 @@ import com.sun.jdi.ObjectReference;
 import com.sun.jdi.ReferenceType;
 import com.sun.jdi.StackFrame;
 import com.sun.jdi.Type;
+import com.sun.jdi.Value;
 import com.sun.jdi.VirtualMachine;
 
 /**
@@ -304,10 +299,59 @@ public class JDIStackFrame extends JDIDebugElement implements IJavaStackFrame {
 	 */
 	@Override
 	public IVariable[] getVariables() throws DebugException {
+		int generation = getJavaDebugTarget().getStateGeneration();
 		List<IJavaVariable> list = getVariables0();
+		prefetchValues(list, generation);
+		JDIVariable.prefetchValueStrings(list, generation);
 		return list.toArray(new IVariable[list.size()]);
 	}
 
+	/**
+	 * Retrieves the values of the given local variables with a single request,
+	 * and the values of static fields with one request per declaring type,
+	 * instead of one request per variable.
+	 *
+	 * @param variables
+	 *            the variables of this frame
+	 * @param generation
+	 *            the state generation of the debug target, obtained before the
+	 *            variables were computed
+	 */
+	private void prefetchValues(List<IJavaVariable> variables, int generation) {
+		JDIFieldVariable.prefetchValues(variables, generation);
+		List<JDILocalVariable> locals = new ArrayList<>();
+		List<LocalVariable> underlyingLocals = new ArrayList<>();
+		for (IJavaVariable variable : variables) {
+			if (variable instanceof JDILocalVariable && !((JDILocalVariable) variable).isPrefetched(generation)) {
+				JDILocalVariable local = (JDILocalVariable) variable;
+				locals.add(local);
+				underlyingLocals.add(local.getLocal());
+			}
+		}
+		if (locals.isEmpty()) {
+			return;
+		}
+		synchronized (fThread) {
+			try {
+				if (!isSuspended()) {
+					return;
+				}
+				StackFrame frame = getUnderlyingStackFrame();
+				if (frame == null) {
+					return;
+				}
+				Map<LocalVariable, Value> values = frame.getValues(underlyingLocals);
+				for (JDILocalVariable local : locals) {
+					if (values.containsKey(local.getLocal())) {
+						local.setPrefetchedValue(values.get(local.getLocal()), generation);
+					}
+				}
+			} catch (DebugException | RuntimeException e) {
+				// the values are retrieved one by one, which reports the failure
+			}
+		}
+	}
+
 	protected List<IJavaVariable> getVariables0() throws DebugException {
 		synchronized (fThread) {
 			if (fVariables == null) {
@@ -413,15 +457,12 @@ public class JDIStackFrame extends JDIDebugElement implements IJavaStackFrame {
 			if (type == null) {
 				return;
 			}
-			ASTParser parser = ASTParser.newParser(AST.JLS11);
-			parser.setResolveBindings(true);
-			parser.setSource(type.getTypeRoot());
-			CompilationUnit cu = (CompilationUnit) parser.createAST(null);
-			List<Location> allLineLocations;
 			try {
-				allLineLocations = getUnderlyingMethod().allLineLocations();
-				int lineNo = allLineLocations.get(0).lineNumber();
-				cu.accept(new LambdaASTVisitor(false, underlyingThisObject, getUnderlyingMethod().isStatic(), cu, lineNo));
+				int lineNo = getUnderlyingMethod().allLineLocations().get(0).lineNumber();
+				boolean methodIsStatic = getUnderlyingMethod().isStatic();
+				for (String[] names : LambdaVariableNames.get(type.getTypeRoot()).getCapturedVariableNames(lineNo)) {
+					renameCapturedVariables(underlyingThisObject, methodIsStatic, names);
+				}
 			} catch (AbsentInformationException e) {
 				// Nothing to be done
 			}
@@ -451,70 +492,50 @@ public class JDIStackFrame extends JDIDebugElement implements IJavaStackFrame {
 		return false;
 	}
 
-	private final static class LambdaASTVisitor extends ASTVisitor {
-		private final ObjectReference underlyingThisObject;
-		private boolean methodIsStatic;
-		private CompilationUnit cu;
-		private int lineNo;
-
-		private LambdaASTVisitor(boolean visitDocTags, ObjectReference underlyingThisObject, boolean methodIsStatic, CompilationUnit cu, int lineNo) {
-			super(visitDocTags);
-			this.underlyingThisObject = underlyingThisObject;
-			this.methodIsStatic = methodIsStatic;
-			this.cu = cu;
-			this.lineNo = lineNo;
-		}
-
-		@Override
-		public boolean visit(LambdaExpression lambdaExpression) {
-			// check if the lineNo fall in lambda region, it can either be single or multiline lambda body.
-			if (lineNo < cu.getLineNumber(lambdaExpression.getStartPosition())
-					|| lineNo > cu.getLineNumber(lambdaExpression.getStartPosition() + lambdaExpression.getLength())) {
-				return true;
-			}
-			IMethodBinding binding = lambdaExpression.resolveMethodBinding();
-			if (binding == null) {
-				return true;
-			}
-			IVariableBinding[] synVars = binding.getSyntheticOuterLocals();
-			if (synVars == null || synVars.length == 0) {// name cannot be updated if Synthetic Outer Locals are not available
-				return true;
+	/**
+	 * Renames the synthetic fields of the given lambda object after the
+	 * variables captured by the lambda expression.
+	 *
+	 * @param underlyingThisObject
+	 *            the lambda object
+	 * @param methodIsStatic
+	 *            whether the lambda frame's method is static, otherwise the
+	 *            first field holds the enclosing instance
+	 * @param synVarNames
+	 *            the names of the captured variables
+	 */
+	private static void renameCapturedVariables(ObjectReference underlyingThisObject, boolean methodIsStatic, String[] synVarNames) {
+		List<Field> allFields = underlyingThisObject.referenceType().fields();
+		ListIterator<Field> listIterator = allFields.listIterator();
+		int i = 0;
+		if (methodIsStatic) {
+			if (synVarNames.length == allFields.size()) {
+				while (listIterator.hasNext()) {
+					FieldImpl field = (FieldImpl) listIterator.next();
+					FieldImpl newField = createRenamedCopy(field, synVarNames[i]);
+					listIterator.set(newField);
+					i++;
+				}
 			}
-			List<Field> allFields = underlyingThisObject.referenceType().fields();
-			ListIterator<Field> listIterator = allFields.listIterator();
-			int i = 0;
-			if (methodIsStatic) {
-				if (synVars.length == allFields.size()) {
-					while (listIterator.hasNext()) {
-						FieldImpl field = (FieldImpl) listIterator.next();
-						String newName = synVars[i].getName();
-						FieldImpl newField = createRenamedCopy(field, newName);
+		} else {
+			if (synVarNames.length + 1 == allFields.size()) {
+				while (listIterator.hasNext()) {
+					FieldImpl field = (FieldImpl) listIterator.next();
+					// remove 'this' field from the fields of the lambda
+					if (i == 0) {
+						listIterator.remove();
+					} else {
+						FieldImpl newField = createRenamedCopy(field, synVarNames[i - 1]);
 						listIterator.set(newField);
-						i++;
-					}
-				}
-			} else {
-				if (synVars.length + 1 == allFields.size()) {
-					while (listIterator.hasNext()) {
-						FieldImpl field = (FieldImpl) listIterator.next();
-						// remove 'this' field from the fields of the lambda
-						if (i == 0) {
-							listIterator.remove();
-						} else {
-							String newName = synVars[i - 1].getName();
-							FieldImpl newField = createRenamedCopy(field, newName);
-							listIterator.set(newField);
-						}
-						i++;
 					}
+					i++;
 				}
 			}
-			return true;
 		}
+	}
 
-		private FieldImpl createRenamedCopy(FieldImpl field, String newName) {
-			return new FieldImpl((VirtualMachineImpl) field.virtualMachine(), (ReferenceTypeImpl) field.declaringType(), field.getFieldID(), newName, field.signature(), field.genericSignature(), field.modifiers());
-		}
+	private static FieldImpl createRenamedCopy(FieldImpl field, String newName) {
+		return new FieldImpl((VirtualMachineImpl) field.virtualMachine(), (ReferenceTypeImpl) field.declaringType(), field.getFieldID(), newName, field.signature(), field.genericSignature(), field.modifiers());
 	}
 
 	/**
@@ -615,7 +636,7 @@ public class JDIStackFrame extends JDIDebugElement implements IJavaStackFrame {
 	public int getLineNumber() throws DebugException {
 		synchronized (fThread) {
 			try {
-				return fLocation.lineNumber();
+				return getSourceLocationCache().getLineNumber(fLocation, getJavaDebugTarget().getDefaultStratum());
 			} catch (RuntimeException e) {
 				if (getThread().isSuspended()) {
 					targetRequestFailed(
@@ -1229,17 +1250,21 @@ public class JDIStackFrame extends JDIDebugElement implements IJavaStackFrame {
 		}
 	}
 
+	/**
+	 * Returns the cache of the source information of locations in this frame's
+	 * debug target.
+	 */
+	private SourceLocationCache getSourceLocationCache() {
+		return getJavaDebugTarget().getSourceLocationCache();
+	}
+
 	/**
 	 * Returns the source from the default stratum of the given location or
 	 * <code>null</code> if not available (missing attribute).
 	 */
 	private String getSourceName(Location location) throws DebugException {
 		try {
-			return location.sourceName();
-		} catch (AbsentInformationException e) {
-			return null;
-		} catch (NativeMethodException e) {
-			return null;
+			return getSourceLocationCache().getSourceName(location, getJavaDebugTarget().getDefaultStratum());
 		} catch (RuntimeException e) {
 			targetRequestFailed(
 					MessageFormat.format(
@@ -1587,8 +1612,7 @@ public class JDIStackFrame extends JDIDebugElement implements IJavaStackFrame {
 	public String getSourcePath(String stratum) throws DebugException {
 		synchronized (fThread) {
 			try {
-				return fLocation.sourcePath(stratum);
-			} catch (AbsentInformationException e) {
+				return getSourceLocationCache().getSourcePath(fLocation, stratum);
 			} catch (RuntimeException e) {
 				targetRequestFailed(
 						MessageFormat.format(
@@ -1606,8 +1630,7 @@ public class JDIStackFrame extends JDIDebugElement implements IJavaStackFrame {
 	public String getSourcePath() throws DebugException {
 		synchronized (fThread) {
 			try {
-				return fLocation.sourcePath();
-			} catch (AbsentInformationException e) {
+				return getSourceLocationCache().getSourcePath(fLocation, getJavaDebugTarget().getDefaultStratum());
 			} catch (RuntimeException e) {
 				targetRequestFailed(
 						MessageFormat.format(
@@ -1627,7 +1650,7 @@ public class JDIStackFrame extends JDIDebugElement implements IJavaStackFrame {
 	public int getLineNumber(String stratum) throws DebugException {
 		synchronized (fThread) {
 			try {
-				return fLocation.lineNumber(stratum);
+				return getSourceLocationCache().getLineNumber(fLocation, stratum);
 			} catch (RuntimeException e) {
 				if (getThread().isSuspended()) {
 					targetRequestFailed(
@@ -1649,9 +1672,7 @@ public class JDIStackFrame extends JDIDebugElement implements IJavaStackFrame {
 	public String getSourceName(String stratum) throws DebugException {
 		synchronized (fThread) {
 			try {
-				return fLocation.sourceName(stratum);
-			} catch (AbsentInformationException e) {
-			} catch (NativeMethodException e) {
+				return getSourceLocationCache().getSourceName(fLocation, stratum);
 			} catch (RuntimeException e) {
 				targetRequestFailed(
 						MessageFormat.format(
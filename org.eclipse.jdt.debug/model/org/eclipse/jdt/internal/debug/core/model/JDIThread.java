@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2019 IBM Corporation and others.
+ * Copyright (c) 2000, 2022 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -21,6 +21,8 @@ import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Vector;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 import org.eclipse.core.runtime.CoreException;
@@ -43,6 +45,7 @@ import org.eclipse.debug.core.model.IStepFilter;
 import org.eclipse.debug.core.model.ISuspendResume;
 import org.eclipse.debug.core.model.ITerminate;
 import org.eclipse.debug.core.model.IThread;
+import org.eclipse.jdi.internal.ThreadReferenceImpl;
 import org.eclipse.jdt.core.Signature;
 import org.eclipse.jdt.debug.core.IEvaluationRunnable;
 import org.eclipse.jdt.debug.core.IJavaBreakpoint;
@@ -135,6 +138,11 @@ public class JDIThread extends JDIDebugElement implements IJavaThread {
 	 * Cache of previous name, used in case thread is garbage collected.
 	 */
 	private String fPreviousName;
+	/**
+	 * Name and frame count of the underlying thread, retrieved while this
+	 * thread is suspended, or <code>null</code> - see #getSnapshot().
+	 */
+	private volatile ThreadSnapshot fSnapshot;
 	/**
 	 * Collection of stack frames
 	 */
@@ -652,6 +660,10 @@ public class JDIThread extends JDIDebugElement implements IJavaThread {
 				if (newSize > 0) {
 					((JDIStackFrame) fStackFrames.get(0)).setIsTop(true);
 				}
+				ThreadSnapshot snapshot = getSnapshot();
+				if (snapshot != null) {
+					snapshot.fFrameCount = CompletableFuture.completedFuture(Integer.valueOf(newSize));
+				}
 			}
 			fRefreshChildren = false;
 		} else {
@@ -1271,7 +1283,17 @@ public class JDIThread extends JDIDebugElement implements IJavaThread {
 	@Override
 	public String getName() throws DebugException {
 		try {
-			fPreviousName = fThread.name();
+			// without the listener the names of suspended threads can change
+			// unnoticed
+			ThreadSnapshot snapshot = getJavaDebugTarget().isThreadNameChangeListenerInstalled() ? getSnapshot() : null;
+			String name = snapshot == null ? null : ThreadSnapshot.getValue(snapshot.fName);
+			if (name == null) {
+				name = fThread.name();
+				if (snapshot != null) {
+					snapshot.fName = CompletableFuture.completedFuture(name);
+				}
+			}
+			fPreviousName = name;
 		} catch (RuntimeException e) {
 			// Don't bother reporting the exception when retrieving the name
 			// (bug 30785 & bug 33276)
@@ -1529,6 +1551,27 @@ public class JDIThread extends JDIDebugElement implements IJavaThread {
 
 	}
 
+	/**
+	 * Called when a run to line request suspends this thread. Aborts any step
+	 * in progress and queues a suspend event.
+	 *
+	 * @param suspendVM
+	 *            whether the request suspended all threads
+	 * @param set
+	 *            the event set of the request
+	 */
+	void suspendedByRunToLine(boolean suspendVM, EventSet set) {
+		synchronized (this) {
+			if (suspendVM) {
+				((JDIDebugTarget) getDebugTarget()).suspendedByRunToLine(set);
+			} else {
+				setRunning(false);
+			}
+			abortStep();
+			queueSuspendEvent(DebugEvent.BREAKPOINT, set);
+		}
+	}
+
 	@Override
 	public boolean isStepping() {
 		return getPendingStepHandler() != null;
@@ -1668,6 +1711,7 @@ public class JDIThread extends JDIDebugElement implements IJavaThread {
 	protected void setRunning(boolean running) {
 		fRunning = running;
 		if (running) {
+			getJavaDebugTarget().incrementStateGeneration();
 			synchronized (breakpointAcessLock) {
 				fCurrentBreakpoints.clear();
 			}
@@ -2702,18 +2746,10 @@ public class JDIThread extends JDIDebugElement implements IJavaThread {
 				// //is so do not filter @see bug 5587
 				// ReferenceType type= currentLocation.declaringType();
 				// String typeName= type.name();
-				String[] activeFilters = getJavaDebugTarget().getStepFilters();
-				// for (int i = 0; i < activeFilters.length; i++) {
-				// StringMatcher matcher = new StringMatcher(activeFilters[i],
-				// false, false);
-				// if (matcher.match(typeName)) {
-				// return;
-				// }
-				// }
-				if (activeFilters != null) {
-					for (String activeFilter : activeFilters) {
-						request.addClassExclusionFilter(activeFilter);
-					}
+				// filters the VM cannot match are matched by the step handler,
+				// see #locationIsFiltered(Method, boolean)
+				for (String activeFilter : getJavaDebugTarget().getStepFilterMatcher().getExclusionFilters()) {
+					request.addClassExclusionFilter(activeFilter);
 				}
 			}
 		}
@@ -2891,14 +2927,20 @@ public class JDIThread extends JDIDebugElement implements IJavaThread {
 		protected boolean locationIsFiltered(Method method, boolean orig) {
 			if (isStepFiltersEnabled()) {
 				JDIDebugTarget target = getJavaDebugTarget();
-				if ((target.isFilterStaticInitializers() && method.isStaticInitializer())
-						|| (target.isFilterSynthetics() && method.isSynthetic())
-						|| (target.isFilterConstructors() && method.isConstructor())
-						|| (target.isFilterGetters() && JDIMethod.isGetterMethod(method))
-						|| (target.isFilterSetters() && JDIMethod.isSetterMethod(method))) {
+				StepFilterMatcher matcher = target.getStepFilterMatcher();
+				if ((target.isFilterStaticInitializers() && matcher.is(method, StepFilterMatcher.STATIC_INITIALIZER))
+						|| (target.isFilterSynthetics() && matcher.is(method, StepFilterMatcher.SYNTHETIC))
+						|| (target.isFilterConstructors() && matcher.is(method, StepFilterMatcher.CONSTRUCTOR))
+						|| (target.isFilterGetters() && matcher.is(method, StepFilterMatcher.GETTER))
+						|| (target.isFilterSetters() && matcher.is(method, StepFilterMatcher.SETTER))) {
 					return true;
 				}
 				if(!orig) {
+					// type filters are only attached to step requests from
+					// supported locations
+					if (matcher.is(method, StepFilterMatcher.FILTERED_TYPE) && isSupported(getOriginalStepLocation())) {
+						return true;
+					}
 					for (IStepFilter contributedFilter : DebugPlugin.getStepFilters(JDIDebugPlugin.getUniqueIdentifier())) {
 						if (contributedFilter.isFiltered(method)) {
 							return true;
@@ -3510,7 +3552,74 @@ public class JDIThread extends JDIDebugElement implements IJavaThread {
 
 	@Override
 	public int getFrameCount() throws DebugException {
-		return getUnderlyingFrameCount();
+		ThreadSnapshot snapshot = getSnapshot();
+		if (snapshot == null) {
+			return getUnderlyingFrameCount();
+		}
+		Integer count = ThreadSnapshot.getValue(snapshot.fFrameCount);
+		if (count == null) {
+			count = Integer.valueOf(getUnderlyingFrameCount());
+			snapshot.fFrameCount = CompletableFuture.completedFuture(count);
+		}
+		return count.intValue();
+	}
+
+	/**
+	 * Returns the snapshot of the underlying thread for the current state
+	 * generation of the debug target, or <code>null</code> if this thread is
+	 * not suspended. The name and the frame count of a suspended thread do not
+	 * change until a thread runs, which changes the state generation.
+	 *
+	 * @return the snapshot of the underlying thread or <code>null</code>
+	 */
+	private ThreadSnapshot getSnapshot() {
+		// the generation changes after this thread is set running
+		int generation = getJavaDebugTarget().getStateGeneration();
+		if (!isSuspended()) {
+			return null;
+		}
+		ThreadSnapshot snapshot = fSnapshot;
+		if (snapshot == null || snapshot.fGeneration != generation) {
+			snapshot = new ThreadSnapshot(generation);
+			fSnapshot = snapshot;
+		}
+		return snapshot;
+	}
+
+	/**
+	 * Requests the names and frame counts of the given threads that are
+	 * suspended, without waiting for the replies, so that the requests for
+	 * all threads are pending at the same time. Used to populate views that
+	 * show many threads. Elements that are not threads of this model are
+	 * ignored.
+	 *
+	 * @param elements
+	 *            elements to be shown, e.g. the children of a debug target
+	 */
+	public static void prefetchSnapshots(Object[] elements) {
+		for (Object element : elements) {
+			if (element instanceof JDIThread) {
+				((JDIThread) element).prefetchSnapshot();
+			}
+		}
+	}
+
+	private void prefetchSnapshot() {
+		ThreadSnapshot snapshot = getSnapshot();
+		if (snapshot == null || !(fThread instanceof ThreadReferenceImpl)) {
+			return;
+		}
+		ThreadReferenceImpl thread = (ThreadReferenceImpl) fThread;
+		try {
+			if (snapshot.fName == null && getJavaDebugTarget().isThreadNameChangeListenerInstalled()) {
+				snapshot.fName = thread.nameAsync();
+			}
+			if (snapshot.fFrameCount == null) {
+				snapshot.fFrameCount = thread.frameCountAsync();
+			}
+		} catch (RuntimeException e) {
+			// the values are retrieved when asked for, which reports the failure
+		}
 	}
 
 	protected void forceReturn(IJavaValue value) throws DebugException {
@@ -3649,4 +3758,38 @@ public class JDIThread extends JDIDebugElement implements IJavaThread {
 		this.fMethodResult = fMethodResult;
 	}
 
-}
\ No newline at end of file
+
+	/**
+	 * Name and frame count of a suspended thread, in a state generation of the
+	 * debug target. The values are requested when first asked for, or in bulk
+	 * for many threads.
+	 */
+	private static class ThreadSnapshot {
+
+		private final int fGeneration;
+
+		private volatile CompletableFuture<String> fName;
+
+		private volatile CompletableFuture<Integer> fFrameCount;
+
+		ThreadSnapshot(int generation) {
+			fGeneration = generation;
+		}
+
+		/**
+		 * Returns the value of the given request, or <code>null</code> if
+		 * there is no request or it failed. A failed request is made again,
+		 * which reports the failure.
+		 */
+		static <T> T getValue(CompletableFuture<T> request) {
+			if (request == null) {
+				return null;
+			}
+			try {
+				return request.join();
+			} catch (CompletionException e) {
+				return null;
+			}
+		}
+	}
+}
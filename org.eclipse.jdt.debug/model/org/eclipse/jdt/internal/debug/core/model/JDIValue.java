@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2015 IBM Corporation and others.
+ * Copyright (c) 2000, 2022 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -18,10 +18,13 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 import org.eclipse.debug.core.DebugException;
 import org.eclipse.debug.core.model.IValue;
 import org.eclipse.debug.core.model.IVariable;
+import org.eclipse.jdi.internal.StringReferenceImpl;
 import org.eclipse.jdt.debug.core.IJavaType;
 import org.eclipse.jdt.debug.core.IJavaValue;
 import org.eclipse.jdt.debug.core.IJavaVariable;
@@ -49,6 +52,12 @@ public class JDIValue extends JDIDebugElement implements IJavaValue {
 	private Value fValue;
 	private List<IJavaVariable> fVariables;
 
+	/**
+	 * Value of the underlying string that has been requested without waiting
+	 * for the reply, or <code>null</code> - see #prefetchValueString(int).
+	 */
+	private volatile PrefetchedString fPrefetchedString;
+
 	/**
 	 * A flag indicating if this value is still allocated (valid)
 	 */
@@ -128,6 +137,11 @@ public class JDIValue extends JDIDebugElement implements IJavaValue {
 		}
 		if (fValue instanceof StringReference) {
 			try {
+				PrefetchedString prefetched = fPrefetchedString;
+				if (prefetched != null && prefetched.fGeneration == getJavaDebugTarget().getStateGeneration()) {
+					return prefetched.join();
+				}
+				fPrefetchedString = null;
 				return ((StringReference) fValue).value();
 			} catch (ObjectCollectedException e) {
 				return JDIDebugModelMessages.JDIValue_deallocated;
@@ -228,10 +242,34 @@ public class JDIValue extends JDIDebugElement implements IJavaValue {
 	 */
 	@Override
 	public IVariable[] getVariables() throws DebugException {
+		int generation = getJavaDebugTarget().getStateGeneration();
 		List<IJavaVariable> list = getVariablesList();
+		JDIFieldVariable.prefetchValues(list, generation);
+		JDIVariable.prefetchValueStrings(list, generation);
 		return list.toArray(new IVariable[list.size()]);
 	}
 
+	/**
+	 * Requests the value of the underlying string without waiting for the
+	 * reply, so that the requests of many values can be pending at the same
+	 * time. The value is returned by #getValueString() as long as the state
+	 * generation of the debug target does not change. Does nothing if this is
+	 * not a string value.
+	 *
+	 * @param generation
+	 *            the state generation of the debug target
+	 */
+	void prefetchValueString(int generation) {
+		PrefetchedString prefetched = fPrefetchedString;
+		if (fValue instanceof StringReferenceImpl && (prefetched == null || prefetched.fGeneration != generation)) {
+			try {
+				fPrefetchedString = new PrefetchedString(((StringReferenceImpl) fValue).valueAsync(), generation);
+			} catch (RuntimeException e) {
+				// the value is retrieved when asked for, which reports the failure
+			}
+		}
+	}
+
 	/**
 	 * Returns a list of variables that are children of this value. The result
 	 * is cached.
@@ -513,4 +551,31 @@ public class JDIValue extends JDIDebugElement implements IJavaValue {
 		return false;
 	}
 
+
+	private static class PrefetchedString {
+
+		private final CompletableFuture<String> fValue;
+
+		private final int fGeneration;
+
+		PrefetchedString(CompletableFuture<String> value, int generation) {
+			fValue = value;
+			fGeneration = generation;
+		}
+
+		/**
+		 * Waits for the value and throws the exception that retrieving it
+		 * failed with.
+		 */
+		String join() {
+			try {
+				return fValue.join();
+			} catch (CompletionException e) {
+				if (e.getCause() instanceof RuntimeException) {
+					throw (RuntimeException) e.getCause();
+				}
+				throw e;
+			}
+		}
+	}
 }
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2015 IBM Corporation and others.
+ * Copyright (c) 2000, 2022 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -14,6 +14,7 @@
 package org.eclipse.jdt.internal.debug.core.model;
 
 import java.text.MessageFormat;
+import java.util.List;
 
 import org.eclipse.core.runtime.PlatformObject;
 import org.eclipse.debug.core.DebugException;
@@ -24,6 +25,7 @@ import org.eclipse.jdt.debug.core.IJavaModifiers;
 import org.eclipse.jdt.debug.core.IJavaType;
 import org.eclipse.jdt.debug.core.IJavaVariable;
 
+import com.sun.jdi.StringReference;
 import com.sun.jdi.Type;
 import com.sun.jdi.Value;
 
@@ -43,6 +45,13 @@ public abstract class JDIVariable extends JDIDebugElement implements
 	 */
 	private int fLastChangeIndex = -1;
 
+	/**
+	 * Value of this variable that was retrieved in bulk together with the
+	 * values of other variables, or <code>null</code> - see
+	 * #setPrefetchedValue(Value, int).
+	 */
+	private volatile PrefetchedValue fPrefetchedValue;
+
 	protected final static String jdiStringSignature = "Ljava/lang/String;"; //$NON-NLS-1$
 
 	public JDIVariable(JDIDebugTarget target) {
@@ -70,6 +79,13 @@ public abstract class JDIVariable extends JDIDebugElement implements
 	 *                if unable to access the value
 	 */
 	protected final Value getCurrentValue() throws DebugException {
+		PrefetchedValue prefetched = fPrefetchedValue;
+		if (prefetched != null) {
+			if (prefetched.fGeneration == getJavaDebugTarget().getStateGeneration()) {
+				return prefetched.fValue;
+			}
+			fPrefetchedValue = null;
+		}
 		try {
 			return retrieveValue();
 		} catch (RuntimeException e) {
@@ -87,6 +103,66 @@ public abstract class JDIVariable extends JDIDebugElement implements
 	 */
 	protected abstract Value retrieveValue() throws DebugException;
 
+	/**
+	 * Seeds this variable's current value with a value that was retrieved in
+	 * bulk together with the values of other variables. The value is used
+	 * instead of calling #retrieveValue() as long as the state generation of
+	 * the debug target does not change.
+	 *
+	 * @param value
+	 *            the underlying jdi value
+	 * @param generation
+	 *            the state generation of the debug target at the time the
+	 *            value was requested
+	 */
+	protected void setPrefetchedValue(Value value, int generation) {
+		fPrefetchedValue = new PrefetchedValue(value, generation);
+	}
+
+	/**
+	 * Returns whether this variable has a value that was retrieved in bulk in
+	 * the given state generation of the debug target.
+	 *
+	 * @param generation
+	 *            the state generation of the debug target
+	 * @return whether this variable's value has been prefetched in the given
+	 *         generation
+	 */
+	protected boolean isPrefetched(int generation) {
+		PrefetchedValue prefetched = fPrefetchedValue;
+		return prefetched != null && prefetched.fGeneration == generation;
+	}
+
+	/**
+	 * Requests the values of the strings that the given variables refer to,
+	 * without waiting for the replies, so that labels of the variables do not
+	 * wait for one request after the other. Only variables whose value has
+	 * been retrieved in bulk in the given generation are considered.
+	 *
+	 * @param variables
+	 *            variables of a stack frame or children of a value
+	 * @param generation
+	 *            the state generation of the debug target, obtained before
+	 *            the values were retrieved
+	 */
+	static void prefetchValueStrings(List<? extends IJavaVariable> variables, int generation) {
+		for (IJavaVariable variable : variables) {
+			if (variable instanceof JDIVariable) {
+				PrefetchedValue prefetched = ((JDIVariable) variable).fPrefetchedValue;
+				if (prefetched != null && prefetched.fGeneration == generation && prefetched.fValue instanceof StringReference) {
+					try {
+						IValue value = variable.getValue();
+						if (value instanceof JDIValue) {
+							((JDIValue) value).prefetchValueString(generation);
+						}
+					} catch (DebugException e) {
+						// the value is retrieved when asked for
+					}
+				}
+			}
+		}
+	}
+
 	/**
 	 * Returns the current value of this variable. The value is cached, but on
 	 * each access we see if the value has changed and update if required.
@@ -284,4 +360,19 @@ public abstract class JDIVariable extends JDIDebugElement implements
 	public boolean hasValueChanged() {
 		return getChangeCount() == getJavaDebugTarget().getSuspendCount();
 	}
+
+	/**
+	 * A value retrieved in bulk and the state generation it is valid for
+	 */
+	private static class PrefetchedValue {
+
+		private final Value fValue;
+
+		private final int fGeneration;
+
+		PrefetchedValue(Value value, int generation) {
+			fValue = value;
+			fGeneration = generation;
+		}
+	}
 }
@@ -0,0 +1,171 @@
+/*******************************************************************************
+ * Copyright (c) 2022 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.internal.debug.core.model;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.jdt.core.ITypeRoot;
+import org.eclipse.jdt.core.dom.AST;
+import org.eclipse.jdt.core.dom.ASTParser;
+import org.eclipse.jdt.core.dom.ASTVisitor;
+import org.eclipse.jdt.core.dom.CompilationUnit;
+import org.eclipse.jdt.core.dom.IMethodBinding;
+import org.eclipse.jdt.core.dom.IVariableBinding;
+import org.eclipse.jdt.core.dom.LambdaExpression;
+import org.eclipse.jdt.internal.debug.core.breakpoints.CompilationUnitCache;
+
+/**
+ * The names of the variables captured by the lambda expressions of a type
+ * root, by the lines the lambda expressions span.
+ * <p>
+ * Computing the names requires parsing the type root with bindings, which is
+ * expensive for large compilation units. The names are therefore cached for
+ * the most recently used type roots, and are computed again once the
+ * underlying resource or archive has been modified.
+ * </p>
+ *
+ * @since 3.19.200
+ */
+public class LambdaVariableNames {
+
+	/**
+	 * Maximum number of type roots whose lambda variable names are cached
+	 */
+	private static final int MAX_CACHE_SIZE = 32;
+
+	/**
+	 * Cached names by handle identifier of the type root, least recently used
+	 * first
+	 */
+	private static final Map<String, LambdaVariableNames> fgCache = new LinkedHashMap<String, LambdaVariableNames>(16, 0.75f, true) {
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<String, LambdaVariableNames> eldest) {
+			return size() > MAX_CACHE_SIZE;
+		}
+	};
+
+	/**
+	 * Modification stamp of the type root at the time it was parsed
+	 */
+	private final long fStamp;
+
+	/**
+	 * First and last line of each lambda expression with captured variables,
+	 * in source order
+	 */
+	private final int[] fStartLines;
+	private final int[] fEndLines;
+
+	/**
+	 * Names of the captured variables of each lambda expression
+	 */
+	private final String[][] fNames;
+
+	private LambdaVariableNames(long stamp, List<int[]> lines, List<String[]> names) {
+		fStamp = stamp;
+		fStartLines = new int[lines.size()];
+		fEndLines = new int[lines.size()];
+		for (int i = 0; i < fStartLines.length; i++) {
+			fStartLines[i] = lines.get(i)[0];
+			fEndLines[i] = lines.get(i)[1];
+		}
+		fNames = names.toArray(new String[names.size()][]);
+	}
+
+	/**
+	 * Returns the lambda variable names of the given type root, parsing it if
+	 * it is not cached or has been modified since it was parsed.
+	 *
+	 * @param typeRoot
+	 *            the type root
+	 * @return the lambda variable names of the type root
+	 */
+	public static LambdaVariableNames get(ITypeRoot typeRoot) {
+		String key = typeRoot.getHandleIdentifier();
+		long stamp = CompilationUnitCache.getModificationStamp(typeRoot);
+		synchronized (fgCache) {
+			LambdaVariableNames names = fgCache.get(key);
+			if (names != null && names.fStamp == stamp) {
+				return names;
+			}
+		}
+		// parse outside the lock, concurrent requests for the same type root
+		// at worst parse it twice
+		LambdaVariableNames names = parse(typeRoot, stamp);
+		synchronized (fgCache) {
+			fgCache.put(key, names);
+		}
+		return names;
+	}
+
+	/**
+	 * Returns the names of the variables captured by each lambda expression
+	 * that spans the given line, in source order.
+	 *
+	 * @param lineNumber
+	 *            a line number
+	 * @return the names of the captured variables of each lambda expression
+	 *         that spans the line, possibly empty
+	 */
+	public List<String[]> getCapturedVariableNames(int lineNumber) {
+		List<String[]> names = null;
+		for (int i = 0; i < fNames.length; i++) {
+			if (fStartLines[i] <= lineNumber && lineNumber <= fEndLines[i]) {
+				if (names == null) {
+					names = new ArrayList<>(1);
+				}
+				names.add(fNames[i]);
+			}
+		}
+		return names == null ? Collections.<String[]> emptyList() : names;
+	}
+
+	private static LambdaVariableNames parse(ITypeRoot typeRoot, long stamp) {
+		ASTParser parser = ASTParser.newParser(AST.JLS11);
+		parser.setResolveBindings(true);
+		parser.setSource(typeRoot);
+		CompilationUnit cu = (CompilationUnit) parser.createAST(null);
+		List<int[]> lines = new ArrayList<>();
+		List<String[]> names = new ArrayList<>();
+		cu.accept(new ASTVisitor(false) {
+			@Override
+			public boolean visit(LambdaExpression lambdaExpression) {
+				IMethodBinding binding = lambdaExpression.resolveMethodBinding();
+				if (binding == null) {
+					return true;
+				}
+				IVariableBinding[] synVars = binding.getSyntheticOuterLocals();
+				if (synVars == null || synVars.length == 0) {
+					// names cannot be updated if synthetic outer locals are not available
+					return true;
+				}
+				String[] lambdaNames = new String[synVars.length];
+				for (int i = 0; i < synVars.length; i++) {
+					lambdaNames[i] = synVars[i].getName();
+				}
+				int start = lambdaExpression.getStartPosition();
+				lines.add(new int[] { cu.getLineNumber(start), cu.getLineNumber(start + lambdaExpression.getLength()) });
+				names.add(lambdaNames);
+				return true;
+			}
+		});
+		return new LambdaVariableNames(stamp, lines, names);
+	}
+}
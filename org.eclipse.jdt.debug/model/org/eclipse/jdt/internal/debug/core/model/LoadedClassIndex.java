@@ -0,0 +1,403 @@
+/*******************************************************************************
+ * Copyright (c) 2022 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.internal.debug.core.model;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeMap;
+
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.jdi.internal.VirtualMachineImpl;
+import org.eclipse.jdt.internal.debug.core.EventDispatcher;
+import org.eclipse.jdt.internal.debug.core.IJDIEventListener;
+
+import com.sun.jdi.ReferenceType;
+import com.sun.jdi.VMDisconnectedException;
+import com.sun.jdi.VirtualMachine;
+import com.sun.jdi.event.ClassPrepareEvent;
+import com.sun.jdi.event.ClassUnloadEvent;
+import com.sun.jdi.event.Event;
+import com.sun.jdi.event.EventSet;
+import com.sun.jdi.request.EventRequest;
+import com.sun.jdi.request.EventRequestManager;
+
+/**
+ * An index of the classes loaded in a debug target, by qualified name.
+ * <p>
+ * Looking up the classes of a name in the target VM costs a round trip per
+ * name. The index is seeded with all loaded classes the first time it is used,
+ * and is kept current by class prepare and class unload events. When a class
+ * is unloaded, the other classes of the same name are not known, and the VM is
+ * queried again the next time the name is looked up.
+ * </p>
+ * <p>
+ * A class whose prepare event has not been processed yet is not in the index.
+ * Clients that must not miss such classes, e.g. breakpoints that create their
+ * own class prepare requests before looking up loaded classes, should query
+ * the VM directly, or {@link #refresh() refresh} the index after creating
+ * their requests. Breakpoints that install in all loaded classes matching a
+ * pattern do so in a {@link ClassesHandler}. A handler runs once the events
+ * received from the VM before it was passed to the index have been
+ * dispatched, so the classes prepared before the requests of the breakpoint
+ * have been added. The index is only read again if the events cannot be
+ * waited for, e.g. on the thread dispatching them. While the breakpoints of a
+ * target are initialized, the handlers are run after all breakpoints have
+ * created their requests, and share a single refresh of the index.
+ * </p>
+ *
+ * @since 3.19.200
+ */
+public class LoadedClassIndex implements IJDIEventListener {
+
+	/**
+	 * Installs a breakpoint in loaded classes found in the index.
+	 */
+	public interface ClassesHandler {
+
+		/**
+		 * Called once the index contains all classes loaded before the class
+		 * prepare requests of the breakpoint have been created.
+		 *
+		 * @param index
+		 *            the refreshed index
+		 * @throws CoreException
+		 *             if installing fails
+		 */
+		void handleClasses(LoadedClassIndex index) throws CoreException;
+	}
+
+	private final JDIDebugTarget fTarget;
+
+	/**
+	 * Loaded classes by qualified name, sorted for prefix queries, or
+	 * <code>null</code> if the index has not been seeded
+	 */
+	private TreeMap<String, List<ReferenceType>> fClasses;
+
+	/**
+	 * Names of unloaded classes whose remaining classes are unknown
+	 */
+	private final Set<String> fStale = new HashSet<>();
+
+	private EventRequest fPrepareRequest;
+
+	private EventRequest fUnloadRequest;
+
+	/**
+	 * Handlers waiting for the end of a batch, or <code>null</code> if no
+	 * batch is in progress
+	 */
+	private List<ClassesHandler> fDeferred;
+
+	LoadedClassIndex(JDIDebugTarget target) {
+		fTarget = target;
+	}
+
+	/**
+	 * Returns the classes with the given qualified name loaded in the target.
+	 *
+	 * @param name
+	 *            qualified type name
+	 * @return the loaded classes, possibly empty
+	 */
+	public synchronized List<ReferenceType> getClasses(String name) {
+		if (fClasses == null && !seed()) {
+			return fTarget.jdiClassesByName(name);
+		}
+		if (fStale.remove(name)) {
+			List<ReferenceType> classes = fTarget.jdiClassesByName(name);
+			if (classes.isEmpty()) {
+				fClasses.remove(name);
+			} else {
+				fClasses.put(name, new ArrayList<>(classes));
+			}
+		}
+		List<ReferenceType> classes = fClasses.get(name);
+		return classes == null ? Collections.<ReferenceType> emptyList() : new ArrayList<>(classes);
+	}
+
+	/**
+	 * Returns the loaded classes whose qualified name starts with the given
+	 * prefix.
+	 *
+	 * @param prefix
+	 *            qualified name prefix
+	 * @return the loaded classes, possibly empty
+	 */
+	public synchronized List<ReferenceType> getClassesWithPrefix(String prefix) {
+		if (fClasses == null && !seed()) {
+			return Collections.emptyList();
+		}
+		refreshStale();
+		List<ReferenceType> classes = new ArrayList<>();
+		for (List<ReferenceType> named : fClasses.subMap(prefix, prefix + Character.MAX_VALUE).values()) {
+			classes.addAll(named);
+		}
+		return classes;
+	}
+
+	/**
+	 * Returns all loaded classes.
+	 *
+	 * @return the loaded classes, possibly empty
+	 */
+	public synchronized List<ReferenceType> getAllClasses() {
+		return getClassesWithPrefix(""); //$NON-NLS-1$
+	}
+
+	/**
+	 * Runs the given handler with this index once it contains all classes
+	 * loaded so far. If a batch is in progress, the handler runs at the end of
+	 * the batch, otherwise the handler runs once the class prepare events
+	 * received so far have been added to the index, or after the index has
+	 * been refreshed if they cannot be waited for.
+	 *
+	 * @param handler
+	 *            the handler to run
+	 * @throws CoreException
+	 *             if the handler fails
+	 */
+	public void runWithClasses(ClassesHandler handler) throws CoreException {
+		synchronized (this) {
+			if (fDeferred != null) {
+				fDeferred.add(handler);
+				return;
+			}
+		}
+		if (!waitForPreparedClasses()) {
+			refresh();
+		}
+		handler.handleClasses(this);
+	}
+
+	/**
+	 * Waits until the class prepare events received from the VM so far have
+	 * been added to the index. Seeds the index if it has not been seeded.
+	 *
+	 * @return whether the index contains the classes prepared so far
+	 */
+	private boolean waitForPreparedClasses() {
+		synchronized (this) {
+			if (fClasses == null) {
+				// seeded from the loaded classes
+				return seed();
+			}
+		}
+		VirtualMachine vm = fTarget.getVM();
+		EventDispatcher dispatcher = fTarget.getEventDispatcher();
+		if (!(vm instanceof VirtualMachineImpl) || dispatcher == null) {
+			return false;
+		}
+		long received = ((VirtualMachineImpl) vm).packetReceiveManager().commandPacketCount();
+		return dispatcher.waitForDispatch(received, fTarget.getRequestTimeout());
+	}
+
+	/**
+	 * Starts a batch, handlers run until the batch ends share a single refresh
+	 * of the index.
+	 */
+	synchronized void beginBatch() {
+		if (fDeferred == null) {
+			fDeferred = new ArrayList<>();
+		}
+	}
+
+	/**
+	 * Ends a batch, refreshes the index and runs the deferred handlers.
+	 */
+	void endBatch() {
+		List<ClassesHandler> handlers;
+		synchronized (this) {
+			handlers = fDeferred;
+			fDeferred = null;
+			if (handlers == null || handlers.isEmpty()) {
+				return;
+			}
+			try {
+				refresh();
+			} catch (VMDisconnectedException e) {
+				return;
+			} catch (RuntimeException e) {
+				fTarget.logError(e);
+				return;
+			}
+		}
+		for (ClassesHandler handler : handlers) {
+			// reported like the failure of a breakpoint added to the target
+			try {
+				handler.handleClasses(this);
+			} catch (CoreException e) {
+				fTarget.logError(e);
+			} catch (RuntimeException e) {
+				fTarget.logError(e);
+			}
+		}
+	}
+
+	/**
+	 * Reads all classes loaded in the target again. Classes prepared before
+	 * this method is called are in the index afterwards.
+	 *
+	 * @throws VMDisconnectedException
+	 *             if the target is disconnected
+	 * @throws RuntimeException
+	 *             if the classes cannot be read
+	 */
+	public synchronized void refresh() {
+		VirtualMachine vm = fTarget.getVM();
+		if (vm == null) {
+			throw new VMDisconnectedException();
+		}
+		if (fPrepareRequest == null) {
+			request();
+		}
+		fClasses = index(vm.allClasses());
+		fStale.clear();
+	}
+
+	/**
+	 * Requests class prepare and unload events and seeds the index with all
+	 * loaded classes.
+	 *
+	 * @return whether the index has been seeded
+	 */
+	private boolean seed() {
+		VirtualMachine vm = fTarget.getVM();
+		if (vm == null || fTarget.getEventRequestManager() == null) {
+			return false;
+		}
+		try {
+			// request events first, classes prepared while seeding are added
+			// once the index is seeded
+			if (fPrepareRequest == null) {
+				request();
+			}
+			fClasses = index(vm.allClasses());
+			return true;
+		} catch (VMDisconnectedException e) {
+			dispose();
+		} catch (RuntimeException e) {
+			fTarget.logError(e);
+			dispose();
+		}
+		return false;
+	}
+
+	private void request() {
+		EventRequestManager manager = fTarget.getEventRequestManager();
+		if (manager == null) {
+			throw new VMDisconnectedException();
+		}
+		fPrepareRequest = manager.createClassPrepareRequest();
+		fPrepareRequest.setSuspendPolicy(EventRequest.SUSPEND_NONE);
+		fPrepareRequest.enable();
+		fTarget.addJDIEventListener(this, fPrepareRequest);
+		fUnloadRequest = manager.createClassUnloadRequest();
+		fUnloadRequest.setSuspendPolicy(EventRequest.SUSPEND_NONE);
+		fUnloadRequest.enable();
+		fTarget.addJDIEventListener(this, fUnloadRequest);
+	}
+
+	private static TreeMap<String, List<ReferenceType>> index(List<ReferenceType> types) {
+		TreeMap<String, List<ReferenceType>> classes = new TreeMap<>();
+		for (ReferenceType type : types) {
+			classes.computeIfAbsent(type.name(), n -> new ArrayList<>(1)).add(type);
+		}
+		return classes;
+	}
+
+	/**
+	 * Looks up the classes of unloaded names again.
+	 */
+	private void refreshStale() {
+		if (fStale.isEmpty()) {
+			return;
+		}
+		for (String name : fStale) {
+			List<ReferenceType> classes = fTarget.jdiClassesByName(name);
+			if (!classes.isEmpty()) {
+				fClasses.put(name, new ArrayList<>(classes));
+			}
+		}
+		fStale.clear();
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see org.eclipse.jdt.internal.debug.core.IJDIEventListener#handleEvent(com.sun.jdi.event.Event, org.eclipse.jdt.internal.debug.core.model.JDIDebugTarget, boolean, com.sun.jdi.event.EventSet)
+	 */
+	@Override
+	public synchronized boolean handleEvent(Event event, JDIDebugTarget target, boolean suspendVote, EventSet eventSet) {
+		if (fClasses == null) {
+			return true;
+		}
+		if (event instanceof ClassPrepareEvent) {
+			ReferenceType type = ((ClassPrepareEvent) event).referenceType();
+			List<ReferenceType> classes = fClasses.computeIfAbsent(type.name(), n -> new ArrayList<>(1));
+			if (!classes.contains(type)) {
+				classes.add(type);
+			}
+		} else if (event instanceof ClassUnloadEvent) {
+			String name = ((ClassUnloadEvent) event).className();
+			fClasses.remove(name);
+			fStale.add(name);
+		}
+		return true;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see org.eclipse.jdt.internal.debug.core.IJDIEventListener#eventSetComplete(com.sun.jdi.event.Event, org.eclipse.jdt.internal.debug.core.model.JDIDebugTarget, boolean, com.sun.jdi.event.EventSet)
+	 */
+	@Override
+	public void eventSetComplete(Event event, JDIDebugTarget target, boolean suspend, EventSet eventSet) {
+		// do nothing
+	}
+
+	/**
+	 * Discards the index and deletes its event requests.
+	 */
+	synchronized void dispose() {
+		fClasses = null;
+		fStale.clear();
+		if (fPrepareRequest != null) {
+			fTarget.removeJDIEventListener(this, fPrepareRequest);
+			deleteRequest(fPrepareRequest);
+			fPrepareRequest = null;
+		}
+		if (fUnloadRequest != null) {
+			fTarget.removeJDIEventListener(this, fUnloadRequest);
+			deleteRequest(fUnloadRequest);
+			fUnloadRequest = null;
+		}
+	}
+
+	private void deleteRequest(EventRequest request) {
+		EventRequestManager manager = fTarget.getEventRequestManager();
+		if (manager != null) {
+			try {
+				manager.deleteEventRequest(request);
+			} catch (VMDisconnectedException e) {
+				// the requests are gone with the VM
+			} catch (RuntimeException e) {
+				fTarget.logError(e);
+			}
+		}
+	}
+}
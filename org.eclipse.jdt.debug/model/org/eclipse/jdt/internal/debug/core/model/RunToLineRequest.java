@@ -0,0 +1,343 @@
+/*******************************************************************************
+ * Copyright (c) 2022 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.internal.debug.core.model;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.eclipse.core.runtime.Platform;
+import org.eclipse.debug.core.DebugEvent;
+import org.eclipse.debug.core.DebugException;
+import org.eclipse.debug.core.DebugPlugin;
+import org.eclipse.debug.core.IBreakpointManager;
+import org.eclipse.debug.core.IBreakpointManagerListener;
+import org.eclipse.debug.core.IDebugEventSetListener;
+import org.eclipse.debug.core.model.IDebugTarget;
+import org.eclipse.debug.core.model.ISuspendResume;
+import org.eclipse.debug.core.model.IThread;
+import org.eclipse.jdt.debug.core.IJavaBreakpoint;
+import org.eclipse.jdt.internal.debug.core.IJDIEventListener;
+import org.eclipse.jdt.internal.debug.core.JDIDebugPlugin;
+
+import com.sun.jdi.AbsentInformationException;
+import com.sun.jdi.Location;
+import com.sun.jdi.ReferenceType;
+import com.sun.jdi.VMDisconnectedException;
+import com.sun.jdi.event.BreakpointEvent;
+import com.sun.jdi.event.ClassPrepareEvent;
+import com.sun.jdi.event.Event;
+import com.sun.jdi.event.EventSet;
+import com.sun.jdi.request.BreakpointRequest;
+import com.sun.jdi.request.ClassPrepareRequest;
+import com.sun.jdi.request.EventRequest;
+import com.sun.jdi.request.EventRequestManager;
+
+/**
+ * Runs a thread or debug target to a line of a type, and all of its nested
+ * types.
+ * <p>
+ * Unlike a run to line breakpoint, the request creates no marker and is not
+ * known to the breakpoint manager. It installs breakpoint requests at the
+ * locations of the line in the loaded classes of the type, and in classes of
+ * the type prepared later on. The request is done when a thread of the target
+ * suspends at one of the locations, or at a breakpoint, or when the target
+ * terminates. Threads that ignore breakpoints, e.g. while evaluating, do not
+ * suspend at the locations.
+ * </p>
+ *
+ * @since 3.20
+ */
+public class RunToLineRequest implements IJDIEventListener, IDebugEventSetListener, IBreakpointManagerListener {
+
+	private final JDIDebugTarget fTarget;
+
+	private final String fTypeName;
+
+	private final int fLineNumber;
+
+	private final int fSuspendPolicy;
+
+	/**
+	 * Breakpoint and class prepare requests of this request
+	 */
+	private final List<EventRequest> fRequests = new ArrayList<>();
+
+	/**
+	 * Classes the breakpoint requests have been created in
+	 */
+	private final Set<ReferenceType> fInstalled = new HashSet<>();
+
+	/**
+	 * Whether the breakpoint manager has been disabled by this request
+	 */
+	private boolean fSkipBreakpoints;
+
+	private boolean fDone;
+
+	/**
+	 * Constructs a request to run to the given line of the given type.
+	 *
+	 * @param target
+	 *            the debug target
+	 * @param typeName
+	 *            qualified name of the type
+	 * @param lineNumber
+	 *            the line number, in the Java stratum
+	 */
+	public RunToLineRequest(JDIDebugTarget target, String typeName, int lineNumber) {
+		fTarget = target;
+		fTypeName = typeName;
+		fLineNumber = lineNumber;
+		fSuspendPolicy = Platform.getPreferencesService().getInt(JDIDebugPlugin.getUniqueIdentifier(), JDIDebugPlugin.PREF_DEFAULT_BREAKPOINT_SUSPEND_POLICY, IJavaBreakpoint.SUSPEND_THREAD, null);
+	}
+
+	/**
+	 * Returns the locations of the given line in the classes of the given type
+	 * and its nested types that are loaded in the target. The line tables of
+	 * loaded classes are read once by the VM mirror, so a line with locations
+	 * is known to be valid without parsing the source.
+	 *
+	 * @param target
+	 *            the debug target
+	 * @param typeName
+	 *            qualified name of the type
+	 * @param lineNumber
+	 *            the line number, in the Java stratum
+	 * @return the locations of the line, possibly empty
+	 */
+	public static List<Location> findLocations(JDIDebugTarget target, String typeName, int lineNumber) {
+		List<Location> locations = new ArrayList<>();
+		for (ReferenceType type : getLoadedClasses(target, typeName)) {
+			locations.addAll(locationsOfLine(type, lineNumber));
+		}
+		return locations;
+	}
+
+	private static List<ReferenceType> getLoadedClasses(JDIDebugTarget target, String typeName) {
+		LoadedClassIndex index = target.getLoadedClassIndex();
+		List<ReferenceType> classes = index.getClasses(typeName);
+		classes.addAll(index.getClassesWithPrefix(typeName + '$'));
+		return classes;
+	}
+
+	private static List<Location> locationsOfLine(ReferenceType type, int lineNumber) {
+		try {
+			return type.locationsOfLine(lineNumber);
+		} catch (AbsentInformationException e) {
+			return new ArrayList<>(0);
+		} catch (RuntimeException e) {
+			// the class is not prepared or has been unloaded, or the target
+			// is disconnected
+			return new ArrayList<>(0);
+		}
+	}
+
+	/**
+	 * Installs this request and resumes the given thread or target.
+	 *
+	 * @param resumee
+	 *            the thread or target to resume
+	 * @param skipBreakpoints
+	 *            whether all breakpoints are skipped until this request is done
+	 * @throws DebugException
+	 *             if this request cannot be installed, or the thread or target
+	 *             cannot be resumed
+	 */
+	public void run(ISuspendResume resumee, boolean skipBreakpoints) throws DebugException {
+		EventRequestManager manager = fTarget.getEventRequestManager();
+		if (manager == null) {
+			fTarget.requestFailed(JDIDebugModelMessages.RunToLineRequest_0, null);
+		}
+		DebugPlugin.getDefault().addDebugEventListener(this);
+		IBreakpointManager breakpointManager = DebugPlugin.getDefault().getBreakpointManager();
+		synchronized (this) {
+			fSkipBreakpoints = skipBreakpoints && breakpointManager.isEnabled();
+		}
+		if (fSkipBreakpoints) {
+			breakpointManager.setEnabled(false);
+			breakpointManager.addBreakpointManagerListener(this);
+		}
+		try {
+			synchronized (this) {
+				// classes prepared from now on are handled by the prepare
+				// requests, loaded classes are looked up afterwards
+				createClassPrepareRequest(manager, fTypeName);
+				createClassPrepareRequest(manager, fTypeName + "$*"); //$NON-NLS-1$
+				for (ReferenceType type : getLoadedClasses(fTarget, fTypeName)) {
+					install(manager, type);
+				}
+			}
+			resumee.resume();
+		} catch (VMDisconnectedException e) {
+			cancel();
+		} catch (RuntimeException e) {
+			cancel();
+			fTarget.targetRequestFailed(JDIDebugModelMessages.RunToLineRequest_0, e);
+		} catch (DebugException e) {
+			cancel();
+			throw e;
+		}
+	}
+
+	private void createClassPrepareRequest(EventRequestManager manager, String classFilter) {
+		ClassPrepareRequest request = manager.createClassPrepareRequest();
+		request.addClassFilter(classFilter);
+		request.setSuspendPolicy(EventRequest.SUSPEND_EVENT_THREAD);
+		addRequest(request);
+	}
+
+	private void install(EventRequestManager manager, ReferenceType type) {
+		if (!fInstalled.add(type)) {
+			return;
+		}
+		for (Location location : locationsOfLine(type, fLineNumber)) {
+			BreakpointRequest request = manager.createBreakpointRequest(location);
+			request.setSuspendPolicy(fSuspendPolicy == IJavaBreakpoint.SUSPEND_VM ? EventRequest.SUSPEND_ALL : EventRequest.SUSPEND_EVENT_THREAD);
+			addRequest(request);
+		}
+	}
+
+	private void addRequest(EventRequest request) {
+		fRequests.add(request);
+		fTarget.addJDIEventListener(this, request);
+		request.enable();
+	}
+
+	/**
+	 * Returns whether this request is done, i.e. it has been hit or cancelled.
+	 *
+	 * @return whether this request is done
+	 */
+	public synchronized boolean isDone() {
+		return fDone;
+	}
+
+	/**
+	 * Deletes the requests of this request and restores the breakpoint manager.
+	 * Has no effect if this request is done.
+	 */
+	public void cancel() {
+		boolean enable;
+		synchronized (this) {
+			if (fDone) {
+				return;
+			}
+			fDone = true;
+			EventRequestManager manager = fTarget.getEventRequestManager();
+			for (EventRequest request : fRequests) {
+				fTarget.removeJDIEventListener(this, request);
+				if (manager != null) {
+					try {
+						manager.deleteEventRequest(request);
+					} catch (VMDisconnectedException e) {
+						// the requests are gone with the VM
+					} catch (RuntimeException e) {
+						fTarget.logError(e);
+					}
+				}
+			}
+			fRequests.clear();
+			fInstalled.clear();
+			enable = fSkipBreakpoints;
+			fSkipBreakpoints = false;
+		}
+		DebugPlugin plugin = DebugPlugin.getDefault();
+		if (plugin != null) {
+			plugin.removeDebugEventListener(this);
+			if (enable) {
+				IBreakpointManager breakpointManager = plugin.getBreakpointManager();
+				breakpointManager.removeBreakpointManagerListener(this);
+				breakpointManager.setEnabled(true);
+			}
+		}
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see org.eclipse.jdt.internal.debug.core.IJDIEventListener#handleEvent(com.sun.jdi.event.Event, org.eclipse.jdt.internal.debug.core.model.JDIDebugTarget, boolean, com.sun.jdi.event.EventSet)
+	 */
+	@Override
+	public boolean handleEvent(Event event, JDIDebugTarget target, boolean suspendVote, EventSet eventSet) {
+		if (event instanceof ClassPrepareEvent) {
+			synchronized (this) {
+				EventRequestManager manager = target.getEventRequestManager();
+				if (!fDone && manager != null) {
+					try {
+						install(manager, ((ClassPrepareEvent) event).referenceType());
+					} catch (VMDisconnectedException e) {
+						// the target is terminating
+					} catch (RuntimeException e) {
+						target.logError(e);
+					}
+				}
+			}
+			return true;
+		}
+		if (event instanceof BreakpointEvent) {
+			JDIThread thread = target.findThread(((BreakpointEvent) event).thread());
+			if (thread == null || thread.isIgnoringBreakpoints() || isDone()) {
+				return true;
+			}
+			cancel();
+			thread.suspendedByRunToLine(fSuspendPolicy == IJavaBreakpoint.SUSPEND_VM, eventSet);
+			return false;
+		}
+		return true;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see org.eclipse.jdt.internal.debug.core.IJDIEventListener#eventSetComplete(com.sun.jdi.event.Event, org.eclipse.jdt.internal.debug.core.model.JDIDebugTarget, boolean, com.sun.jdi.event.EventSet)
+	 */
+	@Override
+	public void eventSetComplete(Event event, JDIDebugTarget target, boolean suspend, EventSet eventSet) {
+		// do nothing
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see org.eclipse.debug.core.IDebugEventSetListener#handleDebugEvents(org.eclipse.debug.core.DebugEvent[])
+	 */
+	@Override
+	public void handleDebugEvents(DebugEvent[] events) {
+		for (DebugEvent event : events) {
+			Object source = event.getSource();
+			if (source instanceof IThread && event.getKind() == DebugEvent.SUSPEND && event.getDetail() == DebugEvent.BREAKPOINT) {
+				// done when the target suspends at a breakpoint, whether hit or not
+				if (fTarget.equals(((IThread) source).getDebugTarget())) {
+					cancel();
+				}
+			} else if (source instanceof IDebugTarget && event.getKind() == DebugEvent.TERMINATE) {
+				if (fTarget.equals(source)) {
+					cancel();
+				}
+			}
+		}
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see org.eclipse.debug.core.IBreakpointManagerListener#breakpointManagerEnablementChanged(boolean)
+	 */
+	@Override
+	public void breakpointManagerEnablementChanged(boolean enabled) {
+		cancel();
+	}
+}
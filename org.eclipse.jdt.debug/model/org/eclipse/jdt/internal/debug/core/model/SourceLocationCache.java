@@ -0,0 +1,199 @@
+/*******************************************************************************
+ * Copyright (c) 2022 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.internal.debug.core.model;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+import com.sun.jdi.AbsentInformationException;
+import com.sun.jdi.Location;
+import com.sun.jdi.NativeMethodException;
+
+/**
+ * Cache of the source name, source path and line number of locations in a
+ * debug target, by stratum.
+ * <p>
+ * Stack frames of many threads are often at the same locations, e.g. waiting
+ * in the same method, and each label update and source lookup of a frame asks
+ * for the source of its location again. Each value is computed from the line
+ * tables of the VM when first asked for, and kept for the most recently used
+ * locations. Source information that is not available is cached as
+ * <code>null</code>, respectively <code>-1</code>.
+ * </p>
+ * <p>
+ * The cache must be cleared when classes are redefined, as the line tables
+ * of their methods change.
+ * </p>
+ *
+ * @since 3.20
+ */
+public class SourceLocationCache {
+
+	/**
+	 * Number of locations whose source information is kept
+	 */
+	static final int MAX_ENTRIES = 4096;
+
+	private static final int SOURCE_NAME = 1;
+
+	private static final int SOURCE_PATH = 2;
+
+	private static final int LINE_NUMBER = 4;
+
+	private static final class Key {
+
+		private final Location fLocation;
+
+		private final String fStratum;
+
+		Key(Location location, String stratum) {
+			fLocation = location;
+			fStratum = stratum;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (obj instanceof Key) {
+				Key other = (Key) obj;
+				return fLocation.equals(other.fLocation) && Objects.equals(fStratum, other.fStratum);
+			}
+			return false;
+		}
+
+		@Override
+		public int hashCode() {
+			return fLocation.hashCode() * 31 + Objects.hashCode(fStratum);
+		}
+	}
+
+	private static final class Entry {
+
+		/**
+		 * Bits of the values that have been computed
+		 */
+		int fComputed;
+
+		String fSourceName;
+
+		String fSourcePath;
+
+		int fLineNumber;
+	}
+
+	private final Map<Key, Entry> fEntries = new LinkedHashMap<Key, Entry>(64, 0.75f, true) {
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<Key, Entry> eldest) {
+			return size() > MAX_ENTRIES;
+		}
+	};
+
+	/**
+	 * Returns the name of the source file of the given location in the given
+	 * stratum.
+	 *
+	 * @param location
+	 *            the location
+	 * @param stratum
+	 *            the stratum, or <code>null</code> for the default stratum of
+	 *            the declaring type
+	 * @return the source name, or <code>null</code> if not available
+	 * @throws RuntimeException
+	 *             if the source name cannot be retrieved from the VM
+	 * @see Location#sourceName(String)
+	 */
+	public String getSourceName(Location location, String stratum) {
+		Entry entry = getEntry(location, stratum);
+		synchronized (entry) {
+			if ((entry.fComputed & SOURCE_NAME) == 0) {
+				try {
+					entry.fSourceName = location.sourceName(stratum);
+				} catch (AbsentInformationException e) {
+					entry.fSourceName = null;
+				} catch (NativeMethodException e) {
+					entry.fSourceName = null;
+				}
+				entry.fComputed |= SOURCE_NAME;
+			}
+			return entry.fSourceName;
+		}
+	}
+
+	/**
+	 * Returns the path of the source file of the given location in the given
+	 * stratum.
+	 *
+	 * @param location
+	 *            the location
+	 * @param stratum
+	 *            the stratum, or <code>null</code> for the default stratum of
+	 *            the declaring type
+	 * @return the source path, or <code>null</code> if not available
+	 * @throws RuntimeException
+	 *             if the source path cannot be retrieved from the VM
+	 * @see Location#sourcePath(String)
+	 */
+	public String getSourcePath(Location location, String stratum) {
+		Entry entry = getEntry(location, stratum);
+		synchronized (entry) {
+			if ((entry.fComputed & SOURCE_PATH) == 0) {
+				try {
+					entry.fSourcePath = location.sourcePath(stratum);
+				} catch (AbsentInformationException e) {
+					entry.fSourcePath = null;
+				}
+				entry.fComputed |= SOURCE_PATH;
+			}
+			return entry.fSourcePath;
+		}
+	}
+
+	/**
+	 * Returns the line number of the given location in the given stratum.
+	 *
+	 * @param location
+	 *            the location
+	 * @param stratum
+	 *            the stratum, or <code>null</code> for the default stratum of
+	 *            the declaring type
+	 * @return the line number, or <code>-1</code> if not available
+	 * @throws RuntimeException
+	 *             if the line number cannot be retrieved from the VM
+	 * @see Location#lineNumber(String)
+	 */
+	public int getLineNumber(Location location, String stratum) {
+		Entry entry = getEntry(location, stratum);
+		synchronized (entry) {
+			if ((entry.fComputed & LINE_NUMBER) == 0) {
+				entry.fLineNumber = location.lineNumber(stratum);
+				entry.fComputed |= LINE_NUMBER;
+			}
+			return entry.fLineNumber;
+		}
+	}
+
+	/**
+	 * Removes the source information of all locations, e.g. after classes
+	 * have been redefined.
+	 */
+	public synchronized void clear() {
+		fEntries.clear();
+	}
+
+	private synchronized Entry getEntry(Location location, String stratum) {
+		return fEntries.computeIfAbsent(new Key(location, stratum), k -> new Entry());
+	}
+}
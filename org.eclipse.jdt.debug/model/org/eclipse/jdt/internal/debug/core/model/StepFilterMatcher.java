@@ -0,0 +1,255 @@
+/*******************************************************************************
+ * Copyright (c) 2022 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.internal.debug.core.model;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.regex.Pattern;
+
+import com.sun.jdi.Method;
+
+/**
+ * The step filters of a debug target, compiled for fast matching.
+ * <p>
+ * Step filters are type names or patterns with <code>*</code> wildcards. Names
+ * and patterns with a single leading or trailing wildcard can be expressed as
+ * class exclusion filters of step requests, and are matched by the VM. Other
+ * patterns are matched by the step handler. Type names are matched against
+ * exact names in a set and against prefix patterns in a trie, so a name is
+ * visited once however many filters there are.
+ * </p>
+ * <p>
+ * The properties of methods that are relevant to step filtering are computed
+ * once per method, when first needed, and cached with the matcher.
+ * </p>
+ *
+ * @since 3.19.200
+ */
+public class StepFilterMatcher {
+
+	/**
+	 * Method is a static initializer
+	 */
+	public static final int STATIC_INITIALIZER = 0x01;
+
+	/**
+	 * Method is synthetic
+	 */
+	public static final int SYNTHETIC = 0x02;
+
+	/**
+	 * Method is a constructor
+	 */
+	public static final int CONSTRUCTOR = 0x04;
+
+	/**
+	 * Method is a simple getter
+	 */
+	public static final int GETTER = 0x08;
+
+	/**
+	 * Method is a simple setter
+	 */
+	public static final int SETTER = 0x10;
+
+	/**
+	 * Declaring type of the method matches a step filter
+	 */
+	public static final int FILTERED_TYPE = 0x20;
+
+	/**
+	 * A node of the trie of prefix patterns
+	 */
+	private static class Node {
+
+		Map<Character, Node> fChildren;
+
+		/**
+		 * Whether a prefix pattern ends at this node
+		 */
+		boolean fTerminal;
+	}
+
+	private final String[] fExclusionFilters;
+
+	private final Set<String> fNames = new HashSet<>();
+
+	private final Node fPrefixes = new Node();
+
+	private final String[] fSuffixes;
+
+	private final Pattern[] fPatterns;
+
+	/**
+	 * Computed and matching properties by method, the computed properties in
+	 * the upper bits
+	 */
+	private final Map<Method, Integer> fMethods = Collections.synchronizedMap(new WeakHashMap<>());
+
+	/**
+	 * Compiles the given step filters.
+	 *
+	 * @param filters
+	 *            step filters, may be <code>null</code>
+	 */
+	public StepFilterMatcher(String[] filters) {
+		List<String> exclusions = new ArrayList<>();
+		List<String> suffixes = new ArrayList<>();
+		List<Pattern> patterns = new ArrayList<>();
+		if (filters != null) {
+			for (String filter : filters) {
+				int wildcard = filter.indexOf('*');
+				if (wildcard < 0) {
+					fNames.add(filter);
+					exclusions.add(filter);
+				} else if (wildcard == filter.length() - 1) {
+					addPrefix(filter.substring(0, wildcard));
+					exclusions.add(filter);
+				} else if (wildcard == 0 && filter.indexOf('*', 1) < 0) {
+					suffixes.add(filter.substring(1));
+					exclusions.add(filter);
+				} else {
+					patterns.add(compile(filter));
+				}
+			}
+		}
+		fExclusionFilters = exclusions.toArray(new String[exclusions.size()]);
+		fSuffixes = suffixes.toArray(new String[suffixes.size()]);
+		fPatterns = patterns.toArray(new Pattern[patterns.size()]);
+	}
+
+	private void addPrefix(String prefix) {
+		Node node = fPrefixes;
+		for (int i = 0; i < prefix.length() && !node.fTerminal; i++) {
+			if (node.fChildren == null) {
+				node.fChildren = new HashMap<>(4);
+			}
+			node = node.fChildren.computeIfAbsent(Character.valueOf(prefix.charAt(i)), c -> new Node());
+		}
+		// a shorter prefix already matches all names with this prefix
+		node.fTerminal = true;
+	}
+
+	private static Pattern compile(String filter) {
+		StringBuilder regex = new StringBuilder();
+		int start = 0;
+		int wildcard;
+		while ((wildcard = filter.indexOf('*', start)) >= 0) {
+			if (wildcard > start) {
+				regex.append(Pattern.quote(filter.substring(start, wildcard)));
+			}
+			regex.append(".*"); //$NON-NLS-1$
+			start = wildcard + 1;
+		}
+		if (start < filter.length()) {
+			regex.append(Pattern.quote(filter.substring(start)));
+		}
+		return Pattern.compile(regex.toString());
+	}
+
+	/**
+	 * Returns the step filters that can be added to step requests as class
+	 * exclusion filters.
+	 *
+	 * @return class exclusion filters
+	 */
+	public String[] getExclusionFilters() {
+		return fExclusionFilters;
+	}
+
+	/**
+	 * Returns whether the given type name matches any of the step filters.
+	 *
+	 * @param typeName
+	 *            fully qualified type name
+	 * @return whether the type is filtered
+	 */
+	public boolean matches(String typeName) {
+		if (fNames.contains(typeName)) {
+			return true;
+		}
+		Node node = fPrefixes;
+		for (int i = 0; !node.fTerminal; i++) {
+			if (node.fChildren == null || i == typeName.length()) {
+				node = null;
+				break;
+			}
+			node = node.fChildren.get(Character.valueOf(typeName.charAt(i)));
+			if (node == null) {
+				break;
+			}
+		}
+		if (node != null) {
+			return true;
+		}
+		for (String suffix : fSuffixes) {
+			if (typeName.endsWith(suffix)) {
+				return true;
+			}
+		}
+		for (Pattern pattern : fPatterns) {
+			if (pattern.matcher(typeName).matches()) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Returns whether the given method has the given property.
+	 *
+	 * @param method
+	 *            a method
+	 * @param property
+	 *            one of the method property constants of this class
+	 * @return whether the method has the property
+	 */
+	public boolean is(Method method, int property) {
+		Integer cached = fMethods.get(method);
+		int properties = cached == null ? 0 : cached.intValue();
+		if ((properties & (property << 8)) == 0) {
+			if (computeProperty(method, property)) {
+				properties |= property;
+			}
+			properties |= property << 8;
+			fMethods.put(method, Integer.valueOf(properties));
+		}
+		return (properties & property) != 0;
+	}
+
+	private boolean computeProperty(Method method, int property) {
+		switch (property) {
+			case STATIC_INITIALIZER:
+				return method.isStaticInitializer();
+			case SYNTHETIC:
+				return method.isSynthetic();
+			case CONSTRUCTOR:
+				return method.isConstructor();
+			case GETTER:
+				return JDIMethod.isGetterMethod(method);
+			case SETTER:
+				return JDIMethod.isSetterMethod(method);
+			case FILTERED_TYPE:
+				return matches(method.declaringType().name());
+			default:
+				return false;
+		}
+	}
+}
@@ -0,0 +1,246 @@
+/*******************************************************************************
+ * Copyright (c) 2022 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.internal.debug.core.model;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.eclipse.debug.core.DebugEvent;
+import org.eclipse.debug.core.DebugException;
+import org.eclipse.debug.core.DebugPlugin;
+import org.eclipse.debug.core.model.IExpression;
+import org.eclipse.debug.core.model.IWatchExpression;
+import org.eclipse.jdt.debug.core.IJavaStackFrame;
+import org.eclipse.jdt.debug.core.IJavaThread;
+import org.eclipse.jdt.debug.eval.IAstEvaluationEngine;
+import org.eclipse.jdt.debug.eval.ICompiledExpression;
+import org.eclipse.jdt.debug.eval.IEvaluationListener;
+import org.eclipse.jdt.debug.eval.IEvaluationResult;
+import org.eclipse.jdt.internal.debug.eval.EvaluationResult;
+import org.eclipse.jdt.internal.debug.eval.ast.engine.ASTEvaluationEngine;
+
+/**
+ * Evaluates the watch expressions of a debug target in batches.
+ * <p>
+ * When the first watch expression is evaluated in a stack frame, all enabled
+ * watch expressions are compiled for the frame in one pass and queued for
+ * evaluation, so the frame's context is only computed once. Results are cached
+ * per stack frame until the target suspends again for a reason other than an
+ * implicit evaluation, or a variable is modified. Evaluating the same watch
+ * expressions again, e.g. when switching between stack frames, does not run
+ * them again.
+ * </p>
+ * <p>
+ * Watch expressions are evaluated when their stack frame is selected, and when
+ * they are re-evaluated, enabled or edited explicitly. The two cannot be told
+ * apart by their requests, except that a watch expression is only evaluated
+ * again in the stack frame it was last evaluated in when this is asked for
+ * explicitly. Such a request discards the cached result of the expression.
+ * </p>
+ *
+ * @since 3.19.200
+ */
+public class WatchExpressionEvaluator {
+
+	private final JDIDebugTarget fTarget;
+
+	/**
+	 * Suspend count of the target the cached results are valid for
+	 */
+	private int fSuspendCount = -1;
+
+	/**
+	 * Compiled expressions and results by stack frame
+	 */
+	private final Map<IJavaStackFrame, FrameResults> fResults = new HashMap<>();
+
+	/**
+	 * Stack frame each watch expression has last been evaluated in, since the
+	 * suspend count changed
+	 */
+	private final Map<String, IJavaStackFrame> fLastFrames = new HashMap<>();
+
+	/**
+	 * Compiled expressions and results of watch expressions in a stack frame
+	 */
+	private static class FrameResults {
+
+		final IAstEvaluationEngine fEngine;
+
+		final Map<String, ICompiledExpression> fCompiled = new HashMap<>();
+
+		final Map<String, IEvaluationResult> fResults = new HashMap<>();
+
+		/**
+		 * Listeners waiting for the results of evaluations in progress
+		 */
+		final Map<String, List<IEvaluationListener>> fPending = new HashMap<>();
+
+		FrameResults(IAstEvaluationEngine engine) {
+			fEngine = engine;
+		}
+	}
+
+	WatchExpressionEvaluator(JDIDebugTarget target) {
+		fTarget = target;
+	}
+
+	/**
+	 * Evaluates the given watch expression in the given stack frame, and
+	 * notifies the listener when done. The result may be a result cached
+	 * since the target last suspended, unless the expression has last been
+	 * evaluated in the same stack frame, i.e. it is re-evaluated explicitly.
+	 *
+	 * @param expression
+	 *            the text of the watch expression
+	 * @param frame
+	 *            the stack frame to evaluate in
+	 * @param engine
+	 *            the evaluation engine for the frame
+	 * @param listener
+	 *            the listener to notify of the result
+	 * @throws DebugException
+	 *             if the evaluation cannot be started
+	 */
+	public void evaluate(String expression, IJavaStackFrame frame, IAstEvaluationEngine engine, IEvaluationListener listener) throws DebugException {
+		IEvaluationResult result;
+		List<String> toEvaluate;
+		final FrameResults results;
+		synchronized (this) {
+			int suspendCount = fTarget.getSuspendCount();
+			if (suspendCount != fSuspendCount) {
+				fResults.clear();
+				fLastFrames.clear();
+				fSuspendCount = suspendCount;
+			}
+			boolean reevaluate = frame.equals(fLastFrames.put(expression, frame));
+			FrameResults current = fResults.get(frame);
+			if (current == null || current.fEngine != engine) {
+				current = new FrameResults(engine);
+				fResults.put(frame, current);
+			}
+			results = current;
+			if (reevaluate) {
+				results.fResults.remove(expression);
+			}
+			result = results.fResults.get(expression);
+			if (result == null) {
+				List<IEvaluationListener> waiting = results.fPending.get(expression);
+				if (waiting != null) {
+					// the expression is evaluated as part of the current batch
+					waiting.add(listener);
+					return;
+				}
+			}
+		}
+		if (result != null) {
+			listener.evaluationComplete(result);
+			return;
+		}
+		// compile all enabled watch expressions that have not been compiled
+		// for the frame, starting with the requested expression
+		Set<String> snippets = new LinkedHashSet<>();
+		snippets.add(expression);
+		for (IExpression exp : DebugPlugin.getDefault().getExpressionManager().getExpressions()) {
+			if (exp instanceof IWatchExpression && ((IWatchExpression) exp).isEnabled()) {
+				snippets.add(((IWatchExpression) exp).getExpressionText());
+			}
+		}
+		synchronized (this) {
+			snippets.removeAll(results.fCompiled.keySet());
+		}
+		ICompiledExpression[] compiled = compile(snippets.toArray(new String[snippets.size()]), frame, engine);
+		synchronized (this) {
+			int i = 0;
+			for (String snippet : snippets) {
+				results.fCompiled.put(snippet, compiled[i++]);
+			}
+			toEvaluate = new ArrayList<>();
+			for (String snippet : results.fCompiled.keySet()) {
+				if (!results.fResults.containsKey(snippet) && !results.fPending.containsKey(snippet)) {
+					results.fPending.put(snippet, new ArrayList<>(1));
+					toEvaluate.add(snippet);
+				}
+			}
+			List<IEvaluationListener> waiting = results.fPending.get(expression);
+			if (waiting == null) {
+				// finished concurrently
+				result = results.fResults.get(expression);
+			} else {
+				waiting.add(listener);
+			}
+		}
+		if (result != null) {
+			listener.evaluationComplete(result);
+		}
+		// evaluate the requested expression first, the others are queued
+		// behind it in the thread's evaluation queue
+		if (toEvaluate.remove(expression)) {
+			toEvaluate.add(0, expression);
+		}
+		for (String snippet : toEvaluate) {
+			ICompiledExpression exp;
+			synchronized (this) {
+				exp = results.fCompiled.get(snippet);
+			}
+			try {
+				engine.evaluateExpression(exp, frame, r -> evaluationComplete(results, snippet, r), DebugEvent.EVALUATION_IMPLICIT, false);
+			} catch (DebugException e) {
+				EvaluationResult failed = new EvaluationResult(engine, snippet, (IJavaThread) frame.getThread());
+				failed.setException(e);
+				evaluationComplete(results, snippet, failed);
+			}
+		}
+	}
+
+	private ICompiledExpression[] compile(String[] snippets, IJavaStackFrame frame, IAstEvaluationEngine engine) throws DebugException {
+		if (engine instanceof ASTEvaluationEngine) {
+			return ((ASTEvaluationEngine) engine).getCompiledExpressions(snippets, frame);
+		}
+		ICompiledExpression[] compiled = new ICompiledExpression[snippets.length];
+		for (int i = 0; i < snippets.length; i++) {
+			compiled[i] = engine.getCompiledExpression(snippets[i], frame);
+		}
+		return compiled;
+	}
+
+	private void evaluationComplete(FrameResults results, String snippet, IEvaluationResult result) {
+		List<IEvaluationListener> listeners;
+		synchronized (this) {
+			listeners = results.fPending.remove(snippet);
+			// results of failed evaluations and of discarded frames are not
+			// cached
+			if (result.getException() == null && fResults.containsValue(results)) {
+				results.fResults.put(snippet, result);
+			}
+		}
+		if (listeners != null) {
+			for (IEvaluationListener listener : listeners) {
+				listener.evaluationComplete(result);
+			}
+		}
+	}
+
+	/**
+	 * Discards all cached results, e.g. because a variable has been modified.
+	 */
+	public synchronized void clear() {
+		fResults.clear();
+		fLastFrames.clear();
+	}
+}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2018, 2019 Cedric Chabanois and others.
+ * Copyright (c) 2018, 2022 Cedric Chabanois and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -16,21 +16,33 @@ package org.eclipse.jdt.internal.launching;
 
 import static org.eclipse.jdt.internal.launching.LaunchingPlugin.LAUNCH_TEMP_FILE_PREFIX;
 
+import java.io.BufferedOutputStream;
+import java.io.BufferedWriter;
 import java.io.File;
-import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.StringWriter;
+import java.io.Writer;
 import java.net.URI;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
 import java.nio.file.Files;
+import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.jar.Attributes;
+import java.util.jar.JarFile;
 import java.util.jar.JarOutputStream;
-import java.util.jar.Manifest;
+import java.util.zip.ZipEntry;
 
 import org.eclipse.core.runtime.Assert;
 import org.eclipse.core.runtime.CoreException;
@@ -53,6 +65,10 @@ import org.eclipse.jdt.launching.IVMInstall2;
  * Depending on the java version, os and launch configuration, the classpath argument will be replaced by an argument file, a classpath-only jar or
  * env variable. The modulepath is replaced by an argument file if necessary.
  *
+ * Argument files and classpath-only jars are named after the hash of their content and are reused by subsequent launches with the same classpath
+ * or modulepath. They are created in the directory of the {@link ClasspathShortenerCache}, or in the process temp files directory if the launching
+ * plug-in is not running.
+ *
  */
 public class ClasspathShortener {
 	private static final String CLASSPATH_ENV_VAR_PREFIX = "CLASSPATH="; //$NON-NLS-1$
@@ -104,7 +120,8 @@ public class ClasspathShortener {
 	}
 
 	/**
-	 * The directory to use to create temp files needed when shortening the classpath. By default, the working directory is used
+	 * The directory to use to create temp files needed when shortening the classpath if they cannot be kept in the directory of the
+	 * {@link ClasspathShortenerCache}. By default, the working directory is used
 	 *
 	 * The java.io.tmpdir should not be used on MacOs (does not work for classpath-only jars)
 	 *
@@ -137,7 +154,8 @@ public class ClasspathShortener {
 	}
 
 	/**
-	 * The files that were created while shortening the path. They can be deleted once the process is terminated
+	 * The files that were created or reused while shortening the path. Files that can be shared with other launches are managed by the
+	 * {@link ClasspathShortenerCache}, all others can be deleted once the process is terminated
 	 *
 	 * @return created files
 	 */
@@ -336,34 +354,54 @@ public class ClasspathShortener {
 
 	private File createClasspathOnlyJar(String classpath) throws CoreException {
 		try {
-			String timeStamp = getLaunchTimeStamp();
-			File jarFile = new File(processTempFilesDir, String.format(LAUNCH_TEMP_FILE_PREFIX
-					+ "%s-classpathOnly-%s.jar", getLaunchConfigurationName(), timeStamp)); //$NON-NLS-1$
-			URI workingDirUri = processTempFilesDir.toURI();
-			StringBuilder manifestClasspath = new StringBuilder();
-			String[] classpathArray = getClasspathAsArray(classpath);
-			for (int i = 0; i < classpathArray.length; i++) {
-				if (i != 0) {
-					manifestClasspath.append(' ');
+			ContentWriter manifest = out -> writeClasspathOnlyManifest(classpath, out);
+			return getOrCreateCachedFile("classpathOnly", "jar", manifest, out -> { //$NON-NLS-1$ //$NON-NLS-2$
+				try (JarOutputStream target = new JarOutputStream(out)) {
+					target.putNextEntry(new ZipEntry(JarFile.MANIFEST_NAME));
+					manifest.write(target);
+					target.closeEntry();
 				}
-				File file = new File(classpathArray[i]);
-				String relativePath = URIUtil.makeRelative(file.toURI(), workingDirUri).toString();
-				manifestClasspath.append(relativePath);
-			}
-			Manifest manifest = new Manifest();
-			manifest.getMainAttributes().put(Attributes.Name.MANIFEST_VERSION, "1.0"); //$NON-NLS-1$
-			manifest.getMainAttributes().put(Attributes.Name.CLASS_PATH, manifestClasspath.toString());
-			try (JarOutputStream target = new JarOutputStream(new FileOutputStream(jarFile), manifest)) {
-				target.hashCode(); // avoid warning that target is unused
-			}
-			return jarFile;
+			});
 		} catch (IOException e) {
 			throw new CoreException(new Status(IStatus.ERROR, LaunchingPlugin.getUniqueIdentifier(), IStatus.ERROR, "Cannot create classpath only jar", e)); // $NON-NLS-1$ //$NON-NLS-1$
 		}
 	}
 
-	private String[] getClasspathAsArray(String classpath) {
-		return classpath.split("" + getPathSeparatorChar()); //$NON-NLS-1$
+	/**
+	 * Writes the manifest of a classpath-only jar. The entries of the classpath are written one by one, relative to the directory of the jar, see
+	 * {@link #getFilesDir()}.
+	 *
+	 * @param classpath
+	 *            the classpath
+	 * @param out
+	 *            the stream to write the manifest to
+	 * @throws IOException
+	 */
+	private void writeClasspathOnlyManifest(String classpath, OutputStream out) throws IOException {
+		URI workingDirUri = getFilesDir().toURI();
+		ManifestWriter manifest = new ManifestWriter(out);
+		manifest.writeAttribute(Attributes.Name.MANIFEST_VERSION, "1.0"); //$NON-NLS-1$
+		manifest.startAttribute(Attributes.Name.CLASS_PATH);
+		char separator = getPathSeparatorChar();
+		boolean first = true;
+		int start = 0;
+		while (start < classpath.length()) {
+			int end = classpath.indexOf(separator, start);
+			if (end == -1) {
+				end = classpath.length();
+			}
+			if (end > start) {
+				if (!first) {
+					manifest.write(" "); //$NON-NLS-1$
+				}
+				File file = new File(classpath.substring(start, end));
+				manifest.write(URIUtil.makeRelative(file.toURI(), workingDirUri).toString());
+				first = false;
+			}
+			start = end + 1;
+		}
+		manifest.endAttribute();
+		manifest.end();
 	}
 
 	protected char getPathSeparatorChar() {
@@ -374,20 +412,9 @@ public class ClasspathShortener {
 		return separator;
 	}
 
-	protected String getLaunchConfigurationName() {
-		return launch.getLaunchConfiguration().getName();
-	}
-
 	private File createClassPathArgumentFile(String classpath) throws CoreException {
 		try {
-			String timeStamp = getLaunchTimeStamp();
-			File classPathFile = new File(processTempFilesDir, String.format(LAUNCH_TEMP_FILE_PREFIX
-					+ "%s-classpath-arg-%s.txt", getLaunchConfigurationName(), timeStamp)); //$NON-NLS-1$
-
-			byte[] bytes = ("-classpath " + quoteWindowsPath(classpath)).getBytes(StandardCharsets.UTF_8); //$NON-NLS-1$
-
-			Files.write(classPathFile.toPath(), bytes);
-			return classPathFile;
+			return createArgumentFile("classpath-arg", "-classpath ", classpath); //$NON-NLS-1$ //$NON-NLS-2$
 		} catch (IOException e) {
 			throw new CoreException(new Status(IStatus.ERROR, LaunchingPlugin.getUniqueIdentifier(), IStatus.ERROR, "Cannot create classpath argument file", e)); //$NON-NLS-1$
 		}
@@ -395,25 +422,106 @@ public class ClasspathShortener {
 
 	private File createModulePathArgumentFile(String modulePath) throws CoreException {
 		try {
-			String timeStamp = getLaunchTimeStamp();
-			File modulePathFile = new File(processTempFilesDir, String.format(LAUNCH_TEMP_FILE_PREFIX
-					+ "%s-module-path-arg-%s.txt", getLaunchConfigurationName(), timeStamp)); //$NON-NLS-1$
-
-			byte[] bytes = ("--module-path " + quoteWindowsPath(modulePath)).getBytes(StandardCharsets.UTF_8); //$NON-NLS-1$
-
-			Files.write(modulePathFile.toPath(), bytes);
-			return modulePathFile;
+			return createArgumentFile("module-path-arg", "--module-path ", modulePath); //$NON-NLS-1$ //$NON-NLS-2$
 		} catch (IOException e) {
 			throw new CoreException(new Status(IStatus.ERROR, LaunchingPlugin.getUniqueIdentifier(), IStatus.ERROR, "Cannot create module-path argument file", e)); //$NON-NLS-1$
 		}
 	}
 
-	protected String getLaunchTimeStamp() {
-		String timeStamp = launch.getAttribute(DebugPlugin.ATTR_LAUNCH_TIMESTAMP);
-		if (timeStamp == null) {
-			timeStamp = Long.toString(System.currentTimeMillis());
+	private File createArgumentFile(String kind, String option, String path) throws IOException {
+		ContentWriter content = out -> {
+			Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+			writer.write(option);
+			writeWindowsPath(path, writer);
+			writer.flush();
+		};
+		return getOrCreateCachedFile(kind, "txt", content, content); //$NON-NLS-1$
+	}
+
+	/**
+	 * Returns the file of the given kind for the given content, creating it if it does not exist yet. Files are named after the SHA-1 hash of their
+	 * content, so that launches with the same class path or module path share the same file.
+	 *
+	 * @param kind
+	 *            the kind of file
+	 * @param extension
+	 *            the file extension
+	 * @param content
+	 *            writes the content the file is named after
+	 * @param file
+	 *            writes the file
+	 * @return the file
+	 * @throws IOException
+	 *             if the file cannot be created
+	 */
+	private File getOrCreateCachedFile(String kind, String extension, ContentWriter content, ContentWriter file) throws IOException {
+		MessageDigest digest;
+		try {
+			digest = MessageDigest.getInstance("SHA-1"); //$NON-NLS-1$
+		} catch (NoSuchAlgorithmException e) {
+			throw new IOException(e);
+		}
+		try (OutputStream out = new DigestOutputStream(OutputStream.nullOutputStream(), digest)) {
+			content.write(out);
+		}
+		File directory = getFilesDir();
+		File cacheFile = ClasspathShortenerCache.getCacheFile(directory, kind, toHexString(digest.digest()), extension);
+		ClasspathShortenerCache cache = getCache();
+		if (cache != null) {
+			// acquire before creating the file so that it cannot be trimmed in between
+			cache.acquire(launch, cacheFile);
+		}
+		if (!cacheFile.isFile()) {
+			Path tempFile = Files.createTempFile(directory.toPath(), LAUNCH_TEMP_FILE_PREFIX, ".tmp"); //$NON-NLS-1$
+			try {
+				try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(tempFile))) {
+					file.write(out);
+				}
+				// concurrent launches may create the same file, the content is the same anyway
+				try {
+					Files.move(tempFile, cacheFile.toPath(), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+				} catch (AtomicMoveNotSupportedException e) {
+					Files.move(tempFile, cacheFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+				}
+			} finally {
+				Files.deleteIfExists(tempFile);
+			}
+			if (cache != null) {
+				cache.scheduleTrim();
+			}
+		}
+		return cacheFile;
+	}
+
+	/**
+	 * Returns the directory the argument files and classpath-only jars are created in
+	 *
+	 * @return the directory of the cache, or the process temp files directory if the launching plug-in is not running
+	 * @throws IOException
+	 *             if the directory of the cache cannot be created
+	 */
+	private File getFilesDir() throws IOException {
+		ClasspathShortenerCache cache = getCache();
+		return cache == null ? processTempFilesDir : cache.getDirectory();
+	}
+
+	/**
+	 * Returns the cache of shared files or <code>null</code> if the launching plug-in is not running
+	 *
+	 * @return the cache or <code>null</code>
+	 */
+	protected ClasspathShortenerCache getCache() {
+		LaunchingPlugin plugin = LaunchingPlugin.getDefault();
+		return plugin == null ? null : plugin.getClasspathShortenerCache();
+	}
+
+	private static String toHexString(byte[] bytes) {
+		StringBuilder hex = new StringBuilder(bytes.length * 2);
+		for (byte b : bytes) {
+			hex.append(Character.forDigit((b >> 4) & 0xF, 16));
+			hex.append(Character.forDigit(b & 0xF, 16));
 		}
-		return timeStamp;
+		return hex.toString();
 	}
 
 	private String[] getEnvpFromNativeEnvironment() {
@@ -484,23 +592,111 @@ public class ClasspathShortener {
 
 	public String quoteWindowsPath(String path) {
 		if (os.equals(Platform.OS_WIN32)) {
-			int length = path.length();
-			StringBuilder newPath = new StringBuilder(length);
-			boolean insideQuote = false;
-			for (int i = 0; i < length; i++) {
-				char c = path.charAt(i);
-				if (c == ' ' && !insideQuote) {
-					newPath.append('"');
-					insideQuote = true;
-				} else if (insideQuote) {
-					newPath.append('"');
-					insideQuote = false;
-				}
-				newPath.append(c);
+			StringWriter newPath = new StringWriter(path.length());
+			try {
+				writeWindowsPath(path, newPath);
+			} catch (IOException e) {
+				// cannot happen with a StringWriter
 			}
 			return newPath.toString();
 		}
 		return path;
 	}
 
+	/**
+	 * Writes the given path, quoted like {@link #quoteWindowsPath(String)}, without copying it
+	 */
+	private void writeWindowsPath(String path, Writer writer) throws IOException {
+		if (!os.equals(Platform.OS_WIN32)) {
+			writer.write(path);
+			return;
+		}
+		int length = path.length();
+		boolean insideQuote = false;
+		for (int i = 0; i < length; i++) {
+			char c = path.charAt(i);
+			if (c == ' ' && !insideQuote) {
+				writer.write('"');
+				insideQuote = true;
+			} else if (insideQuote) {
+				writer.write('"');
+				insideQuote = false;
+			}
+			writer.write(c);
+		}
+	}
+
+	/**
+	 * Writes the content of a file
+	 */
+	@FunctionalInterface
+	private interface ContentWriter {
+		void write(OutputStream out) throws IOException;
+	}
+
+	/**
+	 * Writes the main attributes of a manifest, breaking lines that would exceed 72 bytes as required by the JAR file specification.
+	 */
+	private static class ManifestWriter {
+		private static final int MAX_LINE_LENGTH = 72;
+		private final OutputStream out;
+		private int lineLength;
+
+		ManifestWriter(OutputStream out) {
+			this.out = out;
+		}
+
+		void writeAttribute(Attributes.Name name, String value) throws IOException {
+			startAttribute(name);
+			write(value);
+			endAttribute();
+		}
+
+		void startAttribute(Attributes.Name name) throws IOException {
+			write(name.toString());
+			write(": "); //$NON-NLS-1$
+		}
+
+		void write(String value) throws IOException {
+			int length = value.length();
+			for (int i = 0; i < length;) {
+				int codePoint = value.codePointAt(i);
+				i += Character.charCount(codePoint);
+				if (codePoint < 0x80) {
+					continueLine(1);
+					out.write(codePoint);
+				} else {
+					// never split the UTF-8 encoding of a character across lines
+					byte[] bytes = new String(Character.toChars(codePoint)).getBytes(StandardCharsets.UTF_8);
+					continueLine(bytes.length);
+					out.write(bytes);
+				}
+			}
+		}
+
+		private void continueLine(int length) throws IOException {
+			if (lineLength + length > MAX_LINE_LENGTH) {
+				newLine();
+				out.write(' ');
+				lineLength = 1;
+			}
+			lineLength += length;
+		}
+
+		void endAttribute() throws IOException {
+			newLine();
+		}
+
+		void end() throws IOException {
+			newLine();
+			out.flush();
+		}
+
+		private void newLine() throws IOException {
+			out.write('\r');
+			out.write('\n');
+			lineLength = 0;
+		}
+	}
+
 }
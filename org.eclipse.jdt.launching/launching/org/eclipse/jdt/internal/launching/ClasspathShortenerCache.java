@@ -0,0 +1,218 @@
+/*******************************************************************************
+ * Copyright (c) 2022 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.internal.launching;
+
+import static org.eclipse.jdt.internal.launching.LaunchingPlugin.LAUNCH_TEMP_FILE_PREFIX;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.regex.Pattern;
+
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.jobs.Job;
+import org.eclipse.debug.core.ILaunch;
+
+/**
+ * Keeps the argument files and classpath-only jars created by the
+ * {@link ClasspathShortener} so that launches with the same class path or
+ * module path can reuse them.
+ * <p>
+ * Cached files are named after the hash of their content and live in a
+ * directory in the state location of the launching plug-in, so that they do
+ * not end up in the working directories of launches. A file is pinned as long
+ * as a launch that uses it is registered with the launch manager. Files that
+ * are not pinned, including files left over from earlier sessions, are kept
+ * for later launches until the cached files exceed {@link #MAX_DIRECTORY_SIZE}
+ * bytes, and are then deleted least recently used first.
+ * </p>
+ *
+ * @since 3.19.600
+ */
+public class ClasspathShortenerCache {
+
+	/**
+	 * Maximum number of bytes of cached files that are kept in the cache directory
+	 */
+	static final long MAX_DIRECTORY_SIZE = 16 * 1024 * 1024;
+
+	/**
+	 * Name of the cache directory in the state location of the launching plug-in
+	 */
+	private static final String DIRECTORY_NAME = "classpathShortener"; //$NON-NLS-1$
+
+	/**
+	 * Names of the files managed by this cache
+	 */
+	private static final Pattern CACHE_FILE_NAME = Pattern.compile(Pattern.quote(LAUNCH_TEMP_FILE_PREFIX)
+			+ "[a-zA-Z-]+-[0-9a-f]{40}\\.(txt|jar)"); //$NON-NLS-1$
+
+	/**
+	 * The cached files used by each launch
+	 */
+	private final Map<ILaunch, Set<File>> fLaunchFiles = new WeakHashMap<>();
+
+	/**
+	 * The cache directory, created on first use
+	 */
+	private File fDirectory;
+
+	private final Job fTrimJob = new Job(LaunchingMessages.ClasspathShortenerCache_Deleting_unused_files) {
+		@Override
+		protected IStatus run(IProgressMonitor monitor) {
+			File directory;
+			synchronized (ClasspathShortenerCache.this) {
+				directory = fDirectory;
+			}
+			if (directory != null && !monitor.isCanceled()) {
+				trim(directory);
+			}
+			return Status.OK_STATUS;
+		}
+	};
+
+	public ClasspathShortenerCache() {
+		fTrimJob.setSystem(true);
+	}
+
+	/**
+	 * Returns the directory of the cached files, creating it if needed.
+	 * Unused files left over from earlier sessions are trimmed once the
+	 * directory is first used.
+	 *
+	 * @return the cache directory
+	 * @throws IOException if the directory cannot be created
+	 */
+	public synchronized File getDirectory() throws IOException {
+		if (fDirectory == null) {
+			File directory = LaunchingPlugin.getDefault().getStateLocation().append(DIRECTORY_NAME).toFile();
+			Files.createDirectories(directory.toPath());
+			fDirectory = directory;
+			fTrimJob.schedule();
+		}
+		return fDirectory;
+	}
+
+	/**
+	 * Returns the cached file of the given kind with the given content hash.
+	 * The file may not exist yet.
+	 *
+	 * @param directory the directory of the file
+	 * @param kind the kind of file, e.g. <code>classpath-arg</code>
+	 * @param hash the hex encoded SHA-1 hash of the content
+	 * @param extension the file extension, <code>txt</code> or <code>jar</code>
+	 * @return the cached file
+	 */
+	public static File getCacheFile(File directory, String kind, String hash, String extension) {
+		return new File(directory, LAUNCH_TEMP_FILE_PREFIX + kind + '-' + hash + '.' + extension).getAbsoluteFile();
+	}
+
+	/**
+	 * Returns whether the given file is managed by this cache and must not be
+	 * deleted when the process that used it terminates.
+	 *
+	 * @param file the file
+	 * @return whether the file is a cached file
+	 */
+	public static boolean isCacheFile(File file) {
+		return CACHE_FILE_NAME.matcher(file.getName()).matches();
+	}
+
+	/**
+	 * Records that the given launch uses the given cached file, which protects
+	 * it from being deleted until the launch is removed.
+	 *
+	 * @param launch the launch
+	 * @param file the cached file
+	 */
+	public void acquire(ILaunch launch, File file) {
+		synchronized (fLaunchFiles) {
+			fLaunchFiles.computeIfAbsent(launch, l -> new HashSet<>()).add(file.getAbsoluteFile());
+		}
+		// the modification time is used to find the least recently used files
+		file.setLastModified(System.currentTimeMillis());
+	}
+
+	/**
+	 * Releases the cached files used by the given launches. The files are kept
+	 * for later launches, and deleted by the next trim of the cache directory
+	 * if it exceeds its size limit.
+	 *
+	 * @param launches the removed launches
+	 */
+	public void release(ILaunch[] launches) {
+		boolean released = false;
+		synchronized (fLaunchFiles) {
+			for (ILaunch launch : launches) {
+				released |= fLaunchFiles.remove(launch) != null;
+			}
+		}
+		if (released) {
+			scheduleTrim();
+		}
+	}
+
+	/**
+	 * Schedules unused files of the cache directory to be deleted if the
+	 * directory exceeds its size limit.
+	 */
+	public void scheduleTrim() {
+		fTrimJob.schedule();
+	}
+
+	/**
+	 * Deletes the least recently used cached files of the given directory that
+	 * are not used by any launch, until the remaining files fit into
+	 * {@link #MAX_DIRECTORY_SIZE}.
+	 *
+	 * @param directory the directory
+	 */
+	void trim(File directory) {
+		File[] files = directory.listFiles(ClasspathShortenerCache::isCacheFile);
+		if (files == null) {
+			return;
+		}
+		Arrays.sort(files, Comparator.comparingLong(File::lastModified).reversed());
+		synchronized (fLaunchFiles) {
+			Set<File> used = new HashSet<>();
+			for (Set<File> launchFiles : fLaunchFiles.values()) {
+				used.addAll(launchFiles);
+			}
+			long size = 0;
+			// deleted while holding the lock, so that a launch cannot acquire a file in between
+			for (File file : files) {
+				long length = file.length();
+				if (size + length > MAX_DIRECTORY_SIZE && !used.contains(file.getAbsoluteFile()) && file.delete()) {
+					continue;
+				}
+				size += length;
+			}
+		}
+	}
+
+	/**
+	 * Stops deleting unused files
+	 */
+	public void stop() {
+		fTrimJob.cancel();
+	}
+}
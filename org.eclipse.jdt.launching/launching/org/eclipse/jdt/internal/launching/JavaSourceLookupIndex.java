@@ -0,0 +1,499 @@
+/*******************************************************************************
+ * Copyright (c) 2022 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.internal.launching;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.MultiStatus;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.jobs.Job;
+import org.eclipse.debug.core.DebugPlugin;
+import org.eclipse.debug.core.sourcelookup.ISourceContainer;
+import org.eclipse.debug.core.sourcelookup.ISourceContainerType;
+import org.eclipse.debug.core.sourcelookup.ISourceLookupDirector;
+import org.eclipse.debug.core.sourcelookup.containers.DefaultSourceContainer;
+import org.eclipse.jdt.core.ElementChangedEvent;
+import org.eclipse.jdt.core.IElementChangedListener;
+import org.eclipse.jdt.core.IJavaElement;
+import org.eclipse.jdt.core.IJavaElementDelta;
+import org.eclipse.jdt.core.IPackageFragmentRoot;
+import org.eclipse.jdt.core.JavaCore;
+import org.eclipse.jdt.launching.sourcelookup.containers.ClasspathContainerSourceContainer;
+import org.eclipse.jdt.launching.sourcelookup.containers.ClasspathVariableSourceContainer;
+import org.eclipse.jdt.launching.sourcelookup.containers.JavaProjectSourceContainer;
+import org.eclipse.jdt.launching.sourcelookup.containers.PackageFragmentRootSourceContainer;
+
+/**
+ * Index of the source containers of a Java source lookup director.
+ * <p>
+ * Composite containers that only combine other containers are flattened and
+ * the packages of every package fragment root and Java project found are
+ * collected in the background. Once the index is built, a lookup only queries
+ * the containers that contain the package of the requested source, and its
+ * result is remembered until the Java model reports that a compilation unit or
+ * class file was added or removed. Changes to the packages, package fragment
+ * roots or classpaths discard the index until it has been rebuilt.
+ * </p>
+ * <p>
+ * Since the index is owned by the {@link JavaSourceLookupDirector}, it is shared
+ * by all clients that look up sources of a launch, such as the debug view and
+ * the editor.
+ * </p>
+ *
+ * @since 3.19.600
+ */
+public class JavaSourceLookupIndex implements IElementChangedListener {
+
+	/**
+	 * Job family of the jobs that build source lookup indexes
+	 */
+	public static final Object FAMILY = JavaSourceLookupIndex.class;
+
+	/**
+	 * Delta flags of a Java project that change its package fragment roots
+	 */
+	private static final int PROJECT_FLAGS = IJavaElementDelta.F_CLASSPATH_CHANGED | IJavaElementDelta.F_RESOLVED_CLASSPATH_CHANGED
+			| IJavaElementDelta.F_OPENED | IJavaElementDelta.F_CLOSED;
+
+	/**
+	 * Delta flags of a package fragment root that change its packages
+	 */
+	private static final int ROOT_FLAGS = IJavaElementDelta.F_ARCHIVE_CONTENT_CHANGED | IJavaElementDelta.F_ADDED_TO_CLASSPATH
+			| IJavaElementDelta.F_REMOVED_FROM_CLASSPATH;
+
+	private static final Object[] EMPTY = new Object[0];
+
+	private final ISourceLookupDirector fDirector;
+
+	/**
+	 * Top level containers of the director to index
+	 */
+	private volatile ISourceContainer[] fContainers = new ISourceContainer[0];
+
+	/**
+	 * Indexed containers by top level container, empty while the index is built
+	 */
+	private volatile Map<ISourceContainer, IndexedSourceContainer> fIndex = Collections.emptyMap();
+
+	/**
+	 * Incremented whenever the index is discarded, so that out of date builds are dropped
+	 */
+	private final AtomicLong fGeneration = new AtomicLong();
+
+	private final Job fBuildJob = new Job(LaunchingMessages.JavaSourceLookupIndex_Indexing_source_lookup_path) {
+		@Override
+		protected IStatus run(IProgressMonitor monitor) {
+			long generation = fGeneration.get();
+			Map<ISourceContainer, IndexedSourceContainer> index = new HashMap<>();
+			for (ISourceContainer container : fContainers) {
+				if (monitor.isCanceled() || generation != fGeneration.get()) {
+					return Status.CANCEL_STATUS;
+				}
+				List<Leaf> leaves = new ArrayList<>();
+				if (addLeaves(container, leaves, true)) {
+					index.put(container, new IndexedSourceContainer(container, leaves.toArray(new Leaf[leaves.size()])));
+				}
+			}
+			synchronized (fGeneration) {
+				if (generation == fGeneration.get()) {
+					fIndex = index;
+				}
+			}
+			return Status.OK_STATUS;
+		}
+
+		@Override
+		public boolean belongsTo(Object family) {
+			return family == FAMILY;
+		}
+	};
+
+	/**
+	 * Creates an index for the source containers of the given director
+	 *
+	 * @param director the source lookup director
+	 */
+	public JavaSourceLookupIndex(ISourceLookupDirector director) {
+		fDirector = director;
+		fBuildJob.setSystem(true);
+		JavaCore.addElementChangedListener(this, ElementChangedEvent.POST_CHANGE);
+	}
+
+	/**
+	 * Discards the index and starts building an index of the given containers
+	 *
+	 * @param containers the top level source containers of the director
+	 */
+	public void setSourceContainers(ISourceContainer[] containers) {
+		fContainers = containers.clone();
+		discard();
+	}
+
+	/**
+	 * Returns the indexed variant of the given top level container, or the
+	 * container itself if it is not indexed (yet).
+	 *
+	 * @param container a top level source container of the director
+	 * @return a container that looks up sources using the index or the given container
+	 */
+	public ISourceContainer getIndexedContainer(ISourceContainer container) {
+		IndexedSourceContainer indexed = fIndex.get(container);
+		return indexed == null ? container : indexed;
+	}
+
+	/**
+	 * Stops updating the index
+	 */
+	public void dispose() {
+		JavaCore.removeElementChangedListener(this);
+		fContainers = new ISourceContainer[0];
+		synchronized (fGeneration) {
+			fGeneration.incrementAndGet();
+			fIndex = Collections.emptyMap();
+		}
+		fBuildJob.cancel();
+	}
+
+	private void discard() {
+		synchronized (fGeneration) {
+			fGeneration.incrementAndGet();
+			fIndex = Collections.emptyMap();
+		}
+		fBuildJob.cancel();
+		if (fContainers.length > 0) {
+			fBuildJob.schedule(200);
+		}
+	}
+
+	/**
+	 * Adds the leaves of the given container to the given list.
+	 *
+	 * @param container the container
+	 * @param leaves the list to add to
+	 * @param topLevel whether the container is a top level container of the director
+	 * @return whether any of the leaves is indexed
+	 */
+	private boolean addLeaves(ISourceContainer container, List<Leaf> leaves, boolean topLevel) {
+		Class<?> type = container.getClass();
+		try {
+			if (type == DefaultSourceContainer.class || type == ClasspathContainerSourceContainer.class
+					|| type == ClasspathVariableSourceContainer.class) {
+				// these just query their children in order, which is what an indexed container does
+				boolean indexed = false;
+				for (ISourceContainer child : container.getSourceContainers()) {
+					indexed |= addLeaves(child, leaves, false);
+				}
+				return indexed;
+			}
+			if (type == PackageFragmentRootSourceContainer.class) {
+				IPackageFragmentRoot root = ((PackageFragmentRootSourceContainer) container).getPackageFragmentRoot();
+				leaves.add(new Leaf(container, getPackages(root), false));
+				return true;
+			}
+			if (type == JavaProjectSourceContainer.class) {
+				// only sources of Java like files are looked up in the source folders
+				Set<String> packages = new HashSet<>();
+				for (IPackageFragmentRoot root : ((JavaProjectSourceContainer) container).getJavaProject().getPackageFragmentRoots()) {
+					if (root.getKind() == IPackageFragmentRoot.K_SOURCE) {
+						packages.addAll(getPackages(root));
+					}
+				}
+				leaves.add(new Leaf(container, packages, true));
+				return true;
+			}
+		} catch (CoreException e) {
+			// search the container without the index
+		}
+		leaves.add(new Leaf(container, null, false));
+		return false;
+	}
+
+	private static Set<String> getPackages(IPackageFragmentRoot root) throws CoreException {
+		Set<String> packages = new HashSet<>();
+		if (root.exists()) {
+			for (IJavaElement fragment : root.getChildren()) {
+				packages.add(fragment.getElementName());
+			}
+		}
+		return packages;
+	}
+
+	/**
+	 * Returns the package of the given source name, computed like
+	 * {@link PackageFragmentRootSourceContainer#findSourceElements(String)} does.
+	 *
+	 * @param name the source name
+	 * @return the package name
+	 */
+	static String getPackageName(String name) {
+		int index = name.lastIndexOf('.');
+		String typeName = index >= 0 ? name.substring(0, index) : name;
+		typeName = typeName.replace('/', '.').replace('\\', '.');
+		index = typeName.lastIndexOf('.');
+		return index >= 0 ? typeName.substring(0, index) : ""; //$NON-NLS-1$
+	}
+
+	/* (non-Javadoc)
+	 * @see org.eclipse.jdt.core.IElementChangedListener#elementChanged(org.eclipse.jdt.core.ElementChangedEvent)
+	 */
+	@Override
+	public void elementChanged(ElementChangedEvent event) {
+		if (fContainers.length == 0) {
+			return;
+		}
+		switch (getChange(event.getDelta())) {
+			case STRUCTURE:
+				discard();
+				break;
+			case ELEMENTS:
+				for (IndexedSourceContainer container : fIndex.values()) {
+					container.fResults.clear();
+				}
+				break;
+			default:
+				break;
+		}
+	}
+
+	private enum Change {
+		NONE, ELEMENTS, STRUCTURE
+	}
+
+	/**
+	 * Returns how the given delta affects the index
+	 *
+	 * @param delta a Java element delta
+	 * @return the change
+	 */
+	private Change getChange(IJavaElementDelta delta) {
+		int kind = delta.getKind();
+		switch (delta.getElement().getElementType()) {
+			case IJavaElement.JAVA_PROJECT:
+				if (kind != IJavaElementDelta.CHANGED || (delta.getFlags() & PROJECT_FLAGS) != 0) {
+					return Change.STRUCTURE;
+				}
+				break;
+			case IJavaElement.PACKAGE_FRAGMENT_ROOT:
+				if (kind != IJavaElementDelta.CHANGED || (delta.getFlags() & ROOT_FLAGS) != 0) {
+					return Change.STRUCTURE;
+				}
+				break;
+			case IJavaElement.PACKAGE_FRAGMENT:
+				if (kind != IJavaElementDelta.CHANGED) {
+					return Change.STRUCTURE;
+				}
+				break;
+			case IJavaElement.COMPILATION_UNIT:
+			case IJavaElement.CLASS_FILE:
+				return kind != IJavaElementDelta.CHANGED ? Change.ELEMENTS : Change.NONE;
+			case IJavaElement.JAVA_MODEL:
+				if ((delta.getFlags() & PROJECT_FLAGS) != 0) {
+					return Change.STRUCTURE;
+				}
+				break;
+			default:
+				return Change.NONE;
+		}
+		Change change = Change.NONE;
+		for (IJavaElementDelta child : delta.getAffectedChildren()) {
+			Change childChange = getChange(child);
+			if (childChange == Change.STRUCTURE) {
+				return childChange;
+			}
+			if (childChange == Change.ELEMENTS) {
+				change = childChange;
+			}
+		}
+		return change;
+	}
+
+	/**
+	 * A container that is searched as part of a top level container
+	 */
+	static class Leaf {
+		final ISourceContainer fContainer;
+		/**
+		 * The packages of the container or <code>null</code> if unknown
+		 */
+		final Set<String> fPackages;
+		/**
+		 * Whether only sources of Java like files are looked up by package
+		 */
+		final boolean fJavaLikeOnly;
+
+		Leaf(ISourceContainer container, Set<String> packages, boolean javaLikeOnly) {
+			fContainer = container;
+			fPackages = packages;
+			fJavaLikeOnly = javaLikeOnly;
+		}
+
+		boolean isIndexed(boolean javaLike) {
+			return fPackages != null && (javaLike || !fJavaLikeOnly);
+		}
+	}
+
+	/**
+	 * Result of a lookup along with the duplicates setting it was computed with
+	 */
+	static class Result {
+		final boolean fDuplicates;
+		final Object[] fElements;
+
+		Result(boolean duplicates, Object[] elements) {
+			fDuplicates = duplicates;
+			fElements = elements;
+		}
+	}
+
+	/**
+	 * Searches the leaves of a top level container in order, skipping those that
+	 * do not contain the package of the requested source.
+	 */
+	class IndexedSourceContainer implements ISourceContainer {
+
+		private final ISourceContainer fContainer;
+		private final Leaf[] fLeaves;
+		final Map<String, Result> fResults = new ConcurrentHashMap<>();
+
+		IndexedSourceContainer(ISourceContainer container, Leaf[] leaves) {
+			fContainer = container;
+			fLeaves = leaves;
+		}
+
+		/* (non-Javadoc)
+		 * @see org.eclipse.debug.core.sourcelookup.ISourceContainer#findSourceElements(java.lang.String)
+		 */
+		@Override
+		public Object[] findSourceElements(String name) throws CoreException {
+			boolean duplicates = fDirector.isFindDuplicates();
+			Result cached = fResults.get(name);
+			if (cached != null && cached.fDuplicates == duplicates) {
+				return cached.fElements.clone();
+			}
+			String packageName = getPackageName(name);
+			boolean javaLike = JavaCore.isJavaLikeFileName(name);
+			boolean cacheable = true;
+			List<Object> results = duplicates ? new ArrayList<>() : null;
+			Object[] found = null;
+			MultiStatus status = null;
+			for (Leaf leaf : fLeaves) {
+				if (leaf.isIndexed(javaLike)) {
+					if (!leaf.fPackages.contains(packageName)) {
+						continue;
+					}
+				} else {
+					// the container may change without a Java element delta
+					cacheable = false;
+				}
+				try {
+					Object[] objects = leaf.fContainer.findSourceElements(name);
+					if (objects.length > 0) {
+						if (results == null) {
+							found = new Object[] { objects[0] };
+							break;
+						}
+						Collections.addAll(results, objects);
+					}
+				} catch (CoreException e) {
+					cacheable = false;
+					if (status == null) {
+						status = new MultiStatus(LaunchingPlugin.getUniqueIdentifier(), DebugPlugin.ERROR, LaunchingMessages.JavaSourceLookupIndex_Source_lookup_error, null);
+					}
+					status.add(e.getStatus());
+				}
+			}
+			if (found == null) {
+				if (results != null && !results.isEmpty()) {
+					found = results.toArray();
+				} else if (status != null) {
+					throw new CoreException(status.getChildren().length == 1 ? status.getChildren()[0] : status);
+				} else {
+					found = EMPTY;
+				}
+			}
+			if (cacheable) {
+				fResults.put(name, new Result(duplicates, found.clone()));
+			}
+			return found;
+		}
+
+		/* (non-Javadoc)
+		 * @see org.eclipse.debug.core.sourcelookup.ISourceContainer#getName()
+		 */
+		@Override
+		public String getName() {
+			return fContainer.getName();
+		}
+
+		/* (non-Javadoc)
+		 * @see org.eclipse.debug.core.sourcelookup.ISourceContainer#getSourceContainers()
+		 */
+		@Override
+		public ISourceContainer[] getSourceContainers() throws CoreException {
+			return fContainer.getSourceContainers();
+		}
+
+		/* (non-Javadoc)
+		 * @see org.eclipse.debug.core.sourcelookup.ISourceContainer#isComposite()
+		 */
+		@Override
+		public boolean isComposite() {
+			return fContainer.isComposite();
+		}
+
+		/* (non-Javadoc)
+		 * @see org.eclipse.debug.core.sourcelookup.ISourceContainer#init(org.eclipse.debug.core.sourcelookup.ISourceLookupDirector)
+		 */
+		@Override
+		public void init(ISourceLookupDirector director) {
+			// the wrapped container is initialized by the director
+		}
+
+		/* (non-Javadoc)
+		 * @see org.eclipse.debug.core.sourcelookup.ISourceContainer#getType()
+		 */
+		@Override
+		public ISourceContainerType getType() {
+			return fContainer.getType();
+		}
+
+		/* (non-Javadoc)
+		 * @see org.eclipse.debug.core.sourcelookup.ISourceContainer#dispose()
+		 */
+		@Override
+		public void dispose() {
+			// the wrapped container is disposed by the director
+			fResults.clear();
+		}
+
+		/* (non-Javadoc)
+		 * @see org.eclipse.core.runtime.IAdaptable#getAdapter(java.lang.Class)
+		 */
+		@Override
+		public <T> T getAdapter(Class<T> adapter) {
+			return fContainer.getAdapter(adapter);
+		}
+	}
+}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2018 IBM Corporation and others.
+ * Copyright (c) 2000, 2022 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -137,6 +137,12 @@ public class LaunchingMessages extends NLS {
 	public static String StandardVMType_ok_2;
 	public static String StandardVMType_Standard_VM_3;
 	public static String StandardVMType_Not_a_JDK_root__System_library_was_not_found__1;
+	public static String StandardVMType_Detecting_libraries;
+
+	public static String ClasspathShortenerCache_Deleting_unused_files;
+
+	public static String JavaSourceLookupIndex_Indexing_source_lookup_path;
+	public static String JavaSourceLookupIndex_Source_lookup_error;
 
 	public static String VMDefinitionsContainer_0;
 
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2015 IBM Corporation and others.
+ * Copyright (c) 2000, 2022 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -103,13 +103,15 @@ public class LaunchingPlugin extends Plugin implements DebugOptionsListener, IEc
 	 */
 	public static boolean DEBUG = false;
 	public static boolean DEBUG_JRE_CONTAINER = false;
+	public static boolean DEBUG_CLASSPATH_RESOLUTION = false;
 
 	public static final String DEBUG_JRE_CONTAINER_FLAG = "org.eclipse.jdt.launching/debug/classpath/jreContainer"; //$NON-NLS-1$
+	public static final String DEBUG_CLASSPATH_RESOLUTION_FLAG = "org.eclipse.jdt.launching/debug/classpath/resolution"; //$NON-NLS-1$
 	public static final String DEBUG_FLAG = "org.eclipse.jdt.launching/debug"; //$NON-NLS-1$
 
 	/**
 	 * list of temp files for the launch (separated by the path separator char). Files must start with {@link #LAUNCH_TEMP_FILE_PREFIX} and will be
-	 * deleted once the process is terminated
+	 * deleted once the process is terminated, unless they are managed by the {@link ClasspathShortenerCache}
 	 */
 	public static final String ATTR_LAUNCH_TEMP_FILES = "tempFiles"; //$NON-NLS-1$
 
@@ -148,6 +150,16 @@ public class LaunchingPlugin extends Plugin implements DebugOptionsListener, IEc
 	 */
 	private HashMap<String, IConfigurationElement> fClasspathEntryExtensions = null;
 
+	/**
+	 * Resolved runtime classpaths of recently launched configurations
+	 */
+	private RuntimeClasspathCache fRuntimeClasspathCache = new RuntimeClasspathCache();
+
+	/**
+	 * Argument files and classpath-only jars shared by launches
+	 */
+	private ClasspathShortenerCache fClasspathShortenerCache = new ClasspathShortenerCache();
+
 	private String fOldVMPrefString = EMPTY_STRING;
 
 	private boolean fIgnoreVMDefPropertyChangeEvents = false;
@@ -534,6 +546,8 @@ public class LaunchingPlugin extends Plugin implements DebugOptionsListener, IEc
 	public void stop(BundleContext context) throws Exception {
 		try {
 			AdvancedSourceLookupSupport.stop();
+			fRuntimeClasspathCache.stop();
+			fClasspathShortenerCache.stop();
 
 			DebugPlugin.getDefault().getLaunchManager().removeLaunchListener(this);
 			DebugPlugin.getDefault().removeDebugEventListener(this);
@@ -584,6 +598,28 @@ public class LaunchingPlugin extends Plugin implements DebugOptionsListener, IEc
 		DebugPlugin.getDefault().addDebugEventListener(this);
 
 		AdvancedSourceLookupSupport.start();
+		fRuntimeClasspathCache.start();
+	}
+
+	/**
+	 * Returns the cache of resolved runtime classpaths of launch configurations.
+	 *
+	 * @return the runtime classpath cache
+	 * @since 3.19.600
+	 */
+	public RuntimeClasspathCache getRuntimeClasspathCache() {
+		return fRuntimeClasspathCache;
+	}
+
+	/**
+	 * Returns the cache of argument files and classpath-only jars used to
+	 * shorten command lines.
+	 *
+	 * @return the classpath shortener cache
+	 * @since 3.19.600
+	 */
+	public ClasspathShortenerCache getClasspathShortenerCache() {
+		return fClasspathShortenerCache;
 	}
 
 	/**
@@ -1166,6 +1202,7 @@ public class LaunchingPlugin extends Plugin implements DebugOptionsListener, IEc
 	@Override
 	public void launchesRemoved(ILaunch[] launches) {
 		ArchiveSourceLocation.closeArchives();
+		fClasspathShortenerCache.release(launches);
 	}
 
 	/* (non-Javadoc)
@@ -1213,11 +1250,12 @@ public class LaunchingPlugin extends Plugin implements DebugOptionsListener, IEc
 			return;
 		}
 		// we only delete files starting with LAUNCH_TEMP_FILE_PREFIX²
+		// files that can be reused by other launches are deleted by the ClasspathShortenerCache
 		Arrays.stream(tempFiles.split(File.pathSeparator)).map(path -> new File(path)).filter(file -> isValidProcessTempFile(file)).forEach(file -> file.delete());
 	}
 
 	private boolean isValidProcessTempFile(File file) {
-		return file.getName().startsWith(LAUNCH_TEMP_FILE_PREFIX);
+		return file.getName().startsWith(LAUNCH_TEMP_FILE_PREFIX) && !ClasspathShortenerCache.isCacheFile(file);
 	}
 
 	/**
@@ -1326,6 +1364,7 @@ public class LaunchingPlugin extends Plugin implements DebugOptionsListener, IEc
 	public void optionsChanged(DebugOptions options) {
 		DEBUG = options.getBooleanOption(DEBUG_FLAG, false);
 		DEBUG_JRE_CONTAINER = DEBUG && options.getBooleanOption(DEBUG_JRE_CONTAINER_FLAG, false);
+		DEBUG_CLASSPATH_RESOLUTION = DEBUG && options.getBooleanOption(DEBUG_CLASSPATH_RESOLUTION_FLAG, false);
 	}
 
 	/**
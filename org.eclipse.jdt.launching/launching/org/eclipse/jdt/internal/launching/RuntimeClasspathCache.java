@@ -0,0 +1,298 @@
+/*******************************************************************************
+ * Copyright (c) 2022 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.internal.launching;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.debug.core.ILaunchConfiguration;
+import org.eclipse.jdt.core.ElementChangedEvent;
+import org.eclipse.jdt.core.IElementChangedListener;
+import org.eclipse.jdt.core.IJavaElement;
+import org.eclipse.jdt.core.IJavaElementDelta;
+import org.eclipse.jdt.core.JavaCore;
+import org.eclipse.jdt.launching.IRuntimeClasspathEntry;
+import org.eclipse.jdt.launching.IVMInstall;
+import org.eclipse.jdt.launching.IVMInstallChangedListener;
+import org.eclipse.jdt.launching.JavaRuntime;
+import org.eclipse.jdt.launching.PropertyChangeEvent;
+
+/**
+ * Remembers the resolved runtime classpath of recently launched configurations.
+ * <p>
+ * Every change to the classpath of a Java project, the set of projects in the
+ * workspace or the installed JREs starts a new classpath generation, which
+ * invalidates all resolved classpaths computed during an earlier generation. A
+ * cached classpath is also only reused if neither the attributes of its launch
+ * configuration nor the unresolved entries have changed since. The entries are
+ * copied when they are remembered and when they are returned.
+ * </p>
+ *
+ * @since 3.19.600
+ */
+public class RuntimeClasspathCache implements IElementChangedListener, IVMInstallChangedListener {
+
+	/**
+	 * Maximum number of resolved classpaths that are remembered
+	 */
+	private static final int MAX_ENTRIES = 32;
+
+	/**
+	 * Delta flags that indicate a change of the resolved classpath of a project
+	 */
+	private static final int CLASSPATH_FLAGS = IJavaElementDelta.F_CLASSPATH_CHANGED | IJavaElementDelta.F_RESOLVED_CLASSPATH_CHANGED
+			| IJavaElementDelta.F_OPENED | IJavaElementDelta.F_CLOSED;
+
+	/**
+	 * Delta flags that indicate a package fragment root entering or leaving a classpath
+	 */
+	private static final int ROOT_FLAGS = IJavaElementDelta.F_ADDED_TO_CLASSPATH | IJavaElementDelta.F_REMOVED_FROM_CLASSPATH;
+
+	/**
+	 * A resolved classpath along with the state it was computed from
+	 */
+	static class ResolvedClasspath {
+		final long fGeneration;
+		final Map<String, Object> fAttributes;
+		final IRuntimeClasspathEntry[] fUnresolved;
+		final IRuntimeClasspathEntry[] fResolved;
+
+		ResolvedClasspath(long generation, Map<String, Object> attributes, IRuntimeClasspathEntry[] unresolved, IRuntimeClasspathEntry[] resolved) throws CoreException {
+			fGeneration = generation;
+			fAttributes = attributes;
+			fUnresolved = copy(unresolved);
+			fResolved = copy(resolved);
+		}
+	}
+
+	/**
+	 * Key of a resolved classpath: the launch configuration and the unresolved
+	 * entries, as a configuration may resolve different entries for its class
+	 * path, module path and boot path.
+	 */
+	static class Key {
+		final ILaunchConfiguration fConfiguration;
+		final List<IRuntimeClasspathEntry> fUnresolved;
+
+		Key(ILaunchConfiguration configuration, IRuntimeClasspathEntry[] unresolved) {
+			fConfiguration = configuration;
+			fUnresolved = Arrays.asList(unresolved.clone());
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (obj instanceof Key) {
+				Key other = (Key) obj;
+				return fConfiguration.equals(other.fConfiguration) && fUnresolved.equals(other.fUnresolved);
+			}
+			return false;
+		}
+
+		@Override
+		public int hashCode() {
+			return fConfiguration.hashCode() * 31 + fUnresolved.hashCode();
+		}
+	}
+
+	private final AtomicLong fGeneration = new AtomicLong();
+
+	private final Map<Key, ResolvedClasspath> fCache = new LinkedHashMap<Key, ResolvedClasspath>(MAX_ENTRIES, 0.75f, true) {
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<Key, ResolvedClasspath> eldest) {
+			return size() > MAX_ENTRIES;
+		}
+	};
+
+	/**
+	 * Starts listening to Java model and JRE changes
+	 */
+	public void start() {
+		JavaCore.addElementChangedListener(this, ElementChangedEvent.POST_CHANGE);
+		JavaRuntime.addVMInstallChangedListener(this);
+	}
+
+	/**
+	 * Stops listening to Java model and JRE changes and forgets all resolved classpaths
+	 */
+	public void stop() {
+		JavaCore.removeElementChangedListener(this);
+		JavaRuntime.removeVMInstallChangedListener(this);
+		invalidate();
+	}
+
+	/**
+	 * Returns the current classpath generation. Callers that resolve a classpath
+	 * must obtain the generation <em>before</em> resolving, so that changes made
+	 * while resolving invalidate the result.
+	 *
+	 * @return the current classpath generation
+	 */
+	public long getGeneration() {
+		return fGeneration.get();
+	}
+
+	/**
+	 * Returns the resolved classpath remembered for the given unresolved entries
+	 * and launch configuration, or <code>null</code> if there is none or it is
+	 * out of date.
+	 *
+	 * @param unresolved the unresolved runtime classpath entries
+	 * @param configuration the launch configuration
+	 * @return a copy of the resolved entries or <code>null</code>
+	 * @throws CoreException if the attributes of the configuration cannot be read
+	 */
+	public IRuntimeClasspathEntry[] get(IRuntimeClasspathEntry[] unresolved, ILaunchConfiguration configuration) throws CoreException {
+		if (configuration.isWorkingCopy()) {
+			return null;
+		}
+		ResolvedClasspath cached;
+		synchronized (fCache) {
+			cached = fCache.get(new Key(configuration, unresolved));
+		}
+		if (cached != null && cached.fGeneration == fGeneration.get() && Arrays.equals(cached.fUnresolved, unresolved)
+				&& cached.fAttributes.equals(configuration.getAttributes())) {
+			return copy(cached.fResolved);
+		}
+		return null;
+	}
+
+	/**
+	 * Remembers the resolved classpath of the given unresolved entries and launch
+	 * configuration.
+	 *
+	 * @param unresolved the unresolved runtime classpath entries
+	 * @param configuration the launch configuration
+	 * @param generation the classpath generation obtained before resolving
+	 * @param resolved the resolved runtime classpath entries
+	 * @throws CoreException if the attributes of the configuration cannot be read
+	 */
+	public void put(IRuntimeClasspathEntry[] unresolved, ILaunchConfiguration configuration, long generation, IRuntimeClasspathEntry[] resolved) throws CoreException {
+		if (configuration.isWorkingCopy() || generation != fGeneration.get()) {
+			return;
+		}
+		ResolvedClasspath cached = new ResolvedClasspath(generation, configuration.getAttributes(), unresolved, resolved);
+		synchronized (fCache) {
+			fCache.put(new Key(configuration, cached.fUnresolved), cached);
+		}
+	}
+
+	/**
+	 * Returns copies of the given entries, so that callers cannot change the
+	 * remembered ones.
+	 *
+	 * @param entries the runtime classpath entries
+	 * @return copies of the entries
+	 * @throws CoreException if an entry cannot be restored from its memento
+	 */
+	private static IRuntimeClasspathEntry[] copy(IRuntimeClasspathEntry[] entries) throws CoreException {
+		IRuntimeClasspathEntry[] copies = new IRuntimeClasspathEntry[entries.length];
+		for (int i = 0; i < entries.length; i++) {
+			if (entries[i] instanceof RuntimeClasspathEntry) {
+				copies[i] = ((RuntimeClasspathEntry) entries[i]).copy();
+			} else {
+				copies[i] = JavaRuntime.newRuntimeClasspathEntry(entries[i].getMemento());
+			}
+		}
+		return copies;
+	}
+
+	/**
+	 * Starts a new classpath generation and forgets all resolved classpaths
+	 */
+	public void invalidate() {
+		fGeneration.incrementAndGet();
+		synchronized (fCache) {
+			fCache.clear();
+		}
+	}
+
+	/* (non-Javadoc)
+	 * @see org.eclipse.jdt.core.IElementChangedListener#elementChanged(org.eclipse.jdt.core.ElementChangedEvent)
+	 */
+	@Override
+	public void elementChanged(ElementChangedEvent event) {
+		if (affectsClasspath(event.getDelta())) {
+			invalidate();
+		}
+	}
+
+	/**
+	 * Returns whether the given delta may change a resolved runtime classpath.
+	 *
+	 * @param delta the Java element delta
+	 * @return whether resolved classpaths must be recomputed
+	 */
+	private boolean affectsClasspath(IJavaElementDelta delta) {
+		if ((delta.getFlags() & CLASSPATH_FLAGS) != 0) {
+			return true;
+		}
+		switch (delta.getElement().getElementType()) {
+			case IJavaElement.JAVA_PROJECT:
+				if (delta.getKind() != IJavaElementDelta.CHANGED) {
+					return true;
+				}
+				//$FALL-THROUGH$
+			case IJavaElement.JAVA_MODEL:
+				IJavaElementDelta[] children = delta.getAffectedChildren();
+				for (int i = 0; i < children.length; i++) {
+					if (affectsClasspath(children[i])) {
+						return true;
+					}
+				}
+				return false;
+			case IJavaElement.PACKAGE_FRAGMENT_ROOT:
+				return delta.getKind() != IJavaElementDelta.CHANGED || (delta.getFlags() & ROOT_FLAGS) != 0;
+			default:
+				return false;
+		}
+	}
+
+	/* (non-Javadoc)
+	 * @see org.eclipse.jdt.launching.IVMInstallChangedListener#defaultVMInstallChanged(org.eclipse.jdt.launching.IVMInstall, org.eclipse.jdt.launching.IVMInstall)
+	 */
+	@Override
+	public void defaultVMInstallChanged(IVMInstall previous, IVMInstall current) {
+		invalidate();
+	}
+
+	/* (non-Javadoc)
+	 * @see org.eclipse.jdt.launching.IVMInstallChangedListener#vmChanged(org.eclipse.jdt.launching.PropertyChangeEvent)
+	 */
+	@Override
+	public void vmChanged(PropertyChangeEvent event) {
+		invalidate();
+	}
+
+	/* (non-Javadoc)
+	 * @see org.eclipse.jdt.launching.IVMInstallChangedListener#vmAdded(org.eclipse.jdt.launching.IVMInstall)
+	 */
+	@Override
+	public void vmAdded(IVMInstall vm) {
+		invalidate();
+	}
+
+	/* (non-Javadoc)
+	 * @see org.eclipse.jdt.launching.IVMInstallChangedListener#vmRemoved(org.eclipse.jdt.launching.IVMInstall)
+	 */
+	@Override
+	public void vmRemoved(IVMInstall vm) {
+		invalidate();
+	}
+}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2017 IBM Corporation and others.
+ * Copyright (c) 2000, 2022 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -51,7 +51,7 @@ import org.w3c.dom.Element;
  * @see org.eclipse.jdt.launching.IRuntimeClasspathEntry
  * @since 2.0
  */
-public class RuntimeClasspathEntry implements IRuntimeClasspathEntry {
+public class RuntimeClasspathEntry implements IRuntimeClasspathEntry, Cloneable {
 
 	/**
 	 * This entry's type - must be set on creation.
@@ -229,6 +229,21 @@ public class RuntimeClasspathEntry implements IRuntimeClasspathEntry {
 		return JavaCore.newLibraryEntry(p, sourcePath, rootPath);
 	}
 
+	/**
+	 * Returns a copy of this entry. The classpath entries, project and paths
+	 * of an entry are immutable and shared with the copy.
+	 *
+	 * @return a copy of this entry
+	 * @since 3.19.600
+	 */
+	public RuntimeClasspathEntry copy() {
+		try {
+			return (RuntimeClasspathEntry) super.clone();
+		} catch (CloneNotSupportedException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
 	/**
 	 * Throws an internal error exception
 	 * @param message the message
@@ -37,16 +37,24 @@ import java.util.ListIterator;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Stream;
 
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IConfigurationElement;
 import org.eclipse.core.runtime.IExtensionPoint;
 import org.eclipse.core.runtime.IPath;
+import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.core.runtime.IStatus;
 import org.eclipse.core.runtime.Path;
 import org.eclipse.core.runtime.Platform;
 import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.jobs.IJobChangeEvent;
+import org.eclipse.core.runtime.jobs.Job;
+import org.eclipse.core.runtime.jobs.JobChangeAdapter;
+import org.eclipse.core.runtime.jobs.JobGroup;
 import org.eclipse.debug.core.DebugException;
 import org.eclipse.debug.core.DebugPlugin;
 import org.eclipse.debug.core.ILaunchManager;
@@ -127,6 +135,32 @@ public class StandardVMType extends AbstractVMInstallType {
 	 */
 	private static Map<String, List<LibraryLocation>> fgDefaultLibLocs = new HashMap<>();
 
+	/**
+	 * Maximum number of library detection processes that are run concurrently
+	 * by {@link #prefetchLibraryInfo(List)}.
+	 *
+	 * @since 3.19.600
+	 */
+	private static final int MAX_CONCURRENT_DETECTIONS = Math.max(1, Math.min(4, Runtime.getRuntime().availableProcessors()));
+
+	/**
+	 * Time in milliseconds granted to a prefetched library detection from when it
+	 * starts, and that a caller waits for a queued detection to start. A detection
+	 * that does not finish in time is cancelled and the caller detects the library
+	 * information itself.
+	 *
+	 * @since 3.19.600
+	 */
+	private static final long DETECTION_TIMEOUT = 30000;
+
+	/**
+	 * Library detections scheduled by {@link #prefetchLibraryInfo(List)} that have
+	 * not been consumed yet, keyed by install path.
+	 *
+	 * @since 3.19.600
+	 */
+	private static Map<String, LibraryDetectionJob> fgPendingDetections = new ConcurrentHashMap<>();
+
 	/**
 	 * The list of locations in which to look for the java executable in candidate
 	 * VM install locations, relative to the VM install location. From Java 9 onwards, there may not be a jre directory.
@@ -237,10 +271,17 @@ public class StandardVMType extends AbstractVMInstallType {
 					info = new LibraryInfo(version, new String[0], new String[0], new String[0]);
 					LaunchingPlugin.setLibraryInfo(installPath, info);
 				} else {
-					info = generateLibraryInfo(javaHome, javaExecutable);
-					if (info == null) {
-						// Bug 536943: try again in case we have a timing problem with process execution and output retrieval
+					LibraryDetectionJob detection = fgPendingDetections.remove(installPath);
+					if (detection != null && detection.await()) {
+						// the detection already retried
+						info = detection.getLibraryInfo();
+					} else {
+						// not prefetched, or the detection did not run to its end
 						info = generateLibraryInfo(javaHome, javaExecutable);
+						if (info == null) {
+							// Bug 536943: try again in case we have a timing problem with process execution and output retrieval
+							info = generateLibraryInfo(javaHome, javaExecutable);
+						}
 					}
 					if (info == null) {
 						info = getDefaultLibraryInfo(javaHome);
@@ -255,6 +296,158 @@ public class StandardVMType extends AbstractVMInstallType {
 		return info;
 	}
 
+	/**
+	 * Starts detecting the library information of the given install locations in the
+	 * background, running at most {@link #MAX_CONCURRENT_DETECTIONS} detection
+	 * processes at a time. Locations that already have valid cached information, or
+	 * whose version can be read from the <code>release</code> file of a Java 9 or
+	 * newer install, do not need a detection process and are skipped.
+	 * <p>
+	 * A later call to {@link #getLibraryInfo(File, File)} for one of the locations
+	 * waits for its detection rather than forking another process, so callers can
+	 * consume the results one by one as they become available.
+	 * </p>
+	 *
+	 * @param javaHomes the Java home folders to detect library information for
+	 * @since 3.19.600
+	 */
+	public synchronized void prefetchLibraryInfo(List<File> javaHomes) {
+		JobGroup group = null;
+		for (File javaHome : javaHomes) {
+			String installPath = javaHome.getAbsolutePath();
+			if (fgPendingDetections.containsKey(installPath) || fgFailedInstallPath.containsKey(installPath)) {
+				continue;
+			}
+			if (LaunchingPlugin.getLibraryInfo(installPath) != null && !LaunchingPlugin.timeStampChanged(installPath)) {
+				continue;
+			}
+			File javaExecutable = findJavaExecutable(javaHome);
+			if (javaExecutable == null) {
+				continue;
+			}
+			if (JavaCore.compareJavaVersions(readReleaseVersion(javaHome), JavaCore.VERSION_1_8) > 0) {
+				// the release file is enough, see #getLibraryInfo(File, File)
+				continue;
+			}
+			if (group == null) {
+				group = new JobGroup(LaunchingMessages.StandardVMType_Detecting_libraries, MAX_CONCURRENT_DETECTIONS, 0);
+			}
+			LibraryDetectionJob detection = new LibraryDetectionJob(javaHome, javaExecutable);
+			detection.setJobGroup(group);
+			fgPendingDetections.put(installPath, detection);
+			detection.schedule();
+		}
+	}
+
+	/**
+	 * Runs {@link StandardVMType#generateLibraryInfo(File, File)} for one install
+	 * location in the background. The detection process is destroyed when the job
+	 * is cancelled or {@link StandardVMType#DETECTION_TIMEOUT} has passed since the
+	 * job started. A detection that is not consumed by
+	 * {@link StandardVMType#getLibraryInfo(File, File)} stores its result itself
+	 * and removes its pending entry when done.
+	 *
+	 * @since 3.19.600
+	 */
+	class LibraryDetectionJob extends Job {
+
+		private final File fJavaHome;
+		private final File fJavaExecutable;
+		private final CountDownLatch fStarted = new CountDownLatch(1);
+		private final CountDownLatch fDone = new CountDownLatch(1);
+		private volatile long fDeadline;
+		private volatile boolean fCompleted;
+		private volatile LibraryInfo fInfo;
+
+		LibraryDetectionJob(File javaHome, File javaExecutable) {
+			super(LaunchingMessages.StandardVMType_Detecting_libraries);
+			fJavaHome = javaHome;
+			fJavaExecutable = javaExecutable;
+			setSystem(true);
+			addJobChangeListener(new JobChangeAdapter() {
+				@Override
+				public void done(IJobChangeEvent event) {
+					// a job cancelled before it runs is done without running
+					fStarted.countDown();
+					fDone.countDown();
+				}
+			});
+		}
+
+		/* (non-Javadoc)
+		 * @see org.eclipse.core.runtime.jobs.Job#run(org.eclipse.core.runtime.IProgressMonitor)
+		 */
+		@Override
+		protected IStatus run(IProgressMonitor monitor) {
+			long deadline = System.currentTimeMillis() + DETECTION_TIMEOUT;
+			fDeadline = deadline;
+			fStarted.countDown();
+			LibraryInfo info = null;
+			boolean completed = false;
+			try {
+				if (!monitor.isCanceled()) {
+					info = generateLibraryInfo(fJavaHome, fJavaExecutable, monitor, deadline);
+					if (info == null && !monitor.isCanceled() && System.currentTimeMillis() < deadline) {
+						// Bug 536943: try again in case we have a timing problem with process execution and output retrieval
+						info = generateLibraryInfo(fJavaHome, fJavaExecutable, monitor, deadline);
+					}
+					// a detection that has been cut short did not fail
+					completed = info != null || (!monitor.isCanceled() && System.currentTimeMillis() < deadline);
+					fInfo = info;
+					fCompleted = completed;
+				}
+			} finally {
+				fDone.countDown();
+			}
+			String installPath = fJavaHome.getAbsolutePath();
+			synchronized (StandardVMType.this) {
+				// the entry is gone if the detection has been consumed or disposed
+				if (fgPendingDetections.remove(installPath, this)) {
+					if (info != null) {
+						LaunchingPlugin.setLibraryInfo(installPath, info);
+					} else if (completed) {
+						fgFailedInstallPath.put(installPath, getDefaultLibraryInfo(fJavaHome));
+					}
+				}
+			}
+			return monitor.isCanceled() ? Status.CANCEL_STATUS : Status.OK_STATUS;
+		}
+
+		/**
+		 * Waits until the detection is done. A detection that does not start within
+		 * {@link StandardVMType#DETECTION_TIMEOUT}, or does not end in time once
+		 * started, is cancelled, which destroys its process.
+		 *
+		 * @return whether the detection ran to its end, in which case
+		 *         {@link #getLibraryInfo()} returns its result
+		 */
+		boolean await() {
+			try {
+				if (fStarted.await(DETECTION_TIMEOUT, TimeUnit.MILLISECONDS)) {
+					// allow the job to notice its deadline and destroy the process
+					long remaining = fDeadline - System.currentTimeMillis() + 1000;
+					if (fDone.await(Math.max(0, remaining), TimeUnit.MILLISECONDS)) {
+						return fCompleted;
+					}
+				}
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			cancel();
+			return false;
+		}
+
+		/**
+		 * Returns the result of a detection that ran to its end.
+		 *
+		 * @return the detected library information or <code>null</code> if the
+		 *         detection failed
+		 */
+		LibraryInfo getLibraryInfo() {
+			return fInfo;
+		}
+	}
+
 	/**
 	 * Return <code>true</code> if the appropriate system libraries can be found for the
 	 * specified java executable, <code>false</code> otherwise.
@@ -682,6 +875,22 @@ public class StandardVMType extends AbstractVMInstallType {
 	 * @return library info or <code>null</code> if none
 	 */
 	protected LibraryInfo generateLibraryInfo(File javaHome, File javaExecutable) {
+		return generateLibraryInfo(javaHome, javaExecutable, null, Long.MAX_VALUE);
+	}
+
+	/**
+	 * Generates library information for the given java executable, see
+	 * {@link #generateLibraryInfo(File, File)}. The detection process is destroyed
+	 * as soon as the given monitor is cancelled or the given deadline passes.
+	 *
+	 * @param javaHome the Java home folder
+	 * @param javaExecutable the Java executable file
+	 * @param monitor progress monitor or <code>null</code>
+	 * @param deadline time in milliseconds after which to stop waiting for the process
+	 *
+	 * @return library info or <code>null</code> if none
+	 */
+	private LibraryInfo generateLibraryInfo(File javaHome, File javaExecutable, IProgressMonitor monitor, long deadline) {
 		LibraryInfo info = null;
 
 		// if this is 1.1.X, the properties will not exist
@@ -715,20 +924,28 @@ public class StandardVMType extends AbstractVMInstallType {
 				IProcess process = DebugPlugin.newProcess(new Launch(null, ILaunchManager.RUN_MODE, null), p, "Library Detection"); //$NON-NLS-1$
 				process.setAttribute(IProcess.ATTR_CMDLINE, String.join(" ", cmdLine)); //$NON-NLS-1$
 				IStreamMonitor outputStreamMonitor = process.getStreamsProxy().getOutputStreamMonitor();
+				boolean abandoned = false;
 				for (int i= 0; i < 600; i++) {
 					// Wait no more than 30 seconds (600 * 50 milliseconds),
 					// also ensure we are done reading the process stream, if we have a OutputStreamMonitor
 					if (process.isTerminated() && isReadingDone(outputStreamMonitor)) {
 						break;
 					}
+					if ((monitor != null && monitor.isCanceled()) || System.currentTimeMillis() >= deadline) {
+						// the process is destroyed below
+						abandoned = true;
+						break;
+					}
 					try {
 						Thread.sleep(50);
 					} catch (InterruptedException e) {
 						LaunchingPlugin.log(e);
 					}
 				}
-				checkProcessResult(process);
-				info = parseLibraryInfo(process);
+				if (!abandoned) {
+					checkProcessResult(process);
+					info = parseLibraryInfo(process);
+				}
 			} catch (Throwable ioe) {
 				LaunchingPlugin.log(ioe);
 			} finally {
@@ -737,7 +954,7 @@ public class StandardVMType extends AbstractVMInstallType {
 				}
 			}
 		}
-		if (info == null) {
+		if (info == null && (monitor == null || !monitor.isCanceled())) {
 		    // log error that we were unable to generate library information - see bug 70011
 		    LaunchingPlugin.log(NLS.bind("Failed to retrieve default libraries for {0}", new String[]{javaHome.getAbsolutePath()})); //$NON-NLS-1$
 		}
@@ -818,6 +1035,10 @@ public class StandardVMType extends AbstractVMInstallType {
             LaunchingPlugin.setLibraryInfo(path, null);
             fgFailedInstallPath.remove(path);
             fgDefaultLibLocs.remove(path);
+            LibraryDetectionJob detection = fgPendingDetections.remove(path);
+            if (detection != null) {
+            	detection.cancel();
+            }
 		}
 		super.disposeVMInstall(id);
 	}
@@ -886,7 +1107,7 @@ public class StandardVMType extends AbstractVMInstallType {
 		return null;
 	}
 
-	public synchronized String readReleaseVersion(File javaHome) {
+	public String readReleaseVersion(File javaHome) {
 
 		String version = ""; //$NON-NLS-1$
 
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2015 IBM Corporation and others.
+ * Copyright (c) 2000, 2022 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -464,9 +464,13 @@ public class VMDefinitionsContainer {
 		container.setDefaultVMInstallCompositeID(config.getAttribute("defaultVM")); //$NON-NLS-1$
 		container.setDefaultVMInstallConnectorTypeID(config.getAttribute("defaultVMConnector")); //$NON-NLS-1$
 
-		// Traverse the parsed structure and populate the VMType to VM Map
+		// Start detecting libraries of all VMs up front, so that validating
+		// the VMs below does not fork one detection process after the other
 		NodeList list = config.getChildNodes();
 		int length = list.getLength();
+		prefetchLibraryInfo(list);
+
+		// Traverse the parsed structure and populate the VMType to VM Map
 		for (int i = 0; i < length; ++i) {
 			Node node = list.item(i);
 			short type = node.getNodeType();
@@ -479,6 +483,35 @@ public class VMDefinitionsContainer {
 		}
 	}
 
+	/**
+	 * Schedules library detection for the install locations of all standard VMs
+	 * declared by the given VM type nodes.
+	 *
+	 * @param vmTypeNodes the children of the top-level 'vmSettings' node
+	 * @see StandardVMType#prefetchLibraryInfo(List)
+	 * @since 3.19.600
+	 */
+	private static void prefetchLibraryInfo(NodeList vmTypeNodes) {
+		for (int i = 0; i < vmTypeNodes.getLength(); ++i) {
+			Node node = vmTypeNodes.item(i);
+			if (node.getNodeType() == Node.ELEMENT_NODE && node.getNodeName().equalsIgnoreCase("vmType")) { //$NON-NLS-1$
+				Element vmTypeElement = (Element) node;
+				IVMInstallType vmType = JavaRuntime.getVMInstallType(vmTypeElement.getAttribute("id")); //$NON-NLS-1$
+				if (vmType instanceof StandardVMType) {
+					NodeList vmNodeList = vmTypeElement.getElementsByTagName("vm"); //$NON-NLS-1$
+					List<File> installLocations = new ArrayList<>(vmNodeList.getLength());
+					for (int j = 0; j < vmNodeList.getLength(); ++j) {
+						String installPath = ((Element) vmNodeList.item(j)).getAttribute("path"); //$NON-NLS-1$
+						if (installPath.length() > 0) {
+							installLocations.add(new File(installPath));
+						}
+					}
+					((StandardVMType) vmType).prefetchLibraryInfo(installLocations);
+				}
+			}
+		}
+	}
+
 	/**
 	 * For the specified VM type node, parse all subordinate VM definitions and add them
 	 * to the specified container.
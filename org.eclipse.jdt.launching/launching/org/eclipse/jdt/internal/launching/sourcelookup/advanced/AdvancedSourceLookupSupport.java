@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2015-2016 Igor Fedorenko
+ * Copyright (c) 2015, 2022 Igor Fedorenko
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -13,6 +13,7 @@
  *******************************************************************************/
 package org.eclipse.jdt.internal.launching.sourcelookup.advanced;
 
+import java.io.IOException;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
@@ -41,6 +42,9 @@ public class AdvancedSourceLookupSupport {
 	// TODO consider moving to LaunchingPlugin
 	public static final String ID_workspaceProjectDescribers = LaunchingPlugin.ID_PLUGIN + ".workspaceProjectDescribers"; //$NON-NLS-1$
 
+	// persistent file hash index, see FileHashing
+	private static final String FILE_HASHES_INDEX = "fileHashes.idx"; //$NON-NLS-1$
+
 	private static BackgroundProcessingJob backgroundJob;
 
 	private static volatile WorkspaceProjectSourceContainers workspaceProjects;
@@ -51,12 +55,20 @@ public class AdvancedSourceLookupSupport {
 
 	public static void start() {
 		backgroundJob = new BackgroundProcessingJob();
+		FileHashing.setIndexLocation(LaunchingPlugin.getDefault().getStateLocation().append(FILE_HASHES_INDEX).toFile());
 	}
 
 	public static void stop() {
 		backgroundJob.cancel();
 		backgroundJob = null;
 
+		try {
+			FileHashing.saveIndex();
+		}
+		catch (IOException e) {
+			LaunchingPlugin.log(e);
+		}
+
 		workspaceProjectsLock.lock();
 		try {
 			if (workspaceProjects != null) {
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2011-2016 Igor Fedorenko
+ * Copyright (c) 2011, 2022 Igor Fedorenko
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -13,43 +13,103 @@
  *******************************************************************************/
 package org.eclipse.jdt.internal.launching.sourcelookup.advanced;
 
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
 import java.io.File;
-import java.io.FileInputStream;
 import java.io.IOException;
-import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.LinkedHashMap;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
- * Helpers to compute file content digests. Provides long-lived hasher instance with bounded cache of most recently requested files, which is useful
- * to handle source lookup requests. Also provides factory of hasher instances with unbounded caches, which is useful to perform bulk workspace
- * indexing.
+ * Helpers to compute file content digests. Provides a long-lived hasher instance backed by a bounded index of the most recently requested files,
+ * which is useful to handle source lookup requests as well as bulk workspace indexing.
+ * <p>
+ * The index is keyed by file path, size and modification time. It can be persisted across restarts, see {@link #setIndexLocation(File)} and
+ * {@link #saveIndex()}.
  */
 public class FileHashing {
 
 	public static interface Hasher {
 		Object hash(File file);
+
+		/**
+		 * Returns the hashes of the given files, hashing files that are not indexed yet in parallel. Files that do not exist or can't be read are
+		 * mapped to {@code null}.
+		 */
+		Map<File, Object> hash(Collection<File> files);
+	}
+
+	// maximum number of files remembered by the index, both in memory and on disk
+	private static final int MAX_ENTRIES = 20000;
+
+	private static final int INDEX_VERSION = 1;
+
+	// files smaller than this are read, larger files are memory-mapped
+	private static final long MIN_MAPPED_SIZE = 256 * 1024;
+
+	private static final long MAPPED_REGION_SIZE = 64 * 1024 * 1024;
+
+	// on windows, a memory-mapped file can't be deleted or replaced until the mapping is garbage collected
+	private static final boolean MAPPED_READS = File.separatorChar != '\\';
+
+	private static final int HASHING_THREADS = Math.max(1, Math.min(4, Runtime.getRuntime().availableProcessors()));
+
+	private static final ExecutorService EXECUTOR;
+	static {
+		ThreadPoolExecutor executor = new ThreadPoolExecutor(HASHING_THREADS, HASHING_THREADS, 10, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), r -> {
+			Thread thread = new Thread(r, "File hashing"); //$NON-NLS-1$
+			thread.setDaemon(true);
+			return thread;
+		});
+		executor.allowCoreThreadTimeOut(true);
+		EXECUTOR = executor;
 	}
 
-	// default hasher with bounded cache.
-	// this is used when performing source lookup and number of unique files requested during the same debugging session is likely to be small.
-	private static final HasherImpl HASHER = new HasherImpl(5000);
+	private static final HasherImpl HASHER = new HasherImpl();
 
 	/**
-	 * Returns default long-lived Hasher instance with bounded hash cache.
+	 * Returns default long-lived Hasher instance.
 	 */
 	public static Hasher hasher() {
 		return HASHER;
 	}
 
 	/**
-	 * Returns new Hasher instance with unbounded hash cache, useful for bulk hashing of projects and their dependencies.
+	 * Sets the file the index is loaded from when it is first used, and saved to by {@link #saveIndex()}.
 	 */
-	public static Hasher newHasher() {
-		return new HasherImpl(HASHER);
+	public static void setIndexLocation(File file) {
+		HASHER.indexFile = file;
+	}
+
+	/**
+	 * Saves the index to its location, if it changed since it was loaded.
+	 */
+	public static void saveIndex() throws IOException {
+		HASHER.save();
 	}
 
 	private static class CacheKey {
@@ -60,9 +120,13 @@ public class FileHashing {
 		private final long lastModified;
 
 		public CacheKey(File file) throws IOException {
-			this.file = file.getCanonicalFile();
-			this.length = file.length();
-			this.lastModified = file.lastModified();
+			this(file.getCanonicalFile(), file.length(), file.lastModified());
+		}
+
+		CacheKey(File file, long length, long lastModified) {
+			this.file = file;
+			this.length = length;
+			this.lastModified = lastModified;
 		}
 
 		@Override
@@ -122,23 +186,29 @@ public class FileHashing {
 		private static final char[] hexDigits = "0123456789abcdef".toCharArray(); //$NON-NLS-1$
 	}
 
-	private static class HasherImpl implements Hasher {
+	private static class IndexEntry {
+		final HashCode hashCode;
 
-		private final Map<CacheKey, HashCode> cache;
+		// used to evict least recently used entries, races between concurrent readers are harmless
+		volatile long lastUsed;
 
-		@SuppressWarnings("serial")
-		public HasherImpl(int cacheSize) {
-			this.cache = new LinkedHashMap<CacheKey, HashCode>() {
-				@Override
-				protected boolean removeEldestEntry(Map.Entry<CacheKey, HashCode> eldest) {
-					return size() > cacheSize;
-				}
-			};
+		IndexEntry(HashCode hashCode, long lastUsed) {
+			this.hashCode = hashCode;
+			this.lastUsed = lastUsed;
 		}
+	}
 
-		public HasherImpl(HasherImpl initial) {
-			this.cache = new LinkedHashMap<>(initial.cache);
-		}
+	private static class HasherImpl implements Hasher {
+
+		private final Map<CacheKey, IndexEntry> index = new ConcurrentHashMap<>();
+
+		private final AtomicBoolean evicting = new AtomicBoolean();
+
+		volatile File indexFile;
+
+		private volatile boolean loaded;
+
+		private volatile boolean dirty;
 
 		@Override
 		public Object hash(File file) {
@@ -147,16 +217,10 @@ public class FileHashing {
 			}
 			try {
 				CacheKey cacheKey = new CacheKey(file);
-				synchronized (cache) {
-					HashCode hashCode = cache.get(cacheKey);
-					if (hashCode != null) {
-						return hashCode;
-					}
-				}
-				// don't hold cache lock while hashing file
-				HashCode hashCode = sha1(file);
-				synchronized (cache) {
-					cache.put(cacheKey, hashCode);
+				HashCode hashCode = get(cacheKey);
+				if (hashCode == null) {
+					hashCode = sha1(file);
+					put(cacheKey, hashCode);
 				}
 				return hashCode;
 			}
@@ -165,6 +229,147 @@ public class FileHashing {
 			}
 		}
 
+		@Override
+		public Map<File, Object> hash(Collection<File> files) {
+			Map<File, Object> result = new HashMap<>();
+			Map<File, CompletableFuture<HashCode>> misses = new HashMap<>();
+			for (File file : files) {
+				if (file == null || result.containsKey(file) || misses.containsKey(file)) {
+					continue;
+				}
+				if (!file.isFile()) {
+					result.put(file, null);
+					continue;
+				}
+				try {
+					CacheKey cacheKey = new CacheKey(file);
+					HashCode hashCode = get(cacheKey);
+					if (hashCode != null) {
+						result.put(file, hashCode);
+					} else {
+						misses.put(file, CompletableFuture.supplyAsync(() -> {
+							try {
+								HashCode computed = sha1(file);
+								put(cacheKey, computed);
+								return computed;
+							}
+							catch (IOException e) {
+								return null;
+							}
+						}, EXECUTOR));
+					}
+				}
+				catch (IOException e) {
+					result.put(file, null);
+				}
+			}
+			misses.forEach((file, future) -> result.put(file, future.join()));
+			return result;
+		}
+
+		private HashCode get(CacheKey cacheKey) {
+			ensureLoaded();
+			IndexEntry entry = index.get(cacheKey);
+			if (entry == null) {
+				return null;
+			}
+			entry.lastUsed = System.currentTimeMillis();
+			return entry.hashCode;
+		}
+
+		private void put(CacheKey cacheKey, HashCode hashCode) {
+			index.put(cacheKey, new IndexEntry(hashCode, System.currentTimeMillis()));
+			dirty = true;
+			if (index.size() > MAX_ENTRIES && evicting.compareAndSet(false, true)) {
+				try {
+					// evict a quarter of the entries at once, so that sorting is rare
+					List<Map.Entry<CacheKey, IndexEntry>> entries = new ArrayList<>(index.entrySet());
+					entries.sort(Comparator.comparingLong(e -> e.getValue().lastUsed));
+					for (int i = 0; i < entries.size() - MAX_ENTRIES * 3 / 4; i++) {
+						index.remove(entries.get(i).getKey(), entries.get(i).getValue());
+					}
+				}
+				finally {
+					evicting.set(false);
+				}
+			}
+		}
+
+		private void ensureLoaded() {
+			if (loaded) {
+				return;
+			}
+			synchronized (this) {
+				if (loaded) {
+					return;
+				}
+				File file = indexFile;
+				if (file != null && file.isFile()) {
+					try {
+						load(file);
+					}
+					catch (IOException e) {
+						index.clear(); // corrupted index, start over
+					}
+				}
+				loaded = true;
+			}
+		}
+
+		private void load(File file) throws IOException {
+			try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file.toPath())))) {
+				if (in.readInt() != INDEX_VERSION) {
+					return;
+				}
+				int count = in.readInt();
+				for (int i = 0; i < count; i++) {
+					CacheKey cacheKey = new CacheKey(new File(in.readUTF()), in.readLong(), in.readLong());
+					long lastUsed = in.readLong();
+					byte[] bytes = new byte[in.readUnsignedByte()];
+					in.readFully(bytes);
+					index.putIfAbsent(cacheKey, new IndexEntry(new HashCode(bytes), lastUsed));
+				}
+			}
+		}
+
+		void save() throws IOException {
+			File file = indexFile;
+			if (file == null || !loaded || !dirty) {
+				return;
+			}
+			dirty = false;
+			List<Map.Entry<CacheKey, IndexEntry>> entries = new ArrayList<>(index.entrySet());
+			entries.sort(Comparator.comparingLong(e -> -e.getValue().lastUsed));
+			if (entries.size() > MAX_ENTRIES) {
+				entries = entries.subList(0, MAX_ENTRIES);
+			}
+			Path temp = Files.createTempFile(file.getParentFile().toPath(), file.getName(), ".tmp"); //$NON-NLS-1$
+			try {
+				try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+					out.writeInt(INDEX_VERSION);
+					out.writeInt(entries.size());
+					for (Map.Entry<CacheKey, IndexEntry> entry : entries) {
+						CacheKey cacheKey = entry.getKey();
+						out.writeUTF(cacheKey.file.getPath());
+						out.writeLong(cacheKey.length);
+						out.writeLong(cacheKey.lastModified);
+						out.writeLong(entry.getValue().lastUsed);
+						byte[] bytes = entry.getValue().hashCode.bytes;
+						out.writeByte(bytes.length);
+						out.write(bytes);
+					}
+				}
+				try {
+					Files.move(temp, file.toPath(), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+				}
+				catch (AtomicMoveNotSupportedException e) {
+					Files.move(temp, file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+				}
+			}
+			finally {
+				Files.deleteIfExists(temp);
+			}
+		}
 	}
 
 	private static HashCode sha1(File file) throws IOException {
@@ -175,11 +380,19 @@ public class FileHashing {
 		catch (NoSuchAlgorithmException e) {
 			throw new IllegalStateException("Unsupported JVM", e); //$NON-NLS-1$
 		}
-		byte[] buf = new byte[4096];
-		try (InputStream is = new FileInputStream(file)) {
-			int len;
-			while ((len = is.read(buf)) > 0) {
-				digest.update(buf, 0, len);
+		try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+			long size = channel.size();
+			if (MAPPED_READS && size >= MIN_MAPPED_SIZE) {
+				for (long position = 0; position < size; position += MAPPED_REGION_SIZE) {
+					digest.update(channel.map(MapMode.READ_ONLY, position, Math.min(MAPPED_REGION_SIZE, size - position)));
+				}
+			} else {
+				ByteBuffer buf = ByteBuffer.allocate(64 * 1024);
+				while (channel.read(buf) > 0) {
+					buf.flip();
+					digest.update(buf);
+					buf.clear();
+				}
 			}
 		}
 		return new HashCode(digest.digest());
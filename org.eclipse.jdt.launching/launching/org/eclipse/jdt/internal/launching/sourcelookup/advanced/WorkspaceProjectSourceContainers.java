@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2012-2016 Igor Fedorenko
+ * Copyright (c) 2012, 2022 Igor Fedorenko
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -311,10 +311,10 @@ public class WorkspaceProjectSourceContainers {
 
 		SubMonitor progress = SubMonitor.convert(monitor, javaProjects.length);
 
-		// TODO this can take significant time for large workspaces, consider running on multiple threads
-		// NB: can't persist state across restarts because java element change events are not delivered when this plugin isn't active
+		// NB: project locations are rebuilt on every start because java element change events are not delivered when this plugin isn't active.
+		// File hashes are kept in the persistent FileHashing index, so only files changed since the last session are hashed again.
 
-		Hasher hasher = FileHashing.newHasher(); // short-lived hasher for bulk workspace indexing
+		Hasher hasher = FileHashing.hasher(); // misses are hashed in parallel, see #addJavaProject
 
 		List<IWorkspaceProjectDescriber> describers = getJavaProjectDescribers();
 		for (IJavaProject project : javaProjects) {
@@ -349,16 +349,21 @@ public class WorkspaceProjectSourceContainers {
 		// make binary project support little easier to implement
 		locations.forEach(location -> dependencies.remove(location));
 
+		// hash all locations at once, files that were not hashed before are hashed in parallel
+		List<File> files = new ArrayList<>(locations);
+		files.addAll(dependencies.keySet());
+		Map<File, Object> fileHashes = hasher.hash(files);
+
 		Set<Object> hashes = new HashSet<>();
 		locations.forEach(location -> {
-			Object hash = hasher.hash(location);
+			Object hash = fileHashes.get(location);
 			if (hash != null) {
 				hashes.add(hash);
 			}
 		});
 
 		Map<Object, IPackageFragmentRoot> dependencyHashes = new HashMap<>();
-		dependencies.forEach((location, packageFragmentRoot) -> dependencyHashes.put(hasher.hash(location), packageFragmentRoot));
+		dependencies.forEach((location, packageFragmentRoot) -> dependencyHashes.put(fileHashes.get(location), packageFragmentRoot));
 
 		JavaProjectDescription info = new JavaProjectDescription(locations, hashes, factories, dependencies, dependencyHashes);
 
@@ -433,7 +438,7 @@ public class WorkspaceProjectSourceContainers {
 			removeJavaProject(project);
 		}
 		List<IWorkspaceProjectDescriber> describers = getJavaProjectDescribers();
-		Hasher hasher = FileHashing.newHasher();
+		Hasher hasher = FileHashing.hasher();
 		for (IJavaProject project : add) {
 			addJavaProject(project, describers, hasher, progress.split(1));
 		}
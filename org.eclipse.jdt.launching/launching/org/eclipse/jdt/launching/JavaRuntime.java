@@ -84,6 +84,7 @@ import org.eclipse.jdt.internal.launching.JREContainerInitializer;
 import org.eclipse.jdt.internal.launching.JavaSourceLookupUtil;
 import org.eclipse.jdt.internal.launching.LaunchingMessages;
 import org.eclipse.jdt.internal.launching.LaunchingPlugin;
+import org.eclipse.jdt.internal.launching.RuntimeClasspathCache;
 import org.eclipse.jdt.internal.launching.RuntimeClasspathEntry;
 import org.eclipse.jdt.internal.launching.RuntimeClasspathEntryResolver;
 import org.eclipse.jdt.internal.launching.RuntimeClasspathProvider;
@@ -1658,6 +1659,104 @@ public final class JavaRuntime {
 	 * @since 2.0
 	 */
 	public static IRuntimeClasspathEntry[] resolveRuntimeClasspath(IRuntimeClasspathEntry[] entries, ILaunchConfiguration configuration) throws CoreException {
+		long start = System.currentTimeMillis();
+		RuntimeClasspathCache cache = null;
+		if (getClasspathProvider(configuration).getClass() == StandardClasspathProvider.class && isCacheable(entries, configuration)) {
+			// only the standard provider is known to depend on nothing but the project classpaths
+			cache = LaunchingPlugin.getDefault().getRuntimeClasspathCache();
+		}
+		IRuntimeClasspathEntry[] resolved = cache != null ? cache.get(entries, configuration) : null;
+		boolean cached = resolved != null;
+		if (resolved == null) {
+			long generation = cache != null ? cache.getGeneration() : 0;
+			resolved = doResolveRuntimeClasspath(entries, configuration);
+			if (cache != null) {
+				cache.put(entries, configuration, generation, resolved);
+			}
+		}
+		if (LaunchingPlugin.DEBUG_CLASSPATH_RESOLUTION) {
+			LaunchingPlugin.trace(LaunchingPlugin.DEBUG_CLASSPATH_RESOLUTION_FLAG, NLS.bind("Resolved runtime classpath of {0} in {1}ms ({2} entries, {3})", //$NON-NLS-1$
+					new Object[] { configuration.getName(), Long.toString(System.currentTimeMillis() - start),
+							Integer.toString(resolved.length), cached ? "cached" : "computed" }), null); //$NON-NLS-1$ //$NON-NLS-2$
+		}
+		return resolved;
+	}
+
+	/**
+	 * Returns whether the given unresolved entries are resolved from nothing but
+	 * the Java model and the installed JREs, whose changes invalidate the
+	 * {@link RuntimeClasspathCache}. String substitution and contributed resolvers
+	 * may resolve to different entries without notice. Changes of classpath
+	 * variables are only reported for the projects that use them, so variables are
+	 * only accepted in the default classpath of a configuration.
+	 *
+	 * @param entries unresolved classpath
+	 * @param configuration launch configuration
+	 * @return whether the resolved classpath can be cached
+	 * @exception CoreException if the attributes of the configuration cannot be read
+	 */
+	private static boolean isCacheable(IRuntimeClasspathEntry[] entries, ILaunchConfiguration configuration) throws CoreException {
+		boolean useDefault = configuration.getAttribute(IJavaLaunchConfigurationConstants.ATTR_DEFAULT_CLASSPATH, true);
+		for (IRuntimeClasspathEntry entry : entries) {
+			switch (entry.getType()) {
+				case IRuntimeClasspathEntry.PROJECT:
+				case IRuntimeClasspathEntry.ARCHIVE:
+					break;
+				case IRuntimeClasspathEntry.VARIABLE:
+					String variable = entry.getVariableName();
+					if (!JRELIB_VARIABLE.equals(variable) && (!useDefault || getVariableResolver(variable) != null)) {
+						return false;
+					}
+					break;
+				case IRuntimeClasspathEntry.CONTAINER:
+					String containerId = entry.getPath().segment(0);
+					if (!JRE_CONTAINER.equals(containerId) && getContainerResolver(containerId) != null) {
+						return false;
+					}
+					break;
+				case IRuntimeClasspathEntry.OTHER:
+					if (!(entry instanceof DefaultProjectClasspathEntry) || hasContributedResolvers()) {
+						return false;
+					}
+					break;
+				default:
+					return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Returns whether resolvers other than the ones for JREs are registered for
+	 * variables or containers. The entries of a project classpath may be resolved
+	 * by them.
+	 *
+	 * @return whether variables or containers may be resolved by contributed resolvers
+	 */
+	private static boolean hasContributedResolvers() {
+		for (String variable : getVariableResolvers().keySet()) {
+			if (!JRELIB_VARIABLE.equals(variable)) {
+				return true;
+			}
+		}
+		for (String containerId : getContainerResolvers().keySet()) {
+			if (!JRE_CONTAINER.equals(containerId)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Resolves the given classpath in the context of the given launch configuration,
+	 * without consulting the {@link RuntimeClasspathCache}.
+	 *
+	 * @param entries unresolved classpath
+	 * @param configuration launch configuration
+	 * @return resolved runtime classpath entries
+	 * @exception CoreException if unable to compute the classpath
+	 */
+	private static IRuntimeClasspathEntry[] doResolveRuntimeClasspath(IRuntimeClasspathEntry[] entries, ILaunchConfiguration configuration) throws CoreException {
 		if (!isModularConfiguration(configuration)) {
 			return getClasspathProvider(configuration).resolveClasspath(entries, configuration);
 		}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2015 IBM Corporation and others.
+ * Copyright (c) 2000, 2022 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -31,6 +31,7 @@ import org.eclipse.jdt.core.IPackageFragmentRoot;
 import org.eclipse.jdt.core.JavaCore;
 import org.eclipse.jdt.core.JavaModelException;
 import org.eclipse.jdt.internal.debug.core.JavaDebugUtils;
+import org.eclipse.jdt.internal.launching.JavaSourceLookupIndex;
 
 /**
  * A source lookup participant that searches for Java source code.
@@ -49,6 +50,12 @@ public class JavaSourceLookupParticipant extends AbstractSourceLookupParticipant
 	 */
 	private Map<ISourceContainer, PackageFragmentRootSourceContainer> fDelegateContainers;
 
+	/**
+	 * Index of the source containers of the director, narrows down the
+	 * containers that are searched for a source.
+	 */
+	private JavaSourceLookupIndex fIndex;
+
 	/**
 	 * Returns the source name associated with the given object, or <code>null</code>
 	 * if none.
@@ -75,6 +82,7 @@ public class JavaSourceLookupParticipant extends AbstractSourceLookupParticipant
 			container.dispose();
 		}
 		fDelegateContainers = null;
+		fIndex.dispose();
 		super.dispose();
 
 	}
@@ -86,9 +94,9 @@ public class JavaSourceLookupParticipant extends AbstractSourceLookupParticipant
 	protected ISourceContainer getDelegateContainer(ISourceContainer container) {
 		ISourceContainer delegate = fDelegateContainers.get(container);
 		if (delegate == null) {
-			return container;
+			delegate = container;
 		}
-		return delegate;
+		return fIndex.getIndexedContainer(delegate);
 	}
 	/* (non-Javadoc)
 	 * @see org.eclipse.debug.internal.core.sourcelookup.ISourceLookupParticipant#init(org.eclipse.debug.internal.core.sourcelookup.ISourceLookupDirector)
@@ -97,6 +105,7 @@ public class JavaSourceLookupParticipant extends AbstractSourceLookupParticipant
 	public void init(ISourceLookupDirector director) {
 		super.init(director);
 		fDelegateContainers = new HashMap<>();
+		fIndex = new JavaSourceLookupIndex(director);
 	}
 	/* (non-Javadoc)
 	 * @see org.eclipse.debug.internal.core.sourcelookup.ISourceLookupParticipant#sourceContainersChanged(org.eclipse.debug.internal.core.sourcelookup.ISourceLookupDirector)
@@ -135,5 +144,11 @@ public class JavaSourceLookupParticipant extends AbstractSourceLookupParticipant
 				}
 			}
 		}
+		ISourceContainer[] delegates = new ISourceContainer[containers.length];
+		for (int i = 0; i < containers.length; i++) {
+			ISourceContainer delegate = fDelegateContainers.get(containers[i]);
+			delegates[i] = delegate == null ? containers[i] : delegate;
+		}
+		fIndex.setSourceContainers(delegates);
 	}
 }